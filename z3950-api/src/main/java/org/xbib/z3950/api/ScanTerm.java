@@ -0,0 +1,32 @@
+package org.xbib.z3950.api;
+
+import java.nio.charset.Charset;
+
+/**
+ * A term of an index, as returned by scan.
+ */
+public interface ScanTerm {
+
+    /**
+     * Returns the octets of the term.
+     *
+     * @return the term
+     */
+    byte[] getTerm();
+
+    String getTerm(Charset charset);
+
+    /**
+     * Returns the display term.
+     *
+     * @return the display term, or null if the target has not given one
+     */
+    String getDisplayTerm();
+
+    /**
+     * Returns the number of records with the term.
+     *
+     * @return the global occurrences, or -1 if the target has not given them
+     */
+    int getGlobalOccurrences();
+}
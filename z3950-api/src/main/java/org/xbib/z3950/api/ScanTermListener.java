@@ -0,0 +1,7 @@
+package org.xbib.z3950.api;
+
+@FunctionalInterface
+public interface ScanTermListener {
+
+    void onTerm(ScanTerm term);
+}
@@ -6,4 +6,15 @@ import java.io.IOException;
 public interface SearchListener {
 
     void onResponse(int status, int total, int returned, long elapsedMillis) throws IOException;
+
+    /**
+     * Called when the search response has arrived, before any record is presented.
+     * A search that reuses the result set of an earlier search responds at once.
+     *
+     * @param total the number of hits
+     * @param elapsedMillis the time from the search request to the search response
+     * @throws IOException if the listener fails
+     */
+    default void onSearchResponse(int total, long elapsedMillis) throws IOException {
+    }
 }
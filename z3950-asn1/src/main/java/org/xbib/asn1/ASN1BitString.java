@@ -57,15 +57,15 @@ public final class ASN1BitString extends ASN1Any {
         }
         if (berEncoding instanceof BERPrimitive) {
             BERPrimitive ber = (BERPrimitive) berEncoding;
-            int[] encoding = ber.getContentOctets();
-            if (encoding.length < 1) {
-                throw new ASN1EncodingException("ASN1 BIT STRING: invalid encoding, length = " + encoding.length);
+            int length = ber.getContentLength();
+            if (length < 1) {
+                throw new ASN1EncodingException("ASN1 BIT STRING: invalid encoding, length = " + length);
             }
-            int unusedBits = encoding[0] & 0x07;
-            int numBits = (encoding.length - 1) * 8 - unusedBits;
+            int unusedBits = ber.octetAt(0) & 0x07;
+            int numBits = (length - 1) * 8 - unusedBits;
             bits = new boolean[numBits];
             for (int bit = 0; bit < numBits; bit++) {
-                int octet = encoding[bit / 8 + 1];
+                int octet = ber.octetAt(bit / 8 + 1);
                 octet <<= (bit % 8);
                 bits[bit] = (octet & 0x80) != 0;
             }
@@ -102,18 +102,19 @@ public final class ASN1BitString extends ASN1Any {
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
         int numOctets = (bits.length + 7) / 8;
-        int[] encoding = new int[numOctets + 1];
-        encoding[0] = (numOctets * 8) - bits.length;
+        byte[] encoding = new byte[numOctets + 1];
+        encoding[0] = (byte) ((numOctets * 8) - bits.length);
         for (int count = 1; count <= numOctets; count++) {
-            encoding[count] = 0x00;
+            int octet = 0x00;
             int bitBaseIndex = (count - 1) * 8;
             for (int bitIndex = 0; bitIndex < 8; bitIndex++) {
                 int n = bitBaseIndex + bitIndex;
-                encoding[count] <<= 1;
+                octet <<= 1;
                 if (n < bits.length && bits[n]) {
-                    encoding[count] |= 0x01;
+                    octet |= 0x01;
                 }
             }
+            encoding[count] = (byte) octet;
         }
         return new BERPrimitive(tagType, tag, encoding);
     }
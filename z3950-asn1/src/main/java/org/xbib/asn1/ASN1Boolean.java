@@ -55,11 +55,10 @@ public final class ASN1Boolean extends ASN1Any {
         }
         if (berEncoding instanceof BERPrimitive) {
             BERPrimitive ber = (BERPrimitive) berEncoding;
-            int[] encoding = ber.getContentOctets();
-            if (encoding.length != 1) {
-                throw new ASN1EncodingException("ASN.1 BOOLEAN: invalid encoding, length = " + encoding.length);
+            if (ber.getContentLength() != 1) {
+                throw new ASN1EncodingException("ASN.1 BOOLEAN: invalid encoding, length = " + ber.getContentLength());
             }
-            value = encoding[0] != 0;
+            value = ber.octetAt(0) != 0;
         } else {
             throw new ASN1EncodingException
                     ("ASN.1 BOOLEAN: bad BER: decoding constructed NOT IMPLEMENTED YET");
@@ -88,9 +87,9 @@ public final class ASN1Boolean extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int[] encoding = new int[1];
+        byte[] encoding = new byte[1];
         if (value) {
-            encoding[0] = 0xff; // TRUE (in fact, any non-zero will do)
+            encoding[0] = (byte) 0xff; // TRUE (in fact, any non-zero will do)
         } else {
             encoding[0] = 0x00; // FALSE
         }
@@ -61,14 +61,14 @@ public final class ASN1Enumerated extends ASN1Any {
             throw new ASN1EncodingException("bad form, constructed");
         }
         BERPrimitive ber = (BERPrimitive) berEncoding;
-        int[] encoding = ber.getContentOctets();
-        if (encoding.length < 1) {
-            throw new ASN1EncodingException("invalid encoding, length = " + encoding.length);
+        int length = ber.getContentLength();
+        if (length < 1) {
+            throw new ASN1EncodingException("invalid encoding, length = " + length);
         }
-        value = (byte) encoding[0]; // to ensure sign extension
-        for (int x = 1; x < encoding.length; x++) {
+        value = (byte) ber.octetAt(0); // to ensure sign extension
+        for (int x = 1; x < length; x++) {
             value <<= 8;
-            value |= (encoding[x] & 0xff);
+            value |= ber.octetAt(x);
         }
     }
 
@@ -108,10 +108,10 @@ public final class ASN1Enumerated extends ASN1Any {
         if (needPad) {
             length++;
         }
-        int[] encoding = new int[length];
+        byte[] encoding = new byte[length];
         int index = 0;
         while (0 < length) {
-            encoding[index++] = (value >> (8 * (length - 1))) & 0xff;
+            encoding[index++] = (byte) (value >> (8 * (length - 1)));
             length--;
         }
         return new BERPrimitive(tagType, tag, encoding);
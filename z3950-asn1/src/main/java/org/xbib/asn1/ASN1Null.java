@@ -71,7 +71,7 @@ public final class ASN1Null extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int[] encoding = new int[0];
+        byte[] encoding = new byte[0];
         return new BERPrimitive(tagType, tag, encoding);
     }
 
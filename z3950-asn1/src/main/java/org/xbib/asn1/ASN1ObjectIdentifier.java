@@ -58,26 +58,26 @@ public final class ASN1ObjectIdentifier extends ASN1Any {
             throw new ASN1EncodingException("bad form, constructed");
         }
         BERPrimitive ber = (BERPrimitive) berEncoding;
-        int[] encoding = ber.getContentOctets();
-        if (encoding.length < 2) {
+        int length = ber.getContentLength();
+        if (length < 2) {
             throw new ASN1EncodingException("invalid encoding, length = " +
-                            encoding.length);
+                            length);
         }
         int numComponents = 2;
-        for (int index = 1; index < encoding.length; index++) {
-            if ((encoding[index] & 0x80) == 0) {
+        for (int index = 1; index < length; index++) {
+            if ((ber.octetAt(index) & 0x80) == 0) {
                 numComponents++;
             }
         }
         oid = new int[numComponents];
-        oid[0] = encoding[0] / 40;
-        oid[1] = encoding[0] % 40;
+        oid[0] = ber.octetAt(0) / 40;
+        oid[1] = ber.octetAt(0) % 40;
         int index = 1;
         for (int component = 2; component < numComponents; component++) {
             oid[component] = 0;
             int octet;
             do {
-                octet = encoding[index++];
+                octet = ber.octetAt(index++);
                 oid[component] <<= 7;
                 oid[component] |= (octet & 0x7f);
             } while ((octet & 0x80) != 0);
@@ -134,8 +134,8 @@ public final class ASN1ObjectIdentifier extends ASN1Any {
                 tmpValue >>= 7;
             } while (tmpValue != 0);
         }
-        int[] octets = new int[numBytes];
-        octets[0] = (40 * oid[0]) + oid[1];
+        byte[] octets = new byte[numBytes];
+        octets[0] = (byte) ((40 * oid[0]) + oid[1]);
         int bcount = 0;
         for (int index = 2; index < oid.length; index++) {
             int numberBytes = 0;
@@ -146,10 +146,11 @@ public final class ASN1ObjectIdentifier extends ASN1Any {
             } while (tmpValue != 0);
             tmpValue = oid[index];
             for (int digit = numberBytes - 1; 0 <= digit; digit--) {
-                octets[++bcount] = (tmpValue >> (digit * 7)) & 0x7f;
+                int octet = (tmpValue >> (digit * 7)) & 0x7f;
                 if (digit != 0) {
-                    octets[bcount] |= 0x80;
+                    octet |= 0x80;
                 }
+                octets[++bcount] = (byte) octet;
             }
         }
         return new BERPrimitive(tagType, tag, octets);
@@ -1,7 +1,9 @@
 package org.xbib.asn1;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * Representation of an ASN.1 OCTET STRING.
@@ -22,12 +24,16 @@ public class ASN1OctetString extends ASN1Any {
             'a', 'b', 'c', 'd', 'e', 'f'};
 
     /**
-     * The values of the OCTET STRING are stored in this string. Only
-     * the lower bytes are valid.
+     * The values of the OCTET STRING are stored in this array, starting at
+     * offset. When decoded from BER, the array is the buffer of the received
+     * PDU and is shared, not copied.
      */
-
     private byte[] octets;
 
+    private int offset;
+
+    private int length;
+
     private final Charset charset;
 
     /**
@@ -36,9 +42,24 @@ public class ASN1OctetString extends ASN1Any {
      * @param data data
      */
     public ASN1OctetString(byte[] data) {
-        octets = new byte[data.length];
         this.charset = StandardCharsets.ISO_8859_1;
-        System.arraycopy(data, 0, octets, 0, data.length);
+        this.octets = Arrays.copyOf(data, data.length);
+        this.length = data.length;
+    }
+
+    /**
+     * Constructor for an OCTET STRING object that is a slice of the given buffer.
+     * The buffer is not copied.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the octets in the buffer
+     * @param length the number of octets
+     */
+    public ASN1OctetString(byte[] buffer, int offset, int length) {
+        this.charset = StandardCharsets.ISO_8859_1;
+        this.octets = buffer;
+        this.offset = offset;
+        this.length = length;
     }
 
     /**
@@ -52,8 +73,9 @@ public class ASN1OctetString extends ASN1Any {
     }
 
     public ASN1OctetString(String str, Charset charset) {
-        this.octets = str.getBytes(charset);
         this.charset = charset;
+        this.octets = str.getBytes(charset);
+        this.length = octets.length;
     }
 
     /**
@@ -65,7 +87,7 @@ public class ASN1OctetString extends ASN1Any {
      */
     public ASN1OctetString(BEREncoding ber, boolean checkTag) throws ASN1Exception {
         this.charset = StandardCharsets.ISO_8859_1;
-        berDecode(ber, checkTag);
+        decode(ber, checkTag);
     }
 
     /**
@@ -78,6 +100,10 @@ public class ASN1OctetString extends ASN1Any {
     @Override
     public void berDecode(BEREncoding berEncoding, boolean checkTag)
             throws ASN1EncodingException {
+        decode(berEncoding, checkTag);
+    }
+
+    private void decode(BEREncoding berEncoding, boolean checkTag) throws ASN1EncodingException {
         if (checkTag && (berEncoding.getTag() != OCTET_STRING_TAG ||
                     berEncoding.getTagType() != BEREncoding.UNIVERSAL_TAG)) {
             throw new ASN1EncodingException("bad BER: tag=" + berEncoding.getTag() +
@@ -85,12 +111,9 @@ public class ASN1OctetString extends ASN1Any {
         }
         if (berEncoding instanceof BERPrimitive) {
             BERPrimitive ber = (BERPrimitive) berEncoding;
-            int[] encoding = ber.getContentOctets();
-            StringBuilder buf = new StringBuilder(encoding.length);
-            for (int anEncoding : encoding) {
-                buf.append((char) (anEncoding & 0x00ff));
-            }
-            octets = buf.toString().getBytes(charset);
+            octets = ber.getBuffer();
+            offset = ber.getContentOffset();
+            length = ber.getContentLength();
         } else {
             throw new ASN1EncodingException("decode from constructed NOT IMPLEMENTED YET");
         }
@@ -123,12 +146,7 @@ public class ASN1OctetString extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int size = octets.length;
-        int[] encoding = new int[size];
-        for (int index = 0; index < size; index++) {
-            encoding[index] = octets[index] & 0x00ff;
-        }
-        return new BERPrimitive(tagType, tag, encoding);
+        return new BERPrimitive(tagType, tag, octets, offset, length);
     }
 
     /**
@@ -140,6 +158,8 @@ public class ASN1OctetString extends ASN1Any {
     public ASN1OctetString set(byte[] octetArray) {
         octets = new byte[octetArray.length];
         System.arraycopy(octetArray, 0, octets, 0, octetArray.length);
+        offset = 0;
+        length = octetArray.length;
         return this;
     }
 
@@ -151,6 +171,8 @@ public class ASN1OctetString extends ASN1Any {
      */
     public ASN1OctetString set(String str) {
         octets = str.getBytes(charset);
+        offset = 0;
+        length = octets.length;
         return this;
     }
 
@@ -160,29 +182,70 @@ public class ASN1OctetString extends ASN1Any {
      * @return the OCTET STRING's current value.
      */
     public String get() {
-        return new String(octets, charset);
+        return new String(octets, offset, length, charset);
     }
 
     /**
      * Method to get the OCTET STRING's value as an array of bytes.
+     * If the OCTET STRING is a slice of a larger buffer, the octets are copied.
      *
      * @return the OCTET STRING's current value.
      */
     public byte[] getBytes() {
+        if (offset == 0 && length == octets.length) {
+            return octets;
+        }
+        return Arrays.copyOfRange(octets, offset, offset + length);
+    }
+
+    /**
+     * Returns the buffer holding the OCTET STRING's value. The value starts at
+     * {@link #getOffset()} and is {@link #getLength()} octets long.
+     * Use this to access decoded octets without copying.
+     *
+     * @return the buffer
+     */
+    public byte[] getBuffer() {
         return octets;
     }
 
+    /**
+     * Returns the offset of the OCTET STRING's value in the buffer.
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of octets in the OCTET STRING.
+     *
+     * @return the length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns a read-only view of the OCTET STRING's value, without copying.
+     *
+     * @return the byte buffer
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(octets, offset, length).slice().asReadOnlyBuffer();
+    }
+
     /**
      * Returns a new String object representing this ASN.1 object's value.
      */
     @Override
     public String toString() {
-        int size = octets.length;
-        StringBuilder buf = new StringBuilder(32 + (size * 4));
+        StringBuilder buf = new StringBuilder(32 + (length * 4));
         int printable = 0;
         int binary = 0;
-        for (byte octet1 : octets) {
-            char octet = (char) octet1;
+        for (int i = offset; i < offset + length; i++) {
+            char octet = (char) octets[i];
             if ((' ' <= octet && octet <= '~') || octet == '\n') {
                 printable++;
             } else {
@@ -191,8 +254,8 @@ public class ASN1OctetString extends ASN1Any {
         }
         if (binary <= printable) {
             buf.append('"');
-            for (byte octet1 : octets) {
-                char octet = (char) octet1;
+            for (int i = offset; i < offset + length; i++) {
+                char octet = (char) octets[i];
                 if (' ' <= octet && octet <= '~') {
                     if (octet == '\\' || octet == '"' || octet == '\'') {
                         buf.append('\\');
@@ -218,8 +281,8 @@ public class ASN1OctetString extends ASN1Any {
             buf.append('"');
         } else {
             buf.append('\'');
-            for (byte octet1 : octets) {
-                char octet = (char) octet1;
+            for (int i = offset; i < offset + length; i++) {
+                char octet = (char) octets[i];
                 buf.append(hex[(octet >> 4) & 0x0f]);
                 buf.append(hex[octet & 0x0f]);
             }
@@ -27,12 +27,28 @@ public class BERConstructed extends BEREncoding {
      */
     public BERConstructed(int asn1Class, int tag, BEREncoding[] elements)
             throws ASN1Exception {
+        super(asn1Class, true, tag, contentLength(elements));
+        contentElements = elements;
+    }
+
+    /**
+     * Constructor for subclasses that provide their components on demand.
+     *
+     * @param asn1Class The tag type.
+     * @param tag       The tag number.
+     * @param contentLength The length of the content octets.
+     * @throws ASN1Exception If tag or tag type is invalid
+     */
+    protected BERConstructed(int asn1Class, int tag, int contentLength) throws ASN1Exception {
+        super(asn1Class, true, tag, contentLength);
+    }
+
+    private static int contentLength(BEREncoding[] elements) {
         int contentLength = 0;
         for (BEREncoding element : elements) {
             contentLength += element.totalLength;
         }
-        init(asn1Class, true, tag, contentLength);
-        contentElements = elements;
+        return contentLength;
     }
 
     public BEREncoding[] getContentElements() {
@@ -82,24 +98,24 @@ public class BERConstructed extends BEREncoding {
                 break;
         }
         str.append(String.valueOf(tag)).append("]{");
-        for (int x = 0; x < contentElements.length; x++) {
+        for (int x = 0; x < numberComponents(); x++) {
             if (x != 0) {
                 str.append(',');
             }
-            str.append(contentElements[x].toString());
+            str.append(elementAt(x).toString());
         }
         str.append('}');
         return new String(str);
     }
 
     /**
-     * This protected method is used to implement the "get_encoding" method.
+     * Places the encoding into the data array, starting at offset.
      */
     @Override
-    protected int getEncoding(int offset, byte[] data) {
+    public int getEncoding(int offset, byte[] data) {
         int i = getHead(offset, data);
-        for (BEREncoding contentElement : contentElements) {
-            i = contentElement.getEncoding(i, data);
+        for (int x = 0; x < numberComponents(); x++) {
+            i = elementAt(x).getEncoding(i, data);
         }
         return i;
     }
@@ -67,24 +67,38 @@ public abstract class BEREncoding {
     /**
      * Storage for the identifier octets. This variable is set up by
      * calling the make_identifer method.
-     * The octets are internally stored as int[] for efficiency over byte[].
      */
-    private int[] identifierEncoding;
+    private byte[] identifierEncoding;
     /**
      * Storage for the length encoding octets. This will be set up by
      * calling the makeLength method.
-     * The octets are internally stored as int[] for efficiency over byte[].
      */
-    private int[] lengthEncoding;
+    private byte[] lengthEncoding;
 
     public BEREncoding() {
     }
 
-    public int[] getIdentifierEncoding() {
+    /**
+     * Constructor for subclasses that know their identifier and content length when they are created.
+     * The length must be the total length of the encoding of the contents.
+     *
+     * @param tagType       The tag type.
+     * @param isConstructed True if constructed, or false if primitive.
+     * @param tag           The tag number.
+     * @param length        The length of the content octets.
+     * @throws ASN1Exception if tag or tag type is invalid
+     */
+    protected BEREncoding(int tagType, boolean isConstructed, int tag, int length) throws ASN1Exception {
+        makeIdentifier(tagType, isConstructed, tag);
+        makeLength(length);
+        totalLength = identifierEncoding.length + lengthEncoding.length + length;
+    }
+
+    public byte[] getIdentifierEncoding() {
         return identifierEncoding;
     }
 
-    public int[] getLengthEncoding() {
+    public byte[] getLengthEncoding() {
         return lengthEncoding;
     }
 
@@ -123,7 +137,7 @@ public abstract class BEREncoding {
      * @param length length
      * @throws ASN1Exception if tag or tag type is invalid
      */
-    protected void init(int tagType, boolean isConstructed, int tag, int length)
+    protected final void init(int tagType, boolean isConstructed, int tag, int length)
             throws ASN1Exception {
         makeIdentifier(tagType, isConstructed, tag);
         makeLength(length);
@@ -137,22 +151,35 @@ public abstract class BEREncoding {
      * method.
      */
     protected int getHead(int offset, byte[] data) {
-        for (int anIdentifierEncoding : identifierEncoding) {
-            data[offset++] = (byte) anIdentifierEncoding;
-        }
-        for (int aLengthEncoding : lengthEncoding) {
-            data[offset++] = (byte) aLengthEncoding;
-        }
-        return offset;
+        System.arraycopy(identifierEncoding, 0, data, offset, identifierEncoding.length);
+        offset += identifierEncoding.length;
+        System.arraycopy(lengthEncoding, 0, data, offset, lengthEncoding.length);
+        return offset + lengthEncoding.length;
     }
 
-    /*
-     * This is an abstract method used for implementing the "getEncoding"
-     * method. This method places the bytes of the encoding into the data
-     * array (as bytes), starting at offset into the array. The
+    /**
+     * Returns the complete encoding (identifier, length and content octets)
+     * in a new array of {@link #getTotalLength()} octets.
+     *
+     * @return the encoding
+     */
+    public byte[] getEncoding() {
+        byte[] data = new byte[totalLength];
+        getEncoding(0, data);
+        return data;
+    }
+
+    /**
+     * This method places the bytes of the encoding into the data
+     * array, starting at offset into the array. The array must have room
+     * for {@link #getTotalLength()} octets from offset. The
      * offset of the last element used plus one is returned.
+     *
+     * @param offset the offset in the data array
+     * @param data the data array
+     * @return the offset after the last octet of the encoding
      */
-    protected abstract int getEncoding(int offset, byte[] data);
+    public abstract int getEncoding(int offset, byte[] data);
 
     /**
      * This private method encodes the identifier octets. When a BER
@@ -187,8 +214,8 @@ public abstract class BEREncoding {
         this.tag = tag;
         if (tag <= 30) {
             b |= (tag & 0x1F);
-            identifierEncoding = new int[1];
-            identifierEncoding[0] = b;
+            identifierEncoding = new byte[1];
+            identifierEncoding[0] = (byte) b;
         } else {
             b |= 0x1F;
             int numberBytes = 1;
@@ -197,14 +224,15 @@ public abstract class BEREncoding {
                 numberBytes++;
                 tmpTag >>= 7;
             } while (tmpTag != 0);
-            identifierEncoding = new int[numberBytes];
-            identifierEncoding[0] = b;
+            identifierEncoding = new byte[numberBytes];
+            identifierEncoding[0] = (byte) b;
             int index = 0;
             for (int digit = numberBytes - 2; 0 <= digit; digit--) {
-                identifierEncoding[++index] = (tag >> (digit * 7)) & 0x7f;
+                int octet = (tag >> (digit * 7)) & 0x7f;
                 if (digit != 0) {
-                    identifierEncoding[index] |= 0x80;
+                    octet |= 0x80;
                 }
+                identifierEncoding[++index] = (byte) octet;
             }
         }
     }
@@ -219,11 +247,11 @@ public abstract class BEREncoding {
      */
     private void makeLength(int length) {
         if (length < 0) {
-            lengthEncoding = new int[1];
-            lengthEncoding[0] = 0x80;
+            lengthEncoding = new byte[1];
+            lengthEncoding[0] = (byte) 0x80;
         } else if (length < 128) {
-            lengthEncoding = new int[1];
-            lengthEncoding[0] = length;
+            lengthEncoding = new byte[1];
+            lengthEncoding[0] = (byte) length;
         } else {
             int count = 0;
             int shifted = length;
@@ -231,13 +259,13 @@ public abstract class BEREncoding {
                 count++;
                 shifted >>= 8;
             }
-            lengthEncoding = new int[count + 1];
-            lengthEncoding[0] = count | 0x80;
+            lengthEncoding = new byte[count + 1];
+            lengthEncoding[0] = (byte) (count | 0x80);
             int index = 0;
             while (0 < count) {
                 count--;
                 int digit = (length >> (count * 8)) & 0xff;
-                lengthEncoding[++index] = digit;
+                lengthEncoding[++index] = (byte) digit;
             }
         }
     }
@@ -1,5 +1,7 @@
 package org.xbib.asn1;
 
+import java.util.Arrays;
+
 /**
  * This class represents a primitive ASN.1 object encoded
  * according to the Basic Encoding Rules.
@@ -18,17 +20,20 @@ public class BERPrimitive extends BEREncoding {
             'a', 'b', 'c', 'd', 'e', 'f'};
 
     /**
-     * The octets of the encoding are stored in this array.
-     * They are internally stored as int[] for efficiency over byte[].
+     * The octets of the encoding are stored in this array, starting at
+     * contentsOffset. The array may be shared with other encodings, for
+     * example when all primitives of a received PDU point into the
+     * buffer the PDU was read into.
      */
+    private final byte[] contentsOctets;
+
+    private final int contentsOffset;
 
-    private int[] contentsOctets;
+    private final int contentsLength;
 
     /**
      * Constructor.
-     * Note that the contents is int[] because this is the internal
-     * representation, which can only be used by the ASN.1 standard object
-     * classes. It is not intended that higher level classes create
+     * It is not intended that higher level classes create
      * BERPrimitives directly.
      *
      * @param asn1Class ASN.1 class
@@ -41,23 +46,81 @@ public class BERPrimitive extends BEREncoding {
      * @see org.xbib.asn1.BEREncoding#APPLICATION_TAG
      * @see org.xbib.asn1.BEREncoding#CONTEXT_SPECIFIC_TAG
      * @see org.xbib.asn1.BEREncoding#PRIVATE_TAG
+     */
+    public BERPrimitive(int asn1Class, int tag, byte[] contents) throws ASN1Exception {
+        this(asn1Class, tag, contents, 0, contents.length);
+    }
+
+    /**
+     * Constructor for a primitive whose contents is a slice of a larger buffer.
+     * The buffer is not copied, so it must not be modified afterwards.
      *
+     * @param asn1Class ASN.1 class
+     * @param tag tag
+     * @param buffer the buffer holding the contents
+     * @param offset the offset of the contents in the buffer
+     * @param length the length of the contents
      *
+     * @throws ASN1Exception if BER primitive fails
      */
-    public BERPrimitive(int asn1Class, int tag, int[] contents) throws ASN1Exception {
-        init(asn1Class, false, tag, contents.length);
-        contentsOctets = contents;
+    public BERPrimitive(int asn1Class, int tag, byte[] buffer, int offset, int length) throws ASN1Exception {
+        super(asn1Class, false, tag, checkBounds(buffer, offset, length));
+        contentsOctets = buffer;
+        contentsOffset = offset;
+        contentsLength = length;
+    }
+
+    private static int checkBounds(byte[] buffer, int offset, int length) throws ASN1Exception {
+        if (offset < 0 || length < 0 || buffer.length - length < offset) {
+            throw new ASN1Exception("BER primitive contents out of bounds");
+        }
+        return length;
     }
 
     /**
-     * This method allows the content octets to be examined.
+     * Returns the buffer holding the content octets. The content starts
+     * at {@link #getContentOffset()}, the buffer may hold other data before
+     * and after the content.
      * Once again, only the ASN.1 standard objects should be using this.
-     * @return content octets
+     * @return buffer
      */
-    public int[] getContentOctets() {
+    public byte[] getBuffer() {
         return contentsOctets;
     }
 
+    /**
+     * Returns the offset of the content octets in the buffer.
+     * @return offset
+     */
+    public int getContentOffset() {
+        return contentsOffset;
+    }
+
+    /**
+     * Returns the number of content octets.
+     * @return length
+     */
+    public int getContentLength() {
+        return contentsLength;
+    }
+
+    /**
+     * Returns a content octet as unsigned value.
+     * @param index the index of the octet, in the range [0, getContentLength() - 1]
+     * @return octet
+     */
+    public int octetAt(int index) {
+        return contentsOctets[contentsOffset + index] & 0xff;
+    }
+
+    /**
+     * This method returns a copy of the content octets.
+     * @return content octets
+     */
+    public byte[] getContentOctets() {
+        return Arrays.copyOfRange(contentsOctets, contentsOffset, contentsOffset + contentsLength);
+    }
+
     /**
      * Returns a new String object representing this BER encoded
      * ASN.1 object's value.
@@ -83,7 +146,8 @@ public class BERPrimitive extends BEREncoding {
                 break;
         }
         str.append(String.valueOf(tag)).append("] '");
-        for (int octet : contentsOctets) {
+        for (int i = contentsOffset; i < contentsOffset + contentsLength; i++) {
+            int octet = contentsOctets[i];
             str.append(hex[(octet >> 4) & 0x0f]);
             str.append(hex[octet & 0x0f]);
         }
@@ -92,16 +156,14 @@ public class BERPrimitive extends BEREncoding {
     }
 
     /**
-     * This protected method is used to implement the "get_encoding" method.
+     * Places the encoding into the data array, starting at offset.
      *
      * @return integer
      */
     @Override
-    protected int getEncoding(int offset, byte[] data) {
+    public int getEncoding(int offset, byte[] data) {
         int i = getHead(offset, data);
-        for (int contentsOctet : contentsOctets) {
-            data[i++] = (byte) contentsOctet;
-        }
-        return i;
+        System.arraycopy(contentsOctets, contentsOffset, data, i, contentsLength);
+        return i + contentsLength;
     }
 }
@@ -0,0 +1,49 @@
+package org.xbib.asn1;
+
+/**
+ * An ASN1EncodingException without stack trace.
+ * Decoders throw instances of this class for malformed encodings, so that
+ * rejecting a bad PDU does not cost a stack walk. Each throw creates a new
+ * instance, because a thrown exception collects state such as suppressed
+ * exceptions and causes, which must not leak between threads.
+ */
+public class StacklessASN1EncodingException extends ASN1EncodingException {
+
+    private static final long serialVersionUID = -4270839651178327431L;
+
+    public StacklessASN1EncodingException(String message) {
+        super(message);
+    }
+
+    /**
+     * An encoding has fewer components than required.
+     *
+     * @return the exception
+     */
+    public static StacklessASN1EncodingException incomplete() {
+        return new StacklessASN1EncodingException("incomplete");
+    }
+
+    /**
+     * A constructed encoding was expected, but a primitive was found, or vice versa.
+     *
+     * @return the exception
+     */
+    public static StacklessASN1EncodingException badBerForm() {
+        return new StacklessASN1EncodingException("bad BER form");
+    }
+
+    /**
+     * An encoding does not match any alternative of a CHOICE.
+     *
+     * @return the exception
+     */
+    public static StacklessASN1EncodingException choiceNotMatched() {
+        return new StacklessASN1EncodingException("bad BER encoding: choice not matched");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,154 @@
+package org.xbib.asn1.io;
+
+import org.xbib.asn1.ASN1EncodingException;
+
+/**
+ * Framing of BER encodings in a stream of octets.
+ * This class examines the identifier and length octets of an encoding
+ * to find out how many octets the complete encoding occupies, without
+ * decoding it. It is used by readers that pull whole PDUs in bulk.
+ */
+public final class BERFrame {
+
+    /**
+     * The default maximum size of a BER encoding a reader accepts.
+     */
+    public static final int DEFAULT_MAX_BER_SIZE = 10 * 1024 * 1024;
+
+    private BERFrame() {
+        // private constructor
+    }
+
+    /**
+     * Returns the total length of the BER encoding that starts at the given offset.
+     * For a definite-length encoding, the length is known as soon as the
+     * identifier and length octets are available, so the returned value may be
+     * larger than the number of available octets. For an indefinite-length encoding,
+     * the length is only known when the end-of-contents octets are available.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the encoding in the buffer
+     * @param available the number of octets available in the buffer
+     * @param maxBerSize the maximum accepted length of an encoding
+     * @return the total length of the encoding, or -1 if more octets are needed
+     * @throws ASN1EncodingException if the octets do not represent a BER encoding,
+     * or the encoding is longer than the maximum size
+     */
+    public static int totalLength(byte[] buffer, int offset, int available, int maxBerSize)
+            throws ASN1EncodingException {
+        int end = offset + available;
+        int next = skip(buffer, offset, end, maxBerSize);
+        if (next < 0) {
+            if (maxBerSize < available) {
+                throw new ASN1EncodingException("BER encoding too long");
+            }
+            return -1;
+        }
+        return next - offset;
+    }
+
+    /**
+     * Returns the number of identifier and length octets of the encoding that
+     * starts at the given offset.
+     *
+     * @param buffer the buffer
+     * @param offset the offset of the encoding in the buffer
+     * @param available the number of octets available in the buffer
+     * @return the number of identifier and length octets, or -1 if more octets are needed
+     * @throws ASN1EncodingException if the octets do not represent a BER encoding
+     */
+    public static int headLength(byte[] buffer, int offset, int available) throws ASN1EncodingException {
+        int end = offset + available;
+        int pos = offset;
+        if (end <= pos) {
+            return -1;
+        }
+        int octet = buffer[pos++] & 0xff;
+        if ((octet & 0x1F) == 0x1F) {
+            int count = 0;
+            do {
+                if (end <= pos) {
+                    return -1;
+                }
+                if (5 < ++count) {
+                    throw new ASN1EncodingException("BER tag too long");
+                }
+                octet = buffer[pos++] & 0xff;
+            } while ((octet & 0x80) != 0);
+        }
+        if (end <= pos) {
+            return -1;
+        }
+        octet = buffer[pos++] & 0xff;
+        if ((octet & 0x80) != 0 && (octet & 0x7f) != 0) {
+            int numBytes = octet & 0x7f;
+            if (4 < numBytes) {
+                throw new ASN1EncodingException("BER encoding too long");
+            }
+            if (end - pos < numBytes) {
+                return -1;
+            }
+            pos += numBytes;
+        }
+        return pos - offset;
+    }
+
+    /**
+     * Skips the encoding starting at pos. Returns the position after the
+     * encoding, which may be beyond end for definite-length encodings,
+     * or -1 if more octets are needed.
+     */
+    private static int skip(byte[] buffer, int pos, int end, int maxBerSize) throws ASN1EncodingException {
+        int head = headLength(buffer, pos, end - pos);
+        if (head < 0) {
+            return -1;
+        }
+        boolean isCons = (buffer[pos] & 0x20) != 0;
+        int lengthOctet = buffer[lengthPosition(buffer, pos)] & 0xff;
+        pos += head;
+        if (lengthOctet == 0x80) {
+            if (!isCons) {
+                throw new ASN1EncodingException("BER encoding corrupted primitive");
+            }
+            while (true) {
+                if (end - pos < 2) {
+                    return -1;
+                }
+                if (buffer[pos] == 0 && buffer[pos + 1] == 0) {
+                    return pos + 2;
+                }
+                pos = skip(buffer, pos, end, maxBerSize);
+                if (pos < 0 || end < pos) {
+                    return -1;
+                }
+            }
+        }
+        int length;
+        if ((lengthOctet & 0x80) == 0) {
+            length = lengthOctet;
+        } else {
+            length = 0;
+            for (int i = pos - (lengthOctet & 0x7f); i < pos; i++) {
+                length <<= 8;
+                length |= buffer[i] & 0xff;
+            }
+        }
+        if (length < 0 || maxBerSize < length) {
+            throw new ASN1EncodingException("BER encoding too long");
+        }
+        return pos + length;
+    }
+
+    /**
+     * Returns the position of the first length octet of the encoding starting at pos.
+     * The identifier octets must be available.
+     */
+    static int lengthPosition(byte[] buffer, int pos) {
+        if ((buffer[pos++] & 0x1F) == 0x1F) {
+            while ((buffer[pos++] & 0x80) != 0) {
+                // skip tag octets
+            }
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,374 @@
+package org.xbib.asn1.io;
+
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.BERPrimitive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A pull parser for BER encodings read from an input stream.
+ * Instead of building a tree of encodings, the parser reports one event for each
+ * identifier and length header, in the order they appear in the stream:
+ * {@link Event#START_CONSTRUCTED} and {@link Event#END} enclose the components of
+ * a constructed encoding, {@link Event#PRIMITIVE} carries the content octets of a
+ * primitive encoding. Nesting is tracked by an explicit stack, not by recursion.
+ * The content octets of a primitive are held in a buffer that is reused for the
+ * next primitive, so memory use depends on the largest primitive, not on the size
+ * of the encoding. Parts of the stream can be turned into encodings with
+ * {@link #readEncoding()}, or be skipped with {@link #skip()}.
+ * <pre>
+ * while (parser.hasNext()) {
+ *     switch (parser.next()) {
+ *         case START_CONSTRUCTED -&gt; ...
+ *         case PRIMITIVE -&gt; ... parser.getBuffer(), 0, parser.getLength() ...
+ *         case END -&gt; ...
+ *     }
+ * }
+ * </pre>
+ */
+public class BERPullParser implements Closeable {
+
+    /**
+     * The events of the parser.
+     */
+    public enum Event {
+        /**
+         * The identifier and length octets of a constructed encoding.
+         */
+        START_CONSTRUCTED,
+        /**
+         * A complete primitive encoding.
+         */
+        PRIMITIVE,
+        /**
+         * The end of a constructed encoding.
+         */
+        END
+    }
+
+    private static final String ERROR = "Unexpected end in BER encoding";
+
+    private static final long INDEFINITE = -1L;
+
+    private static final int MAX_HEAD_SIZE = 16;
+
+    private final InputStream inputStream;
+
+    private final int maxBerSize;
+
+    private final byte[] head;
+
+    private byte[] buffer;
+
+    private long[] ends;
+
+    private long[] limits;
+
+    private int depth;
+
+    private long position;
+
+    private int peeked;
+
+    private Event event;
+
+    private int tagType;
+
+    private int tag;
+
+    private int length;
+
+    private int headLength;
+
+    public BERPullParser(InputStream inputStream) {
+        this(inputStream, BERFrame.DEFAULT_MAX_BER_SIZE);
+    }
+
+    public BERPullParser(InputStream inputStream, int maxBerSize) {
+        this.inputStream = inputStream;
+        this.maxBerSize = maxBerSize;
+        this.head = new byte[MAX_HEAD_SIZE];
+        this.buffer = new byte[256];
+        this.ends = new long[16];
+        this.limits = new long[16];
+        this.peeked = -2;
+    }
+
+    /**
+     * Returns true if there are more events. Outside of any encoding, this
+     * method waits for the next octet of the stream.
+     *
+     * @return true if there are more events, false if the stream has ended
+     * @throws IOException on input I/O error
+     */
+    public boolean hasNext() throws IOException {
+        if (0 < depth) {
+            return true;
+        }
+        if (peeked == -2) {
+            peeked = inputStream.read();
+        }
+        return 0 <= peeked;
+    }
+
+    /**
+     * Parses the next identifier and length octets, or the end of the current
+     * constructed encoding.
+     *
+     * @return the event
+     * @throws IOException if the data does not represent a BER encoding or on input I/O error
+     */
+    public Event next() throws IOException {
+        if (0 < depth && ends[depth - 1] == position) {
+            depth--;
+            return event = Event.END;
+        }
+        if (depth == 0 && !hasNext()) {
+            throw new NoSuchElementException();
+        }
+        headLength = 0;
+        int octet = nextOctet();
+        if (octet == 0 && 0 < depth && ends[depth - 1] == INDEFINITE) {
+            if (nextOctet() != 0) {
+                throw new ASN1EncodingException("BER encoding corrupted end-of-contents");
+            }
+            depth--;
+            return event = Event.END;
+        }
+        tagType = octet & 0xC0;
+        boolean isCons = (octet & 0x20) != 0;
+        tag = octet & 0x1F;
+        if (tag == 0x1F) {
+            tag = 0;
+            do {
+                if (head.length - 5 <= headLength) {
+                    throw new ASN1EncodingException("BER tag too long");
+                }
+                octet = nextOctet();
+                tag <<= 7;
+                tag |= (octet & 0x7F);
+            } while ((octet & 0x80) != 0);
+        }
+        octet = nextOctet();
+        if ((octet & 0x80) != 0) {
+            if ((octet & 0x7f) == 0) {
+                length = -1;
+                if (!isCons) {
+                    throw new ASN1EncodingException("BER encoding corrupted primitive");
+                }
+            } else {
+                if (4 < (octet & 0x7f)) {
+                    throw new ASN1EncodingException("BER encoding too long");
+                }
+                length = 0;
+                for (int numBytes = octet & 0x7f; 0 < numBytes; numBytes--) {
+                    length <<= 8;
+                    length |= nextOctet();
+                }
+                if (length < 0 || maxBerSize < length) {
+                    throw new ASN1EncodingException("BER encoding too long");
+                }
+            }
+        } else {
+            length = octet;
+        }
+        long limit = 0 < depth ? limits[depth - 1] : INDEFINITE;
+        if (0 <= length && limit != INDEFINITE && limit - position < length) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        if (!isCons) {
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            readFully(buffer, 0, length);
+            return event = Event.PRIMITIVE;
+        }
+        if (depth == ends.length) {
+            ends = Arrays.copyOf(ends, depth * 2);
+            limits = Arrays.copyOf(limits, depth * 2);
+        }
+        ends[depth] = 0 <= length ? position + length : INDEFINITE;
+        limits[depth] = 0 <= length ? position + length : limit;
+        depth++;
+        return event = Event.START_CONSTRUCTED;
+    }
+
+    /**
+     * Returns the current event.
+     *
+     * @return the event, or null if {@link #next()} has not been called
+     */
+    public Event getEvent() {
+        return event;
+    }
+
+    /**
+     * Returns the tag type of the current encoding.
+     * Not defined for {@link Event#END}.
+     *
+     * @return the tag type
+     */
+    public int getTagType() {
+        return tagType;
+    }
+
+    /**
+     * Returns the tag of the current encoding.
+     * Not defined for {@link Event#END}.
+     *
+     * @return the tag
+     */
+    public int getTag() {
+        return tag;
+    }
+
+    /**
+     * Returns the content length of the current encoding.
+     * Not defined for {@link Event#END}.
+     *
+     * @return the number of content octets, or -1 for an indefinite length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the number of constructed encodings that enclose the current position.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of octets read from the stream so far.
+     *
+     * @return the position in the stream
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the buffer holding the content octets of the current primitive,
+     * starting at index 0. The buffer is overwritten by the next primitive.
+     *
+     * @return the buffer
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the current primitive as an encoding that points into the buffer
+     * of the parser. It is only valid until the next call of {@link #next()}.
+     *
+     * @return the primitive
+     * @throws ASN1Exception if there is no current primitive
+     */
+    public BERPrimitive getPrimitive() throws ASN1Exception {
+        if (event != Event.PRIMITIVE) {
+            throw new ASN1Exception("not a primitive: " + event);
+        }
+        return new BERPrimitive(tagType, tag, buffer, 0, length);
+    }
+
+    /**
+     * Reads the current encoding completely. For a constructed encoding, the
+     * parser continues after its end, as if the {@link Event#END} has been returned.
+     * The returned encoding does not depend on the buffer of the parser.
+     *
+     * @return the current encoding
+     * @throws IOException if the data does not represent a BER encoding or on input I/O error
+     */
+    public BEREncoding readEncoding() throws IOException {
+        if (event == Event.PRIMITIVE) {
+            return new BERPrimitive(tagType, tag, Arrays.copyOf(buffer, length));
+        }
+        if (event != Event.START_CONSTRUCTED) {
+            throw new IllegalStateException("not at the start of an encoding: " + event);
+        }
+        if (0 <= length) {
+            byte[] data = new byte[headLength + length];
+            System.arraycopy(head, 0, data, 0, headLength);
+            readFully(data, headLength, length);
+            depth--;
+            event = Event.END;
+            return new ByteArrayBERReader(data, 0, data.length, true).read();
+        }
+        int constructedTagType = tagType;
+        int constructedTag = tag;
+        List<BEREncoding> chunks = new ArrayList<>();
+        while (next() != Event.END) {
+            chunks.add(readEncoding());
+        }
+        return new BERConstructed(constructedTagType, constructedTag, chunks.toArray(new BEREncoding[0]));
+    }
+
+    /**
+     * Skips the components of the current constructed encoding without parsing them,
+     * as far as the length is definite. The parser continues after its end, as if
+     * the {@link Event#END} has been returned.
+     *
+     * @throws IOException if the data does not represent a BER encoding or on input I/O error
+     */
+    public void skip() throws IOException {
+        if (event != Event.START_CONSTRUCTED) {
+            return;
+        }
+        if (0 <= length) {
+            inputStream.skipNBytes(length);
+            position += length;
+            depth--;
+            event = Event.END;
+            return;
+        }
+        int d = depth;
+        while (d <= depth) {
+            if (next() == Event.START_CONSTRUCTED) {
+                skip();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    private int nextOctet() throws IOException {
+        int octet;
+        if (peeked != -2) {
+            octet = peeked;
+            peeked = -2;
+        } else {
+            octet = inputStream.read();
+        }
+        if (octet < 0) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        if (0 < depth && limits[depth - 1] != INDEFINITE && limits[depth - 1] <= position) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        head[headLength++] = (byte) octet;
+        position++;
+        return octet;
+    }
+
+    private void readFully(byte[] data, int offset, int len) throws IOException {
+        if (inputStream.readNBytes(data, offset, len) < len) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        position += len;
+    }
+}
@@ -0,0 +1,177 @@
+package org.xbib.asn1.io;
+
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.BERPrimitive;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A BER reader for encodings held in memory.
+ * The primitive encodings returned by this reader do not copy their
+ * contents, they point into the buffer given to the constructor.
+ * The buffer must therefore not be modified while the encodings are in use.
+ * In lazy mode, constructed encodings of definite length are returned as
+ * {@link LazyBERConstructed} which decode their components on first access.
+ * Only the framing of the outer encoding and of its components is checked when it is read,
+ * the framing of deeper components is checked when they are accessed.
+ */
+public class ByteArrayBERReader implements BERReader {
+
+    private static final String ERROR = "Unexpected end in BER encoding";
+
+    private final byte[] buffer;
+
+    private final int limit;
+
+    private final boolean lazy;
+
+    private int position;
+
+    public ByteArrayBERReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public ByteArrayBERReader(byte[] buffer, int offset, int length) {
+        this(buffer, offset, length, false);
+    }
+
+    public ByteArrayBERReader(byte[] buffer, int offset, int length, boolean lazy) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Returns the next complete BEREncoding object from the buffer.
+     *
+     * @return the next complete BEREncoding object, or null if the end
+     * of the buffer has been reached.
+     * @throws IOException If data does not represent a BER encoding
+     */
+    @Override
+    public BEREncoding read() throws IOException {
+        if (limit <= position) {
+            return null;
+        }
+        if (lazy) {
+            // check the framing of the outer encoding, its components are checked when they are decoded
+            int totalLength = BERFrame.totalLength(buffer, position, limit - position, limit - position);
+            if (totalLength < 0 || limit - position < totalLength) {
+                throw new ASN1EncodingException(ERROR);
+            }
+        }
+        return doInput(limit);
+    }
+
+    /**
+     * Returns the position of the next octet to be read.
+     *
+     * @return the position in the buffer
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        // nothing to close
+    }
+
+    /**
+     * Decodes a component of a lazy encoding, whose total length has already been checked.
+     */
+    static BEREncoding decode(byte[] buffer, int offset, int length) throws ASN1Exception {
+        return new ByteArrayBERReader(buffer, offset, length, true).doInput(offset + length);
+    }
+
+    /**
+     * Constructs a complete BER encoding object from the buffer, starting at the
+     * current position, not reading beyond the given end.
+     * With indefinite-length encodings, the end-of-contents octets are not
+     * included in the returned object.
+     */
+    private BEREncoding doInput(int end) throws ASN1Exception {
+        int octet = next(end);
+        int tagType = octet & 0xC0;
+        boolean isCons = (octet & 0x20) != 0;
+        int tag = octet & 0x1F;
+        if (tag == 0x1F) {
+            tag = 0;
+            do {
+                octet = next(end);
+                tag <<= 7;
+                tag |= (octet & 0x7F);
+            } while ((octet & 0x80) != 0);
+        }
+        int length;
+        octet = next(end);
+        if ((octet & 0x80) != 0) {
+            if ((octet & 0x7f) == 0) {
+                length = -1;
+                if (!isCons) {
+                    throw new ASN1EncodingException("BER encoding corrupted primitive");
+                }
+            } else {
+                if (4 < (octet & 0x7f)) {
+                    throw new ASN1EncodingException("BER encoding too long");
+                }
+                length = 0;
+                for (int numBytes = octet & 0x7f; 0 < numBytes; numBytes--) {
+                    octet = next(end);
+                    length <<= 8;
+                    length |= octet;
+                }
+                if (length < 0) {
+                    throw new ASN1EncodingException("BER encoding too long");
+                }
+            }
+        } else {
+            length = octet & 0x7F;
+        }
+        if (0 <= length && end - position < length) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        if (!isCons) {
+            BERPrimitive primitive = new BERPrimitive(tagType, tag, buffer, position, length);
+            position += length;
+            return primitive;
+        }
+        if (lazy && 0 <= length) {
+            BERConstructed constructed = new LazyBERConstructed(tagType, tag, buffer, position, length);
+            position += length;
+            return constructed;
+        }
+        List<BEREncoding> chunks = new ArrayList<>();
+        if (0 <= length) {
+            int contentEnd = position + length;
+            while (position < contentEnd) {
+                chunks.add(doInput(contentEnd));
+            }
+        } else {
+            while (true) {
+                if (end - position < 2) {
+                    throw new ASN1EncodingException(ERROR);
+                }
+                if (buffer[position] == 0 && buffer[position + 1] == 0) {
+                    position += 2;
+                    break;
+                }
+                chunks.add(doInput(end));
+            }
+        }
+        return new BERConstructed(tagType, tag, chunks.toArray(new BEREncoding[0]));
+    }
+
+    private int next(int end) throws ASN1EncodingException {
+        if (end <= position) {
+            throw new ASN1EncodingException(ERROR);
+        }
+        return buffer[position++] & 0xff;
+    }
+}
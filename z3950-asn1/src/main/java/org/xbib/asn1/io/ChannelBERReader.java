@@ -0,0 +1,174 @@
+package org.xbib.asn1.io;
+
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A BER reader for blocking channels.
+ * The reader reads the identifier and length octets of the outermost encoding,
+ * then pulls the whole encoding with bulk reads into one buffer, and decodes it
+ * from memory. Octets read ahead beyond the end of an encoding are kept for
+ * the next call of {@link #read()}.
+ */
+public class ChannelBERReader implements BERReader {
+
+    private static final String ERROR = "Unexpected end in BER encoding";
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+
+    private final int maxBerSize;
+
+    private final boolean lazy;
+
+    private byte[] buffer;
+
+    private int start;
+
+    private int end;
+
+    public ChannelBERReader(ReadableByteChannel channel) {
+        this(channel, BERFrame.DEFAULT_MAX_BER_SIZE);
+    }
+
+    public ChannelBERReader(ReadableByteChannel channel, int maxBerSize) {
+        this(channel, maxBerSize, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelBERReader(ReadableByteChannel channel, int maxBerSize, int bufferSize) {
+        this(channel, maxBerSize, bufferSize, true);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param channel the channel
+     * @param maxBerSize the maximum accepted length of an encoding
+     * @param bufferSize the initial size of the read-ahead buffer
+     * @param lazy true if constructed encodings should decode their components on first access
+     */
+    public ChannelBERReader(ReadableByteChannel channel, int maxBerSize, int bufferSize, boolean lazy) {
+        this.channel = channel;
+        this.maxBerSize = maxBerSize;
+        this.lazy = lazy;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Returns the next complete BEREncoding object read from the channel.
+     * The primitives of the returned encoding point into one buffer.
+     *
+     * @return the next complete BEREncoding object, or null if the
+     * end of the channel has been reached.
+     * @throws IOException If data does not represent a BER encoding or on I/O error
+     */
+    @Override
+    public BEREncoding read() throws IOException {
+        if (!fill(1)) {
+            return null;
+        }
+        int totalLength;
+        while ((totalLength = BERFrame.totalLength(buffer, start, end - start, maxBerSize)) < 0) {
+            // incomplete identifier or length octets, or indefinite length without end-of-contents
+            require(end - start + 1);
+        }
+        byte[] pdu = new byte[totalLength];
+        int n = Math.min(totalLength, end - start);
+        System.arraycopy(buffer, start, pdu, 0, n);
+        start += n;
+        if (n < totalLength) {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(pdu, n, totalLength - n);
+            while (byteBuffer.hasRemaining()) {
+                if (channel.read(byteBuffer) < 0) {
+                    throw new ASN1EncodingException(ERROR);
+                }
+            }
+        }
+        return new ByteArrayBERReader(pdu, 0, totalLength, lazy).read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public int getMaxBerSize() {
+        return maxBerSize;
+    }
+
+    /**
+     * Returns the number of octets that have been read ahead, and not been returned by {@link #read()}.
+     *
+     * @return the number of octets read ahead
+     */
+    public int available() {
+        return end - start;
+    }
+
+    /**
+     * Reads ahead with one read of the channel, and keeps the octets for the next call of {@link #read()}.
+     * On a blocking channel, the read waits until octets arrive, so this is meant for channels
+     * with a read timeout.
+     *
+     * @return the number of octets read, or -1 if the end of the channel has been reached
+     * @throws IOException on I/O error
+     */
+    public int readAhead() throws IOException {
+        if (start == end) {
+            start = 0;
+            end = 0;
+        } else if (end == buffer.length) {
+            buffer = Arrays.copyOfRange(buffer, start, start + buffer.length * 2);
+            end -= start;
+            start = 0;
+        }
+        int n = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+        if (n > 0) {
+            end += n;
+        }
+        return n;
+    }
+
+    private void require(int length) throws IOException {
+        if (!fill(length)) {
+            throw new ASN1EncodingException(ERROR);
+        }
+    }
+
+    /**
+     * Makes sure that at least the given number of octets are in the buffer.
+     * Returns false if the channel ends before.
+     */
+    private boolean fill(int length) throws IOException {
+        if (end - start >= length) {
+            return true;
+        }
+        if (buffer.length - start < length) {
+            if (buffer.length < length) {
+                buffer = Arrays.copyOfRange(buffer, start, start + Math.max(length, buffer.length * 2));
+            } else {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+            }
+            end -= start;
+            start = 0;
+        } else if (start == end) {
+            start = 0;
+            end = 0;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, end, buffer.length - end);
+        while (end - start < length) {
+            int n = channel.read(byteBuffer);
+            if (n < 0) {
+                return false;
+            }
+            end += n;
+        }
+        return true;
+    }
+}
@@ -15,16 +15,40 @@ public class InputStreamBERReader implements BERReader {
 
     private static final String ERROR = "Unexpected end in BER encoding";
 
-    private static final int MAX_BER_SIZE = 10 * 1024 * 1024;
+    private static final int MAX_HEAD_SIZE = 16;
 
     private final InputStream inputStream;
 
+    private final int maxBerSize;
+
+    private final boolean lazy;
+
     public InputStreamBERReader(InputStream inputStream) {
+        this(inputStream, BERFrame.DEFAULT_MAX_BER_SIZE);
+    }
+
+    public InputStreamBERReader(InputStream inputStream, int maxBerSize) {
+        this(inputStream, maxBerSize, true);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param inputStream the input stream
+     * @param maxBerSize the maximum accepted length of an encoding
+     * @param lazy true if the constructed encodings of a definite-length PDU
+     *             should decode their components on first access
+     */
+    public InputStreamBERReader(InputStream inputStream, int maxBerSize, boolean lazy) {
         this.inputStream = inputStream;
+        this.maxBerSize = maxBerSize;
+        this.lazy = lazy;
     }
 
     /**
      * The public wrapping for doInput() method.
+     * If the outermost encoding has a definite length, the whole encoding
+     * is read into one buffer and the returned primitives point into it.
      *
      * @return returns the next complete BEREncoding object read
      * in from the input stream. Returns null if the
@@ -36,7 +60,7 @@ public class InputStreamBERReader implements BERReader {
     public BEREncoding read() throws IOException {
         int[] numBytesRead = new int[1];
         numBytesRead[0] = 0;
-        return doInput(numBytesRead);
+        return doInput(numBytesRead, true);
     }
 
     @Override
@@ -44,6 +68,10 @@ public class InputStreamBERReader implements BERReader {
         inputStream.close();
     }
 
+    public int getMaxBerSize() {
+        return maxBerSize;
+    }
+
     /**
      * Constructs a complete BER encoding object from octets read in from
      * an InputStream.
@@ -55,17 +83,21 @@ public class InputStreamBERReader implements BERReader {
      * which is in the definite-length form).
      *
      * @param numBytesRead a counter for all read bytes.
+     * @param outer true if this is the outermost encoding, which is read
+     *              into one buffer if its length is definite.
      * @return the next complete BEREncoding object read
      * in from the input stream. Returns null if the
      * end has been reached.
      * @throws IOException   If data does not represent a BER encoding or input I/O error
      */
-    private BEREncoding doInput(int[] numBytesRead) throws IOException {
+    private BEREncoding doInput(int[] numBytesRead, boolean outer) throws IOException {
         int octet = inputStream.read();
         if (octet < 0) {
             return null;
         }
-        numBytesRead[0]++;
+        byte[] head = new byte[MAX_HEAD_SIZE];
+        int headLength = 0;
+        head[headLength++] = (byte) octet;
         int tagType = octet & 0xC0;
         boolean isCons = false;
         if ((octet & 0x20) != 0) {
@@ -79,7 +111,10 @@ public class InputStreamBERReader implements BERReader {
                 if (octet < 0) {
                     throw new ASN1EncodingException(ERROR);
                 }
-                numBytesRead[0]++;
+                if (head.length - 5 <= headLength) {
+                    throw new ASN1EncodingException("BER tag too long");
+                }
+                head[headLength++] = (byte) octet;
                 tag <<= 7;
                 tag |= (octet & 0x7F);
             } while ((octet & 0x80) != 0);
@@ -89,7 +124,7 @@ public class InputStreamBERReader implements BERReader {
         if (octet < 0) {
             throw new ASN1EncodingException(ERROR);
         }
-        numBytesRead[0]++;
+        head[headLength++] = (byte) octet;
         if ((octet & 0x80) != 0) {
             if ((octet & 0x7f) == 0) {
                 length = -1;
@@ -106,27 +141,29 @@ public class InputStreamBERReader implements BERReader {
                     if (octet < 0) {
                         throw new ASN1EncodingException(ERROR);
                     }
-                    numBytesRead[0]++;
+                    head[headLength++] = (byte) octet;
                     length <<= 8;
                     length |= (octet & 0xff);
                 }
-                if (length < 0 || MAX_BER_SIZE < length) {
+                if (length < 0 || maxBerSize < length) {
                     throw new ASN1EncodingException("BER encoding too long");
                 }
             }
         } else {
             length = octet & 0x7F;
         }
+        numBytesRead[0] += headLength;
+        if (outer && 0 <= length) {
+            byte[] buffer = new byte[headLength + length];
+            System.arraycopy(head, 0, buffer, 0, headLength);
+            readFully(buffer, headLength, length);
+            numBytesRead[0] += length;
+            return new ByteArrayBERReader(buffer, 0, buffer.length, lazy).read();
+        }
         if (!isCons) {
-            int[] contents = new int[length];
-            for (int x = 0; x < length; x++) {
-                octet = inputStream.read();
-                if (octet < 0) {
-                    throw new ASN1EncodingException(ERROR);
-                }
-                numBytesRead[0]++;
-                contents[x] = octet;
-            }
+            byte[] contents = new byte[length];
+            readFully(contents, 0, length);
+            numBytesRead[0] += length;
             return new BERPrimitive(tagType, tag, contents);
         } else {
             List<BEREncoding> chunks = new ArrayList<>();
@@ -134,7 +171,7 @@ public class InputStreamBERReader implements BERReader {
             if (0 <= length) {
                 while (totalRead < length) {
                     int currentRead = numBytesRead[0];
-                    BEREncoding chunk = doInput( numBytesRead);
+                    BEREncoding chunk = doInput(numBytesRead, false);
                     if (chunk == null) {
                         throw new ASN1EncodingException(ERROR);
                     }
@@ -143,7 +180,7 @@ public class InputStreamBERReader implements BERReader {
                 }
             } else {
                 while (true) {
-                    BEREncoding chunk = doInput(numBytesRead);
+                    BEREncoding chunk = doInput(numBytesRead, false);
                     if (chunk == null) {
                         throw new ASN1EncodingException(ERROR);
                     }
@@ -163,4 +200,10 @@ public class InputStreamBERReader implements BERReader {
             return new BERConstructed(tagType, tag, parts);
         }
     }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        if (inputStream.readNBytes(buffer, offset, length) < length) {
+            throw new ASN1EncodingException(ERROR);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package org.xbib.asn1.io;
+
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * A constructed BER encoding that decodes its components on demand.
+ * Only the offsets of the components in the backing buffer are recorded
+ * when the encoding is created. A component is decoded when it is first
+ * accessed by {@link #elementAt(int)}, so parts of a PDU that are never
+ * looked at never become object trees.
+ * Instances are created by {@link ByteArrayBERReader}, which checks the framing
+ * of the components when the encoding is created. The contents of a component
+ * are checked when it is decoded, so a corrupt component fails on first access,
+ * with an {@link UncheckedIOException}.
+ */
+public class LazyBERConstructed extends BERConstructed {
+
+    private final byte[] buffer;
+
+    private final int contentOffset;
+
+    private final int contentLength;
+
+    private final int[] offsets;
+
+    private final BEREncoding[] elements;
+
+    LazyBERConstructed(int asn1Class, int tag, byte[] buffer, int offset, int length) throws ASN1Exception {
+        super(asn1Class, tag, length);
+        this.buffer = buffer;
+        this.contentOffset = offset;
+        this.contentLength = length;
+        int end = offset + length;
+        int count = 0;
+        int[] positions = new int[8];
+        int pos = offset;
+        while (pos < end) {
+            if (positions.length < count + 2) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+            }
+            positions[count++] = pos;
+            int n = BERFrame.totalLength(buffer, pos, end - pos, length);
+            if (n < 0 || end - pos < n) {
+                throw new ASN1EncodingException("Unexpected end in BER encoding");
+            }
+            pos += n;
+        }
+        positions[count] = end;
+        this.offsets = Arrays.copyOf(positions, count + 1);
+        this.elements = new BEREncoding[count];
+    }
+
+    @Override
+    public int numberComponents() {
+        return elements.length;
+    }
+
+    @Override
+    public BEREncoding elementAt(int index) {
+        BEREncoding element = elements[index];
+        if (element == null) {
+            try {
+                element = ByteArrayBERReader.decode(buffer, offsets[index], offsets[index + 1] - offsets[index]);
+            } catch (ASN1Exception e) {
+                throw new UncheckedIOException("corrupt component " + index + " of BER encoding", e);
+            }
+            elements[index] = element;
+        }
+        return element;
+    }
+
+    @Override
+    public BEREncoding[] getContentElements() {
+        BEREncoding[] contentElements = new BEREncoding[elements.length];
+        for (int i = 0; i < contentElements.length; i++) {
+            contentElements[i] = elementAt(i);
+        }
+        return contentElements;
+    }
+
+    /**
+     * Returns the offset of a component in the backing buffer, without decoding it.
+     *
+     * @param index the index of the component
+     * @return the offset of the component's identifier octets
+     */
+    public int getElementOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Returns the total length of a component, without decoding it.
+     *
+     * @param index the index of the component
+     * @return the total length of the component
+     */
+    public int getElementLength(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * Returns the buffer holding the encoding.
+     *
+     * @return the buffer
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Places the encoding into the data array. The content octets are copied
+     * from the backing buffer without decoding the components.
+     */
+    @Override
+    public int getEncoding(int offset, byte[] data) {
+        int i = getHead(offset, data);
+        System.arraycopy(buffer, contentOffset, data, i, contentLength);
+        return i + contentLength;
+    }
+}
@@ -1,18 +1,32 @@
 package org.xbib.asn1.io;
 
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
-import org.xbib.asn1.BERPrimitive;
 
 import java.io.IOException;
 import java.io.OutputStream;
 
+/**
+ * A BER writer for output streams.
+ * The writer encodes a complete BER object into one buffer and
+ * writes it with a single write call, followed by a single flush
+ * if autoflush is enabled. The buffer is reused for the next object,
+ * unless it has grown beyond {@link #MAX_RETAINED_BUFFER_SIZE}.
+ */
 public class OutputStreamBERWriter implements BERWriter {
 
+    /**
+     * The size up to which the encoding buffer is kept between writes.
+     */
+    public static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
     private final OutputStream outputStream;
 
     private final boolean autoflush;
 
+    private byte[] buffer;
+
     public OutputStreamBERWriter(OutputStream outputStream) {
         this(outputStream, true);
     }
@@ -20,24 +34,30 @@ public class OutputStreamBERWriter implements BERWriter {
     public OutputStreamBERWriter(OutputStream outputStream, boolean autoflush) {
         this.outputStream = outputStream;
         this.autoflush = autoflush;
+        this.buffer = new byte[INITIAL_BUFFER_SIZE];
     }
 
     /**
      * Outputs the BER object to an OutputStream. This method should work
      * with any OutputStream, whether it is from a socket, file, etc.
-     * Note: the output is not flushed, so you <strong>must</strong>  explicitly
-     * flush the output stream after calling this method to ensure that
-     * the data has been written out.
+     * Note: if autoflush is not enabled, the output is not flushed, so you
+     * <strong>must</strong> explicitly flush the output stream after calling
+     * this method to ensure that the data has been written out.
      *
      * @throws IOException On output I/O error
      */
     @Override
     public void write(BEREncoding ber) throws IOException {
-        if (ber instanceof BERPrimitive) {
-            writeBERPrimitive((BERPrimitive) ber);
-        } else if (ber instanceof BERConstructed) {
-            writeBERConstructed((BERConstructed) ber);
+        int length = ber.getTotalLength();
+        byte[] data = buffer;
+        if (data.length < length) {
+            data = new byte[length];
+            if (length <= MAX_RETAINED_BUFFER_SIZE) {
+                buffer = data;
+            }
         }
+        ber.getEncoding(0, data);
+        outputStream.write(data, 0, length);
         if (autoflush) {
             outputStream.flush();
         }
@@ -47,50 +67,4 @@ public class OutputStreamBERWriter implements BERWriter {
     public void close() throws IOException {
         outputStream.close();
     }
-
-    /**
-     * This method outputs the encoded octets for this object
-     * to the output stream.
-     * Note: the output is not flushed, so you <strong>must</strong>  explicitly
-     * flush the output stream after calling this method to ensure that
-     * the data has been written out.
-     */
-    private void writeBERConstructed(BERConstructed ber) throws IOException {
-        outputHead(ber);
-        for (BEREncoding contentElement : ber.getContentElements()) {
-            write(contentElement);
-        }
-    }
-
-    /**
-     * This method outputs the encoded octets to the destination OutputStream.
-     * Note: the output is not flushed, so you <strong>must</strong>  explicitly
-     * flush the output stream after calling this method to ensure that
-     * the data has been written out.
-     */
-    private void writeBERPrimitive(BERPrimitive ber) throws IOException {
-        outputHead(ber);
-        outputBytes(ber.getContentOctets());
-    }
-
-    /*
-     * This is a protected method used to output the encoded identifier
-     * and length octets. It is used by the superclasses
-     * to implement the "output" method.
-     */
-    private void outputHead(BEREncoding ber) throws IOException {
-        outputBytes(ber.getIdentifierEncoding());
-        outputBytes(ber.getLengthEncoding());
-    }
-
-    /*
-     * This is a protected routine used for outputting an array of
-     * integers, interpreted as bytes, to an OutputStream. It is used
-     * by the superclasses to implement the "output" method.
-     */
-    private void outputBytes(int[] data) throws IOException {
-        for (int aData : data) {
-            outputStream.write(aData);
-        }
-    }
 }
@@ -0,0 +1,95 @@
+package org.xbib.asn1.io;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * BER pull parser tests.
+ */
+class BERPullParserTest {
+
+    @Test
+    void testEvents() throws IOException {
+        byte[] bytes = BERReaderTest.encode(BERReaderTest.createPDU());
+        List<String> events = new ArrayList<>();
+        try (BERPullParser parser = new BERPullParser(new ByteArrayInputStream(bytes))) {
+            while (parser.hasNext()) {
+                BERPullParser.Event event = parser.next();
+                switch (event) {
+                    case START_CONSTRUCTED -> events.add("start " + parser.getTag());
+                    case PRIMITIVE -> events.add("primitive " + parser.getTag() + " " + parser.getLength());
+                    case END -> events.add("end");
+                }
+            }
+            assertEquals(bytes.length, parser.getPosition());
+        }
+        assertEquals(List.of("start 25", "primitive 24 1", "start 130",
+                "primitive 4 12", "primitive 4 300", "end", "end"), events);
+    }
+
+    @Test
+    void testReadEncodingAndSkip() throws IOException {
+        byte[] bytes = BERReaderTest.encode(BERReaderTest.createPDU());
+        byte[] two = new byte[bytes.length * 2];
+        System.arraycopy(bytes, 0, two, 0, bytes.length);
+        System.arraycopy(bytes, 0, two, bytes.length, bytes.length);
+        BERPullParser parser = new BERPullParser(new ByteArrayInputStream(two));
+        assertEquals(BERPullParser.Event.START_CONSTRUCTED, parser.next());
+        assertEquals(BERPullParser.Event.PRIMITIVE, parser.next());
+        assertEquals(2, new ASN1Integer(parser.getPrimitive(), false).get());
+        assertEquals(BERPullParser.Event.START_CONSTRUCTED, parser.next());
+        assertEquals(BERPullParser.Event.PRIMITIVE, parser.next());
+        BEREncoding first = parser.readEncoding();
+        assertEquals(BERPullParser.Event.PRIMITIVE, parser.next());
+        assertEquals("first record", new ASN1OctetString(first, true).get());
+        assertEquals(BERPullParser.Event.END, parser.next());
+        assertEquals(BERPullParser.Event.END, parser.next());
+        assertEquals(0, parser.getDepth());
+        // the second PDU as a whole
+        assertEquals(BERPullParser.Event.START_CONSTRUCTED, parser.next());
+        BEREncoding pdu = parser.readEncoding();
+        BERReaderTest.assertPDU(pdu);
+        assertArrayEquals(bytes, BERReaderTest.encode(pdu));
+        assertFalse(parser.hasNext());
+        parser = new BERPullParser(new ByteArrayInputStream(two));
+        parser.next();
+        parser.skip();
+        assertEquals(bytes.length, parser.getPosition());
+    }
+
+    @Test
+    void testIndefiniteLength() throws IOException {
+        byte[] definite = BERReaderTest.encode(new ASN1Integer(42).berEncode());
+        byte[] bytes = new byte[definite.length + 8];
+        bytes[0] = (byte) 0xA3;
+        bytes[1] = (byte) 0x80;
+        bytes[2] = (byte) 0xA4;
+        bytes[3] = (byte) 0x80;
+        System.arraycopy(definite, 0, bytes, 4, definite.length);
+        BERPullParser parser = new BERPullParser(new ByteArrayInputStream(bytes));
+        assertEquals(BERPullParser.Event.START_CONSTRUCTED, parser.next());
+        assertEquals(-1, parser.getLength());
+        parser.skip();
+        assertEquals(bytes.length, parser.getPosition());
+        assertFalse(parser.hasNext());
+        BERPullParser truncated = new BERPullParser(new ByteArrayInputStream(bytes, 0, bytes.length - 2));
+        assertThrows(ASN1EncodingException.class, () -> {
+            while (truncated.hasNext()) {
+                truncated.next();
+            }
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package org.xbib.asn1.io;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BER reader tests.
+ */
+class BERReaderTest {
+
+    @Test
+    void testReadIntoOneBuffer() throws IOException {
+        byte[] bytes = encode(createPDU());
+        BEREncoding ber;
+        try (InputStreamBERReader reader = new InputStreamBERReader(new ByteArrayInputStream(bytes))) {
+            ber = reader.read();
+            assertNull(reader.read());
+        }
+        assertPDU(ber);
+        BERConstructed records = (BERConstructed) ((BERConstructed) ber).elementAt(1);
+        ASN1OctetString first = new ASN1OctetString(records.elementAt(0), true);
+        ASN1OctetString second = new ASN1OctetString(records.elementAt(1), true);
+        assertSame(first.getBuffer(), second.getBuffer());
+        assertArrayEquals(bytes, encode(ber));
+    }
+
+    @Test
+    void testReadIndefiniteLength() throws IOException {
+        byte[] definite = encode(new ASN1Integer(42).berEncode());
+        // [CONTEXT 3] constructed, indefinite length, one INTEGER, end-of-contents
+        byte[] bytes = new byte[definite.length + 4];
+        bytes[0] = (byte) 0xA3;
+        bytes[1] = (byte) 0x80;
+        System.arraycopy(definite, 0, bytes, 2, definite.length);
+        BEREncoding ber = new InputStreamBERReader(new ByteArrayInputStream(bytes)).read();
+        assertEquals(3, ber.getTag());
+        assertEquals(42, new ASN1Integer(((BERConstructed) ber).elementAt(0), true).get());
+        ber = new ByteArrayBERReader(bytes).read();
+        assertEquals(42, new ASN1Integer(((BERConstructed) ber).elementAt(0), true).get());
+        ber = new ChannelBERReader(new TrickleChannel(bytes, 1)).read();
+        assertEquals(42, new ASN1Integer(((BERConstructed) ber).elementAt(0), true).get());
+    }
+
+    @Test
+    void testChannelReader() throws IOException {
+        byte[] pdu = encode(createPDU());
+        byte[] bytes = new byte[pdu.length * 2];
+        System.arraycopy(pdu, 0, bytes, 0, pdu.length);
+        System.arraycopy(pdu, 0, bytes, pdu.length, pdu.length);
+        try (ChannelBERReader reader = new ChannelBERReader(new TrickleChannel(bytes, 3), 1024, 16)) {
+            assertPDU(reader.read());
+            assertPDU(reader.read());
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    void testChannelReaderReadAhead() throws IOException {
+        byte[] pdu = encode(createPDU());
+        try (ChannelBERReader reader = new ChannelBERReader(new TrickleChannel(pdu, 3), 1024, 4)) {
+            // the octets read ahead are kept for the read of the PDU, even beyond the buffer size
+            int n = 0;
+            while (n < pdu.length) {
+                n += reader.readAhead();
+            }
+            assertEquals(pdu.length, reader.available());
+            assertPDU(reader.read());
+            assertEquals(0, reader.available());
+            assertEquals(-1, reader.readAhead());
+        }
+    }
+
+    @Test
+    void testChannelReaderMaxBerSize() {
+        byte[] bytes = new byte[] {(byte) 0xB9, (byte) 0x82, 0x04, 0x00};
+        ChannelBERReader reader = new ChannelBERReader(new TrickleChannel(bytes, 1), 1000);
+        assertThrows(ASN1EncodingException.class, reader::read);
+    }
+
+    @Test
+    void testLazyDecoding() throws IOException {
+        byte[] bytes = encode(createPDU());
+        BEREncoding ber = new ByteArrayBERReader(bytes, 0, bytes.length, true).read();
+        LazyBERConstructed pdu = (LazyBERConstructed) ber;
+        assertEquals(2, pdu.numberComponents());
+        assertSame(bytes, pdu.getBuffer());
+        // encoding a lazy PDU copies the octets without decoding the components
+        assertArrayEquals(bytes, encode(ber));
+        LazyBERConstructed records = (LazyBERConstructed) pdu.elementAt(1);
+        assertSame(records, pdu.elementAt(1));
+        assertEquals(300, records.getElementLength(1) - 4);
+        assertPDU(ber);
+        BEREncoding eager = new ByteArrayBERReader(bytes).read();
+        assertArrayEquals(encode(eager), encode(ber));
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assertThrows(ASN1EncodingException.class,
+                () -> new ByteArrayBERReader(truncated, 0, truncated.length, true).read());
+    }
+
+    static BEREncoding createPDU() throws ASN1Exception {
+        byte[] large = new byte[300];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        BEREncoding[] records = new BEREncoding[] {
+                new ASN1OctetString("first record").berEncode(),
+                new ASN1OctetString(large).berEncode()
+        };
+        BEREncoding[] fields = new BEREncoding[] {
+                new ASN1Integer(2).berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 24),
+                new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 130, records)
+        };
+        return new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 25, fields);
+    }
+
+    static void assertPDU(BEREncoding ber) throws ASN1Exception {
+        assertEquals(BEREncoding.CONTEXT_SPECIFIC_TAG, ber.getTagType());
+        assertEquals(25, ber.getTag());
+        BERConstructed pdu = (BERConstructed) ber;
+        assertEquals(2, new ASN1Integer(pdu.elementAt(0), false).get());
+        BERConstructed records = (BERConstructed) pdu.elementAt(1);
+        assertEquals(130, records.getTag());
+        assertEquals("first record", new ASN1OctetString(records.elementAt(0), true).get());
+        byte[] large = new ASN1OctetString(records.elementAt(1), true).getBytes();
+        assertEquals(300, large.length);
+        assertEquals((byte) 299, large[299]);
+        assertEquals("first record", new String(new ASN1OctetString(records.elementAt(0), true).getBytes(),
+                StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void testLazyDecodingOfCorruptComponent() throws IOException {
+        // a component with a primitive that claims more octets than the component holds
+        byte[] bytes = new byte[] {(byte) 0xB6, 0x06, (byte) 0xBC, 0x04, (byte) 0x98, 0x0A, 0x00, 0x00};
+        assertThrows(ASN1EncodingException.class, () -> new ByteArrayBERReader(bytes).read());
+        // in lazy mode, only the outer framing is checked when the encoding is read
+        BERConstructed ber = (BERConstructed) new ByteArrayBERReader(bytes, 0, bytes.length, true).read();
+        assertEquals(1, ber.numberComponents());
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> ber.elementAt(0));
+        assertTrue(e.getCause() instanceof ASN1EncodingException);
+    }
+
+    /**
+     * A channel that returns at most a few octets per read.
+     */
+    static class TrickleChannel implements ReadableByteChannel {
+
+        private final byte[] bytes;
+
+        private final int chunkSize;
+
+        private int position;
+
+        TrickleChannel(byte[] bytes, int chunkSize) {
+            this.bytes = bytes;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (position == bytes.length) {
+                return -1;
+            }
+            int n = Math.min(Math.min(chunkSize, dst.remaining()), bytes.length - position);
+            dst.put(bytes, position, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    static byte[] encode(BEREncoding ber) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStreamBERWriter writer = new OutputStreamBERWriter(outputStream)) {
+            writer.write(ber);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,58 @@
+package org.xbib.asn1.io;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * BER writer tests.
+ */
+class BERWriterTest {
+
+    @Test
+    void testOneWriteAndFlushPerPDU() throws IOException {
+        BEREncoding pdu = BERReaderTest.createPDU();
+        CountingOutputStream outputStream = new CountingOutputStream();
+        OutputStreamBERWriter writer = new OutputStreamBERWriter(outputStream);
+        writer.write(pdu);
+        writer.write(pdu);
+        assertEquals(2, outputStream.writes);
+        assertEquals(2, outputStream.flushes);
+        byte[] bytes = outputStream.toByteArray();
+        assertEquals(2 * pdu.getTotalLength(), bytes.length);
+        assertArrayEquals(pdu.getEncoding(), new ByteArrayBERReader(bytes, 0, pdu.getTotalLength()).read().getEncoding());
+        BERReaderTest.assertPDU(new ByteArrayBERReader(bytes, pdu.getTotalLength(), pdu.getTotalLength()).read());
+    }
+
+    /**
+     * Counts write and flush calls.
+     */
+    static class CountingOutputStream extends ByteArrayOutputStream {
+
+        int writes;
+
+        int flushes;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Tests for BER input and output.
+ */
+package org.xbib.asn1.io;
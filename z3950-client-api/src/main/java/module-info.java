@@ -1,4 +1,5 @@
 module org.xbib.z3950lib.client.api {
     exports org.xbib.z3950.client.api;
     requires transitive org.xbib.z3950lib.common;
+    requires java.logging;
 }
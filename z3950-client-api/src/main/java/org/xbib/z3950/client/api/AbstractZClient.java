@@ -0,0 +1,1551 @@
+package org.xbib.z3950.client.api;
+
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERFrame;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.api.InitListener;
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.RecordListener;
+import org.xbib.z3950.api.ScanListener;
+import org.xbib.z3950.api.ScanTermListener;
+import org.xbib.z3950.api.SearchListener;
+import org.xbib.z3950.api.TimeoutListener;
+import org.xbib.z3950.common.RecordPublisher;
+import org.xbib.z3950.common.operations.CloseOperation;
+import org.xbib.z3950.common.operations.InitOperation;
+import org.xbib.z3950.common.operations.PresentOperation;
+import org.xbib.z3950.common.operations.ReferenceIdMultiplexer;
+import org.xbib.z3950.common.operations.ResultSetLifecycle;
+import org.xbib.z3950.common.operations.ResultSetManager;
+import org.xbib.z3950.common.operations.ScanOperation;
+import org.xbib.z3950.common.operations.SearchOperation;
+import org.xbib.z3950.common.operations.SortOperation;
+import org.xbib.z3950.common.operations.TriggerResourceControlOperation;
+import org.xbib.z3950.common.v3.CloseReason;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The Z39.50 session of a client, independent of how the PDUs travel to the target.
+ * The session connects a {@link Transport}, which reads and writes whole BER PDUs,
+ * initializes it, and runs the operations on the channels of a {@link ReferenceIdMultiplexer}
+ * on the calling thread. The clients only provide the transport.
+ * Each session has one operation at a time unless concurrent operations have been negotiated,
+ * and its {@link State} tells which: a session is connected, initialized, and then searches,
+ * sorts, presents, or scans, until it is closed.
+ */
+public abstract class AbstractZClient implements AsyncClient, Closeable {
+
+    private static final Logger logger = Logger.getLogger(AbstractZClient.class.getName());
+
+    /**
+     * The time that a target gets to end a cancelled operation, before the session is closed.
+     */
+    private static final long CANCEL_GRACE_MILLIS = 2000L;
+
+    /**
+     * Watches the deadlines of the operations of all clients. It only keeps the time,
+     * the cancels and closes are sent by the {@link #canceller}.
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "z3950-deadlines");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sends the cancels and closes of expired deadlines. A target that has stalled may block
+     * the writes, which must not delay the deadlines of other sessions.
+     */
+    private static final Executor canceller = Thread::startVirtualThread;
+
+    private final Builder<?> builder;
+
+    private final Lock lock;
+
+    private final ResultSetManager resultSets;
+
+    private final boolean reuseResultSets;
+
+    private final ThreadLocal<Long> deadline;
+
+    private final ThreadLocal<Cancellation> cancellation;
+
+    private volatile Session session;
+
+    private volatile State state;
+
+    private volatile SessionResultSet currentResultSet;
+
+    private final Deque<String> publisherResultSetNames;
+
+    private final AtomicInteger publisherCounter;
+
+    protected AbstractZClient(Builder<?> builder) {
+        this.builder = builder;
+        this.lock = new ReentrantLock();
+        this.deadline = new ThreadLocal<>();
+        this.cancellation = new ThreadLocal<>();
+        if (builder.maxResultSets > 0) {
+            this.resultSets = new ResultSetManager(builder.resultSetName, builder.maxResultSets);
+        } else if (builder.maxConcurrentOperations > 1) {
+            // searches in flight must not share a result set, so each search gets a name of its own
+            this.resultSets = new ResultSetManager(builder.resultSetName, builder.maxConcurrentOperations);
+        } else {
+            this.resultSets = null;
+        }
+        this.reuseResultSets = builder.maxResultSets > 0;
+        this.publisherResultSetNames = new ConcurrentLinkedDeque<>();
+        this.publisherCounter = new AtomicInteger();
+        this.state = State.CLOSED;
+    }
+
+    /**
+     * Connects the transport of a new session to the target.
+     *
+     * @return the transport
+     * @throws IOException if the target can not be connected
+     */
+    protected abstract Transport connectTransport() throws IOException;
+
+    @Override
+    public int searchCQL(String query,
+                         int offset,
+                         int length,
+                         List<SortOperation.SortParameter> sortParameters,
+                         SearchListener searchListener,
+                         RecordListener recordListener,
+                         TimeoutListener timeoutListener) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        return search(true, query, offset, length, sortParameters, searchListener, recordListener, timeoutListener,
+                builder.resultSetName, null);
+    }
+
+    @Override
+    public int searchPQF(String query,
+                         int offset,
+                         int length,
+                         List<SortOperation.SortParameter> sortParameters,
+                         SearchListener searchListener,
+                         RecordListener recordListener,
+                         TimeoutListener timeoutListener) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        return search(false, query, offset, length, sortParameters, searchListener, recordListener, timeoutListener,
+                builder.resultSetName, null);
+    }
+
+    @Override
+    public void scanPQF(String query,
+                        int nTerms,
+                        int step,
+                        int position,
+                        ScanListener scanListener,
+                        TimeoutListener timeoutListener) throws IOException {
+        Session current = ensureConnected();
+        try (ReferenceIdMultiplexer.Channel channel = current.multiplexer().open()) {
+            enter(State.SCAN);
+            try {
+                ScanOperation scanOperation = new ScanOperation(channel, channel, builder.databases);
+                withDeadline(current, channel, () -> {
+                    scanOperation.executePQF(nTerms, step, position, query, scanListener);
+                    return null;
+                });
+            } finally {
+                leave();
+            }
+        } catch (SocketTimeoutException e) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+        }
+    }
+
+    @Override
+    public int scanTermsPQF(String query,
+                            int nTerms,
+                            int step,
+                            int position,
+                            ScanTermListener scanTermListener,
+                            TimeoutListener timeoutListener) throws IOException {
+        Session current = ensureConnected();
+        try (ReferenceIdMultiplexer.Channel channel = current.multiplexer().open()) {
+            enter(State.SCAN);
+            try {
+                ScanOperation scanOperation = new ScanOperation(channel, channel, builder.databases);
+                return withDeadline(current, channel,
+                        () -> scanOperation.scanPQF(nTerms, step, position, query, scanTermListener));
+            } finally {
+                leave();
+            }
+        } catch (SocketTimeoutException e) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public int browsePQF(String query,
+                         int pageSize,
+                         boolean forward,
+                         int maxTerms,
+                         ScanTermListener scanTermListener,
+                         TimeoutListener timeoutListener) throws IOException {
+        Session current = ensureConnected();
+        try (ReferenceIdMultiplexer.Channel channel = current.multiplexer().open()) {
+            enter(State.SCAN);
+            try {
+                // the deadline applies to each page, not to the walk, which may be long
+                ScanOperation scanOperation = new ScanOperation(pageReader(current, channel), channel,
+                        builder.databases);
+                return scanOperation.browsePQF(query, pageSize, forward, maxTerms, scanTermListener);
+            } finally {
+                leave();
+            }
+        } catch (SocketTimeoutException e) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean sort(String referenceId,
+                        List<SortOperation.SortParameter> parameters,
+                        TimeoutListener timeoutListener) throws IOException {
+        SessionResultSet last = currentResultSet;
+        SessionResultSet source = last != null ? last : new SessionResultSet(builder.resultSetName, null);
+        Session current = ensureConnected();
+        try (ReferenceIdMultiplexer.Channel channel = current.multiplexer().open()) {
+            enter(State.SORT);
+            ResultSetManager.ResultSet managed = source.managed();
+            if (managed != null && !resultSets.pin(managed)) {
+                leave();
+                throw new IOException("result set " + source.name() + " is gone");
+            }
+            try {
+                SessionResultSet sorted = withDeadline(current, channel, () -> sort(channel, referenceId,
+                        source.name(), managed != null ? managed.getCount() : 0, parameters));
+                if (sorted == null) {
+                    return false;
+                }
+                if (sorted.managed() != null) {
+                    resultSets.unpin(sorted.managed());
+                }
+                currentResultSet = sorted;
+                return true;
+            } finally {
+                if (managed != null) {
+                    resultSets.unpin(managed);
+                }
+                leave();
+            }
+        } catch (SocketTimeoutException e) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return builder.executor != null ? builder.executor : Thread::startVirtualThread;
+    }
+
+    @Override
+    public Flow.Publisher<Record> publishCQL(String query, int offset, int length) {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        return new RecordPublisher(getExecutor(), new ResultSetSource(true, query), offset, length,
+                RecordPublisher.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public Flow.Publisher<Record> publishPQF(String query, int offset, int length) {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        return new RecordPublisher(getExecutor(), new ResultSetSource(false, query), offset, length,
+                RecordPublisher.DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public String getHost() {
+        return builder.host;
+    }
+
+    @Override
+    public int getPort() {
+        return builder.port;
+    }
+
+    @Override
+    public String getUser() {
+        return builder.user;
+    }
+
+    @Override
+    public String getPass() {
+        return builder.pass;
+    }
+
+    @Override
+    public long getTimeout() {
+        return builder.timeout;
+    }
+
+    @Override
+    public String getPreferredRecordSyntax() {
+        return builder.preferredRecordSyntax;
+    }
+
+    @Override
+    public String getResultSetName() {
+        return builder.resultSetName;
+    }
+
+    @Override
+    public String getElementSetName() {
+        return builder.elementSetName;
+    }
+
+    @Override
+    public String getEncoding() {
+        return builder.encoding;
+    }
+
+    @Override
+    public String getFormat() {
+        return builder.format;
+    }
+
+    @Override
+    public String getType() {
+        return builder.type;
+    }
+
+    @Override
+    public List<String> getDatabases() {
+        return builder.databases;
+    }
+
+    /**
+     * Returns the maximum size of an inbound PDU, for the framing of the transport.
+     *
+     * @return the maximum size in octets
+     */
+    protected int getMaxBerSize() {
+        return builder.maxBerSize;
+    }
+
+    /**
+     * Connects and initializes a new session, unless the session is connected.
+     *
+     * @throws IOException if the session can not be connected or initialized
+     */
+    public void connect() throws IOException {
+        Transport transport = null;
+        try {
+            lock.lock();
+            if (isConnected()) {
+                return;
+            }
+            release(session);
+            enter(State.CONNECTING);
+            transport = connectTransport();
+            enter(State.INIT);
+            InitOperation initOperation = new InitOperation(transport, transport, builder.user, builder.pass);
+            initOperation.requestConcurrentOperations(builder.maxConcurrentOperations > 1);
+            initOperation.requestSegmentation(builder.segmentation ? 2 : 0);
+            initOperation.requestDeleteResultSets(resultSets != null);
+            initOperation.requestTriggerResourceControl(true);
+            if (initOperation.execute(builder.preferredMessageSize,
+                    builder.implementationName, builder.implementationVersion, builder.initListener)) {
+                throw new IOException("could not initiate connection");
+            }
+            boolean concurrent = initOperation.isConcurrentOperations();
+            ReferenceIdMultiplexer multiplexer = new ReferenceIdMultiplexer(transport, transport,
+                    concurrent ? builder.maxConcurrentOperations : 1);
+            // result sets do not survive the session
+            this.currentResultSet = null;
+            ResultSetLifecycle resultSetLifecycle = null;
+            if (resultSets != null) {
+                resultSets.clear();
+                if (initOperation.isDeleteResultSets()) {
+                    resultSetLifecycle = ResultSetLifecycle.start(resultSets, multiplexer,
+                            builder.resultSetIdleTimeout);
+                }
+            }
+            this.session = new Session(transport, multiplexer, resultSetLifecycle,
+                    initOperation.getPreferredMessageSize(), initOperation.getSegmentation(),
+                    initOperation.isTriggerResourceControl(), concurrent);
+            enter(State.READY);
+            logger.log(Level.INFO, initOperation.getTargetInfo());
+        } catch (IOException | RuntimeException e) {
+            release(session);
+            if (transport != null) {
+                transport.close();
+            }
+            session = null;
+            state = State.CLOSED;
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a close to the target, and closes the transport.
+     */
+    public void disconnect() {
+        try {
+            lock.lock();
+            Session current = session;
+            release(current);
+            try {
+                sendClose(current, 0);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "while attempting to send close for close connection: " + e.getMessage(), e);
+            }
+            if (current != null) {
+                current.transport().close();
+            }
+            state = State.CLOSED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isConnected()) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Returns true if the session is open. A close that the target has sent while the session
+     * was idle is recognized by the input waiting on the transport, without reading it.
+     *
+     * @return true if the session can be used without reconnecting
+     */
+    public boolean isOpen() {
+        try {
+            lock.lock();
+            Session current = session;
+            return current != null && current.transport().isOpen() && !current.multiplexer().isClosed()
+                    && !current.transport().isInputPending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the state of the session. With concurrent operations, the session stays
+     * {@link State#READY} while operations are running.
+     *
+     * @return the state, which is {@link State#CLOSED} as soon as the connection is lost
+     */
+    public State getState() {
+        State current = state;
+        return current != State.CONNECTING && current != State.INIT && !isConnected() ? State.CLOSED : current;
+    }
+
+    private int search(boolean cql,
+                       String query,
+                       int offset,
+                       int length,
+                       List<SortOperation.SortParameter> sortParameters,
+                       SearchListener searchListener,
+                       RecordListener recordListener,
+                       TimeoutListener timeoutListener,
+                       String unmanagedName,
+                       Consumer<SessionResultSet> holder) throws IOException {
+        Session current = ensureConnected();
+        try (ReferenceIdMultiplexer.Channel channel = current.multiplexer().open()) {
+            enter(State.SEARCH);
+            try {
+                return withDeadline(current, channel, () -> search(current, channel, cql, query, offset, length,
+                        sortParameters, searchListener, recordListener, unmanagedName, holder));
+            } finally {
+                leave();
+            }
+        } catch (SocketTimeoutException e) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Searches, sorts, and presents. The managed result sets are pinned while they are used.
+     * If result sets are not managed, the search goes to the result set of the given name.
+     * If a holder is given, it receives the result set of a successful search, which stays
+     * pinned until the holder unpins it.
+     */
+    private int search(Session session,
+                       ReferenceIdMultiplexer.Channel channel,
+                       boolean cql,
+                       String query,
+                       int offset,
+                       int length,
+                       List<SortOperation.SortParameter> sortParameters,
+                       SearchListener searchListener,
+                       RecordListener recordListener,
+                       String unmanagedName,
+                       Consumer<SessionResultSet> holder) throws IOException {
+        String queryType = cql ? "cql" : "pqf";
+        ResultSetManager.ResultSet resultSet = reuseResultSets ?
+                resultSets.lookup(queryType, query, builder.databases) : null;
+        boolean reused = resultSet != null && resultSet.isComplete() && resultSets.pin(resultSet);
+        ResultSetManager.ResultSet sortedSet = null;
+        SearchOperation searchOperation = null;
+        boolean piggyback = false;
+        String resultSetName;
+        int count;
+        try {
+            if (reused) {
+                resultSetName = resultSet.getName();
+                count = resultSet.getCount();
+                logger.log(Level.FINE, MessageFormat.format("reusing result set {0} [{1}]", resultSetName, query));
+            } else {
+                resultSet = resultSets != null ? resultSets.allocate(queryType, query, builder.databases) : null;
+                if (resultSet != null) {
+                    // keep the result set after the search for the presents
+                    resultSets.pin(resultSet);
+                }
+                if (session.resultSetLifecycle() != null) {
+                    session.resultSetLifecycle().deleteExpired();
+                }
+                resultSetName = resultSet != null ? resultSet.getName() : unmanagedName;
+                searchOperation = new SearchOperation(channel, channel,
+                        resultSetName, builder.databases, builder.host);
+                piggyback = builder.piggybackPresent && offset <= 1
+                        && (sortParameters == null || sortParameters.isEmpty());
+                if (piggyback) {
+                    searchOperation.setPiggybackPresent(length, builder.elementSetName, builder.preferredRecordSyntax);
+                }
+                boolean success = false;
+                try {
+                    success = cql ?
+                            searchOperation.executeCQL(StandardCharsets.UTF_8, query, builder.wordListSupported) :
+                            searchOperation.executePQF(StandardCharsets.UTF_8, query);
+                } finally {
+                    if (resultSet != null) {
+                        if (success) {
+                            resultSets.complete(resultSet, searchOperation.getCount());
+                        } else {
+                            resultSets.remove(resultSet);
+                        }
+                    }
+                }
+                count = searchOperation.getCount();
+                if (!success) {
+                    logger.log(Level.WARNING, MessageFormat.format("search was not a success [{0}]", query));
+                    return count;
+                }
+            }
+            if (searchListener != null) {
+                searchListener.onSearchResponse(count, reused ? 0L : searchOperation.getElapsedMillis());
+            }
+            if (searchListener == null) {
+                searchListener = (status, total, returned, elapsedMillis) -> {
+                    logger.log(Level.INFO, MessageFormat.format("[{0}ms] [{1}] [{2}] [{3}]",
+                            elapsedMillis, total, returned, query));
+                };
+            }
+            if (count > 0 && sortParameters != null && !sortParameters.isEmpty()) {
+                enter(State.SORT);
+                SessionResultSet sorted = sort(channel, "sort-ref", resultSetName, count, sortParameters);
+                logger.log(Level.FINE, "sort returned " + (sorted != null));
+                if (sorted != null) {
+                    resultSetName = sorted.name();
+                    sortedSet = sorted.managed();
+                }
+            }
+            SessionResultSet searched = new SessionResultSet(resultSetName, sortedSet != null ? sortedSet : resultSet);
+            currentResultSet = searched;
+            if (holder != null) {
+                if (searched.managed() != null) {
+                    resultSets.pin(searched.managed());
+                }
+                holder.accept(searched);
+            }
+            if (count > 0) {
+                logger.log(Level.FINE, "search returned " + count);
+                enter(State.PRESENT);
+                PresentOperation present = new PresentOperation(channel, channel,
+                        resultSetName, builder.elementSetName, builder.preferredRecordSyntax);
+                if (session.segmentation() >= 2) {
+                    present.setMaxSegmentSize(session.preferredMessageSize());
+                }
+                if (offset < 1) {
+                    // Z39.50 present bails out when offset = 0
+                    offset = 1;
+                }
+                if (length > count) {
+                    // avoid condition 13 "Present request out-of-range"
+                    length = count;
+                }
+                if (piggyback) {
+                    int returned = searchOperation.deliverRecords(searchListener, recordListener);
+                    offset += returned;
+                    length -= returned;
+                }
+                if (length > 0 && offset <= count) {
+                    try {
+                        if (builder.pipelinedPresent) {
+                            present.executePipelined(offset, length, count, session.preferredMessageSize(),
+                                    searchListener, recordListener);
+                        } else {
+                            present.execute(offset, length, count, searchListener, recordListener);
+                        }
+                    } catch (IOException e) {
+                        if (reused) {
+                            // the target may have discarded the result set, search again next time
+                            resultSets.remove(resultSet);
+                        }
+                        throw e;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            if (sortedSet != null) {
+                resultSets.unpin(sortedSet);
+            }
+            if (resultSet != null) {
+                resultSets.unpin(resultSet);
+            }
+        }
+    }
+
+    /**
+     * Sorts a result set into a result set of its own. If result sets are managed, the sorted
+     * result set is allocated from the manager, under a key of the source, so it counts against the
+     * maximum number of result sets, and it is deleted like the result sets of the searches.
+     *
+     * @return the sorted result set, which is pinned if it is managed, or null if the sort failed
+     */
+    private SessionResultSet sort(ReferenceIdMultiplexer.Channel channel,
+                                  String referenceId,
+                                  String source,
+                                  int count,
+                                  List<SortOperation.SortParameter> parameters) throws IOException {
+        ResultSetManager.ResultSet sorted = resultSets != null ?
+                resultSets.allocate("sort", source, builder.databases) : null;
+        if (sorted != null) {
+            resultSets.pin(sorted);
+        }
+        String sortedName = sorted != null ? sorted.getName() : source + "-sort";
+        boolean success = false;
+        try {
+            SortOperation sortOperation = new SortOperation(channel, channel);
+            success = sortOperation.execute(referenceId, source, sortedName, parameters);
+        } finally {
+            if (sorted != null && !success) {
+                resultSets.remove(sorted);
+                resultSets.unpin(sorted);
+            }
+        }
+        if (!success) {
+            return null;
+        }
+        if (sorted != null) {
+            resultSets.complete(sorted, count);
+        }
+        return new SessionResultSet(sortedName, sorted);
+    }
+
+    /**
+     * The result set of a record publisher. Records are presented from the result set of the
+     * search, which is pinned until the publisher has completed, or has been cancelled,
+     * so that other searches can not evict it. If result sets are not managed, the publisher
+     * searches into a private result set, so that other searches of the client can not replace it.
+     * The private result set names are reused by later publishers.
+     */
+    private class ResultSetSource implements RecordPublisher.Source {
+
+        private final boolean cql;
+
+        private final String query;
+
+        private volatile SessionResultSet resultSet;
+
+        private String privateName;
+
+        private int count;
+
+        private ResultSetSource(boolean cql, String query) {
+            this.cql = cql;
+            this.query = query;
+        }
+
+        @Override
+        public int search() throws IOException {
+            if (resultSets == null && privateName == null) {
+                privateName = publisherResultSetNames.poll();
+                if (privateName == null) {
+                    privateName = builder.resultSetName + "-publisher-" + publisherCounter.incrementAndGet();
+                }
+            }
+            AtomicBoolean timedOut = new AtomicBoolean();
+            count = AbstractZClient.this.search(cql, query, 1, 0, null, null, null,
+                    () -> timedOut.set(true), privateName, searched -> resultSet = searched);
+            if (timedOut.get()) {
+                throw new SocketTimeoutException("search timeout after " + builder.timeout + " ms");
+            }
+            // no records of a search that was not a success
+            return resultSet != null ? count : 0;
+        }
+
+        @Override
+        public int present(int offset, int length, RecordListener listener) throws IOException {
+            SessionResultSet searched = resultSet;
+            Session session = ensureConnected();
+            try (ReferenceIdMultiplexer.Channel channel = session.multiplexer().open()) {
+                enter(State.PRESENT);
+                try {
+                    if (searched.managed() != null && !resultSets.isValid(searched.managed())) {
+                        throw new IOException("result set " + searched.name() + " of [" + query + "] is gone");
+                    }
+                    PresentOperation present = new PresentOperation(channel, channel,
+                            searched.name(), builder.elementSetName, builder.preferredRecordSyntax);
+                    if (session.segmentation() >= 2) {
+                        present.setMaxSegmentSize(session.preferredMessageSize());
+                    }
+                    AtomicInteger delivered = new AtomicInteger();
+                    return withDeadline(session, channel, () -> {
+                        present.execute(offset, length, count, null, record -> {
+                            delivered.incrementAndGet();
+                            listener.onRecord(record);
+                        });
+                        return delivered.get();
+                    });
+                } finally {
+                    leave();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            SessionResultSet current = resultSet;
+            if (current != null && current.managed() != null) {
+                resultSets.unpin(current.managed());
+            }
+            releasePrivateName();
+        }
+
+        @Override
+        public void release() {
+            SessionResultSet current = resultSet;
+            if (current != null && current.managed() != null) {
+                resultSets.expire(current.managed());
+                resultSets.unpin(current.managed());
+                Session session = AbstractZClient.this.session;
+                if (session != null && session.resultSetLifecycle() != null) {
+                    session.resultSetLifecycle().deleteExpired();
+                }
+            }
+            releasePrivateName();
+        }
+
+        private void releasePrivateName() {
+            if (privateName != null) {
+                publisherResultSetNames.push(privateName);
+                privateName = null;
+            }
+        }
+    }
+
+    private boolean isConnected() {
+        Session current = session;
+        return current != null && current.transport().isOpen();
+    }
+
+    /**
+     * Moves the session to the next state. The operations enter their state while they hold
+     * the channel of the multiplexer, so without concurrent operations there is one operation
+     * at a time. With concurrent operations, only the states of the session as a whole are kept.
+     *
+     * @param next the next state
+     * @throws IOException if the connection has been lost
+     */
+    private void enter(State next) throws IOException {
+        State current = getState();
+        if (current == State.CLOSED && next != State.CONNECTING) {
+            throw new IOException("connection closed, can not " + next);
+        }
+        if (isConcurrent() && next.isOperation()) {
+            return;
+        }
+        if (!current.canMoveTo(next)) {
+            throw new IllegalStateException("session can not move from " + current + " to " + next);
+        }
+        state = next;
+    }
+
+    /**
+     * Moves the session back to ready at the end of an operation, or to closed if the
+     * connection has been lost during the operation.
+     */
+    private void leave() {
+        if (!isConnected()) {
+            state = State.CLOSED;
+        } else if (!isConcurrent()) {
+            state = State.READY;
+        }
+    }
+
+    private boolean isConcurrent() {
+        Session current = session;
+        return current != null && current.concurrent();
+    }
+
+    /**
+     * Runs operations of this client with a deadline, which covers each operation as a whole,
+     * and not only the reads from the transport. The deadline ends with the task, and applies to the
+     * operations of the calling thread only. A deadline that is earlier than the deadline of the
+     * operation timeout, or of an enclosing call, takes precedence.
+     * If an operation misses the deadline, it is cancelled, and it times out.
+     *
+     * @param timeoutMillis the time in milliseconds for all operations of the task
+     * @param task the task
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws IOException if the task fails
+     */
+    public <T> T runWithin(long timeoutMillis, Operation<T> task) throws IOException {
+        return runWithin(timeoutMillis, null, task);
+    }
+
+    /**
+     * Runs operations of this client with a deadline, like {@link #runWithin(long, Operation)},
+     * which can also be cancelled by another thread before the deadline.
+     *
+     * @param timeoutMillis the time in milliseconds for all operations of the task
+     * @param cancel the cancellation of the task, or null
+     * @param task the task
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws IOException if the task fails
+     */
+    public <T> T runWithin(long timeoutMillis, Cancellation cancel, Operation<T> task) throws IOException {
+        Long enclosing = deadline.get();
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        deadline.set(enclosing != null && enclosing - end < 0 ? enclosing : end);
+        try {
+            return runCancellable(cancel, task);
+        } finally {
+            if (enclosing != null) {
+                deadline.set(enclosing);
+            } else {
+                deadline.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs operations of this client that can be cancelled by another thread, without a deadline
+     * of their own. A cancelled operation is cancelled on the target like an operation that has missed
+     * its deadline, so that the session can be used again, and it times out.
+     *
+     * @param cancel the cancellation of the task, or null
+     * @param task the task
+     * @param <T> the result type
+     * @return the result of the task
+     * @throws IOException if the task fails
+     */
+    public <T> T runCancellable(Cancellation cancel, Operation<T> task) throws IOException {
+        Cancellation enclosing = cancellation.get();
+        if (cancel == null || cancel == enclosing) {
+            return task.run();
+        }
+        cancellation.set(cancel);
+        try {
+            return task.run();
+        } finally {
+            if (enclosing != null) {
+                cancellation.set(enclosing);
+            } else {
+                cancellation.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs an operation with the deadline of the calling thread, or the operation timeout.
+     * If the deadline passes, the operation is cancelled on the target with trigger resource
+     * control, if the target supports it. If the target does not end the operation within the
+     * grace period, or does not support trigger resource control, the session is closed,
+     * which ends the operation, and the next operation opens a new session.
+     */
+    private <T> T withDeadline(Session session, ReferenceIdMultiplexer.Channel channel,
+                               Operation<T> operation) throws IOException {
+        long timeout = builder.operationTimeout > 0 ? TimeUnit.MILLISECONDS.toNanos(builder.operationTimeout) : -1L;
+        Long end = deadline.get();
+        if (end != null) {
+            long remaining = end - System.nanoTime();
+            if (remaining <= 0) {
+                throw new SocketTimeoutException("deadline exceeded");
+            }
+            timeout = timeout < 0 ? remaining : Math.min(timeout, remaining);
+        }
+        Cancellation cancel = cancellation.get();
+        if (cancel != null && cancel.isCancelled()) {
+            throw new SocketTimeoutException("operation cancelled");
+        }
+        if (timeout < 0 && cancel == null) {
+            return operation.run();
+        }
+        Deadline operationDeadline = new Deadline(session, channel, timeout);
+        Runnable expire = () -> canceller.execute(operationDeadline::expire);
+        if (cancel != null) {
+            cancel.add(expire);
+        }
+        boolean expired = false;
+        try {
+            T t = operation.run();
+            expired = operationDeadline.finish();
+            if (expired) {
+                throw new SocketTimeoutException(expiredMessage("cancelled", timeout, cancel));
+            }
+            return t;
+        } catch (IOException | RuntimeException e) {
+            expired = operationDeadline.finish();
+            if (expired && !(e instanceof SocketTimeoutException)) {
+                SocketTimeoutException timeoutException = new SocketTimeoutException(expiredMessage("aborted", timeout, cancel));
+                timeoutException.initCause(e);
+                throw timeoutException;
+            }
+            throw e;
+        } finally {
+            if (cancel != null) {
+                cancel.remove(expire);
+            }
+            if (operationDeadline.isAborted()) {
+                reset(session);
+            }
+        }
+    }
+
+    /**
+     * Returns a reader of the responses of a channel with a deadline for each response.
+     */
+    private BERReader pageReader(Session session, ReferenceIdMultiplexer.Channel channel) {
+        return new BERReader() {
+            @Override
+            public BEREncoding read() throws IOException {
+                return withDeadline(session, channel, channel::read);
+            }
+
+            @Override
+            public void close() {
+                // the channel is closed by the operation
+            }
+        };
+    }
+
+    private static String expiredMessage(String outcome, long timeout, Cancellation cancel) {
+        return cancel != null && cancel.isCancelled() ? "operation " + outcome + " on cancel" :
+                "operation " + outcome + " after deadline of " + TimeUnit.NANOSECONDS.toMillis(timeout) + " ms";
+    }
+
+    /**
+     * Releases a session after it has been aborted, the next operation opens a new session.
+     * If another operation has opened a new session meanwhile, the new session is kept.
+     */
+    private void reset(Session aborted) {
+        try {
+            lock.lock();
+            aborted.transport().close();
+            if (session == aborted) {
+                release(aborted);
+                session = null;
+                state = State.CLOSED;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the background work of a session that ends.
+     */
+    private void release(Session ended) {
+        if (ended != null && ended.resultSetLifecycle() != null) {
+            ended.resultSetLifecycle().close();
+        }
+    }
+
+    /**
+     * Connects unless the session is connected. The operations use the returned session,
+     * and not the session of the client, which may be replaced while they run.
+     *
+     * @return the connected session
+     * @throws IOException if the session can not be connected or initialized
+     */
+    private Session ensureConnected() throws IOException {
+        try {
+            lock.lock();
+            if (!isConnected()) {
+                connect();
+            }
+            return session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Send a close request to the server.
+     *
+     * @param session the session, or null if there is none
+     * @param reason reason Reason codes are:
+     * 0=finished 1=shutdown 2=system problem 3=cost limits
+     * 4=resources 5=security violation 6=protocol error 7=lack of activity
+     * 8=peer abort 9=unspecified
+     * @throws IOException if close fails
+     */
+    private void sendClose(Session session, int reason) throws IOException {
+        if (session == null || !session.transport().isOpen()) {
+            return;
+        }
+        try (ReferenceIdMultiplexer.Channel channel = session.multiplexer().open()) {
+            enter(State.CLOSE);
+            try {
+                CloseOperation closeOperation = new CloseOperation(channel, channel);
+                closeOperation.execute(reason);
+            } finally {
+                leave();
+            }
+        }
+    }
+
+    /**
+     * A connected and initialized session, with the parameters that have been negotiated on init.
+     *
+     * @param transport the transport
+     * @param multiplexer the multiplexer of the operations
+     * @param resultSetLifecycle the deletion of result sets, or null
+     * @param preferredMessageSize the preferred message size of the target
+     * @param segmentation the segmentation level
+     * @param triggerResourceControl true if operations can be cancelled
+     * @param concurrent true if operations run concurrently
+     */
+    private record Session(Transport transport,
+                           ReferenceIdMultiplexer multiplexer,
+                           ResultSetLifecycle resultSetLifecycle,
+                           int preferredMessageSize,
+                           int segmentation,
+                           boolean triggerResourceControl,
+                           boolean concurrent) {
+    }
+
+    /**
+     * A result set on the target, with its entry in the result set manager if result sets are managed.
+     *
+     * @param name the name of the result set
+     * @param managed the managed result set, or null
+     */
+    private record SessionResultSet(String name, ResultSetManager.ResultSet managed) {
+    }
+
+    /**
+     * An operation of the session, or a task of operations, see {@link #runWithin(long, Operation)}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface Operation<T> {
+
+        T run() throws IOException;
+    }
+
+    /**
+     * The transport of a session, which reads and writes whole BER PDUs.
+     * The reads wait for the timeout of the client at most.
+     */
+    public interface Transport extends BERReader, BERWriter {
+
+        /**
+         * Returns true if the connection has not been closed.
+         *
+         * @return true if the transport is open
+         */
+        boolean isOpen();
+
+        /**
+         * Returns true if input has arrived that no operation has asked for, such as a close of the target.
+         *
+         * @return true if input is waiting
+         */
+        boolean isInputPending();
+
+        /**
+         * Closes the connection. Operations that wait for a read fail.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * The states of a session. A session moves from {@link #READY} to one operation and back,
+     * except that a search may sort and present its hits before it is ready again.
+     */
+    public enum State {
+        CONNECTING, INIT, READY, SEARCH, SORT, PRESENT, SCAN, CLOSE, CLOSED;
+
+        boolean canMoveTo(State next) {
+            if (next == CLOSED) {
+                return true;
+            }
+            return switch (this) {
+                case CLOSED -> next == CONNECTING;
+                case CONNECTING -> next == INIT;
+                case INIT -> next == READY;
+                case READY -> next != CONNECTING && next != INIT && next != READY;
+                case SEARCH -> next == SORT || next == PRESENT || next == READY;
+                case SORT -> next == PRESENT || next == READY;
+                case PRESENT, SCAN -> next == READY;
+                case CLOSE -> false;
+            };
+        }
+
+        boolean isOperation() {
+            return this == SEARCH || this == SORT || this == PRESENT || this == SCAN;
+        }
+    }
+
+    /**
+     * The deadline of an operation in progress. When it expires, the operation is cancelled,
+     * or the session is aborted. The states make sure that a session is not aborted after
+     * the operation has finished. An operation without a deadline only expires on cancel.
+     */
+    private class Deadline {
+
+        private static final int RUNNING = 0;
+
+        private static final int EXPIRED = 1;
+
+        private static final int FINISHED = 2;
+
+        private static final int ABORTED = 3;
+
+        private final Session session;
+
+        private final ReferenceIdMultiplexer.Channel channel;
+
+        private final AtomicInteger state;
+
+        private final ScheduledFuture<?> future;
+
+        private volatile ScheduledFuture<?> abortFuture;
+
+        private volatile boolean expired;
+
+        private Deadline(Session session, ReferenceIdMultiplexer.Channel channel, long timeoutNanos) {
+            this.session = session;
+            this.channel = channel;
+            this.state = new AtomicInteger(RUNNING);
+            this.future = timeoutNanos >= 0 ?
+                    scheduler.schedule(() -> canceller.execute(this::expire), timeoutNanos, TimeUnit.NANOSECONDS) : null;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(RUNNING, EXPIRED)) {
+                return;
+            }
+            expired = true;
+            if (session.triggerResourceControl()) {
+                try {
+                    new TriggerResourceControlOperation(channel, channel).cancel();
+                    logger.log(Level.FINE, "deadline exceeded or cancelled, cancelling operation");
+                    abortFuture = scheduler.schedule(() -> canceller.execute(this::abort),
+                            CANCEL_GRACE_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "can not cancel operation: " + e.getMessage(), e);
+                }
+            }
+            abort();
+        }
+
+        private void abort() {
+            if (!state.compareAndSet(EXPIRED, ABORTED)) {
+                return;
+            }
+            logger.log(Level.WARNING, "deadline exceeded or cancelled, closing session with " + builder.host);
+            try {
+                new CloseOperation(channel, channel).execute(CloseReason.E_RESOURCES);
+            } catch (IOException e) {
+                logger.log(Level.FINE, "can not send close: " + e.getMessage(), e);
+            }
+            try {
+                session.transport().close();
+            } catch (RuntimeException e) {
+                logger.log(Level.FINE, "can not close transport: " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Ends the deadline when the operation has finished.
+         *
+         * @return true if the deadline has expired
+         */
+        private boolean finish() {
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (!state.compareAndSet(RUNNING, FINISHED)) {
+                state.compareAndSet(EXPIRED, FINISHED);
+            }
+            ScheduledFuture<?> f = abortFuture;
+            if (f != null) {
+                f.cancel(false);
+            }
+            return expired;
+        }
+
+        private boolean isAborted() {
+            return state.get() == ABORTED;
+        }
+    }
+
+    /**
+     * The settings of a client.
+     *
+     * @param <B> the type of the builder
+     */
+    public abstract static class Builder<B extends Builder<B>> {
+
+        private static final ResourceBundle recordSyntaxBundle =
+                ResourceBundle.getBundle("org.xbib.z3950.common.recordsyntax");
+
+        private String host;
+
+        private int port;
+
+        private String user;
+
+        private String pass;
+
+        private long timeout;
+
+        private String preferredRecordSyntax;
+
+        private String resultSetName;
+
+        private String elementSetName;
+
+        private String encoding;
+
+        private String format;
+
+        private String type;
+
+        private List<String> databases;
+
+        private Integer preferredMessageSize;
+
+        private String implementationName;
+
+        private String implementationVersion;
+
+        private InitListener initListener;
+
+        private boolean wordListSupported;
+
+        private int maxBerSize;
+
+        private boolean pipelinedPresent;
+
+        private boolean piggybackPresent;
+
+        private boolean segmentation;
+
+        private int maxConcurrentOperations;
+
+        private int maxResultSets;
+
+        private long resultSetIdleTimeout;
+
+        private Executor executor;
+
+        private long operationTimeout;
+
+        protected Builder() {
+            this.timeout = 5000;
+            this.preferredRecordSyntax = "1.2.840.10003.5.10"; // marc21
+            this.resultSetName = "default";
+            this.encoding = "ANSEL";
+            this.format = "MARC21";
+            this.type = "Bibliographic";
+            this.databases = Collections.singletonList("");
+            this.preferredMessageSize = 10 * 1024 * 1024;
+            this.implementationName = "Java Z Client";
+            this.implementationVersion = "1.00";
+            this.wordListSupported = true;
+            this.maxBerSize = BERFrame.DEFAULT_MAX_BER_SIZE;
+            this.maxConcurrentOperations = 1;
+        }
+
+        /**
+         * Returns this builder, as the type of the subclass.
+         *
+         * @return this builder
+         */
+        protected abstract B self();
+
+        public abstract AbstractZClient build();
+
+        /**
+         * Returns the settings of the sessions of this builder, except the executor, which does not
+         * affect the sessions. Builders with equal settings build clients with interchangeable sessions,
+         * for example for a pool of sessions. Subclasses add the settings of their transport.
+         *
+         * @return the settings, which contain the password
+         */
+        protected List<Object> getSettings() {
+            return Arrays.asList(host, port, user, pass, timeout, preferredRecordSyntax, resultSetName,
+                    elementSetName, encoding, format, type, databases != null ? new ArrayList<>(databases) : null,
+                    preferredMessageSize, implementationName, implementationVersion, initListener,
+                    wordListSupported, maxBerSize, pipelinedPresent, piggybackPresent, segmentation,
+                    maxConcurrentOperations, maxResultSets, resultSetIdleTimeout, operationTimeout);
+        }
+
+        public B setHost(String host) {
+            this.host = host;
+            return self();
+        }
+
+        public B setPort(int port) {
+            this.port = port;
+            return self();
+        }
+
+        public B setUser(String user) {
+            this.user = user;
+            return self();
+        }
+
+        public B setPass(String pass) {
+            this.pass = pass;
+            return self();
+        }
+
+        public B setTimeout(long timeout) {
+            this.timeout = timeout;
+            return self();
+        }
+
+        public B setPreferredRecordSyntax(String preferredRecordSyntax) {
+            this.preferredRecordSyntax = preferredRecordSyntax;
+            if (recordSyntaxBundle.containsKey(preferredRecordSyntax)) {
+                this.preferredRecordSyntax = recordSyntaxBundle.getString(preferredRecordSyntax);
+            }
+            return self();
+        }
+
+        public B setResultSetName(String resultSetName) {
+            this.resultSetName = resultSetName;
+            return self();
+        }
+
+        public B setElementSetName(String elementSetName) {
+            this.elementSetName = elementSetName;
+            return self();
+        }
+
+        public B setEncoding(String encoding) {
+            this.encoding = encoding;
+            return self();
+        }
+
+        public B setFormat(String format) {
+            this.format = format;
+            return self();
+        }
+
+        public B setType(String type) {
+            this.type = type;
+            return self();
+        }
+
+        public B setDatabases(List<String> databases) {
+            this.databases = databases;
+            return self();
+        }
+
+        public B setPreferredMessageSize(int preferredMessageSize) {
+            this.preferredMessageSize = preferredMessageSize;
+            return self();
+        }
+
+        public B setImplementationName(String implementationName) {
+            this.implementationName = implementationName;
+            return self();
+        }
+
+        public B setImplementationVersion(String implementationVersion) {
+            this.implementationVersion = implementationVersion;
+            return self();
+        }
+
+        public B setInitListener(InitListener initListener) {
+            this.initListener = initListener;
+            return self();
+        }
+
+        public B wordListSupported(boolean wordListSupported) {
+            this.wordListSupported = wordListSupported;
+            return self();
+        }
+
+        public B setMaxBerSize(int maxBerSize) {
+            this.maxBerSize = maxBerSize;
+            return self();
+        }
+
+        /**
+         * Present large ranges in batches that fit into the negotiated message size,
+         * with the request for the next batch sent before the current batch is delivered.
+         *
+         * @param pipelinedPresent true for pipelined present
+         * @return this builder
+         */
+        public B setPipelinedPresent(boolean pipelinedPresent) {
+            this.pipelinedPresent = pipelinedPresent;
+            return self();
+        }
+
+        /**
+         * Ask for the first records with the search request, so that a search starting at the
+         * first hit needs no present request for them. Not used when the result is sorted.
+         *
+         * @param piggybackPresent true for records with the search response
+         * @return this builder
+         */
+        public B setPiggybackPresent(boolean piggybackPresent) {
+            this.piggybackPresent = piggybackPresent;
+            return self();
+        }
+
+        /**
+         * Ask for segmentation on init. If the target accepts, large present responses arrive
+         * in segments of the preferred message size, and records are delivered segment by segment.
+         * Records larger than a segment arrive in fragments and are reassembled, large records are
+         * spilled to a temporary file.
+         *
+         * @param segmentation true for segmentation
+         * @return this builder
+         */
+        public B setSegmentation(boolean segmentation) {
+            this.segmentation = segmentation;
+            return self();
+        }
+
+        /**
+         * Request concurrent operations on init. If the target accepts, up to the given number
+         * of operations run at the same time on the connection, otherwise one at a time.
+         * Searches in flight must not share a result set, so unless result sets are kept,
+         * see {@link #setMaxResultSets(int)}, each search gets a result set name of its own, which
+         * is reused by later searches when there are more than the given number of result sets.
+         *
+         * @param maxConcurrentOperations the number of operations in flight, 1 for no concurrent operations
+         * @return this builder
+         */
+        public B setMaxConcurrentOperations(int maxConcurrentOperations) {
+            this.maxConcurrentOperations = maxConcurrentOperations;
+            return self();
+        }
+
+        /**
+         * Keep the result sets of earlier searches, so that searching the same query again,
+         * for example to page through the hits, needs only a present request. Each query gets a
+         * result set of its own, named after the result set name, and the least recently used
+         * result set is replaced when there are more than the given number of result sets.
+         *
+         * @param maxResultSets the number of result sets on the target, 0 to search every time
+         * @return this builder
+         */
+        public B setMaxResultSets(int maxResultSets) {
+            this.maxResultSets = maxResultSets;
+            return self();
+        }
+
+        /**
+         * Delete result sets that have not been used for the given time. Result sets are only
+         * deleted if result sets are kept, see {@link #setMaxResultSets(int)}, and the target
+         * supports the delete result set service. Evicted result sets are always deleted then.
+         *
+         * @param resultSetIdleTimeout the idle time in milliseconds, 0 to delete evicted result sets only
+         * @return this builder
+         */
+        public B setResultSetIdleTimeout(long resultSetIdleTimeout) {
+            this.resultSetIdleTimeout = resultSetIdleTimeout;
+            return self();
+        }
+
+        /**
+         * The time for each operation as a whole, from the request to the last record.
+         * The timeout of the builder limits connecting, and each read from the transport,
+         * so an operation with a slow trickle of octets could run much longer.
+         * An operation that misses its deadline is cancelled, see {@link AbstractZClient#runWithin(long, Operation)}.
+         *
+         * @param operationTimeout the operation timeout in milliseconds, 0 for no operation timeout
+         * @return this builder
+         */
+        public B setOperationTimeout(long operationTimeout) {
+            this.operationTimeout = operationTimeout;
+            return self();
+        }
+
+        /**
+         * The executor of the asynchronous operations. By default, each asynchronous operation
+         * runs on a virtual thread of its own.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public B setExecutor(Executor executor) {
+            this.executor = executor;
+            return self();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.xbib.z3950.client.api;
+
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.ScanTerm;
+import org.xbib.z3950.api.TimeoutListener;
+import org.xbib.z3950.common.operations.SortOperation;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A client with asynchronous operations. The operations run the blocking operations of the
+ * {@link Client} on the executor of the client, and complete with the collected result.
+ * A future completes exceptionally with a {@link CompletionException}, caused by a
+ * {@link SocketTimeoutException} on timeout, or by the {@link IOException} of a failed operation.
+ */
+public interface AsyncClient extends Client {
+
+    /**
+     * Returns the executor of the asynchronous operations.
+     *
+     * @return the executor
+     */
+    Executor getExecutor();
+
+    default CompletableFuture<SearchResult> searchCQLAsync(String query, int offset, int length,
+                                                          List<SortOperation.SortParameter> parameters) {
+        return searchAsync(true, query, offset, length, parameters);
+    }
+
+    default CompletableFuture<SearchResult> searchPQFAsync(String query, int offset, int length,
+                                                          List<SortOperation.SortParameter> parameters) {
+        return searchAsync(false, query, offset, length, parameters);
+    }
+
+    /**
+     * Publishes the records of a CQL search, fetched on the demand of the subscriber.
+     *
+     * @param query the CQL query
+     * @param offset the position of the first record, starting at 1
+     * @param length the maximum number of records, or 0 for all records
+     * @return the record publisher, for one subscriber
+     */
+    Flow.Publisher<Record> publishCQL(String query, int offset, int length);
+
+    /**
+     * Publishes the records of a PQF search, fetched on the demand of the subscriber.
+     *
+     * @param query the PQF query
+     * @param offset the position of the first record, starting at 1
+     * @param length the maximum number of records, or 0 for all records
+     * @return the record publisher, for one subscriber
+     */
+    Flow.Publisher<Record> publishPQF(String query, int offset, int length);
+
+    /**
+     * Scans the terms around the term of the query.
+     *
+     * @param query the PQF query with the attributes and the term
+     * @param nTerms the number of terms
+     * @param step the step size, 0 for every term
+     * @param position the position of the term of the query in the response, starting at 1
+     * @return the future scan result
+     */
+    default CompletableFuture<ScanResult> scanAsync(String query, int nTerms, int step, int position) {
+        return supplyAsync(timeout -> {
+            long t0 = System.nanoTime();
+            List<ScanTerm> terms = new ArrayList<>();
+            scanTermsPQF(query, nTerms, step, position, terms::add, timeout);
+            return new ScanResult(terms, (System.nanoTime() - t0) / 1000000L);
+        });
+    }
+
+    /**
+     * Sorts a result set.
+     *
+     * @param referenceId the reference id
+     * @param parameters the sort parameters
+     * @return the future sort result, true if the result set is sorted
+     */
+    default CompletableFuture<Boolean> sortAsync(String referenceId, List<SortOperation.SortParameter> parameters) {
+        return supplyAsync(timeout -> sort(referenceId, parameters, timeout));
+    }
+
+    private CompletableFuture<SearchResult> searchAsync(boolean cql, String query, int offset, int length,
+                                                        List<SortOperation.SortParameter> parameters) {
+        return supplyAsync(timeout -> {
+            long t0 = System.nanoTime();
+            AtomicInteger status = new AtomicInteger(-1);
+            List<Record> records = new ArrayList<>();
+            int count = cql ?
+                    searchCQL(query, offset, length, parameters,
+                            (s, total, returned, elapsedMillis) -> status.set(s), records::add, timeout) :
+                    searchPQF(query, offset, length, parameters,
+                            (s, total, returned, elapsedMillis) -> status.set(s), records::add, timeout);
+            return new SearchResult(status.get(), count, offset, records, (System.nanoTime() - t0) / 1000000L);
+        });
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(BlockingOperation<T> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            AtomicBoolean timedOut = new AtomicBoolean();
+            try {
+                T result = operation.run(() -> timedOut.set(true));
+                if (timedOut.get()) {
+                    throw new SocketTimeoutException("timeout after " + getTimeout() + " ms");
+                }
+                return result;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, getExecutor());
+    }
+
+    /**
+     * A blocking operation, which reports a timeout to the given listener.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    interface BlockingOperation<T> {
+
+        T run(TimeoutListener timeoutListener) throws IOException;
+    }
+}
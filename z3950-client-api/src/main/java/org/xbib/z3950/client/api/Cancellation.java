@@ -0,0 +1,76 @@
+package org.xbib.z3950.client.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cancels the operations of a task on another thread, see
+ * {@link AbstractZClient#runWithin(long, Cancellation, AbstractZClient.Operation)}.
+ * A cancelled operation ends like an operation that has missed its deadline: it is cancelled on
+ * the target with trigger resource control, or the session is closed, and it times out.
+ * The operations of the task that start after the cancel time out at once.
+ */
+public class Cancellation {
+
+    private final Lock lock;
+
+    private final List<Runnable> cancels;
+
+    private volatile boolean cancelled;
+
+    public Cancellation() {
+        this.lock = new ReentrantLock();
+        this.cancels = new ArrayList<>();
+    }
+
+    /**
+     * Cancels the operations that are running, and the operations that follow.
+     */
+    public void cancel() {
+        List<Runnable> list;
+        try {
+            lock.lock();
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            list = new ArrayList<>(cancels);
+            cancels.clear();
+        } finally {
+            lock.unlock();
+        }
+        list.forEach(Runnable::run);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Adds the cancel of a running operation. If the cancellation has already been cancelled,
+     * the cancel runs at once.
+     */
+    void add(Runnable cancel) {
+        try {
+            lock.lock();
+            if (!cancelled) {
+                cancels.add(cancel);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        cancel.run();
+    }
+
+    void remove(Runnable cancel) {
+        try {
+            lock.lock();
+            cancels.remove(cancel);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.xbib.z3950.client.api;
 
 import org.xbib.z3950.api.RecordListener;
 import org.xbib.z3950.api.ScanListener;
+import org.xbib.z3950.api.ScanTermListener;
 import org.xbib.z3950.api.SearchListener;
 import org.xbib.z3950.api.TimeoutListener;
 import org.xbib.z3950.common.operations.SortOperation;
@@ -32,9 +33,52 @@ public interface Client extends Closeable {
                  ScanListener scanListener,
                  TimeoutListener timeoutListener) throws IOException;
 
-    void sort(String referenceId,
-              List<SortOperation.SortParameter> parameters,
-              TimeoutListener timeoutListener) throws IOException;
+    /**
+     * Scans the terms around the term of the query, with decoded terms.
+     *
+     * @param query the PQF query with the attributes and the term
+     * @param nTerms the number of terms
+     * @param step the step size, 0 for every term
+     * @param position the position of the term of the query in the response, starting at 1
+     * @param scanTermListener the listener for the terms
+     * @param timeoutListener the timeout listener, or null
+     * @return the number of terms
+     * @throws IOException if scan fails
+     */
+    int scanTermsPQF(String query, int nTerms, int step, int position,
+                     ScanTermListener scanTermListener,
+                     TimeoutListener timeoutListener) throws IOException;
+
+    /**
+     * Walks an index in pages, starting at the term of the query. The next page is requested
+     * while the terms of the current page are delivered.
+     *
+     * @param query the PQF query with the attributes and the start term
+     * @param pageSize the number of terms per page
+     * @param forward true to walk forward in index order, false to walk backward
+     * @param maxTerms the maximum number of terms, or 0 for the rest of the index
+     * @param scanTermListener the listener for the terms
+     * @param timeoutListener the timeout listener, or null
+     * @return the number of terms
+     * @throws IOException if scan fails
+     */
+    int browsePQF(String query, int pageSize, boolean forward, int maxTerms,
+                  ScanTermListener scanTermListener,
+                  TimeoutListener timeoutListener) throws IOException;
+
+    /**
+     * Sorts the result set of the last search of the client. The sorted result set
+     * becomes the result set of the client.
+     *
+     * @param referenceId the reference id
+     * @param parameters the sort parameters
+     * @param timeoutListener the timeout listener, or null
+     * @return true if the result set is sorted
+     * @throws IOException if sort fails
+     */
+    boolean sort(String referenceId,
+                 List<SortOperation.SortParameter> parameters,
+                 TimeoutListener timeoutListener) throws IOException;
 
     String getHost();
 
@@ -0,0 +1,33 @@
+package org.xbib.z3950.client.api;
+
+import org.xbib.z3950.api.ScanTerm;
+
+import java.util.List;
+
+/**
+ * The result of an asynchronous scan: the terms in index order.
+ */
+public class ScanResult {
+
+    private final List<ScanTerm> terms;
+
+    private final long elapsedMillis;
+
+    public ScanResult(List<ScanTerm> terms, long elapsedMillis) {
+        this.terms = List.copyOf(terms);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<ScanTerm> getTerms() {
+        return terms;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanResult[terms=" + terms.size() + ",elapsedMillis=" + elapsedMillis + "]";
+    }
+}
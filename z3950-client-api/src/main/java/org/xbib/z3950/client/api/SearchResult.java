@@ -0,0 +1,75 @@
+package org.xbib.z3950.client.api;
+
+import org.xbib.z3950.api.Record;
+
+import java.util.List;
+
+/**
+ * The result of an asynchronous search: the number of hits, and the records of the requested page.
+ */
+public class SearchResult {
+
+    private final int status;
+
+    private final int count;
+
+    private final int offset;
+
+    private final List<Record> records;
+
+    private final long elapsedMillis;
+
+    public SearchResult(int status, int count, int offset, List<Record> records, long elapsedMillis) {
+        this.status = status;
+        this.count = count;
+        this.offset = offset;
+        this.records = List.copyOf(records);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns the status of the last response with records.
+     *
+     * @return the status, or -1 if no records have been requested
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the number of hits.
+     *
+     * @return the number of hits
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public List<Record> getRecords() {
+        return records;
+    }
+
+    /**
+     * Returns the offset of the next page of records, for paging through the hits.
+     *
+     * @return the offset of the next page, or 0 if there are no more hits
+     */
+    public int getNextOffset() {
+        int next = Math.max(1, offset) + records.size();
+        return !records.isEmpty() && next <= count ? next : 0;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResult[status=" + status + ",count=" + count + ",offset=" + offset +
+                ",records=" + records.size() + ",elapsedMillis=" + elapsedMillis + "]";
+    }
+}
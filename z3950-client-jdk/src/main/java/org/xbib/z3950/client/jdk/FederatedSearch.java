@@ -0,0 +1,497 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.RecordListener;
+import org.xbib.z3950.api.SearchListener;
+import org.xbib.z3950.api.TimeoutListener;
+import org.xbib.z3950.client.api.AbstractZClient;
+import org.xbib.z3950.client.api.Cancellation;
+import org.xbib.z3950.client.api.Client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Broadcasts a search to many targets at once, and merges the records into one stream.
+ * Each target runs on a thread of its own, by default a virtual thread, and has a deadline
+ * of its own. The records are delivered to one record listener as they arrive, one at a time,
+ * as {@link OriginRecord}s tagged with the name of their target.
+ * The search returns when the quorum of targets has answered, so the latency is that of the
+ * fastest targets. Targets that miss their deadline, or that are still running when the quorum
+ * is reached, are abandoned, and their records are dropped. The search of an abandoned
+ * {@link AbstractZClient} is cancelled like an operation that misses its deadline, with trigger
+ * resource control, or by closing the session if the target does not support it, so the client
+ * can be used again once the target has ended the search. The threads of other clients are
+ * interrupted, which leaves their sessions in an unknown state.
+ */
+public class FederatedSearch implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(FederatedSearch.class.getName());
+
+    private final ExecutorService executorService;
+
+    private final long deadline;
+
+    private final int quorum;
+
+    private FederatedSearch(Builder builder) {
+        this.executorService = builder.executorService != null ?
+                builder.executorService : Executors.newVirtualThreadPerTaskExecutor();
+        this.deadline = builder.deadline;
+        this.quorum = builder.quorum;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Result searchCQL(List<Target> targets, String query, int offset, int length,
+                            RecordListener recordListener) throws IOException {
+        return search(true, targets, query, offset, length, recordListener);
+    }
+
+    public Result searchPQF(List<Target> targets, String query, int offset, int length,
+                            RecordListener recordListener) throws IOException {
+        return search(false, targets, query, offset, length, recordListener);
+    }
+
+    /**
+     * Shuts down the executor service.
+     */
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    private Result search(boolean cql, List<Target> targets, String query, int offset, int length,
+                          RecordListener recordListener) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        long start = System.nanoTime();
+        Merge merge = new Merge(recordListener);
+        CompletionService<TargetResult> completionService = new ExecutorCompletionService<>(executorService);
+        Map<Future<TargetResult>, Run> pending = new HashMap<>();
+        for (Target target : targets) {
+            Run run = new Run(target, merge, start + TimeUnit.MILLISECONDS.toNanos(
+                    target.deadline > 0 ? target.deadline : deadline));
+            pending.put(completionService.submit(() -> run.search(cql, query, offset, length)), run);
+        }
+        Map<Target, TargetResult> results = new HashMap<>();
+        int required = quorum > 0 ? Math.min(quorum, targets.size()) : targets.size();
+        int answered = 0;
+        try {
+            while (answered < required && !pending.isEmpty()) {
+                long next = Long.MAX_VALUE;
+                for (Run run : pending.values()) {
+                    next = Math.min(next, run.deadline);
+                }
+                Future<TargetResult> future = completionService.poll(next - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future != null) {
+                    Run run = pending.remove(future);
+                    if (run != null) {
+                        TargetResult result = result(run, future);
+                        results.put(run.target, result);
+                        if (result.getState() == State.COMPLETED) {
+                            answered++;
+                        }
+                    }
+                } else {
+                    long now = System.nanoTime();
+                    pending.entrySet().removeIf(entry -> {
+                        Run run = entry.getValue();
+                        if (now - run.deadline < 0) {
+                            return false;
+                        }
+                        results.put(run.target, run.abandon(entry.getKey(), State.TIMED_OUT));
+                        return true;
+                    });
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for targets");
+        } finally {
+            pending.forEach((future, run) -> results.put(run.target, run.abandon(future, State.ABANDONED)));
+            merge.close();
+        }
+        List<TargetResult> list = new ArrayList<>(targets.size());
+        for (Target target : targets) {
+            list.add(results.get(target));
+        }
+        return new Result(list, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static TargetResult result(Run run, Future<TargetResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            logger.log(Level.WARNING, "target " + run.target.name + " failed: " + cause.getMessage(), cause);
+            return run.result(State.FAILED, -1, cause);
+        }
+    }
+
+    /**
+     * Delivers the records of all targets to one record listener, one record at a time,
+     * until the search is over.
+     */
+    private static class Merge {
+
+        private final RecordListener recordListener;
+
+        private final Lock lock;
+
+        private boolean closed;
+
+        private Merge(RecordListener recordListener) {
+            this.recordListener = recordListener;
+            this.lock = new ReentrantLock();
+        }
+
+        private boolean deliver(Run run, Record record) {
+            lock.lock();
+            try {
+                if (closed || run.abandoned) {
+                    return false;
+                }
+                if (recordListener != null) {
+                    recordListener.onRecord(new OriginRecord(run.target.name, record));
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void abandon(Run run) {
+            lock.lock();
+            try {
+                run.abandoned = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The search on one target.
+     */
+    private static class Run implements TimeoutListener {
+
+        private final Target target;
+
+        private final Merge merge;
+
+        private final long deadline;
+
+        private final long start;
+
+        private final AtomicInteger returned;
+
+        private final Cancellation cancellation;
+
+        private volatile boolean abandoned;
+
+        private volatile boolean timedOut;
+
+        private Run(Target target, Merge merge, long deadline) {
+            this.target = target;
+            this.merge = merge;
+            this.deadline = deadline;
+            this.start = System.nanoTime();
+            this.returned = new AtomicInteger();
+            this.cancellation = new Cancellation();
+        }
+
+        /**
+         * Searches the target. The deadline of an {@link AbstractZClient} is kept by the client,
+         * which cancels the search on the target when the deadline passes, or when the run is abandoned.
+         */
+        private TargetResult search(boolean cql, String query, int offset, int length) throws IOException {
+            int count;
+            if (target.client instanceof AbstractZClient client) {
+                long remaining = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                count = client.runWithin(remaining, cancellation, () -> search(client, cql, query, offset, length));
+            } else {
+                count = search(target.client, cql, query, offset, length);
+            }
+            return result(timedOut ? State.TIMED_OUT : State.COMPLETED, count, null);
+        }
+
+        private int search(Client client, boolean cql, String query, int offset, int length) throws IOException {
+            RecordListener recordListener = record -> {
+                if (merge.deliver(this, record)) {
+                    returned.incrementAndGet();
+                }
+            };
+            return cql ?
+                    client.searchCQL(query, offset, length, null, target.searchListener, recordListener, this) :
+                    client.searchPQF(query, offset, length, null, target.searchListener, recordListener, this);
+        }
+
+        @Override
+        public void onTimeout() {
+            timedOut = true;
+        }
+
+        private TargetResult abandon(Future<TargetResult> future, State state) {
+            merge.abandon(this);
+            if (target.client instanceof AbstractZClient) {
+                cancellation.cancel();
+            } else {
+                future.cancel(true);
+            }
+            logger.log(Level.FINE, "target " + target.name + " " + state);
+            return result(state, -1, null);
+        }
+
+        private TargetResult result(State state, int count, Throwable error) {
+            return new TargetResult(target.name, state, count, returned.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), error);
+        }
+    }
+
+    /**
+     * A target of a federated search.
+     */
+    public static class Target {
+
+        private final String name;
+
+        private final Client client;
+
+        private final long deadline;
+
+        private final SearchListener searchListener;
+
+        public Target(String name, Client client) {
+            this(name, client, 0L, null);
+        }
+
+        /**
+         * Creates a target.
+         *
+         * @param name the name of the target, which tags its records
+         * @param client the client, connected or not, which must not be used by other searches at the same time
+         * @param deadline the deadline of the target in milliseconds, or 0 for the deadline of the search
+         * @param searchListener the listener for the responses of the target, with hits and timing, or null
+         */
+        public Target(String name, Client client, long deadline, SearchListener searchListener) {
+            this.name = Objects.requireNonNull(name);
+            this.client = Objects.requireNonNull(client);
+            this.deadline = deadline;
+            this.searchListener = searchListener;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Client getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * The outcome of a target.
+     */
+    public enum State {
+        COMPLETED, FAILED, TIMED_OUT, ABANDONED
+    }
+
+    /**
+     * The result of a target.
+     */
+    public static class TargetResult {
+
+        private final String name;
+
+        private final State state;
+
+        private final int count;
+
+        private final int returned;
+
+        private final long elapsedMillis;
+
+        private final Throwable error;
+
+        private TargetResult(String name, State state, int count, int returned, long elapsedMillis, Throwable error) {
+            this.name = name;
+            this.state = state;
+            this.count = count;
+            this.returned = returned;
+            this.elapsedMillis = elapsedMillis;
+            this.error = error;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Returns the number of hits of the target.
+         *
+         * @return the number of hits, or -1 if the target has not answered
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the number of records of the target that have been delivered.
+         *
+         * @return the number of delivered records
+         */
+        public int getReturned() {
+            return returned;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + state + ",count=" + count + ",returned=" + returned +
+                    ",elapsedMillis=" + elapsedMillis + "]";
+        }
+    }
+
+    /**
+     * The result of a federated search.
+     */
+    public static class Result {
+
+        private final List<TargetResult> targetResults;
+
+        private final long elapsedMillis;
+
+        private Result(List<TargetResult> targetResults, long elapsedMillis) {
+            this.targetResults = Collections.unmodifiableList(targetResults);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Returns the results of the targets, in the order of the targets.
+         *
+         * @return the target results
+         */
+        public List<TargetResult> getTargetResults() {
+            return targetResults;
+        }
+
+        /**
+         * Returns the number of hits of all targets that have completed.
+         *
+         * @return the number of hits
+         */
+        public long getCount() {
+            long count = 0L;
+            for (TargetResult result : targetResults) {
+                if (result.state == State.COMPLETED) {
+                    count += result.count;
+                }
+            }
+            return count;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    /**
+     * The builder of a federated search.
+     */
+    public static class Builder {
+
+        private ExecutorService executorService;
+
+        private long deadline;
+
+        private int quorum;
+
+        private Builder() {
+            this.deadline = 30000L;
+            this.quorum = 0;
+        }
+
+        /**
+         * The executor service of the targets. By default, each target runs on a virtual thread of its own.
+         *
+         * @param executorService the executor service, which is shut down on close
+         * @return this builder
+         */
+        public Builder setExecutorService(ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * The deadline of the targets that do not have a deadline of their own.
+         *
+         * @param deadline the deadline in milliseconds
+         * @return this builder
+         */
+        public Builder setDeadline(long deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
+        /**
+         * The number of targets that must have completed before the search returns.
+         *
+         * @param quorum the number of targets, or 0 for all targets
+         * @return this builder
+         */
+        public Builder setQuorum(int quorum) {
+            this.quorum = quorum;
+            return this;
+        }
+
+        public FederatedSearch build() {
+            if (deadline <= 0) {
+                throw new IllegalArgumentException("deadline must be positive");
+            }
+            return new FederatedSearch(this);
+        }
+    }
+}
@@ -0,0 +1,629 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.RecordListener;
+import org.xbib.z3950.api.ScanListener;
+import org.xbib.z3950.api.ScanTermListener;
+import org.xbib.z3950.api.SearchListener;
+import org.xbib.z3950.api.TimeoutListener;
+import org.xbib.z3950.client.api.AbstractZClient;
+import org.xbib.z3950.client.api.Cancellation;
+import org.xbib.z3950.client.api.Client;
+import org.xbib.z3950.common.operations.SortOperation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A client for a target that is mirrored on a second endpoint, which hedges searches against
+ * stalls of the primary. A search goes to the primary. If the search response of the primary has
+ * not arrived within the hedge delay, the same search goes to the secondary, and the first complete
+ * answer is used. The other search is cancelled, and its answer is discarded. The search of an
+ * {@link AbstractZClient} is cancelled on the target, like an operation that misses its deadline,
+ * so its session can be used again, the threads of other clients are interrupted. The search
+ * returns when the cancelled search has ended, so that the next search finds both clients free.
+ * The hedge delay is a percentile of the recent latencies of the search responses of the primary,
+ * so that only the slowest searches are hedged. The presents that follow the search response are
+ * neither hedged nor measured, because their time depends on the number of records.
+ * The records of a search are delivered when the answer is complete, because it is not known
+ * before which answer is used. Only searches are hedged, the other operations go to the primary.
+ */
+public class HedgedClient implements Client {
+
+    private static final Logger logger = Logger.getLogger(HedgedClient.class.getName());
+
+    private final Client primary;
+
+    private final Client secondary;
+
+    private final ExecutorService executorService;
+
+    private final Latencies latencies;
+
+    private final double percentile;
+
+    private final long initialDelay;
+
+    private final long minDelay;
+
+    private final long maxDelay;
+
+    private HedgedClient(Builder builder) {
+        this.primary = builder.primary;
+        this.secondary = builder.secondary;
+        this.executorService = builder.executorService != null ?
+                builder.executorService : Executors.newVirtualThreadPerTaskExecutor();
+        this.latencies = new Latencies(builder.window);
+        this.percentile = builder.percentile;
+        this.initialDelay = builder.initialDelay;
+        this.minDelay = builder.minDelay;
+        this.maxDelay = builder.maxDelay;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int searchCQL(String query,
+                         int offset,
+                         int length,
+                         List<SortOperation.SortParameter> parameters,
+                         SearchListener searchListener,
+                         RecordListener recordListener,
+                         TimeoutListener timeoutListener) throws IOException {
+        return search(true, query, offset, length, parameters, searchListener, recordListener, timeoutListener);
+    }
+
+    @Override
+    public int searchPQF(String query,
+                         int offset,
+                         int length,
+                         List<SortOperation.SortParameter> parameters,
+                         SearchListener searchListener,
+                         RecordListener recordListener,
+                         TimeoutListener timeoutListener) throws IOException {
+        return search(false, query, offset, length, parameters, searchListener, recordListener, timeoutListener);
+    }
+
+    @Override
+    public void scanPQF(String query, int nTerms, int step, int position,
+                        ScanListener scanListener, TimeoutListener timeoutListener) throws IOException {
+        primary.scanPQF(query, nTerms, step, position, scanListener, timeoutListener);
+    }
+
+    @Override
+    public int scanTermsPQF(String query, int nTerms, int step, int position,
+                            ScanTermListener scanTermListener, TimeoutListener timeoutListener) throws IOException {
+        return primary.scanTermsPQF(query, nTerms, step, position, scanTermListener, timeoutListener);
+    }
+
+    @Override
+    public int browsePQF(String query, int pageSize, boolean forward, int maxTerms,
+                         ScanTermListener scanTermListener, TimeoutListener timeoutListener) throws IOException {
+        return primary.browsePQF(query, pageSize, forward, maxTerms, scanTermListener, timeoutListener);
+    }
+
+    @Override
+    public boolean sort(String referenceId, List<SortOperation.SortParameter> parameters,
+                        TimeoutListener timeoutListener) throws IOException {
+        return primary.sort(referenceId, parameters, timeoutListener);
+    }
+
+    /**
+     * Returns the current hedge delay, the time after which a search goes to the secondary.
+     *
+     * @return the hedge delay in milliseconds
+     */
+    public long getHedgeDelay() {
+        long delay = latencies.percentile(percentile);
+        return delay < 0 ? initialDelay : Math.max(minDelay, Math.min(maxDelay, delay));
+    }
+
+    @Override
+    public String getHost() {
+        return primary.getHost();
+    }
+
+    @Override
+    public int getPort() {
+        return primary.getPort();
+    }
+
+    @Override
+    public String getUser() {
+        return primary.getUser();
+    }
+
+    @Override
+    public String getPass() {
+        return primary.getPass();
+    }
+
+    @Override
+    public long getTimeout() {
+        return primary.getTimeout();
+    }
+
+    @Override
+    public String getPreferredRecordSyntax() {
+        return primary.getPreferredRecordSyntax();
+    }
+
+    @Override
+    public String getResultSetName() {
+        return primary.getResultSetName();
+    }
+
+    @Override
+    public String getElementSetName() {
+        return primary.getElementSetName();
+    }
+
+    @Override
+    public String getEncoding() {
+        return primary.getEncoding();
+    }
+
+    @Override
+    public String getFormat() {
+        return primary.getFormat();
+    }
+
+    @Override
+    public String getType() {
+        return primary.getType();
+    }
+
+    @Override
+    public List<String> getDatabases() {
+        return primary.getDatabases();
+    }
+
+    /**
+     * Closes both clients and shuts down the executor service.
+     *
+     * @throws IOException if a client can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        executorService.shutdownNow();
+        try {
+            primary.close();
+        } finally {
+            if (secondary != null) {
+                secondary.close();
+            }
+        }
+    }
+
+    private int search(boolean cql, String query, int offset, int length,
+                       List<SortOperation.SortParameter> parameters,
+                       SearchListener searchListener,
+                       RecordListener recordListener,
+                       TimeoutListener timeoutListener) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("no query");
+        }
+        CompletionService<Answer> completionService = new ExecutorCompletionService<>(executorService);
+        Attempt first = new Attempt(primary, true);
+        first.future = completionService.submit(() -> first.search(cql, query, offset, length, parameters));
+        Attempt second = null;
+        Answer answer = null;
+        try {
+            if (secondary != null && !first.awaitSearchResponse(getHedgeDelay())) {
+                logger.log(Level.FINE, "hedging search on " + secondary.getHost() + " [" + query + "]");
+                Attempt attempt = new Attempt(secondary, false);
+                attempt.future = completionService.submit(() -> attempt.search(cql, query, offset, length, parameters));
+                second = attempt;
+            }
+            answer = answer(completionService.take());
+            if (!answer.isComplete() && second != null) {
+                // the other answer may still be complete, or at least without an error
+                Answer other = answer(completionService.take());
+                if (other.isComplete() || (answer.error != null && other.error == null)) {
+                    answer = other;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for search");
+        } finally {
+            first.cancel();
+            if (second != null) {
+                second.cancel();
+            }
+            first.join();
+            if (second != null) {
+                second.join();
+                if (!first.hasSearchResponse()) {
+                    // a lower bound of the latency of the primary
+                    latencies.add(first.elapsedMillis());
+                }
+            }
+        }
+        if (answer.error != null) {
+            if (answer.error instanceof IOException e) {
+                throw e;
+            }
+            if (answer.error instanceof RuntimeException e) {
+                throw e;
+            }
+            throw new IOException(answer.error);
+        }
+        if (answer.timedOut) {
+            if (timeoutListener != null) {
+                timeoutListener.onTimeout();
+            }
+            return 0;
+        }
+        answer.replay(searchListener, recordListener);
+        return answer.count;
+    }
+
+    private static Answer answer(Future<Answer> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new Answer(false, e.getCause());
+        }
+    }
+
+    /**
+     * A search on one of the clients. The latency of the primary is measured when its
+     * search response arrives.
+     */
+    private class Attempt {
+
+        private final Client client;
+
+        private final boolean primary;
+
+        private final long start;
+
+        private final CountDownLatch responded;
+
+        private final Cancellation cancellation;
+
+        private volatile boolean searchResponse;
+
+        private Future<Answer> future;
+
+        private Attempt(Client client, boolean primary) {
+            this.client = client;
+            this.primary = primary;
+            this.start = System.nanoTime();
+            this.responded = new CountDownLatch(1);
+            this.cancellation = new Cancellation();
+        }
+
+        private Answer search(boolean cql, String query, int offset, int length,
+                              List<SortOperation.SortParameter> parameters) throws IOException {
+            Answer answer = new Answer(primary, null);
+            SearchListener searchListener = new SearchListener() {
+                @Override
+                public void onResponse(int status, int total, int returned, long elapsedMillis) {
+                    answer.events.add(new Response(status, total, returned, elapsedMillis));
+                }
+
+                @Override
+                public void onSearchResponse(int total, long elapsedMillis) {
+                    answer.events.add(new SearchResponse(total, elapsedMillis));
+                    if (primary) {
+                        latencies.add(elapsedMillis());
+                    }
+                    searchResponse = true;
+                    responded.countDown();
+                }
+            };
+            RecordListener recordListener = answer.events::add;
+            TimeoutListener timeoutListener = () -> answer.timedOut = true;
+            try {
+                if (client instanceof AbstractZClient abstractZClient) {
+                    answer.count = abstractZClient.runCancellable(cancellation, () -> cql ?
+                            client.searchCQL(query, offset, length, parameters, searchListener, recordListener, timeoutListener) :
+                            client.searchPQF(query, offset, length, parameters, searchListener, recordListener, timeoutListener));
+                } else {
+                    answer.count = cql ?
+                            client.searchCQL(query, offset, length, parameters, searchListener, recordListener, timeoutListener) :
+                            client.searchPQF(query, offset, length, parameters, searchListener, recordListener, timeoutListener);
+                }
+            } finally {
+                // a search that ends without a search response needs no hedge either
+                responded.countDown();
+            }
+            return answer;
+        }
+
+        /**
+         * Waits for the search response, or for the end of the search.
+         *
+         * @param millis the time to wait in milliseconds
+         * @return true if the search has responded or ended within the time
+         * @throws InterruptedException if interrupted while waiting
+         */
+        private boolean awaitSearchResponse(long millis) throws InterruptedException {
+            return responded.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        private boolean hasSearchResponse() {
+            return searchResponse;
+        }
+
+        /**
+         * Cancels the search, unless it has ended. The search of an {@link AbstractZClient} is cancelled
+         * on the target, other searches are interrupted.
+         */
+        private void cancel() {
+            if (future.isDone()) {
+                return;
+            }
+            if (client instanceof AbstractZClient) {
+                cancellation.cancel();
+            } else {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Waits until the search has ended. A search that is cancelled on the target ends when the target
+         * has answered the cancel, or when the session has been closed after the grace period.
+         */
+        private void join() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private long elapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * The answer of a search, with the responses and records in the order of arrival.
+     */
+    private static class Answer {
+
+        private final boolean primary;
+
+        private final Throwable error;
+
+        private final List<Object> events;
+
+        private int count;
+
+        private boolean timedOut;
+
+        private Answer(boolean primary, Throwable error) {
+            this.primary = primary;
+            this.error = error;
+            this.events = new ArrayList<>();
+        }
+
+        private boolean isComplete() {
+            return error == null && !timedOut;
+        }
+
+        private void replay(SearchListener searchListener, RecordListener recordListener) throws IOException {
+            for (Object event : events) {
+                if (event instanceof SearchResponse searchResponse) {
+                    if (searchListener != null) {
+                        searchListener.onSearchResponse(searchResponse.total, searchResponse.elapsedMillis);
+                    }
+                } else if (event instanceof Response response) {
+                    if (searchListener != null) {
+                        searchListener.onResponse(response.status, response.total, response.returned,
+                                response.elapsedMillis);
+                    }
+                } else if (recordListener != null) {
+                    recordListener.onRecord((Record) event);
+                }
+            }
+        }
+    }
+
+    private record Response(int status, int total, int returned, long elapsedMillis) {
+    }
+
+    private record SearchResponse(int total, long elapsedMillis) {
+    }
+
+    /**
+     * The recent search latencies of the primary, in a ring buffer.
+     */
+    private static class Latencies {
+
+        private static final int MIN_SAMPLES = 10;
+
+        private final long[] samples;
+
+        private final Lock lock;
+
+        private int size;
+
+        private int next;
+
+        private Latencies(int window) {
+            this.samples = new long[window];
+            this.lock = new ReentrantLock();
+        }
+
+        private void add(long millis) {
+            lock.lock();
+            try {
+                samples[next] = millis;
+                next = (next + 1) % samples.length;
+                size = Math.min(size + 1, samples.length);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns a percentile of the latencies.
+         *
+         * @param percentile the percentile, between 0 and 1
+         * @return the latency in milliseconds, or -1 if there are not enough samples yet
+         */
+        private long percentile(double percentile) {
+            long[] sorted;
+            lock.lock();
+            try {
+                if (size < Math.min(MIN_SAMPLES, samples.length)) {
+                    return -1L;
+                }
+                sorted = Arrays.copyOf(samples, size);
+            } finally {
+                lock.unlock();
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    /**
+     * The builder of a hedged client.
+     */
+    public static class Builder {
+
+        private Client primary;
+
+        private Client secondary;
+
+        private ExecutorService executorService;
+
+        private double percentile;
+
+        private int window;
+
+        private long initialDelay;
+
+        private long minDelay;
+
+        private long maxDelay;
+
+        private Builder() {
+            this.percentile = 0.95d;
+            this.window = 100;
+            this.initialDelay = 1000L;
+            this.minDelay = 10L;
+            this.maxDelay = 10000L;
+        }
+
+        public Builder setPrimary(Client primary) {
+            this.primary = primary;
+            return this;
+        }
+
+        /**
+         * The mirror of the primary. Without a secondary, searches are not hedged.
+         *
+         * @param secondary the secondary client
+         * @return this builder
+         */
+        public Builder setSecondary(Client secondary) {
+            this.secondary = secondary;
+            return this;
+        }
+
+        /**
+         * The executor service of the searches. By default, each search runs on a virtual thread of its own.
+         *
+         * @param executorService the executor service, which is shut down on close
+         * @return this builder
+         */
+        public Builder setExecutorService(ExecutorService executorService) {
+            this.executorService = executorService;
+            return this;
+        }
+
+        /**
+         * The percentile of the search latencies of the primary that is the hedge delay.
+         * With the default of 0.95, about one in twenty searches is hedged.
+         *
+         * @param percentile the percentile, between 0 and 1
+         * @return this builder
+         */
+        public Builder setPercentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * The number of recent searches whose latencies determine the hedge delay.
+         *
+         * @param window the number of searches
+         * @return this builder
+         */
+        public Builder setWindow(int window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * The hedge delay while there are too few searches for a percentile.
+         *
+         * @param initialDelay the delay in milliseconds
+         * @return this builder
+         */
+        public Builder setInitialDelay(long initialDelay) {
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * The bounds of the hedge delay, so that a very fast or a very slow primary
+         * does not lead to hedging every search, or to hedging never.
+         *
+         * @param minDelay the minimum delay in milliseconds
+         * @param maxDelay the maximum delay in milliseconds
+         * @return this builder
+         */
+        public Builder setDelayBounds(long minDelay, long maxDelay) {
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public HedgedClient build() {
+            Objects.requireNonNull(primary, "no primary");
+            if (percentile <= 0d || percentile > 1d) {
+                throw new IllegalArgumentException("percentile must be between 0 and 1");
+            }
+            if (window < 1 || minDelay < 0 || maxDelay < minDelay) {
+                throw new IllegalArgumentException("invalid window or delay bounds");
+            }
+            return new HedgedClient(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.xbib.z3950.client.jdk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A readable channel on an input stream. Unlike the channel of
+ * {@link java.nio.channels.Channels#newChannel(InputStream)}, it does not hold a monitor while
+ * reading, so a virtual thread that blocks in a read does not pin its carrier thread.
+ * The channel is meant for one reader at a time.
+ */
+class InputStreamChannel implements ReadableByteChannel {
+
+    private static final int TRANSFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+
+    private byte[] transfer;
+
+    private volatile boolean open;
+
+    InputStreamChannel(InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.open = true;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        if (dst.hasArray()) {
+            int n = inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+            return n;
+        }
+        if (transfer == null) {
+            transfer = new byte[TRANSFER_SIZE];
+        }
+        int n = inputStream.read(transfer, 0, Math.min(transfer.length, dst.remaining()));
+        if (n > 0) {
+            dst.put(transfer, 0, n);
+        }
+        return n;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        inputStream.close();
+    }
+}
@@ -0,0 +1,185 @@
+package org.xbib.z3950.client.jdk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One selector thread that drives the non-blocking socket channels of many {@link NioZClient}s.
+ * The thread only moves octets between the sockets and the buffers of the sessions, and frames
+ * the inbound PDUs, so it never waits for a target. Other threads hand work to the thread
+ * with {@link #execute(Runnable)}, which wakes up the selector.
+ * When the loop is closed, or the selector fails, the registered channels are failed, and the
+ * tasks that have not run yet run against the closed selector, so the connects that wait for
+ * them fail at once.
+ * Unless a selector loop is given, all NIO clients share one selector loop with a daemon thread.
+ */
+public class NioSelectorLoop implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(NioSelectorLoop.class.getName());
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks;
+
+    private final Thread thread;
+
+    private final Lock lock;
+
+    private volatile boolean closed;
+
+    public NioSelectorLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.lock = new ReentrantLock();
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs a task on the selector thread.
+     *
+     * @param task the task, which must not block
+     */
+    public void execute(Runnable task) {
+        try {
+            lock.lock();
+            if (closed) {
+                throw new IllegalStateException("selector loop is closed");
+            }
+            tasks.add(task);
+        } finally {
+            lock.unlock();
+        }
+        if (Thread.currentThread() != thread) {
+            selector.wakeup();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops the selector thread and closes all channels that are still registered.
+     */
+    @Override
+    public void close() {
+        setClosed();
+        selector.wakeup();
+    }
+
+    Selector selector() {
+        return selector;
+    }
+
+    /**
+     * Marks the loop as closed. No task can be added afterwards.
+     */
+    private void setClosed() {
+        try {
+            lock.lock();
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        try {
+            select();
+        } finally {
+            setClosed();
+            shutdown();
+        }
+    }
+
+    private void select() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, "select failed: " + e.getMessage(), e);
+                return;
+            }
+            runTasks();
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                Handler handler = (Handler) key.attachment();
+                try {
+                    if (key.isValid() && key.isConnectable()) {
+                        handler.connectable();
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        handler.readable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        handler.writable();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    handler.failed(e);
+                }
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "task failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void shutdown() {
+        if (selector.isOpen()) {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    ((Handler) key.attachment()).failed(new IOException("selector loop closed"));
+                }
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, e.getMessage(), e);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, e.getMessage(), e);
+            }
+        }
+        // the registrations of the tasks fail on the closed selector
+        runTasks();
+    }
+
+    /**
+     * The handler of a registered channel, which is called on the selector thread only.
+     */
+    interface Handler {
+
+        void connectable() throws IOException;
+
+        void readable() throws IOException;
+
+        void writable() throws IOException;
+
+        /**
+         * Called when the channel has failed. The handler closes the channel.
+         *
+         * @param cause the cause
+         */
+        void failed(Throwable cause);
+    }
+}
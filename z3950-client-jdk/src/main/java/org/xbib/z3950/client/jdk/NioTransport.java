@@ -0,0 +1,357 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERFrame;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.ByteArrayBERReader;
+import org.xbib.z3950.client.api.AbstractZClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The transport of a session on a non-blocking socket channel of a selector loop.
+ * The selector thread reads into a heap buffer and frames the inbound PDUs incrementally,
+ * from the identifier and length octets, without decoding them. Complete PDUs are queued,
+ * and handed to the operations as a {@link BERReader} that waits for the timeout of the client.
+ * PDUs are written by the calling thread as far as the socket accepts them, the rest is
+ * written by the selector thread when the socket is writable again.
+ * The operations are not driven by the selector: they run on the calling thread, which waits
+ * for its responses in the queue. So that a session whose operations do not keep up can not fill
+ * the memory, the selector thread stops reading the socket while the queue is full, and the
+ * target is held back by TCP flow control until the operations have taken enough PDUs.
+ */
+final class NioTransport implements AbstractZClient.Transport, NioSelectorLoop.Handler {
+
+    private static final Object CLOSED = new Object();
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /**
+     * The number of queued PDUs at which reading stops.
+     */
+    private static final int MAX_QUEUED_PDUS = 16;
+
+    /**
+     * The number of queued PDUs below which reading resumes.
+     */
+    private static final int RESUME_QUEUED_PDUS = MAX_QUEUED_PDUS / 2;
+
+    private final NioSelectorLoop loop;
+
+    private final SocketChannel channel;
+
+    private final long timeout;
+
+    private final int maxBerSize;
+
+    private final BlockingQueue<Object> inbound;
+
+    private final Lock writeLock;
+
+    private final Deque<ByteBuffer> outbound;
+
+    private final CompletableFuture<Void> connected;
+
+    private final AtomicBoolean closed;
+
+    private final AtomicBoolean resuming;
+
+    private volatile boolean suspended;
+
+    private ByteBuffer buffer;
+
+    private SelectionKey key;
+
+    private NioTransport(NioSelectorLoop loop, SocketChannel channel, long timeout, int maxBerSize) {
+        this.loop = loop;
+        this.channel = channel;
+        this.timeout = timeout;
+        this.maxBerSize = maxBerSize;
+        this.inbound = new LinkedBlockingQueue<>();
+        this.writeLock = new ReentrantLock();
+        this.outbound = new ArrayDeque<>();
+        this.connected = new CompletableFuture<>();
+        this.closed = new AtomicBoolean();
+        this.resuming = new AtomicBoolean();
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Connects to a target and registers the channel with the selector loop.
+     *
+     * @param loop the selector loop
+     * @param address the address of the target
+     * @param timeout the timeout of the connect and of each read in milliseconds
+     * @param maxBerSize the maximum size of an inbound PDU
+     * @return the transport
+     * @throws IOException if the target can not be connected within the timeout
+     */
+    static NioTransport connect(NioSelectorLoop loop, InetSocketAddress address, long timeout, int maxBerSize)
+            throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        NioTransport transport = new NioTransport(loop, channel, timeout, maxBerSize);
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            boolean done = channel.connect(address);
+            loop.execute(() -> transport.register(done));
+            transport.connected.get(timeout, TimeUnit.MILLISECONDS);
+            return transport;
+        } catch (TimeoutException e) {
+            transport.close();
+            throw new SocketTimeoutException("connect to " + address + " not completed within " + timeout + " ms");
+        } catch (ExecutionException e) {
+            transport.close();
+            throw e.getCause() instanceof IOException ioException ? ioException : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            transport.close();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while connecting to " + address);
+        } catch (IllegalStateException e) {
+            transport.close();
+            throw new IOException("could not connect to " + address + ": " + e.getMessage(), e);
+        } catch (IOException | RuntimeException e) {
+            transport.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed.get() && channel.isOpen();
+    }
+
+    @Override
+    public boolean isInputPending() {
+        return !inbound.isEmpty();
+    }
+
+    @Override
+    public BEREncoding read() throws IOException {
+        Object object;
+        try {
+            object = inbound.poll(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a response");
+        }
+        if (object == null) {
+            // a late response could be taken as the response of the next request
+            close();
+            throw new SocketTimeoutException("no response within " + timeout + " ms");
+        }
+        if (object instanceof BEREncoding ber) {
+            if (suspended && inbound.size() < RESUME_QUEUED_PDUS && resuming.compareAndSet(false, true)) {
+                try {
+                    loop.execute(this::resume);
+                } catch (IllegalStateException e) {
+                    // the selector loop is closed, and the channel with it
+                    resuming.set(false);
+                }
+            }
+            return ber;
+        }
+        if (object instanceof Throwable throwable) {
+            inbound.add(CLOSED);
+            throw new IOException(throwable);
+        }
+        // keep the marker for later reads
+        inbound.add(CLOSED);
+        return null;
+    }
+
+    @Override
+    public void write(BEREncoding ber) throws IOException {
+        if (!isOpen()) {
+            throw new IOException("connection closed");
+        }
+        byte[] bytes = new byte[ber.getTotalLength()];
+        ber.getEncoding(0, bytes);
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        writeLock.lock();
+        try {
+            if (outbound.isEmpty()) {
+                channel.write(byteBuffer);
+                if (!byteBuffer.hasRemaining()) {
+                    return;
+                }
+            }
+            outbound.add(byteBuffer);
+        } finally {
+            writeLock.unlock();
+        }
+        loop.execute(this::flush);
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            inbound.add(CLOSED);
+            connected.completeExceptionally(new IOException("connection closed"));
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    public void connectable() throws IOException {
+        if (channel.finishConnect()) {
+            key.interestOps(SelectionKey.OP_READ);
+            connected.complete(null);
+        }
+    }
+
+    @Override
+    public void readable() throws IOException {
+        int n = channel.read(buffer);
+        if (n < 0) {
+            close();
+            return;
+        }
+        frame();
+    }
+
+    @Override
+    public void writable() throws IOException {
+        writeLock.lock();
+        try {
+            while (!outbound.isEmpty()) {
+                ByteBuffer byteBuffer = outbound.peek();
+                channel.write(byteBuffer);
+                if (byteBuffer.hasRemaining()) {
+                    return;
+                }
+                outbound.poll();
+            }
+            key.interestOps(suspended ? 0 : SelectionKey.OP_READ);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void failed(Throwable cause) {
+        if (!closed.get()) {
+            inbound.add(cause);
+            connected.completeExceptionally(cause);
+        }
+        close();
+    }
+
+    private void register(boolean done) {
+        try {
+            if (closed.get()) {
+                return;
+            }
+            key = channel.register(loop.selector(), done ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            if (done) {
+                connected.complete(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed(e);
+        }
+    }
+
+    private void flush() {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (!outbound.isEmpty()) {
+                key.interestOps((suspended ? 0 : SelectionKey.OP_READ) | SelectionKey.OP_WRITE);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the socket again, after the operations have taken enough PDUs from the queue.
+     * The PDUs that are left in the buffer are queued first.
+     */
+    private void resume() {
+        resuming.set(false);
+        if (!suspended || key == null || !key.isValid() || inbound.size() >= RESUME_QUEUED_PDUS) {
+            return;
+        }
+        suspended = false;
+        try {
+            frame();
+        } catch (IOException | RuntimeException e) {
+            failed(e);
+            return;
+        }
+        if (!suspended) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Queues the complete PDUs in the buffer, and keeps the octets of an incomplete PDU
+     * for the next read. The buffer grows for a large PDU, and shrinks when it is empty again.
+     * If the queue is full, the rest of the buffer is kept, and reading stops until the
+     * operations have caught up.
+     */
+    private void frame() throws IOException {
+        buffer.flip();
+        byte[] array = buffer.array();
+        int needed = 0;
+        boolean full = false;
+        while (buffer.hasRemaining()) {
+            if (inbound.size() >= MAX_QUEUED_PDUS) {
+                full = true;
+                break;
+            }
+            int position = buffer.position();
+            int available = buffer.remaining();
+            int totalLength = BERFrame.totalLength(array, position, available, maxBerSize);
+            if (totalLength < 0 || available < totalLength) {
+                needed = totalLength;
+                break;
+            }
+            byte[] pdu = Arrays.copyOfRange(array, position, position + totalLength);
+            inbound.add(new ByteArrayBERReader(pdu, 0, totalLength, true).read());
+            buffer.position(position + totalLength);
+        }
+        buffer.compact();
+        if (buffer.position() == 0 && buffer.capacity() > INITIAL_BUFFER_SIZE) {
+            // do not hold on to the buffer of a large PDU while the session is idle
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+        if (!full && (needed > buffer.capacity() || !buffer.hasRemaining())) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        if ((full || inbound.size() >= MAX_QUEUED_PDUS) && !suspended) {
+            suspended = true;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            // the operations may have emptied the queue before they could see the suspension
+            resume();
+        }
+    }
+}
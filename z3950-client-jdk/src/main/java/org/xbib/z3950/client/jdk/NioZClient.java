@@ -0,0 +1,97 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.z3950.client.api.AbstractZClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Z client on a non-blocking socket channel, without dependencies beyond the JDK.
+ * One {@link NioSelectorLoop} thread drives the sockets of many clients, and frames the BER PDUs,
+ * the operations encode and decode them on the calling thread, so the selector thread is never
+ * blocked. The operations are not a state machine on the selector: each operation holds its
+ * calling thread while it waits for the responses. With the asynchronous operations of
+ * {@link org.xbib.z3950.client.api.AsyncClient} on virtual threads, a waiting operation costs
+ * the stack of a virtual thread, so many sessions cost a selector thread and a few buffers.
+ * Called from platform threads, each concurrent operation takes a platform thread, as with
+ * {@link JDKZClient}, and only the sessions between operations are cheap.
+ * Unless a selector loop is given, all NIO clients share one selector loop with a daemon thread.
+ */
+public class NioZClient extends AbstractZClient {
+
+    private final NioSelectorLoop selectorLoop;
+
+    private NioZClient(Builder builder) {
+        super(builder);
+        this.selectorLoop = builder.selectorLoop;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    protected Transport connectTransport() throws IOException {
+        NioSelectorLoop loop = selectorLoop != null ? selectorLoop : SharedSelectorLoop.get();
+        return NioTransport.connect(loop, new InetSocketAddress(getHost(), getPort()),
+                getTimeout(), getMaxBerSize());
+    }
+
+    /**
+     * The selector loop for clients without a selector loop of their own.
+     * Created on first use, with a daemon thread, so it never has to be closed.
+     */
+    private static class SharedSelectorLoop {
+
+        private static final Lock lock = new ReentrantLock();
+
+        private static NioSelectorLoop instance;
+
+        private static NioSelectorLoop get() throws IOException {
+            try {
+                lock.lock();
+                if (instance == null || instance.isClosed()) {
+                    instance = new NioSelectorLoop("z3950-selector");
+                }
+                return instance;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    public static class Builder extends AbstractZClient.Builder<Builder> {
+
+        private NioSelectorLoop selectorLoop;
+
+        private Builder() {
+        }
+
+        /**
+         * The selector loop of the client, for example to spread many sessions over more than one
+         * selector thread. The selector loop is not closed with the client.
+         *
+         * @param selectorLoop the selector loop
+         * @return this builder
+         */
+        public Builder setSelectorLoop(NioSelectorLoop selectorLoop) {
+            this.selectorLoop = selectorLoop;
+            return this;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        public NioZClient build() {
+            return new NioZClient(this);
+        }
+    }
+}
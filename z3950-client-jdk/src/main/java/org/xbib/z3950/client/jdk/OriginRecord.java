@@ -0,0 +1,49 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.z3950.api.Record;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * A record tagged with the name of the target it comes from.
+ */
+public class OriginRecord implements Record {
+
+    private final String origin;
+
+    private final Record record;
+
+    public OriginRecord(String origin, Record record) {
+        this.origin = origin;
+        this.record = record;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public int getNumber() {
+        return record.getNumber();
+    }
+
+    @Override
+    public InputStream asStream() {
+        return record.asStream();
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        return record.toString(charset);
+    }
+
+    @Override
+    public String toString() {
+        return origin + ":" + record;
+    }
+}
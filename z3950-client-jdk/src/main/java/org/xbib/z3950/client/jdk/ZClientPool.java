@@ -0,0 +1,392 @@
+package org.xbib.z3950.client.jdk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A pool of initialized sessions of {@link JDKZClient}, keyed by target profile, that is,
+ * all settings of the client builder that affect the init or the session, including the
+ * credentials. Borrowing a session from the pool saves the connect and the init of a new session.
+ * Each target has at most the maximum number of sessions in use, and the pool keeps at least
+ * the minimum number of sessions open. Sessions that have been idle for the idle timeout are
+ * closed by the pool, which must happen before the target closes them for inactivity.
+ * A session is validated when it is borrowed, so a session that the target has closed
+ * in the meantime is replaced by a new one.
+ */
+public class ZClientPool implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ZClientPool.class.getName());
+
+    private final int minSessions;
+
+    private final int maxSessions;
+
+    private final long idleTimeout;
+
+    private final long borrowTimeout;
+
+    private final Map<Profile, Target> targets;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean closed;
+
+    private ZClientPool(Builder builder) {
+        this.minSessions = builder.minSessions;
+        this.maxSessions = builder.maxSessions;
+        this.idleTimeout = builder.idleTimeout;
+        this.borrowTimeout = builder.borrowTimeout;
+        this.targets = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "z3950-client-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, idleTimeout / 4);
+        scheduler.scheduleWithFixedDelay(this::maintain, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Opens the minimum number of sessions for the target of the client builder ahead of use.
+     *
+     * @param builder the client builder
+     * @return the number of idle sessions of the target
+     * @throws IOException if a session can not be opened
+     */
+    public int warmUp(JDKZClient.Builder builder) throws IOException {
+        Target target = target(builder);
+        target.fill();
+        return target.idleCount();
+    }
+
+    /**
+     * Borrows a session for the target of the client builder. An idle session is reused,
+     * otherwise a new session is opened. If the maximum number of sessions of the target are
+     * in use, waits for the borrow timeout until a session is returned.
+     * The session must be closed to return it to the pool.
+     *
+     * @param builder the client builder
+     * @return the session
+     * @throws IOException if no session can be opened, or if the wait times out
+     */
+    public Session borrow(JDKZClient.Builder builder) throws IOException {
+        if (closed) {
+            throw new IOException("pool is closed");
+        }
+        Target target = target(builder);
+        try {
+            if (!target.permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw new IOException("no session for " + target.profile + " within " + borrowTimeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for a session", e);
+        }
+        try {
+            JDKZClient idle;
+            while ((idle = target.poll()) != null) {
+                if (idle.isOpen()) {
+                    return new Session(target, idle);
+                }
+                logger.log(Level.FINE, "discarding closed session of " + target.profile);
+                target.discard(idle);
+            }
+            target.opened();
+            JDKZClient client = builder.build();
+            try {
+                client.connect();
+            } catch (IOException | RuntimeException e) {
+                target.discard(client);
+                throw e;
+            }
+            return new Session(target, client);
+        } catch (IOException | RuntimeException e) {
+            target.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the idle sessions. Sessions in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        for (Target target : targets.values()) {
+            target.closeIdle(0L);
+        }
+    }
+
+    private Target target(JDKZClient.Builder builder) {
+        Profile profile = new Profile(builder.settings());
+        Target target = targets.computeIfAbsent(profile, p -> new Target(p, builder));
+        // the builders of a target have the same settings, but the last one is the least likely to be changed
+        target.builder = builder;
+        return target;
+    }
+
+    private void maintain() {
+        for (Target target : targets.values()) {
+            target.closeIdle(idleTimeout);
+            if (!closed) {
+                try {
+                    target.fill();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "can not open session for " + target.profile + ": " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * A session borrowed from the pool.
+     */
+    public class Session implements Closeable {
+
+        private final Target target;
+
+        private final JDKZClient client;
+
+        private boolean returned;
+
+        private Session(Target target, JDKZClient client) {
+            this.target = target;
+            this.client = client;
+        }
+
+        public JDKZClient getClient() {
+            return client;
+        }
+
+        /**
+         * Returns the session to the pool. A session that is no longer open is discarded.
+         */
+        @Override
+        public void close() {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            try {
+                if (!closed && client.isOpen()) {
+                    target.offer(client);
+                } else {
+                    target.discard(client);
+                }
+            } finally {
+                target.permits.release();
+            }
+        }
+    }
+
+    /**
+     * The sessions of a target. Idle sessions are reused most recently used first,
+     * so that surplus sessions stay idle and are closed.
+     */
+    private class Target {
+
+        private final Profile profile;
+
+        private volatile JDKZClient.Builder builder;
+
+        private final Semaphore permits;
+
+        private final Deque<Idle> idle;
+
+        private int open;
+
+        private Target(Profile profile, JDKZClient.Builder builder) {
+            this.profile = profile;
+            this.builder = builder;
+            this.permits = new Semaphore(maxSessions, true);
+            this.idle = new ArrayDeque<>();
+        }
+
+        private synchronized JDKZClient poll() {
+            Idle session = idle.pollFirst();
+            return session != null ? session.client : null;
+        }
+
+        private void offer(JDKZClient client) {
+            synchronized (this) {
+                if (!closed) {
+                    idle.addFirst(new Idle(client, System.nanoTime()));
+                    return;
+                }
+            }
+            discard(client);
+        }
+
+        private synchronized void opened() {
+            open++;
+        }
+
+        private void discard(JDKZClient client) {
+            synchronized (this) {
+                open--;
+            }
+            client.close();
+        }
+
+        private synchronized int idleCount() {
+            return idle.size();
+        }
+
+        private void closeIdle(long timeout) {
+            List<JDKZClient> expired = new ArrayList<>();
+            synchronized (this) {
+                long now = System.nanoTime();
+                // the least recently used sessions are at the end
+                Iterator<Idle> it = idle.descendingIterator();
+                while (it.hasNext()) {
+                    Idle session = it.next();
+                    if (now - session.since < TimeUnit.MILLISECONDS.toNanos(timeout)) {
+                        break;
+                    }
+                    it.remove();
+                    expired.add(session.client);
+                }
+            }
+            for (JDKZClient client : expired) {
+                logger.log(Level.FINE, "closing idle session of " + profile);
+                discard(client);
+            }
+        }
+
+        private void fill() throws IOException {
+            while (!closed) {
+                JDKZClient.Builder current = builder;
+                synchronized (this) {
+                    if (open >= minSessions) {
+                        return;
+                    }
+                    if (!profile.equals(new Profile(current.settings()))) {
+                        // the builder has been changed after the borrow, it builds sessions of another profile
+                        logger.log(Level.FINE, "not filling " + profile + ", the builder has been changed");
+                        return;
+                    }
+                    open++;
+                }
+                JDKZClient client = current.build();
+                try {
+                    client.connect();
+                } catch (IOException | RuntimeException e) {
+                    discard(client);
+                    throw e;
+                }
+                offer(client);
+            }
+        }
+    }
+
+    private record Idle(JDKZClient client, long since) {
+    }
+
+    /**
+     * The settings of the sessions of a target. Host and port come first in the settings,
+     * and are the only settings that are logged.
+     */
+    private record Profile(List<Object> settings) {
+
+        @Override
+        public String toString() {
+            return settings.get(0) + ":" + settings.get(1);
+        }
+    }
+
+    /**
+     * The builder of a client pool.
+     */
+    public static class Builder {
+
+        private int minSessions;
+
+        private int maxSessions;
+
+        private long idleTimeout;
+
+        private long borrowTimeout;
+
+        private Builder() {
+            this.minSessions = 0;
+            this.maxSessions = 4;
+            this.idleTimeout = 60000L;
+            this.borrowTimeout = 30000L;
+        }
+
+        /**
+         * The number of sessions of a target that are kept open, once the target has been used,
+         * or warmed up.
+         *
+         * @param minSessions the minimum number of sessions per target
+         * @return this builder
+         */
+        public Builder setMinSessions(int minSessions) {
+            this.minSessions = minSessions;
+            return this;
+        }
+
+        /**
+         * The number of sessions of a target that can be in use at the same time.
+         *
+         * @param maxSessions the maximum number of sessions per target
+         * @return this builder
+         */
+        public Builder setMaxSessions(int maxSessions) {
+            this.maxSessions = maxSessions;
+            return this;
+        }
+
+        /**
+         * Close sessions that have been idle for the given time. The idle timeout must be shorter than
+         * the inactivity timeout of the targets, otherwise the targets close idle sessions first,
+         * and a borrow has to open a new session after validation.
+         *
+         * @param idleTimeout the idle timeout in milliseconds
+         * @return this builder
+         */
+        public Builder setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        /**
+         * The time to wait for a session if the maximum number of sessions are in use.
+         *
+         * @param borrowTimeout the borrow timeout in milliseconds
+         * @return this builder
+         */
+        public Builder setBorrowTimeout(long borrowTimeout) {
+            this.borrowTimeout = borrowTimeout;
+            return this;
+        }
+
+        public ZClientPool build() {
+            if (maxSessions < 1 || minSessions < 0 || minSessions > maxSessions) {
+                throw new IllegalArgumentException("invalid number of sessions: " + minSessions + ".." + maxSessions);
+            }
+            if (idleTimeout <= 0) {
+                throw new IllegalArgumentException("idle timeout must be positive");
+            }
+            return new ZClientPool(this);
+        }
+    }
+}
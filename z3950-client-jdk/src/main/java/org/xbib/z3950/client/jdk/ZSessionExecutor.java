@@ -0,0 +1,131 @@
+package org.xbib.z3950.client.jdk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs sessions of {@link JDKZClient} on an executor, each session on a thread of its own.
+ * With virtual threads, see {@link #ofVirtualThreads()}, a blocking session costs no platform
+ * thread while it waits for its target, so hundreds of targets can be contacted at once.
+ * A session is opened for a task and closed afterwards, or borrowed from a {@link ZClientPool}
+ * and returned to it.
+ */
+public class ZSessionExecutor implements Closeable {
+
+    private final ExecutorService executorService;
+
+    private final ZClientPool pool;
+
+    /**
+     * Creates a session executor that opens a new session for each task.
+     *
+     * @param executorService the executor service, which is shut down on close
+     */
+    public ZSessionExecutor(ExecutorService executorService) {
+        this(executorService, null);
+    }
+
+    /**
+     * Creates a session executor.
+     *
+     * @param executorService the executor service, which is shut down on close
+     * @param pool the pool to borrow the sessions from, or null to open a new session for each task
+     */
+    public ZSessionExecutor(ExecutorService executorService, ZClientPool pool) {
+        this.executorService = Objects.requireNonNull(executorService);
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a session executor that runs each session on a new virtual thread.
+     *
+     * @return the session executor
+     */
+    public static ZSessionExecutor ofVirtualThreads() {
+        return new ZSessionExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Creates a session executor that runs each session on a new virtual thread,
+     * with sessions from a pool.
+     *
+     * @param pool the pool
+     * @return the session executor
+     */
+    public static ZSessionExecutor ofVirtualThreads(ZClientPool pool) {
+        return new ZSessionExecutor(Executors.newVirtualThreadPerTaskExecutor(), pool);
+    }
+
+    /**
+     * Runs a task on a session with the target of the client builder.
+     *
+     * @param builder the client builder
+     * @param task the task
+     * @param <T> the result type
+     * @return the future result of the task, which completes exceptionally with a
+     * {@link CompletionException} if the session can not be opened, or the task fails
+     */
+    public <T> CompletableFuture<T> submit(JDKZClient.Builder builder, SessionTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return run(builder, task);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executorService);
+    }
+
+    /**
+     * Runs a task on a session with each of the targets, all at once.
+     *
+     * @param builders the client builders of the targets
+     * @param task the task
+     * @param <T> the result type
+     * @return the future results, in the order of the builders
+     */
+    public <T> List<CompletableFuture<T>> submitAll(List<JDKZClient.Builder> builders, SessionTask<T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(builders.size());
+        for (JDKZClient.Builder builder : builders) {
+            futures.add(submit(builder, task));
+        }
+        return futures;
+    }
+
+    /**
+     * Shuts down the executor service. Running sessions are completed.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+
+    private <T> T run(JDKZClient.Builder builder, SessionTask<T> task) throws IOException {
+        if (pool != null) {
+            try (ZClientPool.Session session = pool.borrow(builder)) {
+                return task.run(session.getClient());
+            }
+        }
+        try (JDKZClient client = builder.build()) {
+            client.connect();
+            return task.run(client);
+        }
+    }
+
+    /**
+     * A task on a session.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface SessionTask<T> {
+
+        T run(JDKZClient client) throws IOException;
+    }
+}
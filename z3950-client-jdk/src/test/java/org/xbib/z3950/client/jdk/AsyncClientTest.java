@@ -0,0 +1,79 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.ScanTerm;
+import org.xbib.z3950.client.api.ScanResult;
+import org.xbib.z3950.client.api.SearchResult;
+import org.xbib.z3950.common.operations.SortOperation;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asynchronous operations against in-memory targets.
+ */
+class AsyncClientTest {
+
+    @Test
+    void testSearch() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 5);
+        try (MemoryClient client = MemoryClient.builder(target).build()) {
+            SearchResult result = client.searchPQFAsync("@attr 1=4 test", 1, 2, null).join();
+            assertEquals(0, result.getStatus());
+            assertEquals(5, result.getCount());
+            assertEquals(1, result.getOffset());
+            assertEquals(2, result.getRecords().size());
+            for (Record record : result.getRecords()) {
+                assertEquals("a", record.toString(StandardCharsets.US_ASCII));
+            }
+            assertEquals(3, result.getNextOffset());
+            // the last page has no next page
+            result = client.searchPQFAsync("@attr 1=4 test", 5, 2, null).join();
+            assertEquals(1, result.getRecords().size());
+            assertEquals(0, result.getNextOffset());
+        }
+    }
+
+    @Test
+    void testScan() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 3);
+        try (MemoryClient client = MemoryClient.builder(target).build()) {
+            ScanResult result = client.scanAsync("@attr 1=4 test", 10, 0, 1).join();
+            List<ScanTerm> terms = result.getTerms();
+            assertEquals(3, terms.size());
+            assertEquals("x000", new String(terms.get(0).getTerm(), StandardCharsets.US_ASCII));
+            assertEquals("x002", new String(terms.get(2).getTerm(), StandardCharsets.US_ASCII));
+            assertEquals(1L, target.count("pdu 35"));
+        }
+    }
+
+    @Test
+    void testSort() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 2);
+        try (MemoryClient client = MemoryClient.builder(target).build()) {
+            assertEquals(2, client.searchPQFAsync("@attr 1=4 test", 1, 2, null).join().getCount());
+            assertTrue(client.sortAsync("sort", List.of(SortOperation.SortParameter.of("title"))).join());
+            assertEquals(1L, target.count("pdu 43"));
+        }
+    }
+
+    @Test
+    void testTimeout() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 2);
+        target.setTriggerResourceControl(true);
+        target.setSearchDelay(10000L);
+        try (MemoryClient client = MemoryClient.builder(target).setOperationTimeout(200L).build()) {
+            CompletionException e = assertThrows(CompletionException.class,
+                    () -> client.searchPQFAsync("@attr 1=4 test", 1, 2, null).join());
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Federated search against in-memory targets.
+ */
+class FederatedSearchTest {
+
+    @Test
+    void testQuorum() throws IOException {
+        MemoryTarget a = new MemoryTarget("a", 2);
+        MemoryTarget b = new MemoryTarget("b", 3);
+        MemoryTarget slow = new MemoryTarget("slow", 2);
+        slow.setTriggerResourceControl(true);
+        slow.setSearchDelay(10000L);
+        List<OriginRecord> records = Collections.synchronizedList(new ArrayList<>());
+        try (MemoryClient clientA = MemoryClient.builder(a).build();
+             MemoryClient clientB = MemoryClient.builder(b).build();
+             MemoryClient slowClient = MemoryClient.builder(slow).build();
+             FederatedSearch federatedSearch = FederatedSearch.builder().setQuorum(2).build()) {
+            FederatedSearch.Result result = federatedSearch.searchPQF(List.of(
+                    new FederatedSearch.Target("a", clientA),
+                    new FederatedSearch.Target("b", clientB),
+                    new FederatedSearch.Target("slow", slowClient)),
+                    "@attr 1=4 test", 1, 10, record -> records.add((OriginRecord) record));
+            List<FederatedSearch.TargetResult> results = result.getTargetResults();
+            assertEquals(FederatedSearch.State.COMPLETED, results.get(0).getState());
+            assertEquals(2, results.get(0).getCount());
+            assertEquals(2, results.get(0).getReturned());
+            assertEquals(FederatedSearch.State.COMPLETED, results.get(1).getState());
+            assertEquals(3, results.get(1).getCount());
+            assertEquals(3, results.get(1).getReturned());
+            // the quorum is reached without the slow target, which is abandoned
+            assertEquals(FederatedSearch.State.ABANDONED, results.get(2).getState());
+            assertEquals(-1, results.get(2).getCount());
+            assertEquals(5L, result.getCount());
+            assertTrue(result.getElapsedMillis() < 10000L);
+            // the abandoned search is cancelled on the target, and the session can be used again
+            slow.setSearchDelay(0L);
+            assertEquals(2, slowClient.searchPQF("@attr 1=4 test", 1, 10, null, null, null, null));
+            assertEquals(1L, slow.count("connect"));
+        }
+        assertEquals(5, records.size());
+        for (OriginRecord record : records) {
+            assertEquals(record.getOrigin(), record.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testDeadline() throws IOException {
+        MemoryTarget a = new MemoryTarget("a", 2);
+        MemoryTarget late = new MemoryTarget("late", 2);
+        late.setTriggerResourceControl(true);
+        late.setSearchDelay(10000L);
+        List<OriginRecord> records = Collections.synchronizedList(new ArrayList<>());
+        try (MemoryClient clientA = MemoryClient.builder(a).build();
+             MemoryClient lateClient = MemoryClient.builder(late).build();
+             FederatedSearch federatedSearch = FederatedSearch.builder().build()) {
+            FederatedSearch.Result result = federatedSearch.searchPQF(List.of(
+                    new FederatedSearch.Target("a", clientA),
+                    new FederatedSearch.Target("late", lateClient, 1000L, null)),
+                    "@attr 1=4 test", 1, 10, record -> records.add((OriginRecord) record));
+            List<FederatedSearch.TargetResult> results = result.getTargetResults();
+            assertEquals(FederatedSearch.State.COMPLETED, results.get(0).getState());
+            // the deadline of the target is earlier than the deadline of the search
+            assertEquals(FederatedSearch.State.TIMED_OUT, results.get(1).getState());
+            assertEquals(2L, result.getCount());
+            assertTrue(result.getElapsedMillis() < 10000L);
+            late.setSearchDelay(0L);
+            assertEquals(2, lateClient.searchPQF("@attr 1=4 test", 1, 10, null, null, null, null));
+            assertEquals(1L, late.count("connect"));
+        }
+        assertEquals(2, records.size());
+        for (OriginRecord record : records) {
+            assertEquals("a", record.getOrigin());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.SearchListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hedged searches against in-memory targets.
+ */
+class HedgedClientTest {
+
+    @Test
+    void testHedge() throws IOException {
+        MemoryTarget primary = new MemoryTarget("primary", 2);
+        primary.setTriggerResourceControl(true);
+        primary.setSearchDelay(10000L);
+        MemoryTarget secondary = new MemoryTarget("secondary", 3);
+        List<Record> records = new ArrayList<>();
+        List<Integer> totals = new ArrayList<>();
+        try (HedgedClient client = HedgedClient.builder()
+                .setPrimary(MemoryClient.builder(primary).build())
+                .setSecondary(MemoryClient.builder(secondary).build())
+                .setInitialDelay(100L)
+                .build()) {
+            assertEquals(100L, client.getHedgeDelay());
+            long start = System.nanoTime();
+            int count = client.searchPQF("@attr 1=4 test", 1, 10, null, listener(totals), records::add, null);
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertEquals(3, count);
+            assertEquals(List.of(3), totals);
+            assertEquals(1L, secondary.count("pdu 22"));
+            // the stalled search of the primary has been cancelled on the target, and the session is kept
+            assertEquals(0L, primary.count("close"));
+            primary.setSearchDelay(0L);
+            assertEquals(2, client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, null));
+            assertEquals(1L, primary.count("connect"));
+        }
+        assertEquals(3, records.size());
+        // the records of the second search are not collected
+        for (Record record : records) {
+            assertEquals("secondary", record.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testWithoutHedge() throws IOException {
+        MemoryTarget primary = new MemoryTarget("primary", 2);
+        MemoryTarget secondary = new MemoryTarget("secondary", 3);
+        List<Record> records = new ArrayList<>();
+        try (HedgedClient client = HedgedClient.builder()
+                .setPrimary(MemoryClient.builder(primary).build())
+                .setSecondary(MemoryClient.builder(secondary).build())
+                .setInitialDelay(5000L)
+                .build()) {
+            assertEquals(2, client.searchPQF("@attr 1=4 test", 1, 10, null, null, records::add, null));
+        }
+        // the primary has answered within the hedge delay, so the secondary is not used
+        assertEquals(0L, secondary.count("connect"));
+        assertEquals(2, records.size());
+        for (Record record : records) {
+            assertEquals("primary", record.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static SearchListener listener(List<Integer> totals) {
+        return new SearchListener() {
+            @Override
+            public void onResponse(int status, int total, int returned, long elapsedMillis) {
+            }
+
+            @Override
+            public void onSearchResponse(int total, long elapsedMillis) {
+                totals.add(total);
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.z3950.client.api.AbstractZClient;
+
+/**
+ * A client of an in-memory target.
+ */
+class MemoryClient extends AbstractZClient {
+
+    private final MemoryTarget target;
+
+    private MemoryClient(Builder builder) {
+        super(builder);
+        this.target = builder.target;
+    }
+
+    static Builder builder(MemoryTarget target) {
+        return new Builder(target).setHost(target.getName());
+    }
+
+    @Override
+    protected Transport connectTransport() {
+        return target.open(getTimeout());
+    }
+
+    /**
+     *
+     */
+    static class Builder extends AbstractZClient.Builder<Builder> {
+
+        private final MemoryTarget target;
+
+        private Builder(MemoryTarget target) {
+            this.target = target;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        public MemoryClient build() {
+            return new MemoryClient(this);
+        }
+    }
+}
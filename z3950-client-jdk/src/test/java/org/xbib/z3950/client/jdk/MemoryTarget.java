@@ -0,0 +1,346 @@
+package org.xbib.z3950.client.jdk;
+
+import org.xbib.asn1.ASN1BitString;
+import org.xbib.asn1.ASN1Boolean;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1ObjectIdentifier;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.z3950.client.api.AbstractZClient;
+import org.xbib.z3950.common.v3.PresentRequest;
+import org.xbib.z3950.common.v3.ScanRequest;
+import org.xbib.z3950.common.v3.Term;
+import org.xbib.z3950.common.v3.TermInfo;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * An in-memory target, which answers init, search, present, scan, sort, and trigger resource control.
+ * The records of the target contain its name, and its index has as many terms as records, from x000 on.
+ * The search and scan responses can be delayed, to stall the target, and a delayed search is cancelled
+ * by trigger resource control, if it has been offered.
+ * The target keeps a log of the connects, the requests, and the closes of the sessions.
+ */
+class MemoryTarget {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memory-target");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String name;
+
+    private final int count;
+
+    private final List<String> events;
+
+    private volatile long searchDelay;
+
+    private volatile long scanDelay;
+
+    private volatile boolean triggerResourceControl;
+
+    MemoryTarget(String name, int count) {
+        this.name = name;
+        this.count = count;
+        this.events = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    void setSearchDelay(long searchDelay) {
+        this.searchDelay = searchDelay;
+    }
+
+    void setScanDelay(long scanDelay) {
+        this.scanDelay = scanDelay;
+    }
+
+    void setTriggerResourceControl(boolean triggerResourceControl) {
+        this.triggerResourceControl = triggerResourceControl;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    List<String> getEvents() {
+        synchronized (events) {
+            return new ArrayList<>(events);
+        }
+    }
+
+    long count(String event) {
+        return getEvents().stream().filter(event::equals).count();
+    }
+
+    /**
+     * Waits until the event has been logged, for the events that happen on other threads.
+     *
+     * @param event the event
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void await(String event) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (count(event) == 0) {
+            if (System.nanoTime() - end > 0) {
+                throw new AssertionError("no " + event + " within 5 s: " + getEvents());
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    /**
+     * Opens an in-memory session.
+     *
+     * @param timeout the read timeout in milliseconds
+     * @return the transport of the session
+     */
+    Session open(long timeout) {
+        events.add("connect");
+        return new Session(timeout);
+    }
+
+    /**
+     * Answers a request of a session.
+     *
+     * @param request the request
+     * @param responses the receiver of the responses
+     * @return the delayed response, or null
+     * @throws ASN1Exception if the request can not be decoded
+     */
+    ScheduledFuture<?> answer(BEREncoding request, Consumer<BEREncoding> responses) throws ASN1Exception {
+        events.add("pdu " + request.getTag());
+        switch (request.getTag()) {
+            case 20 -> responses.accept(initResponse());
+            case 22 -> {
+                BEREncoding response = searchResponse(referenceId(request), count, true);
+                long delay = searchDelay;
+                if (delay > 0) {
+                    return scheduler.schedule(() -> responses.accept(response), delay, TimeUnit.MILLISECONDS);
+                }
+                responses.accept(response);
+            }
+            case 24 -> {
+                PresentRequest presentRequest = new PresentRequest(request, false);
+                responses.accept(presentResponse(referenceId(request), presentRequest.resultSetStartPoint.get(),
+                        presentRequest.numberOfRecordsRequested.get()));
+            }
+            case 35 -> {
+                ScanRequest scanRequest = new ScanRequest(request, false);
+                BEREncoding response = scanResponse(referenceId(request),
+                        new String(scanRequest.termListAndStartPoint.term.c_general.getBytes(), StandardCharsets.US_ASCII),
+                        scanRequest.numberOfTermsRequested.get());
+                long delay = scanDelay;
+                if (delay > 0) {
+                    scheduler.schedule(() -> responses.accept(response), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    responses.accept(response);
+                }
+            }
+            case 43 -> responses.accept(new BERConstructed(C, 44, new BEREncoding[] {
+                    new ASN1Integer(0).berEncode(C, 3)
+            }));
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    private BEREncoding initResponse() throws ASN1Exception {
+        boolean[] options = new boolean[15];
+        options[0] = true;
+        options[1] = true;
+        options[4] = triggerResourceControl;
+        return new BERConstructed(C, 21, new BEREncoding[] {
+                new ASN1BitString(new boolean[] {true, true, true}).berEncode(C, 3),
+                new ASN1BitString(options).berEncode(C, 4),
+                new ASN1Integer(65536).berEncode(C, 5),
+                new ASN1Integer(65536).berEncode(C, 6),
+                new ASN1Boolean(true).berEncode(C, 12)
+        });
+    }
+
+    private static BEREncoding searchResponse(BEREncoding referenceId, int count, boolean status)
+            throws ASN1Exception {
+        List<BEREncoding> elements = new ArrayList<>();
+        if (referenceId != null) {
+            elements.add(referenceId);
+        }
+        elements.add(new ASN1Integer(count).berEncode(C, 23));
+        elements.add(new ASN1Integer(0).berEncode(C, 24));
+        elements.add(new ASN1Integer(1).berEncode(C, 25));
+        elements.add(new ASN1Boolean(status).berEncode(C, 22));
+        return new BERConstructed(C, 23, elements.toArray(new BEREncoding[0]));
+    }
+
+    private BEREncoding presentResponse(BEREncoding referenceId, int start, int number) throws ASN1Exception {
+        List<BEREncoding> elements = new ArrayList<>();
+        if (referenceId != null) {
+            elements.add(referenceId);
+        }
+        elements.add(new ASN1Integer(number).berEncode(C, 24));
+        elements.add(new ASN1Integer(start + number).berEncode(C, 25));
+        elements.add(new ASN1Integer(0).berEncode(C, 27));
+        BEREncoding[] records = new BEREncoding[number];
+        for (int i = 0; i < number; i++) {
+            records[i] = record(name.getBytes(StandardCharsets.US_ASCII));
+        }
+        elements.add(new BERConstructed(C, 28, records));
+        return new BERConstructed(C, 25, elements.toArray(new BEREncoding[0]));
+    }
+
+    private BEREncoding scanResponse(BEREncoding referenceId, String start, int number) throws ASN1Exception {
+        List<BEREncoding> entries = new ArrayList<>();
+        for (int i = 0; i < count && entries.size() < number; i++) {
+            String term = String.format("x%03d", i);
+            if (term.compareTo(start) >= 0) {
+                TermInfo termInfo = new TermInfo();
+                termInfo.s_term = new Term();
+                termInfo.s_term.c_general = new ASN1OctetString(term.getBytes(StandardCharsets.US_ASCII));
+                termInfo.s_globalOccurrences = new ASN1Integer(1);
+                entries.add(termInfo.berEncode(C, 1));
+            }
+        }
+        List<BEREncoding> elements = new ArrayList<>();
+        if (referenceId != null) {
+            elements.add(referenceId);
+        }
+        elements.add(new ASN1Integer(0).berEncode(C, 4));
+        elements.add(new ASN1Integer(entries.size()).berEncode(C, 5));
+        elements.add(new BERConstructed(C, 7, new BEREncoding[] {
+                new BERConstructed(C, 1, entries.toArray(new BEREncoding[0]))
+        }));
+        return new BERConstructed(C, 36, elements.toArray(new BEREncoding[0]));
+    }
+
+    private static BEREncoding record(byte[] content) throws ASN1Exception {
+        BEREncoding external = new BERConstructed(BEREncoding.UNIVERSAL_TAG, 8, new BEREncoding[] {
+                new ASN1ObjectIdentifier(new int[] {1, 2, 840, 10003, 5, 10}).berEncode(),
+                new ASN1OctetString(content).berEncode(C, 1)
+        });
+        BEREncoding record = new BERConstructed(C, 1, new BEREncoding[] {
+                new BERConstructed(C, 1, new BEREncoding[] {external})
+        });
+        return new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, new BEREncoding[] {record});
+    }
+
+    static BEREncoding close() throws ASN1Exception {
+        return new BERConstructed(C, 48, new BEREncoding[] {
+                new ASN1Integer(1).berEncode(C, 211)
+        });
+    }
+
+    private static BEREncoding referenceId(BEREncoding request) {
+        BERConstructed constructed = (BERConstructed) request;
+        if (constructed.numberComponents() > 0) {
+            BEREncoding first = constructed.elementAt(0);
+            if (first.getTagType() == C && first.getTag() == 2) {
+                return first;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A session with the target. The responses wait in a queue for the reads of the client.
+     */
+    class Session implements AbstractZClient.Transport {
+
+        private final Object closed = new Object();
+
+        private final BlockingQueue<Object> queue;
+
+        private final long timeout;
+
+        private volatile ScheduledFuture<?> pending;
+
+        private volatile boolean open;
+
+        private Session(long timeout) {
+            this.queue = new LinkedBlockingQueue<>();
+            this.timeout = timeout;
+            this.open = true;
+        }
+
+        @Override
+        public BEREncoding read() throws IOException {
+            Object object;
+            try {
+                object = queue.poll(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                events.add("interrupted");
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for a response");
+            }
+            if (object == null) {
+                throw new SocketTimeoutException("no response within " + timeout + " ms");
+            }
+            if (object == closed) {
+                // keep the marker for later reads
+                queue.add(closed);
+                return null;
+            }
+            return (BEREncoding) object;
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            if (!open) {
+                throw new IOException("session is closed");
+            }
+            if (ber.getTag() == 32) {
+                events.add("pdu 32");
+                ScheduledFuture<?> future = pending;
+                if (future != null && future.cancel(false)) {
+                    queue.add(searchResponse(null, 0, false));
+                }
+                return;
+            }
+            ScheduledFuture<?> future = answer(ber, queue::add);
+            if (future != null) {
+                pending = future;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public boolean isInputPending() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            events.add("close");
+            ScheduledFuture<?> future = pending;
+            if (future != null) {
+                future.cancel(false);
+            }
+            queue.add(closed);
+        }
+    }
+}
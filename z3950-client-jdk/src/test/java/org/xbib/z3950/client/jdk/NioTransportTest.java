@@ -0,0 +1,139 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERFrame;
+import org.xbib.asn1.io.InputStreamBERReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Framing of the PDUs of a target on a loopback socket, however the octets are split over the reads.
+ */
+class NioTransportTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testSplitReads() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             NioSelectorLoop loop = new NioSelectorLoop("test-selector")) {
+            NioTransport transport = connect(loop, serverSocket);
+            try (Socket socket = serverSocket.accept()) {
+                OutputStream out = socket.getOutputStream();
+                // a PDU split after the identifier octet, and a PDU with long form length in small pieces
+                byte[] small = pdu(1, 10).getEncoding();
+                out.write(small, 0, 1);
+                out.flush();
+                Thread.sleep(20L);
+                out.write(small, 1, small.length - 1);
+                out.flush();
+                byte[] large = pdu(2, 20000).getEncoding();
+                for (int i = 0; i < large.length; i += 1000) {
+                    out.write(large, i, Math.min(1000, large.length - i));
+                    out.flush();
+                    Thread.sleep(1L);
+                }
+                assertArrayEquals(small, transport.read().getEncoding());
+                assertArrayEquals(large, transport.read().getEncoding());
+                assertFalse(transport.isInputPending());
+                // and the other way round
+                byte[] request = pdu(3, 100).getEncoding();
+                transport.write(pdu(3, 100));
+                assertArrayEquals(request, new InputStreamBERReader(socket.getInputStream()).read().getEncoding());
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    @Test
+    void testSeveralPdusInOneRead() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             NioSelectorLoop loop = new NioSelectorLoop("test-selector")) {
+            NioTransport transport = connect(loop, serverSocket);
+            try (Socket socket = serverSocket.accept()) {
+                ByteArrayOutputStream octets = new ByteArrayOutputStream();
+                for (int i = 0; i < 3; i++) {
+                    octets.write(pdu(i, 10 * i).getEncoding());
+                }
+                socket.getOutputStream().write(octets.toByteArray());
+                socket.getOutputStream().flush();
+                for (int i = 0; i < 3; i++) {
+                    assertArrayEquals(pdu(i, 10 * i).getEncoding(), transport.read().getEncoding());
+                }
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    @Test
+    void testBackpressure() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             NioSelectorLoop loop = new NioSelectorLoop("test-selector")) {
+            NioTransport transport = connect(loop, serverSocket);
+            try (Socket socket = serverSocket.accept()) {
+                ByteArrayOutputStream octets = new ByteArrayOutputStream();
+                for (int i = 0; i < 100; i++) {
+                    octets.write(pdu(i, 1000).getEncoding());
+                }
+                socket.getOutputStream().write(octets.toByteArray());
+                socket.getOutputStream().flush();
+                // let the queue fill up, so that reading stops and resumes
+                Thread.sleep(100L);
+                for (int i = 0; i < 100; i++) {
+                    assertArrayEquals(pdu(i, 1000).getEncoding(), transport.read().getEncoding());
+                }
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    @Test
+    void testClosedLoop() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            NioSelectorLoop loop = new NioSelectorLoop("test-selector");
+            NioTransport transport = connect(loop, serverSocket);
+            try (Socket socket = serverSocket.accept()) {
+                loop.close();
+                assertTrue(loop.isClosed());
+                // the registered transport fails at once, and no connect waits for the closed loop
+                long start = System.nanoTime();
+                assertThrows(IOException.class, transport::read);
+                assertTrue(System.nanoTime() - start < 5_000_000_000L);
+                assertFalse(transport.isOpen());
+                assertThrows(IOException.class, () -> connect(loop, serverSocket));
+            } finally {
+                transport.close();
+            }
+        }
+    }
+
+    private static NioTransport connect(NioSelectorLoop loop, ServerSocket serverSocket) throws IOException {
+        return NioTransport.connect(loop, new InetSocketAddress("localhost", serverSocket.getLocalPort()),
+                5000L, BERFrame.DEFAULT_MAX_BER_SIZE);
+    }
+
+    private static BEREncoding pdu(int value, int size) throws ASN1Exception {
+        return new BERConstructed(C, 22, new BEREncoding[] {
+                new ASN1Integer(value).berEncode(C, 23),
+                new ASN1OctetString(new byte[size]).berEncode(C, 24)
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.z3950.client.api.AbstractZClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Operations that miss the deadline of the operation timeout.
+ */
+class OperationDeadlineTest {
+
+    @Test
+    void testCancel() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 2);
+        target.setTriggerResourceControl(true);
+        target.setSearchDelay(10000L);
+        AtomicInteger timeouts = new AtomicInteger();
+        try (MemoryClient client = MemoryClient.builder(target).setOperationTimeout(200L).build()) {
+            long start = System.nanoTime();
+            assertEquals(0, client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, timeouts::incrementAndGet));
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertEquals(1, timeouts.get());
+            // the target has ended the cancelled search, so the session is kept
+            assertEquals(1L, target.count("pdu 32"));
+            assertEquals(0L, target.count("close"));
+            assertEquals(AbstractZClient.State.READY, client.getState());
+            assertTrue(client.isOpen());
+            target.setSearchDelay(0L);
+            assertEquals(2, client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, timeouts::incrementAndGet));
+            assertEquals(1, timeouts.get());
+            assertEquals(1L, target.count("connect"));
+        }
+    }
+
+    @Test
+    void testBrowse() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 10);
+        target.setScanDelay(100L);
+        AtomicInteger timeouts = new AtomicInteger();
+        List<String> terms = new ArrayList<>();
+        try (MemoryClient client = MemoryClient.builder(target).setOperationTimeout(300L).build()) {
+            // each page is in time, the walk over four pages is not, and is not cancelled
+            assertEquals(10, client.browsePQF("@attr 1=4 test", 3, true, 0,
+                    term -> terms.add(new String(term.getTerm(), StandardCharsets.US_ASCII)), timeouts::incrementAndGet));
+            assertEquals(0, timeouts.get());
+            assertEquals(4L, target.count("pdu 35"));
+            assertEquals("x000", terms.get(0));
+            assertEquals("x009", terms.get(9));
+            assertEquals(0L, target.count("close"));
+        }
+    }
+
+    @Test
+    void testAbort() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 2);
+        target.setSearchDelay(10000L);
+        AtomicInteger timeouts = new AtomicInteger();
+        try (MemoryClient client = MemoryClient.builder(target).setOperationTimeout(200L).build()) {
+            long start = System.nanoTime();
+            assertEquals(0, client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, timeouts::incrementAndGet));
+            assertTrue(System.nanoTime() - start < 10_000_000_000L);
+            assertEquals(1, timeouts.get());
+            // without trigger resource control, the session is closed
+            assertEquals(0L, target.count("pdu 32"));
+            assertEquals(1L, target.count("pdu 48"));
+            assertEquals(1L, target.count("close"));
+            assertEquals(AbstractZClient.State.CLOSED, client.getState());
+            target.setSearchDelay(0L);
+            assertEquals(2, client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, timeouts::incrementAndGet));
+            assertEquals(1, timeouts.get());
+            assertEquals(2L, target.count("connect"));
+            assertEquals(AbstractZClient.State.READY, client.getState());
+        }
+    }
+}
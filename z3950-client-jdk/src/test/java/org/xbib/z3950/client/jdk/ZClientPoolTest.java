@@ -0,0 +1,257 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.InputStreamBERReader;
+import org.xbib.asn1.io.OutputStreamBERWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pooled sessions against an in-memory target. The pool holds socket clients, so the target
+ * is served on a loopback socket.
+ */
+class ZClientPoolTest {
+
+    @Test
+    void testReuse() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().build()) {
+            JDKZClient client;
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                client = session.getClient();
+            }
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertSame(client, session.getClient());
+            }
+            assertEquals(1, target.count("pdu 20"));
+        }
+    }
+
+    @Test
+    void testValidation() throws Exception {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().build()) {
+            JDKZClient client;
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                client = session.getClient();
+            }
+            loopback.disconnect();
+            await(() -> !client.isOpen());
+            // the session that the target has closed is not handed out again
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertNotSame(client, session.getClient());
+                assertTrue(session.getClient().isOpen());
+            }
+            assertEquals(2, target.count("pdu 20"));
+        }
+    }
+
+    @Test
+    void testValidationWithoutClose() throws Exception {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().build()) {
+            JDKZClient client;
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                client = session.getClient();
+                assertTrue(client.isOpen());
+            }
+            assertTrue(client.isOpen());
+            // the target goes away without a close request, which leaves no octet on the socket
+            loopback.drop();
+            await(() -> !client.isOpen());
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertNotSame(client, session.getClient());
+                assertTrue(session.getClient().isOpen());
+            }
+            assertEquals(2, target.count("pdu 20"));
+        }
+    }
+
+    @Test
+    void testEviction() throws Exception {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().setIdleTimeout(100L).build()) {
+            JDKZClient client;
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                client = session.getClient();
+            }
+            assertTrue(client.isOpen());
+            // the pool closes the idle session with a close request
+            await(() -> target.count("pdu 48") == 1);
+            assertFalse(client.isOpen());
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertNotSame(client, session.getClient());
+            }
+        }
+    }
+
+    @Test
+    void testProfiles() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().setMaxSessions(1).setBorrowTimeout(100L).build()) {
+            // sessions with other credentials are sessions of another target, and do not wait
+            try (ZClientPool.Session a = pool.borrow(loopback.builder("a"));
+                 ZClientPool.Session b = pool.borrow(loopback.builder("b"))) {
+                assertNotSame(a.getClient(), b.getClient());
+                assertEquals("a", a.getClient().getPass());
+                assertEquals("b", b.getClient().getPass());
+            }
+        }
+    }
+
+    @Test
+    void testBorrowTimeout() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 0);
+        try (Loopback loopback = new Loopback(target);
+             ZClientPool pool = ZClientPool.builder().setMaxSessions(1).setBorrowTimeout(100L).build()) {
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertThrows(IOException.class, () -> pool.borrow(loopback.builder("pass")));
+            }
+            // the returned session can be borrowed again
+            try (ZClientPool.Session session = pool.borrow(loopback.builder("pass"))) {
+                assertTrue(session.getClient().isOpen());
+            }
+            assertEquals(1, target.count("pdu 20"));
+        }
+    }
+
+    private static void await(Condition condition) throws Exception {
+        long end = System.nanoTime() + 5_000_000_000L;
+        while (!condition.test()) {
+            if (System.nanoTime() - end > 0) {
+                throw new AssertionError("condition not met within 5 s");
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    private interface Condition {
+
+        boolean test() throws Exception;
+    }
+
+    /**
+     * Serves an in-memory target on a loopback socket.
+     */
+    static class Loopback implements Closeable {
+
+        private final MemoryTarget target;
+
+        private final ServerSocket serverSocket;
+
+        private final List<OutputStreamBERWriter> writers;
+
+        private final List<Socket> sockets;
+
+        Loopback(MemoryTarget target) throws IOException {
+            this.target = target;
+            this.serverSocket = new ServerSocket(0);
+            this.writers = Collections.synchronizedList(new ArrayList<>());
+            this.sockets = Collections.synchronizedList(new ArrayList<>());
+            Thread thread = new Thread(this::accept, "loopback");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        JDKZClient.Builder builder(String pass) {
+            return JDKZClient.builder()
+                    .setHost("localhost")
+                    .setPort(serverSocket.getLocalPort())
+                    .setUser("user")
+                    .setPass(pass)
+                    .setTimeout(5000L);
+        }
+
+        /**
+         * Sends a close request to all clients.
+         */
+        void disconnect() throws IOException {
+            List<OutputStreamBERWriter> list;
+            synchronized (writers) {
+                list = new ArrayList<>(writers);
+            }
+            for (OutputStreamBERWriter writer : list) {
+                write(writer, MemoryTarget.close());
+            }
+        }
+
+        /**
+         * Closes the connections of all clients, without a close request.
+         */
+        void drop() throws IOException {
+            List<Socket> list;
+            synchronized (sockets) {
+                list = new ArrayList<>(sockets);
+            }
+            for (Socket socket : list) {
+                socket.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    Thread thread = new Thread(() -> serve(socket), "loopback-session");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket) {
+                BERReader reader = new InputStreamBERReader(socket.getInputStream());
+                OutputStreamBERWriter writer = new OutputStreamBERWriter(socket.getOutputStream());
+                writers.add(writer);
+                BEREncoding request;
+                while ((request = reader.read()) != null) {
+                    target.answer(request, response -> {
+                        try {
+                            write(writer, response);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // the client has gone
+            }
+        }
+
+        private static void write(OutputStreamBERWriter writer, BEREncoding ber) throws IOException {
+            synchronized (writer) {
+                writer.write(ber);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.xbib.z3950.client.jdk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sessions on virtual threads against in-memory targets, served on loopback sockets.
+ */
+class ZSessionExecutorTest {
+
+    private static final ZSessionExecutor.SessionTask<Integer> SEARCH =
+            client -> client.searchPQF("@attr 1=4 test", 1, 10, null, null, null, null);
+
+    @Test
+    void testSubmitAll() throws IOException {
+        MemoryTarget a = new MemoryTarget("a", 2);
+        MemoryTarget b = new MemoryTarget("b", 3);
+        try (ZClientPoolTest.Loopback loopbackA = new ZClientPoolTest.Loopback(a);
+             ZClientPoolTest.Loopback loopbackB = new ZClientPoolTest.Loopback(b);
+             ZSessionExecutor executor = ZSessionExecutor.ofVirtualThreads()) {
+            List<CompletableFuture<Integer>> futures = executor.submitAll(List.of(
+                    loopbackA.builder("pass"),
+                    loopbackB.builder("pass"),
+                    unreachable()), SEARCH);
+            assertEquals(3, futures.size());
+            assertEquals(2, futures.get(0).join().intValue());
+            assertEquals(3, futures.get(1).join().intValue());
+            // the failed connect fails its own future only
+            CompletionException e = assertThrows(CompletionException.class, () -> futures.get(2).join());
+            assertTrue(e.getCause() instanceof IOException);
+            // a session is opened and closed for each task
+            assertEquals(1L, a.count("pdu 20"));
+            assertEquals(1L, b.count("pdu 20"));
+        }
+    }
+
+    @Test
+    void testPool() throws IOException {
+        MemoryTarget target = new MemoryTarget("a", 2);
+        try (ZClientPoolTest.Loopback loopback = new ZClientPoolTest.Loopback(target);
+             ZClientPool pool = ZClientPool.builder().build();
+             ZSessionExecutor executor = ZSessionExecutor.ofVirtualThreads(pool)) {
+            assertEquals(2, executor.submit(loopback.builder("pass"), SEARCH).join().intValue());
+            assertEquals(2, executor.submit(loopback.builder("pass"), SEARCH).join().intValue());
+            // the second task borrows the session of the first task
+            assertEquals(1L, target.count("pdu 20"));
+            assertEquals(2L, target.count("pdu 22"));
+        }
+    }
+
+    /**
+     * A client builder for a port that no target listens on.
+     */
+    private static JDKZClient.Builder unreachable() throws IOException {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        return JDKZClient.builder()
+                .setHost("localhost")
+                .setPort(port)
+                .setUser("user")
+                .setPass("pass")
+                .setTimeout(5000L);
+    }
+}
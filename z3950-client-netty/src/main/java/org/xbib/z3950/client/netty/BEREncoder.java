@@ -0,0 +1,35 @@
+package org.xbib.z3950.client.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.xbib.asn1.BEREncoding;
+
+/**
+ * Encodes outbound BER encoded PDUs.
+ * The buffer is allocated with the exact size of the PDU, and the encoding
+ * is placed directly into its backing array.
+ */
+public class BEREncoder extends MessageToByteEncoder<BEREncoding> {
+
+    public BEREncoder() {
+        super(BEREncoding.class, false);
+    }
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, BEREncoding msg, boolean preferDirect) {
+        return ctx.alloc().heapBuffer(msg.getTotalLength());
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, BEREncoding msg, ByteBuf out) {
+        int length = msg.getTotalLength();
+        if (out.hasArray()) {
+            out.ensureWritable(length);
+            msg.getEncoding(out.arrayOffset() + out.writerIndex(), out.array());
+            out.writerIndex(out.writerIndex() + length);
+        } else {
+            out.writeBytes(msg.getEncoding());
+        }
+    }
+}
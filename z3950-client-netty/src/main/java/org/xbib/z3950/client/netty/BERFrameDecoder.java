@@ -0,0 +1,109 @@
+package org.xbib.z3950.client.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.xbib.asn1.ASN1EncodingException;
+import org.xbib.asn1.io.BERFrame;
+import org.xbib.asn1.io.ByteArrayBERReader;
+
+import java.util.List;
+
+/**
+ * Frames BER encoded PDUs from the inbound bytes of a channel.
+ * The decoder looks at the identifier and length octets of the next PDU and waits
+ * until the whole PDU has arrived in the cumulation buffer. The PDU is then copied
+ * out of the pooled buffer into one array and emitted as a lazily decoded BER encoding,
+ * so the pooled buffer can be released at once.
+ * The end of an indefinite-length PDU is found by scanning its elements. The scan
+ * skips each definite-length element by its length octets, and remembers its position
+ * between the reads of the channel, so the octets of a PDU are scanned only once.
+ */
+public class BERFrameDecoder extends ByteToMessageDecoder {
+
+    private static final int MAX_HEAD_SIZE = 16;
+
+    private final int maxBerSize;
+
+    private final byte[] head;
+
+    /**
+     * The position of the next element of the PDU to scan, relative to the start of the PDU.
+     */
+    private int scanPosition;
+
+    /**
+     * The number of indefinite-length encodings around the next element.
+     */
+    private int depth;
+
+    public BERFrameDecoder() {
+        this(BERFrame.DEFAULT_MAX_BER_SIZE);
+    }
+
+    public BERFrameDecoder(int maxBerSize) {
+        this.maxBerSize = maxBerSize;
+        this.head = new byte[MAX_HEAD_SIZE];
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        int available = in.readableBytes();
+        int totalLength = scan(in, available);
+        if (totalLength < 0 || available < totalLength) {
+            return;
+        }
+        scanPosition = 0;
+        depth = 0;
+        byte[] pdu = new byte[totalLength];
+        in.readBytes(pdu);
+        out.add(new ByteArrayBERReader(pdu, 0, totalLength, true).read());
+    }
+
+    public int getMaxBerSize() {
+        return maxBerSize;
+    }
+
+    /**
+     * Scans the elements of the next PDU, from the position of the last scan.
+     *
+     * @param in the cumulation buffer
+     * @param available the number of readable octets
+     * @return the total length of the PDU, which may be larger than the readable octets,
+     * or -1 if more octets are needed to find the length
+     * @throws ASN1EncodingException if the octets do not represent a BER encoding,
+     * or the PDU is longer than the maximum size
+     */
+    private int scan(ByteBuf in, int available) throws ASN1EncodingException {
+        while (depth > 0 || scanPosition == 0) {
+            if (maxBerSize < scanPosition) {
+                throw new ASN1EncodingException("BER encoding too long");
+            }
+            int n = Math.min(available - scanPosition, MAX_HEAD_SIZE);
+            if (n <= 0) {
+                return -1;
+            }
+            in.getBytes(in.readerIndex() + scanPosition, head, 0, n);
+            if (depth > 0 && n >= 2 && head[0] == 0 && head[1] == 0) {
+                // end-of-contents octets
+                scanPosition += 2;
+                depth--;
+                continue;
+            }
+            int length = BERFrame.totalLength(head, 0, n, maxBerSize);
+            if (length >= 0) {
+                scanPosition += length;
+                continue;
+            }
+            int headLength = BERFrame.headLength(head, 0, n);
+            if (headLength < 0) {
+                // identifier and length octets not complete
+                return -1;
+            }
+            // indefinite length, the end is found by scanning the content
+            scanPosition += headLength;
+            depth++;
+        }
+        return scanPosition;
+    }
+}
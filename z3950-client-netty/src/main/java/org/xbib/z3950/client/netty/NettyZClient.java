@@ -1,180 +1,230 @@
 package org.xbib.z3950.client.netty;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.z3950.client.api.AbstractZClient;
 
-import org.xbib.z3950.api.RecordListener;
-import org.xbib.z3950.api.ScanListener;
-import org.xbib.z3950.api.SearchListener;
-import org.xbib.z3950.api.TimeoutListener;
-import org.xbib.z3950.client.api.Client;
-import org.xbib.z3950.common.operations.SortOperation;
-
-import java.io.Closeable;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.util.List;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- *
+ * Z client on a Netty channel.
+ * This is a blocking client on Netty: the channel pipeline frames and encodes the BER PDUs
+ * on the event loop, but the operations run on the calling thread, which waits for each
+ * response in a queue, and decodes it. The event loop is never blocked, so the event loop
+ * threads can serve many connections, but each session in an operation takes a thread
+ * of the caller. Many concurrent sessions require virtual threads for the callers,
+ * as {@link #getExecutor()} uses for the asynchronous operations.
+ * When the callers fall behind, the channel stops reading, so the inbound PDUs wait in the
+ * socket buffers of the kernel, and the target is slowed down by TCP flow control.
+ * Unless an event loop group is given, all clients share one group of daemon threads.
  */
-public class NettyZClient implements Client, Closeable {
-
-    private final EventLoopGroup group;
-    private final Bootstrap clientBootstrap;
-
-    public NettyZClient() {
-        this.group = new NioEventLoopGroup();
-        clientBootstrap = new Bootstrap();
-        clientBootstrap.group(group);
-        clientBootstrap.channel(NioSocketChannel.class);
-        clientBootstrap.remoteAddress(new InetSocketAddress("localhost", 9999));
-        clientBootstrap.handler(new ChannelInitializer<SocketChannel>() {
-            protected void initChannel(SocketChannel socketChannel) throws Exception {
-                socketChannel.pipeline().addLast(new Handler());
-            }
-        });
+public class NettyZClient extends AbstractZClient {
+
+    private final EventLoopGroup eventLoopGroup;
+
+    private NettyZClient(Builder builder) {
+        super(builder);
+        this.eventLoopGroup = builder.eventLoopGroup;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    protected Transport connectTransport() throws IOException {
+        ChannelTransport transport = new ChannelTransport(getTimeout());
+        Bootstrap bootstrap = new Bootstrap()
+                .group(eventLoopGroup != null ? eventLoopGroup : SharedEventLoopGroup.INSTANCE)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) getTimeout())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel socketChannel) {
+                        socketChannel.pipeline().addLast(new BERFrameDecoder(getMaxBerSize()),
+                                new BEREncoder(), transport);
+                    }
+                });
+        ChannelFuture channelFuture = bootstrap.connect(getHost(), getPort()).awaitUninterruptibly();
+        if (!channelFuture.isSuccess()) {
+            throw new IOException("could not connect to " + getHost() + ":" + getPort(),
+                    channelFuture.cause());
+        }
+        transport.channel = channelFuture.channel();
+        return transport;
     }
 
-    public void connect() throws InterruptedException {
-        ChannelFuture channelFuture = clientBootstrap.connect().sync();
-        channelFuture.channel().closeFuture().sync();
+    /**
+     * The event loop group for clients without an event loop group of their own.
+     * Created on first use, with daemon threads, so it never has to be shut down.
+     */
+    private static class SharedEventLoopGroup {
 
+        private static final EventLoopGroup INSTANCE =
+                new NioEventLoopGroup(0, new DefaultThreadFactory("z3950-client", true));
     }
 
-    public void shutdown() throws InterruptedException {
-        group.shutdownGracefully().sync();
-    }
+    /**
+     * The last handler of the pipeline. It queues the inbound PDUs, and hands them
+     * to the operations, which block in {@link #read()} for the timeout of the client.
+     * After a timeout, a late response could be taken as the response of the next request,
+     * so the channel is closed and the next operation connects again.
+     * Auto read of the channel is turned off when the queue is full, and turned on again
+     * when the operations have taken half of the queued PDUs.
+     */
+    private static class ChannelTransport extends SimpleChannelInboundHandler<BEREncoding>
+            implements Transport {
 
-    @Override
-    public void close() throws IOException {
+        private static final Object CLOSED = new Object();
 
-    }
+        /**
+         * The number of queued PDUs at which the channel stops reading.
+         */
+        private static final int MAX_QUEUED_PDUS = 16;
 
-    @Override
-    public int searchCQL(String query,
-                         int offset,
-                         int length,
-                         List<SortOperation.SortParameter> sortParameters,
-                         SearchListener searchListener,
-                         RecordListener recordListener,
-                         TimeoutListener timoutListener) throws IOException {
-        return 0;
-    }
+        /**
+         * The number of queued PDUs below which the channel reads again.
+         */
+        private static final int RESUME_QUEUED_PDUS = MAX_QUEUED_PDUS / 2;
 
-    @Override
-    public int searchPQF(String query,
-                         int offset,
-                         int length,
-                         List<SortOperation.SortParameter> sortParameters,
-                         SearchListener searchListener,
-                         RecordListener recordListener,
-                         TimeoutListener timeoutListener) throws IOException {
-        return 0;
-    }
-
-    @Override
-    public void scanPQF(String query,
-                        int nTerms,
-                        int step,
-                        int position,
-                        ScanListener scanListener,
-                        TimeoutListener timeoutListener) throws IOException {
+        private final BlockingQueue<Object> queue;
 
-    }
+        private final long timeout;
 
-    @Override
-    public void sort(String referenceId,
-                     List<SortOperation.SortParameter> parameters,
-                     TimeoutListener timeoutListener) throws IOException {
-    }
+        private volatile Channel channel;
 
-    @Override
-    public String getHost() {
-        return null;
-    }
+        private ChannelTransport(long timeout) {
+            this.queue = new LinkedBlockingQueue<>();
+            this.timeout = timeout;
+        }
 
-    @Override
-    public int getPort() {
-        return 0;
-    }
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, BEREncoding msg) {
+            queue.add(msg);
+            ChannelConfig config = ctx.channel().config();
+            if (queue.size() >= MAX_QUEUED_PDUS && config.isAutoRead()) {
+                config.setAutoRead(false);
+                // the operations may have emptied the queue before they could see the suspension
+                resume(ctx.channel());
+            }
+        }
 
-    @Override
-    public String getUser() {
-        return null;
-    }
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            queue.add(CLOSED);
+        }
 
-    @Override
-    public String getPass() {
-        return null;
-    }
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            queue.add(cause);
+            ctx.close();
+        }
 
-    @Override
-    public long getTimeout() {
-        return 0;
-    }
+        @Override
+        public BEREncoding read() throws IOException {
+            Object object;
+            try {
+                object = queue.poll(timeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for a response");
+            }
+            if (object == null) {
+                channel.close();
+                throw new SocketTimeoutException("no response within " + timeout + " ms");
+            }
+            if (object instanceof BEREncoding) {
+                resume(channel);
+                return (BEREncoding) object;
+            }
+            if (object instanceof Throwable) {
+                throw new IOException((Throwable) object);
+            }
+            // keep the marker for later reads
+            queue.add(CLOSED);
+            return null;
+        }
 
-    @Override
-    public String getPreferredRecordSyntax() {
-        return null;
-    }
+        private void resume(Channel current) {
+            ChannelConfig config = current.config();
+            if (queue.size() < RESUME_QUEUED_PDUS && !config.isAutoRead()) {
+                config.setAutoRead(true);
+            }
+        }
 
-    @Override
-    public String getResultSetName() {
-        return null;
-    }
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            ChannelFuture channelFuture = channel.writeAndFlush(ber);
+            if (!channelFuture.awaitUninterruptibly(timeout)) {
+                channel.close();
+                throw new SocketTimeoutException("write not completed within " + timeout + " ms");
+            }
+            if (!channelFuture.isSuccess()) {
+                throw new IOException(channelFuture.cause());
+            }
+        }
 
-    @Override
-    public String getElementSetName() {
-        return null;
-    }
+        @Override
+        public boolean isOpen() {
+            Channel current = channel;
+            return current != null && current.isActive();
+        }
 
-    @Override
-    public String getEncoding() {
-        return null;
-    }
+        @Override
+        public boolean isInputPending() {
+            return !queue.isEmpty();
+        }
 
-    @Override
-    public String getFormat() {
-        return null;
+        @Override
+        public void close() {
+            Channel current = channel;
+            if (current != null) {
+                current.close().awaitUninterruptibly();
+            }
+        }
     }
 
-    @Override
-    public String getType() {
-        return null;
-    }
+    /**
+     *
+     */
+    public static class Builder extends AbstractZClient.Builder<Builder> {
 
-    @Override
-    public List<String> getDatabases() {
-        return null;
-    }
+        private EventLoopGroup eventLoopGroup;
 
-    static class Handler extends SimpleChannelInboundHandler<ByteBuf> {
+        private Builder() {
+        }
 
-        @Override
-        public void channelActive(ChannelHandlerContext channelHandlerContext){
-            channelHandlerContext.writeAndFlush(Unpooled.copiedBuffer("Netty Rocks!", CharsetUtil.UTF_8));
+        public Builder setEventLoopGroup(EventLoopGroup eventLoopGroup) {
+            this.eventLoopGroup = eventLoopGroup;
+            return this;
         }
 
         @Override
-        public void exceptionCaught(ChannelHandlerContext channelHandlerContext, Throwable cause){
-            cause.printStackTrace();
-            channelHandlerContext.close();
+        protected Builder self() {
+            return this;
         }
 
         @Override
-        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
-
+        public NettyZClient build() {
+            return new NettyZClient(this);
         }
     }
 }
@@ -0,0 +1,45 @@
+package org.xbib.z3950.client.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Encoding of outbound PDUs, and framing of the encoded PDUs.
+ */
+class BEREncoderTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testEncode() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new BEREncoder());
+        BEREncoding pdu = new BERConstructed(C, 22, new BEREncoding[] {
+                new ASN1Integer(1).berEncode(C, 23),
+                new ASN1OctetString(new byte[300]).berEncode(C, 24)
+        });
+        channel.writeOutbound(pdu);
+        ByteBuf buf = channel.readOutbound();
+        assertEquals(pdu.getTotalLength(), buf.readableBytes());
+        byte[] bytes = ByteBufUtil.getBytes(buf);
+        assertArrayEquals(pdu.getEncoding(), bytes);
+        buf.release();
+        assertNull(channel.readOutbound());
+        // the encoded PDU is framed again by the decoder
+        EmbeddedChannel inbound = new EmbeddedChannel(new BERFrameDecoder());
+        inbound.writeInbound(Unpooled.wrappedBuffer(bytes));
+        assertArrayEquals(pdu.getEncoding(), inbound.<BEREncoding>readInbound().getEncoding());
+        channel.finish();
+        inbound.finish();
+    }
+}
@@ -0,0 +1,113 @@
+package org.xbib.z3950.client.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Framing of inbound PDUs, however the octets are split over the reads of the channel.
+ */
+class BERFrameDecoderTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testSplitPdu() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new BERFrameDecoder());
+        // a PDU with long form length, split after the identifier octet and then in small pieces
+        byte[] pdu = pdu(1, 20000).getEncoding();
+        channel.writeInbound(Unpooled.wrappedBuffer(pdu, 0, 1));
+        assertNull(channel.readInbound());
+        for (int i = 1; i < pdu.length; i += 1000) {
+            channel.writeInbound(Unpooled.wrappedBuffer(pdu, i, Math.min(1000, pdu.length - i)));
+        }
+        assertArrayEquals(pdu, channel.<BEREncoding>readInbound().getEncoding());
+        assertNull(channel.readInbound());
+        channel.finish();
+    }
+
+    @Test
+    void testSeveralPdusInOneRead() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new BERFrameDecoder());
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            octets.write(pdu(i, 10 * i).getEncoding());
+        }
+        // and the first octet of a fourth PDU
+        octets.write(pdu(3, 10).getEncoding(), 0, 1);
+        channel.writeInbound(Unpooled.wrappedBuffer(octets.toByteArray()));
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(pdu(i, 10 * i).getEncoding(), channel.<BEREncoding>readInbound().getEncoding());
+        }
+        assertNull(channel.readInbound());
+        byte[] rest = pdu(3, 10).getEncoding();
+        channel.writeInbound(Unpooled.wrappedBuffer(rest, 1, rest.length - 1));
+        assertArrayEquals(rest, channel.<BEREncoding>readInbound().getEncoding());
+        channel.finish();
+    }
+
+    @Test
+    void testIndefiniteLength() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new BERFrameDecoder());
+        // an indefinite-length PDU with a nested indefinite-length element, followed by a definite-length PDU
+        ByteArrayOutputStream octets = new ByteArrayOutputStream();
+        octets.write(new byte[] {(byte) 0xb6, (byte) 0x80});
+        octets.write(new ASN1Integer(1).berEncode(C, 23).getEncoding());
+        octets.write(new byte[] {(byte) 0xbc, (byte) 0x80});
+        octets.write(new ASN1OctetString(new byte[5000]).berEncode(C, 24).getEncoding());
+        octets.write(new byte[] {0, 0, 0, 0});
+        byte[] definite = pdu(2, 10).getEncoding();
+        octets.write(definite);
+        byte[] bytes = octets.toByteArray();
+        // one octet at a time, so the scan of the elements is resumed on every read
+        for (int i = 0; i < bytes.length; i++) {
+            channel.writeInbound(Unpooled.wrappedBuffer(bytes, i, 1));
+        }
+        // the decoded PDU is encoded again with definite lengths
+        BEREncoding first = channel.readInbound();
+        assertEquals(22, first.getTag());
+        assertArrayEquals(new BERConstructed(C, 22, new BEREncoding[] {
+                new ASN1Integer(1).berEncode(C, 23),
+                new BERConstructed(C, 28, new BEREncoding[] {
+                        new ASN1OctetString(new byte[5000]).berEncode(C, 24)
+                })
+        }).getEncoding(), first.getEncoding());
+        assertArrayEquals(definite, channel.<BEREncoding>readInbound().getEncoding());
+        assertNull(channel.readInbound());
+        channel.finish();
+    }
+
+    @Test
+    void testTooLong() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new BERFrameDecoder(1000));
+        byte[] pdu = pdu(1, 2000).getEncoding();
+        assertThrows(DecoderException.class, () -> channel.writeInbound(Unpooled.wrappedBuffer(pdu)));
+        // an indefinite-length PDU is rejected when its elements exceed the maximum size
+        EmbeddedChannel indefinite = new EmbeddedChannel(new BERFrameDecoder(1000));
+        indefinite.writeInbound(Unpooled.wrappedBuffer(new byte[] {(byte) 0xb6, (byte) 0x80}));
+        byte[] element = new ASN1OctetString(new byte[400]).berEncode(C, 24).getEncoding();
+        indefinite.writeInbound(Unpooled.wrappedBuffer(element));
+        indefinite.writeInbound(Unpooled.wrappedBuffer(element));
+        assertThrows(DecoderException.class, () -> indefinite.writeInbound(Unpooled.wrappedBuffer(element)));
+    }
+
+    private static BEREncoding pdu(int value, int size) throws ASN1Exception {
+        return new BERConstructed(C, 22, new BEREncoding[] {
+                new ASN1Integer(value).berEncode(C, 23),
+                new ASN1OctetString(new byte[size]).berEncode(C, 24)
+        });
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ *
+ */
+package org.xbib.z3950.client.netty;
@@ -0,0 +1,781 @@
+package org.xbib.z3950.common.asn1gen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Generates the tag lookahead and the codec of an ASN.1 module.
+ * For every type assignment of the module, the generated tag lookahead has a method that tells
+ * from the identifier octets of a BER encoding whether the encoding can be a value of
+ * the type. For every SEQUENCE type, the generated codec has a decoder that fills the
+ * fields of the class of the type from a BER encoding, and an encoder that encodes them.
+ * The decoders use the tag lookahead to find out if an OPTIONAL component is present,
+ * instead of trying to decode it and catching the exception.
+ * The parser understands the subset of ASN.1 used by Z39.50: tagged types, SEQUENCE,
+ * SET, CHOICE, SEQUENCE OF, SET OF, the universal types and type references.
+ * The classes are named after the types, and their fields after the components, unless
+ * the field names file maps {@code Type.component} to another field name.
+ * <pre>
+ * java CodecGenerator &lt;module.asn&gt; &lt;field names&gt; &lt;output directory&gt; &lt;package&gt;
+ * </pre>
+ */
+public final class CodecGenerator {
+
+    private static final String TAG_LOOKAHEAD = "TagLookahead";
+
+    private static final String SEQUENCE_CODEC = "SequenceCodec";
+
+    private static final int UNIVERSAL = 0x00;
+
+    private static final int APPLICATION = 0x40;
+
+    private static final int CONTEXT_SPECIFIC = 0x80;
+
+    private static final int PRIVATE = 0xC0;
+
+    private static final Map<String, Integer> UNIVERSAL_TAGS = new LinkedHashMap<>();
+
+    private static final Map<String, String> UNIVERSAL_CLASSES = new LinkedHashMap<>();
+
+    static {
+        UNIVERSAL_TAGS.put("BOOLEAN", 1);
+        UNIVERSAL_TAGS.put("INTEGER", 2);
+        UNIVERSAL_TAGS.put("BIT", 3);
+        UNIVERSAL_TAGS.put("OCTET", 4);
+        UNIVERSAL_TAGS.put("NULL", 5);
+        UNIVERSAL_TAGS.put("OBJECT", 6);
+        UNIVERSAL_TAGS.put("EXTERNAL", 8);
+        UNIVERSAL_TAGS.put("REAL", 9);
+        UNIVERSAL_TAGS.put("ENUMERATED", 10);
+        UNIVERSAL_TAGS.put("SEQUENCE", 16);
+        UNIVERSAL_TAGS.put("SET", 17);
+        UNIVERSAL_TAGS.put("NumericString", 18);
+        UNIVERSAL_TAGS.put("PrintableString", 19);
+        UNIVERSAL_TAGS.put("TeletexString", 20);
+        UNIVERSAL_TAGS.put("VideotexString", 21);
+        UNIVERSAL_TAGS.put("IA5String", 22);
+        UNIVERSAL_TAGS.put("UTCTime", 23);
+        UNIVERSAL_TAGS.put("GeneralizedTime", 24);
+        UNIVERSAL_TAGS.put("GraphicString", 25);
+        UNIVERSAL_TAGS.put("VisibleString", 26);
+        UNIVERSAL_TAGS.put("GeneralString", 27);
+        UNIVERSAL_CLASSES.put("BOOLEAN", "ASN1Boolean");
+        UNIVERSAL_CLASSES.put("INTEGER", "ASN1Integer");
+        UNIVERSAL_CLASSES.put("BIT", "ASN1BitString");
+        UNIVERSAL_CLASSES.put("OCTET", "ASN1OctetString");
+        UNIVERSAL_CLASSES.put("NULL", "ASN1Null");
+        UNIVERSAL_CLASSES.put("OBJECT", "ASN1ObjectIdentifier");
+        UNIVERSAL_CLASSES.put("EXTERNAL", "ASN1External");
+        UNIVERSAL_CLASSES.put("ENUMERATED", "ASN1Enumerated");
+        UNIVERSAL_CLASSES.put("NumericString", "ASN1NumericString");
+        UNIVERSAL_CLASSES.put("PrintableString", "ASN1PrintableString");
+        UNIVERSAL_CLASSES.put("TeletexString", "ASN1T61String");
+        UNIVERSAL_CLASSES.put("VideotexString", "ASN1VideotexString");
+        UNIVERSAL_CLASSES.put("IA5String", "ASN1IA5String");
+        UNIVERSAL_CLASSES.put("UTCTime", "ASN1UTCTime");
+        UNIVERSAL_CLASSES.put("GeneralizedTime", "ASN1GeneralizedTime");
+        UNIVERSAL_CLASSES.put("GraphicString", "ASN1GraphicString");
+        UNIVERSAL_CLASSES.put("VisibleString", "ASN1VisibleString");
+        UNIVERSAL_CLASSES.put("GeneralString", "ASN1GeneralString");
+    }
+
+    private static final String HELPERS = """
+
+                private static boolean hasTag(BEREncoding ber, int tagType, int tag) {
+                    return ber.getTagType() == tagType && ber.getTag() == tag;
+                }
+
+                private static BERConstructed constructed(BEREncoding ber) throws ASN1Exception {
+                    if (ber instanceof BERConstructed berConstructed) {
+                        return berConstructed;
+                    }
+                    throw StacklessASN1EncodingException.badBerForm();
+                }
+
+                private static BEREncoding component(BERConstructed ber, int part) throws ASN1Exception {
+                    if (ber.numberComponents() <= part) {
+                        throw StacklessASN1EncodingException.incomplete();
+                    }
+                    return ber.elementAt(part);
+                }
+
+                private static BEREncoding explicit(BEREncoding ber, String name) throws ASN1Exception {
+                    if (ber instanceof BERConstructed tagged && tagged.numberComponents() == 1) {
+                        return tagged.elementAt(0);
+                    }
+                    throw new StacklessASN1EncodingException("bad BER encoding: " + name + " tag bad");
+                }
+
+                private static BEREncoding explicit(int tagType, int tag, BEREncoding ber) throws ASN1Exception {
+                    return new BERConstructed(tagType, tag, new BEREncoding[] {ber});
+                }
+
+                private static BEREncoding sequenceOf(ASN1Any[] values, int tagType, int tag) throws ASN1Exception {
+                    BEREncoding[] encodings = new BEREncoding[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        encodings[i] = values[i].berEncode();
+                    }
+                    return new BERConstructed(tagType, tag, encodings);
+                }
+
+                private static ASN1Exception badTag(String name) {
+                    return new StacklessASN1EncodingException("bad tag in " + name);
+                }
+
+                private static ASN1Exception missing(String name) {
+                    return new StacklessASN1EncodingException("missing " + name);
+                }
+            """;
+
+    private final Map<String, Type> types;
+
+    private final Properties fieldNames;
+
+    private CodecGenerator(Map<String, Type> types, Properties fieldNames) {
+        this.types = types;
+        this.fieldNames = fieldNames;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            throw new IllegalArgumentException("usage: CodecGenerator <module.asn> <field names> <output directory> <package>");
+        }
+        Path input = Paths.get(args[0]);
+        Path outputDirectory = Paths.get(args[2]);
+        String packageName = args[3];
+        String source = Files.readString(input, StandardCharsets.UTF_8);
+        Properties fieldNames = new Properties();
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            fieldNames.load(reader);
+        }
+        Parser parser = new Parser(source);
+        String moduleName = parser.parseModule();
+        CodecGenerator generator = new CodecGenerator(parser.types, fieldNames);
+        String fileName = input.getFileName().toString();
+        Path directory = outputDirectory.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(TAG_LOOKAHEAD + ".java"),
+                generator.generateTagLookahead(moduleName, fileName, packageName), StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve(SEQUENCE_CODEC + ".java"),
+                generator.generateSequenceCodec(moduleName, fileName, packageName), StandardCharsets.UTF_8);
+    }
+
+    private String generateTagLookahead(String moduleName, String fileName, String packageName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n")
+                .append("import org.xbib.asn1.BEREncoding;\n\n")
+                .append("/**\n")
+                .append(" * Tag lookahead for the types of ").append(moduleName).append(".\n")
+                .append(" * Each method tells from the tag of a BER encoding whether the encoding can be\n")
+                .append(" * a value of the type, without decoding it.\n")
+                .append(" * Generated from ").append(fileName).append(", do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(TAG_LOOKAHEAD).append(" {\n\n")
+                .append("    private ").append(TAG_LOOKAHEAD).append("() {\n")
+                .append("    }\n");
+        for (Map.Entry<String, Type> entry : types.entrySet()) {
+            Set<Tag> tags = firstTags(entry.getValue(), new HashSet<>());
+            sb.append('\n')
+                    .append("    /**\n")
+                    .append("     * Returns true if the BER encoding can be of type {@code ").append(entry.getKey()).append("}.\n")
+                    .append("     *\n")
+                    .append("     * @param ber the BER encoding\n")
+                    .append("     * @return true if the tag of the encoding matches\n")
+                    .append("     */\n")
+                    .append("    public static boolean is").append(javaName(entry.getKey())).append("(BEREncoding ber) {\n");
+            appendBody(sb, tags);
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String generateSequenceCodec(String moduleName, String fileName, String packageName) {
+        Set<String> imports = new TreeSet<>(List.of("ASN1Any", "ASN1Exception", "BERConstructed", "BEREncoding",
+                "StacklessASN1EncodingException"));
+        StringBuilder methods = new StringBuilder();
+        for (Map.Entry<String, Type> entry : types.entrySet()) {
+            Type type = entry.getValue();
+            if (type.kind == Kind.SEQUENCE && !type.sequenceOf) {
+                appendDecoder(methods, entry.getKey(), type, imports);
+                appendEncoder(methods, entry.getKey(), type, imports);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n");
+        for (String name : imports) {
+            sb.append("import org.xbib.asn1.").append(name).append(";\n");
+        }
+        sb.append('\n')
+                .append("import java.util.Arrays;\n\n")
+                .append("/**\n")
+                .append(" * Decoders and encoders for the SEQUENCE types of ").append(moduleName).append(".\n")
+                .append(" * The decoders fill the fields of the classes of the types, and find out from the tag\n")
+                .append(" * of each component, by {@link ").append(TAG_LOOKAHEAD).append("}, whether an OPTIONAL component\n")
+                .append(" * is present, so an absent component never costs an exception. The tag of a SEQUENCE\n")
+                .append(" * is only checked if the type has a tag of its own.\n")
+                .append(" * Generated from ").append(fileName).append(", do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(SEQUENCE_CODEC).append(" {\n\n")
+                .append("    private ").append(SEQUENCE_CODEC).append("() {\n")
+                .append("    }\n")
+                .append(methods)
+                .append(HELPERS)
+                .append("}\n");
+        return sb.toString();
+    }
+
+    private void appendDecoder(StringBuilder sb, String typeName, Type type, Set<String> imports) {
+        sb.append('\n')
+                .append("    /**\n")
+                .append("     * Decodes a BER encoding of {@code ").append(typeName).append("} into the fields of the value.\n")
+                .append("     *\n")
+                .append("     * @param value the value\n")
+                .append("     * @param ber the BER encoding\n")
+                .append("     * @param checkTag if the tag should be checked\n")
+                .append("     * @throws ASN1Exception if the BER encoding is bad\n")
+                .append("     */\n")
+                .append("    public static void decode(").append(javaName(typeName))
+                .append(" value, BEREncoding ber, boolean checkTag) throws ASN1Exception {\n");
+        if (type.tag != null) {
+            sb.append("        if (checkTag && !").append(hasTag("ber", type.tag)).append(") {\n")
+                    .append("            throw badTag(\"").append(typeName).append("\");\n")
+                    .append("        }\n");
+        }
+        sb.append("        BERConstructed berConstructed = constructed(ber);\n")
+                .append("        int numParts = berConstructed.numberComponents();\n")
+                .append("        int part = 0;\n")
+                .append("        BEREncoding p;\n");
+        for (Component component : type.components) {
+            String field = "value." + fieldName(typeName, component);
+            String lookahead = lookahead(component.type(), "p");
+            appendComment(sb, component);
+            if (component.optional()) {
+                sb.append("        p = part < numParts ? berConstructed.elementAt(part) : null;\n")
+                        .append("        if (p != null && ").append(lookahead).append(") {\n");
+                appendDecode(sb, "            ", field, component, imports);
+                sb.append("            part++;\n")
+                        .append("        } else {\n")
+                        .append("            ").append(field).append(" = null;\n")
+                        .append("        }\n");
+            } else {
+                sb.append("        p = component(berConstructed, part++);\n");
+                if (!lookahead.equals("true")) {
+                    sb.append("        if (!").append(lookahead).append(") {\n")
+                            .append("            throw badTag(\"").append(component.name()).append("\");\n")
+                            .append("        }\n");
+                }
+                appendDecode(sb, "        ", field, component, imports);
+            }
+        }
+        sb.append("        if (part < numParts) {\n")
+                .append("            throw new StacklessASN1EncodingException(\"bad BER: extra data \" + part + \"/\" + numParts + \" processed\");\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+
+    private void appendDecode(StringBuilder sb, String indent, String field, Component component, Set<String> imports) {
+        Type type = component.type();
+        String ber = "p";
+        boolean checkTag = true;
+        if (type.tag != null) {
+            if (type.explicit) {
+                ber = "explicit(p, \"" + component.name() + "\")";
+            } else {
+                checkTag = false;
+            }
+        }
+        if (type.sequenceOf) {
+            Type element = type.components.get(0).type();
+            if (element.tag != null) {
+                throw new IllegalStateException("tagged element type of " + component.name());
+            }
+            String elementClass = javaType(element, imports);
+            String elements = component.name() + "Elements";
+            sb.append(indent).append("BERConstructed ").append(elements).append(" = constructed(").append(ber).append(");\n")
+                    .append(indent).append(field).append(" = new ").append(elementClass)
+                    .append('[').append(elements).append(".numberComponents()];\n")
+                    .append(indent).append("for (int i = 0; i < ").append(field).append(".length; i++) {\n")
+                    .append(indent).append("    ").append(field).append("[i] = new ").append(elementClass)
+                    .append('(').append(elements).append(".elementAt(i), true);\n")
+                    .append(indent).append("}\n");
+        } else {
+            sb.append(indent).append(field).append(" = new ").append(javaType(type, imports))
+                    .append('(').append(ber).append(", ").append(checkTag).append(");\n");
+        }
+    }
+
+    private void appendEncoder(StringBuilder sb, String typeName, Type type, Set<String> imports) {
+        sb.append('\n')
+                .append("    /**\n")
+                .append("     * Encodes the fields of {@code ").append(typeName).append("}.\n")
+                .append("     *\n")
+                .append("     * @param value the value\n")
+                .append("     * @param tagType the type of the tag\n")
+                .append("     * @param tag the tag\n")
+                .append("     * @return the BER encoding\n")
+                .append("     * @throws ASN1Exception if a component is missing, or cannot be encoded\n")
+                .append("     */\n")
+                .append("    public static BEREncoding encode(").append(javaName(typeName))
+                .append(" value, int tagType, int tag) throws ASN1Exception {\n")
+                .append("        BEREncoding[] fields = new BEREncoding[").append(type.components.size()).append("];\n")
+                .append("        int x = 0;\n");
+        boolean optionals = false;
+        for (Component component : type.components) {
+            String field = "value." + fieldName(typeName, component);
+            appendComment(sb, component);
+            if (component.optional()) {
+                optionals = true;
+                sb.append("        if (").append(field).append(" != null) {\n")
+                        .append("            fields[x++] = ").append(encodeExpression(component.type(), field)).append(";\n")
+                        .append("        }\n");
+            } else {
+                sb.append("        if (").append(field).append(" == null) {\n")
+                        .append("            throw missing(\"").append(component.name()).append("\");\n")
+                        .append("        }\n")
+                        .append("        fields[x++] = ").append(encodeExpression(component.type(), field)).append(";\n");
+            }
+        }
+        sb.append("        return new BERConstructed(tagType, tag, ")
+                .append(optionals ? "x < fields.length ? Arrays.copyOf(fields, x) : fields" : "fields")
+                .append(");\n")
+                .append("    }\n");
+    }
+
+    private static String encodeExpression(Type type, String field) {
+        String expression;
+        boolean implicit = type.tag != null && !type.explicit;
+        if (type.sequenceOf) {
+            Tag tag = implicit ? type.tag : new Tag(UNIVERSAL, UNIVERSAL_TAGS.get(type.name));
+            expression = "sequenceOf(" + field + ", BEREncoding." + className(tag.tagClass()) + ", " + tag.number() + ")";
+        } else if (implicit) {
+            expression = field + ".berEncode(BEREncoding." + className(type.tag.tagClass()) + ", " + type.tag.number() + ")";
+        } else {
+            expression = field + ".berEncode()";
+        }
+        if (type.tag != null && type.explicit) {
+            expression = "explicit(BEREncoding." + className(type.tag.tagClass()) + ", " + type.tag.number() + ", "
+                    + expression + ")";
+        }
+        return expression;
+    }
+
+    private static void appendComment(StringBuilder sb, Component component) {
+        sb.append("        // ").append(component.name()).append(' ').append(describe(component.type()));
+        if (component.optional()) {
+            sb.append(" OPTIONAL");
+        }
+        sb.append('\n');
+    }
+
+    /**
+     * Returns the expression that tells if a BER encoding can be of the type.
+     */
+    private static String lookahead(Type type, String ber) {
+        if (type.tag != null) {
+            return hasTag(ber, type.tag);
+        }
+        return switch (type.kind) {
+            case REFERENCE -> TAG_LOOKAHEAD + ".is" + javaName(type.name) + "(" + ber + ")";
+            case BUILTIN, SEQUENCE -> hasTag(ber, new Tag(UNIVERSAL, UNIVERSAL_TAGS.get(type.name)));
+            case ANY -> "true";
+            default -> throw new IllegalStateException("untagged inline " + type.kind);
+        };
+    }
+
+    private static String hasTag(String ber, Tag tag) {
+        return "hasTag(" + ber + ", BEREncoding." + className(tag.tagClass()) + ", " + tag.number() + ")";
+    }
+
+    private static String javaType(Type type, Set<String> imports) {
+        return switch (type.kind) {
+            case REFERENCE -> javaName(type.name);
+            case BUILTIN -> {
+                String name = UNIVERSAL_CLASSES.get(type.name);
+                if (name == null) {
+                    throw new IllegalStateException("no class for " + type.name);
+                }
+                imports.add(name);
+                yield name;
+            }
+            case ANY -> "ASN1Any";
+            default -> throw new IllegalStateException("no class for an inline " + type.kind);
+        };
+    }
+
+    private String fieldName(String typeName, Component component) {
+        return fieldNames.getProperty(typeName + "." + component.name(), component.name());
+    }
+
+    /**
+     * Returns the ASN.1 notation of a type, for comments.
+     */
+    private static String describe(Type type) {
+        StringBuilder sb = new StringBuilder();
+        if (type.tag != null) {
+            sb.append('[');
+            switch (type.tag.tagClass()) {
+                case UNIVERSAL -> sb.append("UNIVERSAL ");
+                case APPLICATION -> sb.append("APPLICATION ");
+                case PRIVATE -> sb.append("PRIVATE ");
+                default -> {
+                }
+            }
+            sb.append(type.tag.number()).append("] ").append(type.explicit ? "EXPLICIT " : "IMPLICIT ");
+        }
+        if (type.sequenceOf) {
+            sb.append(type.name).append(" OF ").append(describe(type.components.get(0).type()));
+        } else {
+            switch (type.kind) {
+                case BUILTIN -> sb.append(switch (type.name) {
+                    case "OCTET", "BIT" -> type.name + " STRING";
+                    case "OBJECT" -> "OBJECT IDENTIFIER";
+                    default -> type.name;
+                });
+                case ANY -> sb.append("ANY");
+                case REFERENCE -> sb.append(type.name);
+                default -> sb.append(type.kind);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendBody(StringBuilder sb, Set<Tag> tags) {
+        if (tags.contains(Tag.ANY)) {
+            sb.append("        return true;\n");
+            return;
+        }
+        Map<Integer, Set<Integer>> byClass = new TreeMap<>();
+        for (Tag tag : tags) {
+            byClass.computeIfAbsent(tag.tagClass(), k -> new TreeSet<>()).add(tag.number());
+        }
+        if (byClass.size() == 1) {
+            Map.Entry<Integer, Set<Integer>> entry = byClass.entrySet().iterator().next();
+            Set<Integer> numbers = entry.getValue();
+            if (numbers.size() == 1) {
+                sb.append("        return ber.getTagType() == BEREncoding.").append(className(entry.getKey()))
+                        .append(" && ber.getTag() == ").append(numbers.iterator().next()).append(";\n");
+                return;
+            }
+        }
+        sb.append("        return switch (ber.getTagType()) {\n");
+        for (Map.Entry<Integer, Set<Integer>> entry : byClass.entrySet()) {
+            sb.append("            case BEREncoding.").append(className(entry.getKey())).append(" -> switch (ber.getTag()) {\n")
+                    .append("                case ");
+            String separator = "";
+            for (int number : entry.getValue()) {
+                sb.append(separator).append(number);
+                separator = ", ";
+            }
+            sb.append(" -> true;\n")
+                    .append("                default -> false;\n")
+                    .append("            };\n");
+        }
+        sb.append("            default -> false;\n")
+                .append("        };\n");
+    }
+
+    /**
+     * Returns the tags a BER encoding of the type can start with.
+     */
+    private Set<Tag> firstTags(Type type, Set<String> visiting) {
+        Set<Tag> tags = new TreeSet<>();
+        if (type.tag != null) {
+            tags.add(type.tag);
+            return tags;
+        }
+        switch (type.kind) {
+            case CHOICE -> {
+                for (Component component : type.components) {
+                    tags.addAll(firstTags(component.type, visiting));
+                }
+            }
+            case ANY -> tags.add(Tag.ANY);
+            case REFERENCE -> {
+                Type referenced = types.get(type.name);
+                if (referenced == null) {
+                    throw new IllegalStateException("undefined type " + type.name);
+                }
+                if (!visiting.add(type.name)) {
+                    throw new IllegalStateException("untagged recursion in type " + type.name);
+                }
+                tags.addAll(firstTags(referenced, visiting));
+                visiting.remove(type.name);
+            }
+            default -> tags.add(new Tag(UNIVERSAL, UNIVERSAL_TAGS.get(type.name)));
+        }
+        return tags;
+    }
+
+    private static String className(int tagClass) {
+        return switch (tagClass) {
+            case UNIVERSAL -> "UNIVERSAL_TAG";
+            case APPLICATION -> "APPLICATION_TAG";
+            case CONTEXT_SPECIFIC -> "CONTEXT_SPECIFIC_TAG";
+            default -> "PRIVATE_TAG";
+        };
+    }
+
+    /**
+     * Turns a type name like {@code NamePlusRecord_record} into the class name {@code NamePlusRecordRecord}.
+     */
+    private static String javaName(String name) {
+        StringBuilder sb = new StringBuilder();
+        boolean upper = true;
+        for (char ch : name.toCharArray()) {
+            if (ch == '_' || ch == '-') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(ch) : ch);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private enum Kind {
+        BUILTIN, REFERENCE, CHOICE, SEQUENCE, ANY
+    }
+
+    private record Tag(int tagClass, int number) implements Comparable<Tag> {
+
+        static final Tag ANY = new Tag(-1, -1);
+
+        @Override
+        public int compareTo(Tag o) {
+            return tagClass != o.tagClass ? Integer.compare(tagClass, o.tagClass) : Integer.compare(number, o.number);
+        }
+    }
+
+    private static final class Type {
+
+        Kind kind;
+
+        String name;
+
+        Tag tag;
+
+        boolean explicit = true;
+
+        boolean sequenceOf;
+
+        List<Component> components = new ArrayList<>();
+    }
+
+    private record Component(String name, Type type, boolean optional) {
+    }
+
+    /**
+     * A recursive descent parser for type assignments.
+     */
+    private static final class Parser {
+
+        private final List<String> tokens;
+
+        private final Map<String, Type> types;
+
+        private int pos;
+
+        Parser(String source) {
+            this.tokens = tokenize(source);
+            this.types = new LinkedHashMap<>();
+        }
+
+        String parseModule() {
+            String moduleName = next();
+            while (!peek().equals("BEGIN")) {
+                next();
+            }
+            expect("BEGIN");
+            while (!peek().equals("END")) {
+                String name = next();
+                expect("::=");
+                if (types.put(name, parseType()) != null) {
+                    throw new IllegalStateException("duplicate type " + name);
+                }
+            }
+            return moduleName;
+        }
+
+        private Type parseType() {
+            Type type = new Type();
+            if (peek().equals("[")) {
+                next();
+                int tagClass = CONTEXT_SPECIFIC;
+                switch (peek()) {
+                    case "UNIVERSAL" -> tagClass = UNIVERSAL;
+                    case "APPLICATION" -> tagClass = APPLICATION;
+                    case "PRIVATE" -> tagClass = PRIVATE;
+                    default -> {
+                    }
+                }
+                if (tagClass != CONTEXT_SPECIFIC) {
+                    next();
+                }
+                type.tag = new Tag(tagClass, Integer.parseInt(next()));
+                expect("]");
+                if (peek().equals("IMPLICIT") || peek().equals("EXPLICIT")) {
+                    type.explicit = next().equals("EXPLICIT");
+                }
+            }
+            String token = next();
+            switch (token) {
+                case "CHOICE" -> {
+                    type.kind = Kind.CHOICE;
+                    parseComponents(type);
+                }
+                case "SEQUENCE", "SET" -> {
+                    type.kind = Kind.SEQUENCE;
+                    type.name = token;
+                    skipConstraint();
+                    if (peek().equals("OF")) {
+                        next();
+                        type.sequenceOf = true;
+                        type.components.add(new Component(null, parseType(), false));
+                    } else {
+                        parseComponents(type);
+                    }
+                }
+                case "ANY" -> {
+                    type.kind = Kind.ANY;
+                    if (peek().equals("DEFINED")) {
+                        next();
+                        expect("BY");
+                        next();
+                    }
+                }
+                case "OCTET", "BIT" -> {
+                    type.kind = Kind.BUILTIN;
+                    type.name = token;
+                    expect("STRING");
+                }
+                case "OBJECT" -> {
+                    type.kind = Kind.BUILTIN;
+                    type.name = token;
+                    expect("IDENTIFIER");
+                }
+                default -> {
+                    type.kind = UNIVERSAL_TAGS.containsKey(token) ? Kind.BUILTIN : Kind.REFERENCE;
+                    type.name = token;
+                }
+            }
+            if (peek().equals("{")) {
+                // named numbers or named bits
+                skipBlock("{", "}");
+            }
+            skipConstraint();
+            return type;
+        }
+
+        private void parseComponents(Type type) {
+            expect("{");
+            while (!peek().equals("}")) {
+                String name = next();
+                Type componentType = parseType();
+                boolean optional = false;
+                if (peek().equals("OPTIONAL")) {
+                    next();
+                    optional = true;
+                } else if (peek().equals("DEFAULT")) {
+                    next();
+                    optional = true;
+                    if (peek().equals("{")) {
+                        skipBlock("{", "}");
+                    } else {
+                        next();
+                    }
+                }
+                type.components.add(new Component(name, componentType, optional));
+                if (peek().equals(",")) {
+                    next();
+                }
+            }
+            expect("}");
+        }
+
+        private void skipConstraint() {
+            if (peek().equals("(")) {
+                skipBlock("(", ")");
+            }
+        }
+
+        private void skipBlock(String open, String close) {
+            expect(open);
+            int level = 1;
+            while (0 < level) {
+                String token = next();
+                if (token.equals(open)) {
+                    level++;
+                } else if (token.equals(close)) {
+                    level--;
+                }
+            }
+        }
+
+        private String peek() {
+            if (tokens.size() <= pos) {
+                throw new IllegalStateException("unexpected end of module");
+            }
+            return tokens.get(pos);
+        }
+
+        private String next() {
+            String token = peek();
+            pos++;
+            return token;
+        }
+
+        private void expect(String token) {
+            String actual = next();
+            if (!actual.equals(token)) {
+                throw new IllegalStateException("expected " + token + " but found " + actual);
+            }
+        }
+
+        private static List<String> tokenize(String source) {
+            List<String> tokens = new ArrayList<>();
+            int i = 0;
+            int length = source.length();
+            while (i < length) {
+                char ch = source.charAt(i);
+                if (Character.isWhitespace(ch)) {
+                    i++;
+                } else if (source.startsWith("--", i)) {
+                    // a comment ends with the line or with another "--"
+                    int end = i + 2;
+                    while (end < length && source.charAt(end) != '\n' && !source.startsWith("--", end)) {
+                        end++;
+                    }
+                    i = source.startsWith("--", end) ? end + 2 : end;
+                } else if (source.startsWith("::=", i)) {
+                    tokens.add("::=");
+                    i += 3;
+                } else if (Character.isLetterOrDigit(ch)) {
+                    int start = i;
+                    while (i < length && (Character.isLetterOrDigit(source.charAt(i)) || source.charAt(i) == '_'
+                            || (source.charAt(i) == '-' && !source.startsWith("--", i)))) {
+                        i++;
+                    }
+                    tokens.add(source.substring(start, i));
+                } else {
+                    tokens.add(String.valueOf(ch));
+                    i++;
+                }
+            }
+            return tokens;
+        }
+    }
+}
@@ -16,12 +16,31 @@ public class DefaultRecord implements Record {
 
     private final byte[] content;
 
+    private final int offset;
+
+    private final int length;
+
     private final ByteArrayInputStream stream;
 
     public DefaultRecord(int number, byte[] content) {
+        this(number, content, 0, content.length);
+    }
+
+    /**
+     * Create a record from a slice of a buffer. The buffer is not copied,
+     * so a record may point directly into the buffer of the PDU it was received in.
+     *
+     * @param number the record number
+     * @param buffer the buffer
+     * @param offset the offset of the record content in the buffer
+     * @param length the length of the record content
+     */
+    public DefaultRecord(int number, byte[] buffer, int offset, int length) {
         this.number = number;
-        this.content = content;
-        this.stream = new ByteArrayInputStream(content);
+        this.content = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.stream = new ByteArrayInputStream(buffer, offset, length);
     }
 
     @Override
@@ -36,7 +55,7 @@ public class DefaultRecord implements Record {
 
     @Override
     public String toString(Charset charset) {
-        return new String(content, charset);
+        return new String(content, offset, length, charset);
     }
 
     @Override
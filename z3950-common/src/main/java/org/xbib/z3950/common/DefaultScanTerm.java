@@ -0,0 +1,49 @@
+package org.xbib.z3950.common;
+
+import org.xbib.z3950.api.ScanTerm;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A term for Z39.50 scan.
+ */
+public class DefaultScanTerm implements ScanTerm {
+
+    private final byte[] term;
+
+    private final String displayTerm;
+
+    private final int globalOccurrences;
+
+    public DefaultScanTerm(byte[] term, String displayTerm, int globalOccurrences) {
+        this.term = term;
+        this.displayTerm = displayTerm;
+        this.globalOccurrences = globalOccurrences;
+    }
+
+    @Override
+    public byte[] getTerm() {
+        return term;
+    }
+
+    @Override
+    public String getTerm(Charset charset) {
+        return new String(term, charset);
+    }
+
+    @Override
+    public String getDisplayTerm() {
+        return displayTerm;
+    }
+
+    @Override
+    public int getGlobalOccurrences() {
+        return globalOccurrences;
+    }
+
+    @Override
+    public String toString() {
+        return (displayTerm != null ? displayTerm : getTerm(StandardCharsets.UTF_8)) + " (" + globalOccurrences + ")";
+    }
+}
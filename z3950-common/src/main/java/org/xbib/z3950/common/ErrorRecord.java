@@ -8,4 +8,8 @@ public class ErrorRecord extends DefaultRecord {
     public ErrorRecord(int number, byte[] content) {
         super(number, content);
     }
+
+    public ErrorRecord(int number, byte[] buffer, int offset, int length) {
+        super(number, buffer, offset, length);
+    }
 }
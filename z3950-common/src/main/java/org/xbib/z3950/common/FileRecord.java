@@ -0,0 +1,90 @@
+package org.xbib.z3950.common;
+
+import org.xbib.z3950.api.Record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A record whose content is in a temporary file, because it was too large to be held in memory.
+ * The file is removed when the record is closed. Records that are delivered to a
+ * {@link org.xbib.z3950.api.RecordListener} are closed when the listener returns,
+ * so a listener that keeps the content must copy it.
+ */
+public class FileRecord implements Record, Closeable {
+
+    private static final Logger logger = Logger.getLogger(FileRecord.class.getName());
+
+    private final int number;
+
+    private final Path path;
+
+    private final long length;
+
+    public FileRecord(int number, Path path, long length) {
+        this.number = number;
+        this.path = path;
+        this.length = length;
+    }
+
+    @Override
+    public int getNumber() {
+        return number;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Opens a new stream on the record content.
+     *
+     * @return the stream
+     */
+    @Override
+    public InputStream asStream() {
+        try {
+            return Files.newInputStream(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString(Charset charset) {
+        try {
+            return new String(Files.readAllBytes(path), charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes the file of the record.
+     */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "can not delete " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package org.xbib.z3950.common;
+
+import org.xbib.z3950.api.Record;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reassembles a record that arrives in fragments, as with level 2 segmentation.
+ * The fragments are appended to a growing buffer. If a record grows beyond the spill
+ * threshold, the buffer is written to a temporary file, and the following fragments
+ * are streamed to that file, so a large record does not have to be held in memory.
+ * The complete record is a {@link DefaultRecord}, or a {@link FileRecord} if it has been spilled,
+ * which must be closed to remove the file.
+ */
+public class FragmentAssembler implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(FragmentAssembler.class.getName());
+
+    public static final int DEFAULT_SPILL_THRESHOLD = 16 * 1024 * 1024;
+
+    private static final int INITIAL_SIZE = 8192;
+
+    private final int spillThreshold;
+
+    private boolean active;
+
+    private byte[] buffer;
+
+    private int length;
+
+    private Path file;
+
+    private OutputStream outputStream;
+
+    public FragmentAssembler() {
+        this(DEFAULT_SPILL_THRESHOLD);
+    }
+
+    public FragmentAssembler(int spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    /**
+     * Returns true if a record has been started, but not finished yet.
+     *
+     * @return true if fragments are being assembled
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Starts a new record with its first fragment. An unfinished record is discarded.
+     *
+     * @param data the buffer of the fragment
+     * @param offset the offset of the fragment in the buffer
+     * @param len the length of the fragment
+     * @throws IOException if the fragment can not be spilled to disk
+     */
+    public void start(byte[] data, int offset, int len) throws IOException {
+        if (active) {
+            logger.log(Level.WARNING, "discarding unfinished record of " + length + " octets");
+            close();
+        }
+        active = true;
+        append(data, offset, len);
+    }
+
+    /**
+     * Appends the next fragment of the record.
+     *
+     * @param data the buffer of the fragment
+     * @param offset the offset of the fragment in the buffer
+     * @param len the length of the fragment
+     * @throws IOException if there is no started record, or if the fragment can not be spilled to disk
+     */
+    public void append(byte[] data, int offset, int len) throws IOException {
+        if (!active) {
+            throw new IOException("fragment without starting fragment");
+        }
+        if (outputStream == null && spillThreshold < (long) length + len) {
+            spill();
+        }
+        if (outputStream != null) {
+            outputStream.write(data, offset, len);
+        } else {
+            if (buffer == null) {
+                buffer = new byte[Math.max(INITIAL_SIZE, len)];
+            } else if (buffer.length - length < len) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + len));
+            }
+            System.arraycopy(data, offset, buffer, length, len);
+        }
+        length += len;
+    }
+
+    /**
+     * Finishes the record after the final fragment has been appended.
+     *
+     * @param number the record number
+     * @return the complete record
+     * @throws IOException if there is no started record, or if the spill file can not be written
+     */
+    public Record finish(int number) throws IOException {
+        if (!active) {
+            throw new IOException("final fragment without starting fragment");
+        }
+        Record record;
+        if (outputStream != null) {
+            outputStream.close();
+            record = new FileRecord(number, file, length);
+        } else {
+            record = new DefaultRecord(number, buffer != null ? buffer : new byte[0], 0, length);
+        }
+        active = false;
+        buffer = null;
+        length = 0;
+        file = null;
+        outputStream = null;
+        return record;
+    }
+
+    /**
+     * Discards an unfinished record.
+     */
+    @Override
+    public void close() {
+        if (outputStream != null) {
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, e.getMessage(), e);
+            }
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "can not delete " + file + ": " + e.getMessage(), e);
+            }
+        }
+        active = false;
+        buffer = null;
+        length = 0;
+        file = null;
+        outputStream = null;
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("z3950-record", ".tmp");
+        outputStream = new BufferedOutputStream(Files.newOutputStream(file));
+        if (buffer != null) {
+            outputStream.write(buffer, 0, length);
+            buffer = null;
+        }
+    }
+}
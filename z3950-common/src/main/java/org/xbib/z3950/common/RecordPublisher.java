@@ -0,0 +1,235 @@
+package org.xbib.z3950.common;
+
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.RecordListener;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the records of a search, driven by the demand of the subscriber.
+ * The search runs on the first request. Each request of the subscriber is turned into
+ * present requests for no more records than requested, so nothing is fetched while the
+ * subscriber lags behind. If the subscriber cancels, the result set is released by the source,
+ * which deletes it on the target if possible.
+ * The records belong to one result set on one session, so there can be only one subscriber.
+ */
+public class RecordPublisher implements Flow.Publisher<Record> {
+
+    private static final Logger logger = Logger.getLogger(RecordPublisher.class.getName());
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+
+    private final Executor executor;
+
+    private final Source source;
+
+    private final int offset;
+
+    private final int length;
+
+    private final int maxBatchSize;
+
+    private final AtomicBoolean subscribed;
+
+    /**
+     * Creates a record publisher.
+     *
+     * @param executor the executor for the search and the presents
+     * @param source the source of the records
+     * @param offset the position of the first record in the result set, starting at 1
+     * @param length the maximum number of records, or 0 for all records
+     * @param maxBatchSize the maximum number of records per present request
+     */
+    public RecordPublisher(Executor executor, Source source, int offset, int length, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
+        this.executor = Objects.requireNonNull(executor);
+        this.source = Objects.requireNonNull(source);
+        this.offset = Math.max(1, offset);
+        this.length = length;
+        this.maxBatchSize = maxBatchSize;
+        this.subscribed = new AtomicBoolean();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Record> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("records can be published to one subscriber only"));
+            return;
+        }
+        RecordSubscription subscription = new RecordSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * The result set behind a record publisher.
+     */
+    public interface Source {
+
+        /**
+         * Searches, or looks up the result set of a previous search.
+         *
+         * @return the number of hits
+         * @throws IOException if search fails
+         */
+        int search() throws IOException;
+
+        /**
+         * Presents records of the result set.
+         *
+         * @param offset the position of the first record, starting at 1
+         * @param length the number of records
+         * @param listener the listener for the records
+         * @return the number of records delivered, which may be less than requested
+         * @throws IOException if present fails
+         */
+        int present(int offset, int length, RecordListener listener) throws IOException;
+
+        /**
+         * Ends the use of the result set after all records have been published.
+         * The result set may be kept for later searches.
+         */
+        default void complete() {
+        }
+
+        /**
+         * Releases the result set after the subscriber has cancelled, or after an error.
+         */
+        void release();
+    }
+
+    /**
+     * The subscription. All signals to the subscriber are sent from one drain loop at a time,
+     * which runs on the executor whenever there is demand, a cancellation, or an error.
+     */
+    private class RecordSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Record> subscriber;
+
+        private final AtomicLong requested;
+
+        private final AtomicInteger pending;
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable error;
+
+        private boolean done;
+
+        private int position;
+
+        private int end;
+
+        private RecordSubscription(Flow.Subscriber<? super Record> subscriber) {
+            this.subscriber = subscriber;
+            this.requested = new AtomicLong();
+            this.pending = new AtomicInteger();
+            this.end = -1;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("non-positive request: " + n);
+            } else {
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    pending.set(0);
+                    logger.log(Level.WARNING, "can not schedule record delivery: " + e.getMessage(), e);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                if (!done) {
+                    step();
+                }
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void step() {
+            try {
+                while (!cancelled && error == null && requested.get() > 0) {
+                    if (end < 0) {
+                        int count = source.search();
+                        end = length > 0 ? Math.min(count, offset - 1 + length) : count;
+                        position = offset;
+                    }
+                    if (position > end) {
+                        done = true;
+                        source.complete();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    int n = (int) Math.min(Math.min(requested.get(), maxBatchSize), end - position + 1);
+                    int delivered = source.present(position, n, record -> {
+                        if (!cancelled) {
+                            subscriber.onNext(record);
+                        }
+                    });
+                    if (delivered == 0) {
+                        throw new IOException("no records at position " + position);
+                    }
+                    position += delivered;
+                    requested.addAndGet(-delivered);
+                }
+                if (end >= 0 && position > end && !cancelled && error == null) {
+                    done = true;
+                    source.complete();
+                    subscriber.onComplete();
+                } else if (cancelled || error != null) {
+                    done = true;
+                    source.release();
+                    if (!cancelled) {
+                        subscriber.onError(error);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                done = true;
+                source.release();
+                if (!cancelled) {
+                    subscriber.onError(e);
+                }
+            }
+        }
+    }
+}
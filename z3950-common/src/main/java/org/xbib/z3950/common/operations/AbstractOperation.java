@@ -8,6 +8,8 @@ import org.xbib.asn1.BEREncoding;
 import org.xbib.asn1.io.BERReader;
 import org.xbib.asn1.io.BERWriter;
 import org.xbib.z3950.common.v3.Close;
+import org.xbib.z3950.common.v3.DeleteResultSetRequest;
+import org.xbib.z3950.common.v3.DeleteResultSetResponse;
 import org.xbib.z3950.common.v3.InitializeRequest;
 import org.xbib.z3950.common.v3.InitializeResponse;
 import org.xbib.z3950.common.v3.PresentRequest;
@@ -16,8 +18,10 @@ import org.xbib.z3950.common.v3.ScanRequest;
 import org.xbib.z3950.common.v3.ScanResponse;
 import org.xbib.z3950.common.v3.SearchRequest;
 import org.xbib.z3950.common.v3.SearchResponse;
+import org.xbib.z3950.common.v3.Segment;
 import org.xbib.z3950.common.v3.SortRequest;
 import org.xbib.z3950.common.v3.SortResponse;
+import org.xbib.z3950.common.v3.TriggerResourceControlRequest;
 
 import java.io.IOException;
 
@@ -63,6 +67,8 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
 
     protected final BERWriter writer;
 
+    private int readLength;
+
     AbstractOperation(BERReader reader, BERWriter writer) {
         this.reader = reader;
         this.writer = writer;
@@ -76,12 +82,52 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     protected IN read() throws IOException {
+        return (IN) readAny();
+    }
+
+    /**
+     * Reads the next PDU, which is not always the response of this operation,
+     * for example a segment of a present response.
+     *
+     * @return the PDU, or null if it could not be decoded
+     * @throws IOException if the PDU can not be read
+     */
+    protected ASN1Any readAny() throws IOException {
+        return decodeAny(readEncoding());
+    }
+
+    /**
+     * Reads the next PDU without decoding it, for operations that take parts
+     * of the PDU straight from the BER encoding.
+     *
+     * @return the BER encoding of the PDU
+     * @throws IOException if the PDU can not be read
+     */
+    protected BEREncoding readEncoding() throws IOException {
+        BEREncoding ber;
+        try {
+            ber = reader.read();
+        } catch (NullPointerException ex) {
+            throw new IOException("connection read PDU error", ex);
+        }
+        if (ber == null) {
+            throw new IOException("read PDU error");
+        }
+        readLength = ber.getTotalLength();
+        return ber;
+    }
+
+    /**
+     * Decodes a PDU that has been read by {@link #readEncoding()}.
+     *
+     * @param ber the BER encoding of the PDU
+     * @return the PDU
+     * @throws IOException if the PDU can not be decoded
+     */
+    protected ASN1Any decodeAny(BEREncoding ber) throws IOException {
         try {
-            BEREncoding ber = reader.read();
-            if (ber == null) {
-                throw new IOException("read PDU error");
-            }
             return decode(ber);
         } catch (ASN1Exception ex) {
             throw new IOException(ex);
@@ -90,6 +136,24 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
         }
     }
 
+    /**
+     * Returns the size of the last PDU that has been read.
+     *
+     * @return the number of octets of the last PDU, or 0 if no PDU has been read
+     */
+    protected int getReadLength() {
+        return readLength;
+    }
+
+    protected static int[] makeOID(String str) throws NumberFormatException {
+        String[] s = str.split("\\.");
+        int[] a = new int[s.length];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = Integer.parseInt(s[i]);
+        }
+        return a;
+    }
+
     private BEREncoding encode(OUT data) throws ASN1Exception {
         if (data instanceof InitializeRequest) {
             return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 20);
@@ -109,6 +173,15 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
         if (data instanceof PresentResponse) {
             return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 25);
         }
+        if (data instanceof DeleteResultSetRequest) {
+            return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 26);
+        }
+        if (data instanceof DeleteResultSetResponse) {
+            return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 27);
+        }
+        if (data instanceof TriggerResourceControlRequest) {
+            return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 32);
+        }
         if (data instanceof ScanRequest) {
             return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 35);
         }
@@ -121,39 +194,45 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
         if (data instanceof SortResponse) {
             return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 44);
         }
+        if (data instanceof Segment) {
+            return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 45);
+        }
         if (data instanceof Close) {
             return data.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 48);
         }
         throw new ASN1Exception("bad PDU to write");
     }
 
-    @SuppressWarnings("unchecked")
-    private IN decode(BEREncoding ber) throws ASN1Exception {
+    private ASN1Any decode(BEREncoding ber) throws ASN1Exception {
         if (ber.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
             throw new ASN1Exception("bad BER encoding: choice not matched");
         }
         try {
             switch (ber.getTag()) {
                 case 20 -> {
-                    return (IN) new InitializeRequest(ber, false);
+                    return new InitializeRequest(ber, false);
                 }
                 case 21 -> {
-                    return (IN) new InitializeResponse(ber, false);
+                    return new InitializeResponse(ber, false);
                 }
                 case 22 -> {
-                    return (IN) new SearchRequest(ber, false);
+                    return new SearchRequest(ber, false);
                 }
                 case 23 -> {
-                    return (IN) new SearchResponse(ber, false);
+                    return new SearchResponse(ber, false);
                 }
                 case 24 -> {
-                    return (IN) new PresentRequest(ber, false);
+                    return new PresentRequest(ber, false);
                 }
                 case 25 -> {
-                    return (IN) new PresentResponse(ber, false);
+                    return new PresentResponse(ber, false);
+                }
+                case 26 -> {
+                    return new DeleteResultSetRequest(ber, false);
+                }
+                case 27 -> {
+                    return new DeleteResultSetResponse(ber, false);
                 }
-                // 26 new DeleteResultSetRequest(ber, false);
-                // 27 new DeleteResultSetResponse(ber, false);
                 // 28 new AccessControlRequest(ber, false);
                 // 29 new AccessControlResponse(ber, false);
                 // 30 new ResourceControlRequest(ber, false);
@@ -162,22 +241,24 @@ public class AbstractOperation<IN extends ASN1Any, OUT extends ASN1Any> {
                 // 33 new ResourceReportRequest(ber, false);
                 // 34 new ResourceReportResponse(ber, false);
                 case 35 -> {
-                    return (IN) new ScanRequest(ber, false);
+                    return new ScanRequest(ber, false);
                 }
                 case 36 -> {
-                    return (IN) new ScanResponse(ber, false);
+                    return new ScanResponse(ber, false);
                 }
                 case 43 -> {
-                    return (IN) new SortRequest(ber, false);
+                    return new SortRequest(ber, false);
                 }
                 case 44 -> {
-                    return (IN) new SortResponse(ber, false);
+                    return new SortResponse(ber, false);
+                }
+                case 45 -> {
+                    return new Segment(ber, false);
                 }
-                // 45  new Segment(ber, false);
                 // 46  new ExtendedServicesRequest(ber, false);
                 // 47  new ExtendedServicesResponse(ber, false);
                 case 48 -> {
-                    return (IN) new Close(ber, false);
+                    return new Close(ber, false);
                 }
                 default -> {
                     throw new ASN1Exception("bad BER encoding: " + ber.getTag() + " not matched");
@@ -0,0 +1,107 @@
+package org.xbib.z3950.common.operations;
+
+import org.xbib.asn1.ASN1GeneralString;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.v3.DeleteResultSetRequest;
+import org.xbib.z3950.common.v3.DeleteResultSetResponse;
+import org.xbib.z3950.common.v3.DeleteSetStatus;
+import org.xbib.z3950.common.v3.InternationalString;
+import org.xbib.z3950.common.v3.ListStatuses1;
+import org.xbib.z3950.common.v3.ResultSetId;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delete result set operation for Z39.50.
+ */
+public class DeleteResultSetOperation extends AbstractOperation<DeleteResultSetResponse, DeleteResultSetRequest> {
+
+    private static final Logger logger = Logger.getLogger(DeleteResultSetOperation.class.getName());
+
+    private int status;
+
+    public DeleteResultSetOperation(BERReader reader, BERWriter writer) {
+        super(reader, writer);
+        this.status = -1;
+    }
+
+    /**
+     * Deletes the given result sets. A result set that does not exist, or has already
+     * been deleted by the target, counts as deleted.
+     *
+     * @param resultSetNames the names of the result sets
+     * @return true if all result sets are deleted
+     * @throws IOException if the operation fails
+     */
+    public boolean execute(List<String> resultSetNames) throws IOException {
+        DeleteResultSetRequest request = new DeleteResultSetRequest();
+        request.sDeleteFunction = new ASN1Integer(DeleteResultSetRequest.E_LIST);
+        request.sResultSetList = new ResultSetId[resultSetNames.size()];
+        for (int i = 0; i < resultSetNames.size(); i++) {
+            request.sResultSetList[i] = new ResultSetId();
+            request.sResultSetList[i].value = new InternationalString();
+            request.sResultSetList[i].value.value = new ASN1GeneralString(resultSetNames.get(i));
+        }
+        return execute(request);
+    }
+
+    /**
+     * Deletes all result sets of the session.
+     *
+     * @return true if all result sets are deleted
+     * @throws IOException if the operation fails
+     */
+    public boolean executeAll() throws IOException {
+        DeleteResultSetRequest request = new DeleteResultSetRequest();
+        request.sDeleteFunction = new ASN1Integer(DeleteResultSetRequest.E_ALL);
+        return execute(request);
+    }
+
+    /**
+     * Returns the delete operation status of the response.
+     *
+     * @return the status, see {@link DeleteSetStatus}, or -1 if there is no response
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    private boolean execute(DeleteResultSetRequest request) throws IOException {
+        logger.log(Level.FINER, request.toString());
+        write(request);
+        DeleteResultSetResponse response = read();
+        if (response == null || response.sDeleteOperationStatus == null
+                || response.sDeleteOperationStatus.value == null) {
+            throw new IOException("no delete result set response");
+        }
+        status = response.sDeleteOperationStatus.value.get();
+        if (isDeleted(status)) {
+            return true;
+        }
+        if (response.sDeleteListStatuses != null && response.sDeleteListStatuses.value != null) {
+            boolean deleted = true;
+            for (ListStatuses1 listStatus : response.sDeleteListStatuses.value) {
+                int n = listStatus.s_status != null && listStatus.s_status.value != null ?
+                        listStatus.s_status.value.get() : DeleteSetStatus.E_SYSTEM_PROBLEM_AT_TARGET;
+                if (!isDeleted(n)) {
+                    logger.log(Level.FINE, "result set " + listStatus.s_id + " not deleted, status " + n);
+                    deleted = false;
+                }
+            }
+            return deleted;
+        }
+        logger.log(Level.FINE, "result sets not deleted, status " + status);
+        return false;
+    }
+
+    private static boolean isDeleted(int status) {
+        return status == DeleteSetStatus.E_SUCCESS
+                || status == DeleteSetStatus.E_RESULT_SET_DID_NOT_EXIST
+                || status == DeleteSetStatus.E_PREVIOUSLY_DELETED_BY_TARGET;
+    }
+}
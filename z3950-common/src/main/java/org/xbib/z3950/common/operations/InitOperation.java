@@ -29,14 +29,78 @@ public class InitOperation extends AbstractOperation<InitializeResponse, Initial
 
     private final String pass;
 
+    private boolean requestedConcurrentOperations;
+
+    private int requestedSegmentation;
+
+    private boolean requestedDeleteResultSets;
+
+    private boolean requestedTriggerResourceControl;
+
     private String targetInfo;
 
+    private int preferredMessageSize;
+
+    private boolean concurrentOperations;
+
+    private int segmentation;
+
+    private boolean deleteResultSets;
+
+    private boolean triggerResourceControl;
+
     public InitOperation(BERReader reader, BERWriter writer, String user, String pass) {
         super(reader, writer);
         this.user = user;
         this.pass = pass;
     }
 
+    /**
+     * Asks for concurrent operations on init.
+     *
+     * @param concurrentOperations true to ask for concurrent operations
+     */
+    public void requestConcurrentOperations(boolean concurrentOperations) {
+        this.requestedConcurrentOperations = concurrentOperations;
+    }
+
+    /**
+     * Asks for segmentation on init.
+     *
+     * @param segmentation the segmentation level to ask for, 0 for none, 1 or 2
+     */
+    public void requestSegmentation(int segmentation) {
+        this.requestedSegmentation = segmentation;
+    }
+
+    /**
+     * Asks for the delete result set service on init.
+     *
+     * @param deleteResultSets true to ask for the delete result set service
+     */
+    public void requestDeleteResultSets(boolean deleteResultSets) {
+        this.requestedDeleteResultSets = deleteResultSets;
+    }
+
+    /**
+     * Asks for the trigger resource control service on init, for cancelling operations.
+     *
+     * @param triggerResourceControl true to ask for the trigger resource control service
+     */
+    public void requestTriggerResourceControl(boolean triggerResourceControl) {
+        this.requestedTriggerResourceControl = triggerResourceControl;
+    }
+
+    /**
+     * Executes the init, with the optional services that have been requested.
+     *
+     * @param preferredMessageSize the preferred message size, with segmentation the maximum segment size
+     * @param implementationName the implementation name
+     * @param implementationVersion the implementation version
+     * @param initListener the init listener, or null
+     * @return true if the target rejected the init
+     * @throws IOException if init fails
+     */
     public boolean execute(Integer preferredMessageSize,
                            String implementationName,
                            String implementationVersion,
@@ -51,18 +115,18 @@ public class InitOperation extends AbstractOperation<InitializeResponse, Initial
         boolean[] options = new boolean[15];
         options[0] = true; // search
         options[1] = true; // present
-        options[2] = false;  // delete set
+        options[2] = requestedDeleteResultSets; // delete set
         options[3] = false; // resource-report
-        options[4] = false; // trigger resource control
+        options[4] = requestedTriggerResourceControl; // trigger resource control
         options[5] = false;  // resource control
         options[6] = false; // access control
         options[7] = true; // scan
         options[8] = false; // sort
         options[9] = false; // (unused)
         options[10] = false; // extended-services  
-        options[11] = false; // level 1 segmentation
-        options[12] = false; // level 2 segmentation
-        options[13] = false; // concurrent operations
+        options[11] = requestedSegmentation >= 1; // level 1 segmentation
+        options[12] = requestedSegmentation >= 2; // level 2 segmentation
+        options[13] = requestedConcurrentOperations; // concurrent operations
         options[14] = true; // named result sets
         init.options = new Options();
         init.options.value = new ASN1BitString(options);
@@ -90,7 +154,22 @@ public class InitOperation extends AbstractOperation<InitializeResponse, Initial
         write(init);
         InitializeResponse initResp = read();
         int targetVersion = 0;
+        this.preferredMessageSize = preferredMessageSize;
         if (initResp != null) {
+            if (initResp.preferredMessageSize != null) {
+                this.preferredMessageSize = initResp.preferredMessageSize.get();
+            }
+            if (initResp.options != null) {
+                boolean[] targetOptions = initResp.options.value.get();
+                this.concurrentOperations = requestedConcurrentOperations && targetOptions.length > 13 && targetOptions[13];
+                this.deleteResultSets = requestedDeleteResultSets && targetOptions.length > 2 && targetOptions[2];
+                this.triggerResourceControl = requestedTriggerResourceControl && targetOptions.length > 4 && targetOptions[4];
+                if (requestedSegmentation >= 2 && targetOptions.length > 12 && targetOptions[12]) {
+                    this.segmentation = 2;
+                } else if (requestedSegmentation >= 1 && targetOptions.length > 11 && targetOptions[11]) {
+                    this.segmentation = 1;
+                }
+            }
             if (initResp.implementationName != null) {
                 targetInfo = initResp.implementationName.toString();
                 if (initResp.implementationVersion != null) {
@@ -128,4 +207,49 @@ public class InitOperation extends AbstractOperation<InitializeResponse, Initial
     public String getTargetInfo() {
         return targetInfo;
     }
+
+    /**
+     * Returns the preferred message size as negotiated by the target.
+     *
+     * @return the preferred message size in octets
+     */
+    public int getPreferredMessageSize() {
+        return preferredMessageSize;
+    }
+
+    /**
+     * Returns true if concurrent operations have been requested and accepted by the target.
+     *
+     * @return true if concurrent operations can be used
+     */
+    public boolean isConcurrentOperations() {
+        return concurrentOperations;
+    }
+
+    /**
+     * Returns the segmentation level that has been requested and accepted by the target.
+     *
+     * @return 0 for no segmentation, 1 or 2
+     */
+    public int getSegmentation() {
+        return segmentation;
+    }
+
+    /**
+     * Returns true if the delete result set service has been requested and accepted by the target.
+     *
+     * @return true if result sets can be deleted
+     */
+    public boolean isDeleteResultSets() {
+        return deleteResultSets;
+    }
+
+    /**
+     * Returns true if the trigger resource control service has been requested and accepted by the target.
+     *
+     * @return true if operations can be cancelled
+     */
+    public boolean isTriggerResourceControl() {
+        return triggerResourceControl;
+    }
 }
@@ -1,28 +1,39 @@
 package org.xbib.z3950.common.operations;
 
+import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1GeneralString;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.BERPrimitive;
 import org.xbib.asn1.io.BERReader;
 import org.xbib.asn1.io.BERWriter;
 import org.xbib.z3950.common.ErrorRecord;
 import org.xbib.z3950.common.DefaultRecord;
+import org.xbib.z3950.common.FileRecord;
+import org.xbib.z3950.common.FragmentAssembler;
 import org.xbib.z3950.common.exceptions.MessageSizeTooSmallException;
 import org.xbib.z3950.common.exceptions.NoRecordsReturnedException;
 import org.xbib.z3950.common.exceptions.RequestTerminatedByAccessControlException;
 import org.xbib.z3950.common.exceptions.RequestTerminatedException;
 import org.xbib.z3950.common.exceptions.ZException;
+import org.xbib.z3950.common.v3.Close;
 import org.xbib.z3950.common.v3.DefaultDiagFormat;
 import org.xbib.z3950.common.v3.ElementSetNames;
+import org.xbib.z3950.common.v3.FragmentSyntax;
 import org.xbib.z3950.common.v3.InternationalString;
 import org.xbib.z3950.common.v3.NamePlusRecord;
 import org.xbib.z3950.common.v3.PresentRequest;
 import org.xbib.z3950.common.v3.PresentRequestRecordComposition;
 import org.xbib.z3950.common.v3.PresentResponse;
 import org.xbib.z3950.common.v3.PresentStatus;
+import org.xbib.z3950.common.v3.Records;
 import org.xbib.z3950.common.v3.ResultSetId;
+import org.xbib.z3950.api.Record;
 import org.xbib.z3950.api.RecordListener;
 import org.xbib.z3950.api.SearchListener;
 
@@ -38,12 +49,27 @@ public class PresentOperation extends AbstractOperation<PresentResponse, Present
 
     private static final Logger logger = Logger.getLogger(PresentOperation.class.getName());
 
+    /**
+     * The assumed size of a record before the first response has been seen.
+     */
+    private static final int ESTIMATED_RECORD_SIZE = 4096;
+
+    private static final int PRESENT_RESPONSE_OVERHEAD = 1024;
+
     private final String resultSetName;
 
     private final String elementSetName;
 
     private final String preferredRecordSyntax;
 
+    private int maxSegmentSize;
+
+    private int segmentRecords;
+
+    private BEREncoding responseRecords;
+
+    private final FragmentAssembler assembler;
+
     public PresentOperation(BERReader reader,
                             BERWriter writer,
                             String resultSetName,
@@ -53,19 +79,198 @@ public class PresentOperation extends AbstractOperation<PresentResponse, Present
         this.resultSetName = resultSetName;
         this.elementSetName = elementSetName;
         this.preferredRecordSyntax = preferredRecordSyntax;
+        this.assembler = new FragmentAssembler();
     }
 
     public void execute(int offset, int length, int total,
                         SearchListener searchListener, RecordListener recordListener) throws IOException {
+        int numberOfRecordsRequested = length;
+        if ((offset - 1) + length > total) {
+            numberOfRecordsRequested = total - offset + 1;
+        }
+        long millis = System.currentTimeMillis();
+        write(createRequest(offset, numberOfRecordsRequested));
+        PresentResponse response = readResponse(offset, recordListener);
+        int nReturned = response.numberOfRecordsReturned != null ? response.numberOfRecordsReturned.get() : 0;
+        int status = response.presentStatus.value != null ? response.presentStatus.value.get() : 0;
+        if (searchListener != null) {
+            searchListener.onResponse(status, total, nReturned, System.currentTimeMillis() - millis);
+        }
+        if (status == PresentStatus.E_success) {
+            deliver(responseRecords, offset + segmentRecords, assembler, recordListener);
+            discardUnfinishedRecord();
+        } else {
+            throw createZExceptionFrom(status, nReturned, response);
+        }
+    }
+
+    /**
+     * Presents a range of records in batches that fit into the given message size.
+     * As soon as the response of a batch has arrived, the request for the next batch
+     * is sent, and the records of the current batch are decoded and delivered while
+     * the target prepares the next response. This saves one round trip per batch,
+     * but only one request is outstanding at any time.
+     * The batch size is estimated from the octets per record of the previous response.
+     *
+     * @param offset the position of the first record in the result set, starting at 1
+     * @param length the number of records
+     * @param total the number of records in the result set
+     * @param messageSize the negotiated preferred message size
+     * @param searchListener the listener for the responses of the batches, or null
+     * @param recordListener the listener for the records, or null
+     * @throws IOException if present fails
+     */
+    public void executePipelined(int offset, int length, int total, int messageSize,
+                                 SearchListener searchListener, RecordListener recordListener) throws IOException {
+        int end = Math.min(offset - 1 + length, total);
+        if (end < offset) {
+            return;
+        }
+        int recordSize = ESTIMATED_RECORD_SIZE;
+        int start = offset;
+        int count = batchSize(messageSize, recordSize, end - start + 1);
+        long millis = System.currentTimeMillis();
+        write(createRequest(start, count));
+        while (true) {
+            PresentResponse response = readResponse(start, recordListener);
+            int nReturned = response.numberOfRecordsReturned != null ? response.numberOfRecordsReturned.get() : 0;
+            int status = response.presentStatus.value != null ? response.presentStatus.value.get() : 0;
+            if (searchListener != null) {
+                searchListener.onResponse(status, total, nReturned, System.currentTimeMillis() - millis);
+            }
+            if (status != PresentStatus.E_success) {
+                throw createZExceptionFrom(status, nReturned, response);
+            }
+            int next = start + nReturned;
+            boolean pending = 0 < nReturned && next <= end;
+            if (pending) {
+                recordSize = Math.max(1, getReadLength() / nReturned);
+                millis = System.currentTimeMillis();
+                write(createRequest(next, batchSize(messageSize, recordSize, end - next + 1)));
+            }
+            try {
+                deliver(responseRecords, start + segmentRecords, assembler, recordListener);
+                discardUnfinishedRecord();
+            } catch (RuntimeException e) {
+                if (pending) {
+                    // consume the response of the request in flight, so the connection stays usable
+                    skipResponse();
+                }
+                throw e;
+            }
+            if (!pending) {
+                return;
+            }
+            start = next;
+        }
+    }
+
+    /**
+     * Asks the target to split present responses into segments of the given size.
+     * Level 2 segmentation must have been negotiated on init, with level 1 the target
+     * splits responses by the preferred message size and the maximum segment size must not be sent.
+     * The records of each segment are delivered as soon as the segment arrives, so memory
+     * is bounded by the segment size and not by the size of the whole response.
+     *
+     * @param maxSegmentSize the maximum segment size, usually the preferred message size, or 0 for no segments
+     */
+    public void setMaxSegmentSize(int maxSegmentSize) {
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    /**
+     * Reads the response of a present request, delivering the records of the segments
+     * that precede the response. The records are not decoded with the response, they are
+     * kept as BER encoding in {@link #responseRecords}, so they can be taken by
+     * {@link #deliver(BEREncoding, int, FragmentAssembler, RecordListener)} without building v3 objects.
+     */
+    private PresentResponse readResponse(int offset, RecordListener recordListener) throws IOException {
+        segmentRecords = 0;
+        responseRecords = null;
+        while (true) {
+            BEREncoding ber = readEncoding();
+            if (ber.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG || !(ber instanceof BERConstructed pdu)) {
+                return presentResponse(decodeAny(ber));
+            }
+            if (ber.getTag() == 45) {
+                // segmentRecords [0] IMPLICIT SEQUENCE OF NamePlusRecord
+                BEREncoding records = find(pdu, 0);
+                segmentRecords += deliver(records, offset + segmentRecords, assembler, recordListener);
+                continue;
+            }
+            if (ber.getTag() != 25) {
+                return presentResponse(decodeAny(ber));
+            }
+            // responseRecords [28] IMPLICIT SEQUENCE OF NamePlusRecord
+            responseRecords = find(pdu, 28);
+            if (responseRecords == null) {
+                return presentResponse(decodeAny(ber));
+            }
+            BEREncoding[] elements = new BEREncoding[pdu.numberComponents() - 1];
+            int n = 0;
+            for (int i = 0; i < pdu.numberComponents(); i++) {
+                BEREncoding element = pdu.elementAt(i);
+                if (element != responseRecords) {
+                    elements[n++] = element;
+                }
+            }
+            try {
+                return presentResponse(decodeAny(new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 25, elements)));
+            } catch (ASN1Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the decoded PDU as present response. A close of the target instead of the response
+     * ends the operation with the close reason.
+     */
+    private static PresentResponse presentResponse(ASN1Any pdu) throws IOException {
+        if (pdu == null || pdu instanceof PresentResponse) {
+            return (PresentResponse) pdu;
+        }
+        if (pdu instanceof Close close) {
+            throw new IOException("session closed by target, close reason " + close.closeReason
+                    + (close.diagnosticInformation != null ? ": " + close.diagnosticInformation : ""));
+        }
+        throw new IOException("unexpected PDU instead of present response: " + pdu.getClass().getSimpleName());
+    }
+
+    /**
+     * Reads and drops the segments and the final response of a present request,
+     * without decoding or delivering any records.
+     */
+    private void skipResponse() throws IOException {
+        BEREncoding ber;
+        do {
+            ber = readEncoding();
+        } while (ber.getTag() == 45 && ber.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG);
+    }
+
+    private static BEREncoding find(BERConstructed ber, int tag) {
+        for (int i = 0; i < ber.numberComponents(); i++) {
+            BEREncoding element = ber.elementAt(i);
+            if (element.getTag() == tag && element.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private void discardUnfinishedRecord() {
+        if (assembler.isActive()) {
+            logger.log(Level.WARNING, "present ended with an unfinished record, discarding fragments");
+            assembler.close();
+        }
+    }
+
+    private PresentRequest createRequest(int offset, int numberOfRecordsRequested) {
         PresentRequest presentRequest = new PresentRequest();
         presentRequest.resultSetId = new ResultSetId();
         presentRequest.resultSetId.value = new InternationalString();
         presentRequest.resultSetId.value.value = new ASN1GeneralString(resultSetName);
         presentRequest.resultSetStartPoint = new ASN1Integer(offset);
-        int numberOfRecordsRequested = length;
-        if ((offset - 1) + length > total) {
-            numberOfRecordsRequested = total - offset + 1;
-        }
         presentRequest.numberOfRecordsRequested = new ASN1Integer(numberOfRecordsRequested);
         if (elementSetName != null) {
             presentRequest.recordComposition = new PresentRequestRecordComposition();
@@ -74,57 +279,215 @@ public class PresentOperation extends AbstractOperation<PresentResponse, Present
             presentRequest.recordComposition.simple.cGenericElementSetName.value = new ASN1GeneralString(elementSetName);
         }
         presentRequest.preferredRecordSyntax = new ASN1ObjectIdentifier(makeOID(preferredRecordSyntax));
-        long millis = System.currentTimeMillis();
-        write(presentRequest);
-        PresentResponse response = read();
-        int nReturned = response.numberOfRecordsReturned != null ? response.numberOfRecordsReturned.get() : 0;
-        int status = response.presentStatus.value != null ? response.presentStatus.value.get() : 0;
-        if (searchListener != null) {
-            searchListener.onResponse(status, total, nReturned, System.currentTimeMillis() - millis);
+        if (0 < maxSegmentSize) {
+            presentRequest.maxSegmentSize = new ASN1Integer(maxSegmentSize);
         }
-        if (status == PresentStatus.E_success) {
-            for (int n = 0; n < nReturned; n++) {
-                NamePlusRecord nr = response.records.c_responseRecords[n];
-                try {
-                    if (nr.record.retrievalRecord != null) {
-                        ASN1External asn1External = new ASN1External(nr.record.retrievalRecord.berEncode(), true);
-                        DefaultRecord record = new DefaultRecord(offset + n, asn1External.getcOctetAligned().getBytes());
-                        if (recordListener != null) {
-                            recordListener.onRecord(record);
-                        }
-                    } else if (nr.record.surrogateDiagnostic != null) {
-                        DefaultDiagFormat diagFormat = nr.record.surrogateDiagnostic.defaultFormat;
-                        if (diagFormat != null) {
-                            logger.log(Level.WARNING, diagFormat.toString());
-                        }
-                        ASN1External asn1External = nr.record.surrogateDiagnostic.externallyDefined;
-                        if (asn1External != null) {
-                            ErrorRecord record = new ErrorRecord(offset + n, asn1External.getcOctetAligned().getBytes());
-                            if (recordListener != null) {
-                                recordListener.onRecord(record);
-                            }
-                        }
+        return presentRequest;
+    }
+
+    /**
+     * Delivers the records of a search response with piggybacked records.
+     *
+     * @param records the records
+     * @param offset the position of the first record in the result set
+     * @param recordListener the listener for the records, or null
+     * @return the number of records delivered
+     */
+    static int deliver(Records records, int offset, RecordListener recordListener) {
+        try (FragmentAssembler assembler = new FragmentAssembler()) {
+            return deliver(records, offset, assembler, recordListener);
+        }
+    }
+
+    private static int deliver(Records records, int offset, FragmentAssembler assembler,
+                               RecordListener recordListener) {
+        return records != null ? deliver(records.c_responseRecords, offset, assembler, recordListener) : 0;
+    }
+
+    /**
+     * Delivers records from the BER encoding of a sequence of NamePlusRecord. The content of a
+     * retrieval record in octet-aligned EXTERNAL form is taken as a slice of the received PDU.
+     * Other records, such as diagnostics and fragments, are decoded.
+     *
+     * @param records the BER encoding of the records, or null
+     * @param offset the position of the first record in the result set
+     * @param assembler the fragment assembler
+     * @param recordListener the listener for the records, or null
+     * @return the number of records delivered, fragments only count for the final fragment
+     */
+    private static int deliver(BEREncoding records, int offset, FragmentAssembler assembler,
+                               RecordListener recordListener) {
+        if (!(records instanceof BERConstructed sequence)) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < sequence.numberComponents(); i++) {
+            BEREncoding ber = sequence.elementAt(i);
+            BERPrimitive octets = octetAligned(ber);
+            if (octets != null) {
+                DefaultRecord record = new DefaultRecord(offset + count,
+                        octets.getBuffer(), octets.getContentOffset(), octets.getContentLength());
+                count++;
+                if (recordListener != null) {
+                    recordListener.onRecord(record);
+                }
+                continue;
+            }
+            try {
+                count += deliver(new NamePlusRecord(ber, true), offset + count, assembler, recordListener);
+            } catch (ASN1Exception e) {
+                logger.log(Level.WARNING, e.getMessage(), e);
+                deliverError(offset + count, e, recordListener);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the octet-aligned content of a retrieval record, which is
+     * {@code NamePlusRecord ::= SEQUENCE { name [0] OPTIONAL, record [1] EXPLICIT CHOICE { retrievalRecord [1] EXPLICIT EXTERNAL } }},
+     * with the content in {@code octet-aligned [1] IMPLICIT OCTET STRING} of the EXTERNAL.
+     *
+     * @param ber the BER encoding of a NamePlusRecord
+     * @return the content, or null if the record is not of this form
+     */
+    private static BERPrimitive octetAligned(BEREncoding ber) {
+        BEREncoding record = last(ber);
+        if (record == null || record.getTag() != 1 || record.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
+            return null;
+        }
+        BEREncoding choice = only(record);
+        if (choice == null || choice.getTag() != 1 || choice.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
+            return null;
+        }
+        BEREncoding external = only(choice);
+        if (external == null || external.getTag() != ASN1External.EXTERNAL_TAG
+                || external.getTagType() != BEREncoding.UNIVERSAL_TAG) {
+            return null;
+        }
+        BEREncoding encoding = last(external);
+        if (encoding instanceof BERPrimitive octets && encoding.getTag() == 1
+                && encoding.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
+            return octets;
+        }
+        return null;
+    }
+
+    private static BEREncoding last(BEREncoding ber) {
+        if (ber instanceof BERConstructed constructed && 0 < constructed.numberComponents()) {
+            return constructed.elementAt(constructed.numberComponents() - 1);
+        }
+        return null;
+    }
+
+    private static BEREncoding only(BEREncoding ber) {
+        if (ber instanceof BERConstructed constructed && constructed.numberComponents() == 1) {
+            return constructed.elementAt(0);
+        }
+        return null;
+    }
+
+    /**
+     * Delivers records. Fragments of a record are passed to the assembler, and the
+     * record is delivered when its final fragment arrives, so the fragments of one record
+     * may be spread over several segments.
+     *
+     * @param records the records, or the fragments of records
+     * @param offset the position of the first record in the result set
+     * @param assembler the fragment assembler
+     * @param recordListener the listener for the records, or null
+     * @return the number of records delivered, fragments only count for the final fragment
+     */
+    private static int deliver(NamePlusRecord[] records, int offset, FragmentAssembler assembler,
+                               RecordListener recordListener) {
+        if (records == null) {
+            return 0;
+        }
+        int count = 0;
+        for (NamePlusRecord nr : records) {
+            count += deliver(nr, offset + count, assembler, recordListener);
+        }
+        return count;
+    }
+
+    private static int deliver(NamePlusRecord nr, int number, FragmentAssembler assembler,
+                               RecordListener recordListener) {
+        try {
+            if (nr.record.retrievalRecord != null) {
+                ASN1OctetString octets = nr.record.retrievalRecord.getcOctetAligned();
+                if (octets == null) {
+                    throw new ASN1Exception("retrieval record is not octet-aligned");
+                }
+                DefaultRecord record = new DefaultRecord(number,
+                        octets.getBuffer(), octets.getOffset(), octets.getLength());
+                if (recordListener != null) {
+                    recordListener.onRecord(record);
+                }
+                return 1;
+            } else if (nr.record.surrogateDiagnostic != null) {
+                DefaultDiagFormat diagFormat = nr.record.surrogateDiagnostic.defaultFormat;
+                if (diagFormat != null) {
+                    logger.log(Level.WARNING, diagFormat.toString());
+                }
+                ASN1External asn1External = nr.record.surrogateDiagnostic.externallyDefined;
+                if (asn1External != null) {
+                    ASN1OctetString octets = asn1External.getcOctetAligned();
+                    ErrorRecord record = new ErrorRecord(number,
+                            octets.getBuffer(), octets.getOffset(), octets.getLength());
+                    if (recordListener != null) {
+                        recordListener.onRecord(record);
                     }
-                } catch (ASN1Exception e) {
-                    logger.log(Level.WARNING, e.getMessage(), e);
+                }
+                return 1;
+            } else if (nr.record.startingFragment != null) {
+                ASN1OctetString octets = fragment(nr.record.startingFragment);
+                assembler.start(octets.getBuffer(), octets.getOffset(), octets.getLength());
+            } else if (nr.record.intermediateFragment != null) {
+                ASN1OctetString octets = fragment(nr.record.intermediateFragment);
+                assembler.append(octets.getBuffer(), octets.getOffset(), octets.getLength());
+            } else if (nr.record.finalFragment != null) {
+                ASN1OctetString octets = fragment(nr.record.finalFragment);
+                assembler.append(octets.getBuffer(), octets.getOffset(), octets.getLength());
+                Record record = assembler.finish(number);
+                try {
                     if (recordListener != null) {
-                        ErrorRecord record = new ErrorRecord(offset + n, e.getMessage().getBytes(StandardCharsets.UTF_8));
                         recordListener.onRecord(record);
                     }
+                } finally {
+                    if (record instanceof FileRecord fileRecord) {
+                        fileRecord.close();
+                    }
                 }
+                return 1;
             }
-        } else {
-            throw createZExceptionFrom(status, nReturned, response);
+            return 0;
+        } catch (IOException e) {
+            logger.log(Level.WARNING, e.getMessage(), e);
+            assembler.close();
+            deliverError(number, e, recordListener);
+            return 1;
         }
     }
 
-    private int[] makeOID(String str) throws NumberFormatException {
-        String[] s = str.split("\\.");
-        int[] a = new int[s.length];
-        for (int i = 0; i < a.length; i++) {
-            a[i] = Integer.parseInt(s[i]);
+    private static void deliverError(int number, Exception e, RecordListener recordListener) {
+        if (recordListener != null) {
+            String message = e.getMessage() != null ? e.getMessage() : e.toString();
+            recordListener.onRecord(new ErrorRecord(number, message.getBytes(StandardCharsets.UTF_8)));
         }
-        return a;
+    }
+
+    private static ASN1OctetString fragment(FragmentSyntax fragmentSyntax) throws ASN1Exception {
+        if (fragmentSyntax.c_externallyTagged != null) {
+            return fragmentSyntax.c_externallyTagged.getcOctetAligned();
+        }
+        return fragmentSyntax.c_notExternallyTagged;
+    }
+
+    private static int batchSize(int messageSize, int recordSize, int remaining) {
+        // leave room for the PDU envelope
+        int count = (messageSize - PRESENT_RESPONSE_OVERHEAD) / recordSize;
+        return Math.max(1, Math.min(count, remaining));
     }
 
     private ZException createZExceptionFrom(int status, int nReturned, PresentResponse response) {
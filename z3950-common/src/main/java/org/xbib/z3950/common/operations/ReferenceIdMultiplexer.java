@@ -0,0 +1,318 @@
+package org.xbib.z3950.common.operations;
+
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.BERPrimitive;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shares one Z39.50 session between operations.
+ * Each operation runs on a {@link Channel} that is opened for it and closed afterwards.
+ * Without concurrent operations, only one channel can be open at a time, and the
+ * channels read and write the session directly. With concurrent operations, as
+ * negotiated on init, several channels can be open. Each channel tags the PDUs it
+ * writes with a reference id of its own, and the responses are routed to the channel
+ * with the reference id of the response. There is no reader thread: a channel that
+ * waits for its response reads the session on behalf of all channels, until its
+ * own response arrives.
+ * The multiplexer waits on locks, not on monitors, so that waiting and blocking I/O do not
+ * pin the carrier thread of a virtual thread.
+ */
+public class ReferenceIdMultiplexer {
+
+    private static final Logger logger = Logger.getLogger(ReferenceIdMultiplexer.class.getName());
+
+    private static final int REFERENCE_ID_TAG = 2;
+
+    private static final int CLOSE_TAG = 48;
+
+    private final BERReader reader;
+
+    private final BERWriter writer;
+
+    private final boolean concurrent;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger counter;
+
+    private final Map<String, Channel> channels;
+
+    private final Lock lock;
+
+    private final Condition changed;
+
+    private final Lock writeLock;
+
+    private boolean reading;
+
+    private boolean closed;
+
+    /**
+     * Creates a multiplexer.
+     *
+     * @param reader the reader of the session
+     * @param writer the writer of the session
+     * @param maxConcurrentOperations the number of operations that can be in flight at a time,
+     *                                1 if concurrent operations have not been negotiated
+     */
+    public ReferenceIdMultiplexer(BERReader reader, BERWriter writer, int maxConcurrentOperations) {
+        this.reader = reader;
+        this.writer = writer;
+        this.concurrent = 1 < maxConcurrentOperations;
+        this.permits = new Semaphore(Math.max(1, maxConcurrentOperations), true);
+        this.counter = new AtomicInteger();
+        this.channels = new HashMap<>();
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+        this.writeLock = new ReentrantLock();
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Returns true if the session has ended, because the target has sent a close, or the connection is lost.
+     *
+     * @return true if the session has ended
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a channel for an operation, waiting while the maximum number of channels are open.
+     *
+     * @return the channel
+     * @throws IOException if interrupted while waiting
+     */
+    public Channel open() throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a channel");
+        }
+        Channel channel = new Channel(Integer.toString(counter.incrementAndGet()));
+        if (concurrent) {
+            lock.lock();
+            try {
+                channels.put(channel.referenceId, channel);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return channel;
+    }
+
+    private BEREncoding read(Channel channel) throws IOException {
+        lock.lock();
+        try {
+            while (true) {
+                if (!channel.responses.isEmpty()) {
+                    return channel.responses.poll();
+                }
+                if (closed) {
+                    return null;
+                }
+                if (!reading) {
+                    reading = true;
+                    break;
+                }
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for a response");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            while (true) {
+                BEREncoding ber = reader.read();
+                lock.lock();
+                try {
+                    if (ber == null) {
+                        closed = true;
+                        return null;
+                    }
+                    String referenceId = referenceId(ber);
+                    if (channel.referenceId.equals(referenceId)) {
+                        return ber;
+                    }
+                    Channel target = referenceId != null ? channels.get(referenceId) : null;
+                    if (target != null) {
+                        target.responses.add(ber);
+                        changed.signalAll();
+                    } else if (ber.getTag() == CLOSE_TAG) {
+                        // the target closes the session, all channels have to give up
+                        closed = true;
+                        return ber;
+                    } else {
+                        logger.log(Level.WARNING, "dropping response without a channel, reference id " + referenceId);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            lock.lock();
+            try {
+                reading = false;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void write(Channel channel, BEREncoding ber) throws IOException {
+        BEREncoding tagged;
+        try {
+            tagged = withReferenceId(ber, channel.referenceId);
+        } catch (ASN1Exception ex) {
+            throw new IOException(ex);
+        }
+        writeLock.lock();
+        try {
+            writer.write(tagged);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void close(Channel channel) {
+        if (concurrent) {
+            lock.lock();
+            try {
+                channels.remove(channel.referenceId);
+            } finally {
+                lock.unlock();
+            }
+        }
+        permits.release();
+    }
+
+    private static BEREncoding withReferenceId(BEREncoding ber, String referenceId) throws ASN1Exception {
+        if (!(ber instanceof BERConstructed)) {
+            return ber;
+        }
+        BERConstructed constructed = (BERConstructed) ber;
+        BEREncoding[] elements = constructed.getContentElements();
+        BEREncoding[] tagged;
+        if (0 < elements.length && isReferenceId(elements[0])) {
+            tagged = elements.clone();
+        } else {
+            tagged = new BEREncoding[elements.length + 1];
+            System.arraycopy(elements, 0, tagged, 1, elements.length);
+        }
+        tagged[0] = new ASN1OctetString(referenceId).berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, REFERENCE_ID_TAG);
+        return new BERConstructed(ber.getTagType(), ber.getTag(), tagged);
+    }
+
+    private static String referenceId(BEREncoding ber) {
+        if (!(ber instanceof BERConstructed)) {
+            return null;
+        }
+        BERConstructed constructed = (BERConstructed) ber;
+        if (constructed.numberComponents() == 0) {
+            return null;
+        }
+        BEREncoding p = constructed.elementAt(0);
+        if (!isReferenceId(p) || !(p instanceof BERPrimitive)) {
+            return null;
+        }
+        BERPrimitive primitive = (BERPrimitive) p;
+        return new String(primitive.getBuffer(), primitive.getContentOffset(), primitive.getContentLength(),
+                StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isReferenceId(BEREncoding ber) {
+        return ber.getTag() == REFERENCE_ID_TAG && ber.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG;
+    }
+
+    /**
+     * The view of one operation on the session.
+     */
+    public class Channel implements BERReader, BERWriter {
+
+        private final String referenceId;
+
+        private final Deque<BEREncoding> responses;
+
+        private boolean open;
+
+        private Channel(String referenceId) {
+            this.referenceId = referenceId;
+            this.responses = new ArrayDeque<>();
+            this.open = true;
+        }
+
+        /**
+         * Returns the reference id of the PDUs of this channel. It is only used
+         * with concurrent operations.
+         *
+         * @return the reference id
+         */
+        public String getReferenceId() {
+            return referenceId;
+        }
+
+        @Override
+        public BEREncoding read() throws IOException {
+            return concurrent ? ReferenceIdMultiplexer.this.read(this) : reader.read();
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            if (concurrent) {
+                ReferenceIdMultiplexer.this.write(this, ber);
+            } else {
+                // an operation may be cancelled by another thread while it writes
+                writeLock.lock();
+                try {
+                    writer.write(ber);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Closes the channel, the session stays open.
+         */
+        @Override
+        public void close() {
+            if (open) {
+                open = false;
+                ReferenceIdMultiplexer.this.close(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.xbib.z3950.common.operations;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deletes result sets on the target in the background, when they have been evicted from
+ * a {@link ResultSetManager}, or have not been used for the idle time. Targets often limit
+ * the number of result sets of a session, so long running sessions must release them.
+ * The deletion runs as an operation of its own on the multiplexer, between the operations
+ * of the client, or concurrently if concurrent operations have been negotiated.
+ * The lifecycle belongs to one session and must be closed when the session ends.
+ */
+public class ResultSetLifecycle implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ResultSetLifecycle.class.getName());
+
+    private static final ThreadFactory threadFactory = runnable -> {
+        Thread thread = new Thread(runnable, "z3950-result-sets");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    /**
+     * Only triggers the deletions, which run in the executor, because a deletion may have to
+     * wait for a channel of its multiplexer.
+     */
+    private static final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(threadFactory);
+
+    /**
+     * Runs each deletion on a virtual thread, which costs no platform thread while it waits
+     * for a channel or for the response of the target.
+     */
+    private static final Executor executor = Thread::startVirtualThread;
+
+    private final ResultSetManager manager;
+
+    private final ReferenceIdMultiplexer multiplexer;
+
+    private final long idleMillis;
+
+    private final AtomicBoolean running;
+
+    private volatile ScheduledFuture<?> future;
+
+    private volatile boolean closed;
+
+    private ResultSetLifecycle(ResultSetManager manager, ReferenceIdMultiplexer multiplexer, long idleMillis) {
+        this.manager = manager;
+        this.multiplexer = multiplexer;
+        this.idleMillis = idleMillis;
+        this.running = new AtomicBoolean();
+    }
+
+    /**
+     * Starts the lifecycle of the result sets of a session.
+     *
+     * @param manager the result set manager
+     * @param multiplexer the multiplexer of the session
+     * @param idleMillis the idle time in milliseconds after which a result set is deleted,
+     *                   or 0 to delete evicted result sets only
+     * @return the lifecycle
+     */
+    public static ResultSetLifecycle start(ResultSetManager manager, ReferenceIdMultiplexer multiplexer,
+                                           long idleMillis) {
+        ResultSetLifecycle lifecycle = new ResultSetLifecycle(manager, multiplexer, idleMillis);
+        manager.setDeleteExpired(true);
+        if (idleMillis > 0) {
+            long period = Math.max(1000L, idleMillis / 2);
+            lifecycle.future = scheduler.scheduleWithFixedDelay(lifecycle::deleteLater, period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+        return lifecycle;
+    }
+
+    /**
+     * Deletes the expired result sets in the background, if there are any.
+     */
+    public void deleteExpired() {
+        if (!closed && manager.hasExpired()) {
+            deleteLater();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (future != null) {
+            future.cancel(false);
+        }
+        manager.setDeleteExpired(false);
+    }
+
+    private void deleteLater() {
+        if (!closed && running.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::delete);
+            } catch (RuntimeException e) {
+                running.set(false);
+                throw e;
+            }
+        }
+    }
+
+    void delete() {
+        try {
+            if (closed) {
+                return;
+            }
+            if (idleMillis > 0) {
+                manager.expireIdle(idleMillis);
+            }
+            // result sets may expire while a deletion is running
+            while (!closed && manager.hasExpired()) {
+                delete(manager.drainExpired());
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void delete(List<String> names) {
+        try (ReferenceIdMultiplexer.Channel channel = multiplexer.open()) {
+            DeleteResultSetOperation operation = new DeleteResultSetOperation(channel, channel);
+            if (operation.execute(names)) {
+                logger.log(Level.FINE, "deleted result sets " + names);
+            } else {
+                logger.log(Level.FINE, "result sets " + names + " not deleted, status " + operation.getStatus());
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "while deleting result sets " + names + ": " + e.getMessage(), e);
+        } finally {
+            // a result set that is not deleted is replaced when its name is reused
+            manager.release(names);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package org.xbib.z3950.common.operations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the result sets of a session, so that a query that has been searched
+ * before can be served by a present against its result set, without searching again.
+ * Each query on a list of databases gets a result set name of its own. The number of
+ * result sets on the target is bounded: if the maximum is reached, the least recently used
+ * result set is evicted, and its name is given to the new result set, which replaces it
+ * on the target.
+ * If the target supports deleting result sets, evicted result sets, and result sets that
+ * have not been used for a while, can be handed out by {@link #drainExpired()} for deletion
+ * instead, see {@link ResultSetLifecycle}. Their names are not reused before they are released.
+ * Result sets that are still in use are never evicted: a result set is in use while it is
+ * searched, and while it is pinned by an operation that presents or sorts it, see
+ * {@link #pin(ResultSet)}. A result set that is replaced, removed, or expired while it is in use
+ * keeps its name until it is no longer used. If all result sets are in use, there are temporarily
+ * more result sets than the maximum.
+ * Result sets do not survive the session, so the manager must be cleared on reconnect.
+ */
+public class ResultSetManager {
+
+    private final String prefix;
+
+    private final int maxResultSets;
+
+    private final Map<Key, ResultSet> resultSets;
+
+    private final Deque<String> freeNames;
+
+    private final List<String> expired;
+
+    private boolean deleteExpired;
+
+    private int counter;
+
+    private int generation;
+
+    /**
+     * Creates a result set manager.
+     *
+     * @param prefix the prefix of the generated result set names
+     * @param maxResultSets the maximum number of result sets on the target
+     */
+    public ResultSetManager(String prefix, int maxResultSets) {
+        if (maxResultSets < 1) {
+            throw new IllegalArgumentException("at least one result set is required");
+        }
+        this.prefix = prefix;
+        this.maxResultSets = maxResultSets;
+        this.resultSets = new LinkedHashMap<>(16, 0.75f, true);
+        this.freeNames = new ArrayDeque<>();
+        this.expired = new ArrayList<>();
+    }
+
+    /**
+     * Hands out evicted result sets for deletion, instead of replacing them on the target.
+     *
+     * @param deleteExpired true if expired result sets are deleted
+     */
+    public synchronized void setDeleteExpired(boolean deleteExpired) {
+        this.deleteExpired = deleteExpired;
+    }
+
+    /**
+     * Looks up the result set of a query, and marks it as most recently used.
+     *
+     * @param type the query type, for example "cql" or "pqf"
+     * @param query the query
+     * @param databases the databases
+     * @return the result set, or null if the query has not been searched in this session
+     */
+    public synchronized ResultSet lookup(String type, String query, List<String> databases) {
+        ResultSet resultSet = resultSets.get(new Key(type, normalize(query), databases));
+        if (resultSet != null) {
+            resultSet.lastUsed = System.nanoTime();
+        }
+        return resultSet;
+    }
+
+    /**
+     * Allocates a result set for a query that is about to be searched. If there are
+     * too many result sets, the least recently used result set that is not in use is evicted
+     * and its name is reused.
+     * The result set must be completed with {@link #complete(ResultSet, int)} after a successful
+     * search, or released with {@link #remove(ResultSet)} otherwise. It is in use until then,
+     * so it must be pinned before it is completed if it is presented afterwards.
+     *
+     * @param type the query type, for example "cql" or "pqf"
+     * @param query the query
+     * @param databases the databases
+     * @return the new result set
+     */
+    public synchronized ResultSet allocate(String type, String query, List<String> databases) {
+        Key key = new Key(type, normalize(query), databases);
+        ResultSet previous = resultSets.remove(key);
+        if (previous != null) {
+            dispose(previous, false);
+        }
+        if (resultSets.size() >= maxResultSets) {
+            Iterator<ResultSet> it = resultSets.values().iterator();
+            while (it.hasNext()) {
+                ResultSet candidate = it.next();
+                if (!candidate.isInUse()) {
+                    it.remove();
+                    dispose(candidate, true);
+                    break;
+                }
+            }
+        }
+        String name = freeNames.isEmpty() ? prefix + "-" + (++counter) : freeNames.pop();
+        ResultSet resultSet = new ResultSet(key, name, generation);
+        resultSets.put(key, resultSet);
+        return resultSet;
+    }
+
+    /**
+     * Records the number of hits of a result set after a successful search.
+     *
+     * @param resultSet the result set
+     * @param count the number of hits
+     */
+    public synchronized void complete(ResultSet resultSet, int count) {
+        resultSet.count = count;
+        resultSet.searching = false;
+        releaseIfUnused(resultSet);
+    }
+
+    /**
+     * Forgets a result set, for example after a failed search, or when the target has
+     * discarded it. Its name can be reused.
+     *
+     * @param resultSet the result set
+     */
+    public synchronized void remove(ResultSet resultSet) {
+        if (resultSets.remove(resultSet.key, resultSet)) {
+            resultSet.searching = false;
+            dispose(resultSet, false);
+        } else if (resultSet.searching) {
+            // the search of a result set that has been replaced meanwhile has failed
+            resultSet.searching = false;
+            releaseIfUnused(resultSet);
+        }
+    }
+
+    /**
+     * Expires a result set that is no longer needed, for example when its records are not
+     * read to the end. It is handed out by {@link #drainExpired()} if expired result sets
+     * are deleted, otherwise its name can be reused.
+     *
+     * @param resultSet the result set
+     */
+    public synchronized void expire(ResultSet resultSet) {
+        if (resultSets.remove(resultSet.key, resultSet)) {
+            dispose(resultSet, true);
+        }
+    }
+
+    /**
+     * Pins a result set while an operation uses it, so that it is not evicted, and its name
+     * is not reused. Each pin must be followed by {@link #unpin(ResultSet)}.
+     *
+     * @param resultSet the result set
+     * @return true if the result set has been pinned, false if it has already been evicted,
+     * removed, or expired
+     */
+    public synchronized boolean pin(ResultSet resultSet) {
+        if (!isValid(resultSet)) {
+            return false;
+        }
+        resultSet.pins++;
+        return true;
+    }
+
+    /**
+     * Unpins a result set. If it has been removed or expired while it was pinned, its name is
+     * released now.
+     *
+     * @param resultSet the result set
+     */
+    public synchronized void unpin(ResultSet resultSet) {
+        if (resultSet.generation != generation || resultSet.pins == 0) {
+            return;
+        }
+        resultSet.pins--;
+        releaseIfUnused(resultSet);
+    }
+
+    /**
+     * Returns true if a result set still belongs to the session of this manager.
+     * A result set that is in use keeps its name until it is no longer used, even if it has
+     * been replaced, removed, or expired, but no result set survives {@link #clear()}.
+     *
+     * @param resultSet the result set
+     * @return true if the name of the result set is still valid on the target
+     */
+    public synchronized boolean isValid(ResultSet resultSet) {
+        return resultSet.generation == generation
+                && (resultSet.isInUse() || resultSets.get(resultSet.key) == resultSet);
+    }
+
+    /**
+     * Expires the complete result sets that have not been used for the given time.
+     * Expired result sets are handed out by {@link #drainExpired()}.
+     *
+     * @param idleMillis the idle time in milliseconds
+     */
+    public synchronized void expireIdle(long idleMillis) {
+        long now = System.nanoTime();
+        Iterator<ResultSet> it = resultSets.values().iterator();
+        while (it.hasNext()) {
+            ResultSet resultSet = it.next();
+            if (now - resultSet.lastUsed < TimeUnit.MILLISECONDS.toNanos(idleMillis)) {
+                // in order of use, the remaining result sets are more recent
+                break;
+            }
+            if (resultSet.isComplete() && !resultSet.isInUse()) {
+                it.remove();
+                expired.add(resultSet.name);
+            }
+        }
+    }
+
+    public synchronized boolean hasExpired() {
+        return !expired.isEmpty();
+    }
+
+    /**
+     * Returns the names of the expired result sets, which must be released by {@link #release(List)}
+     * after they have been deleted on the target.
+     *
+     * @return the names of the expired result sets
+     */
+    public synchronized List<String> drainExpired() {
+        List<String> names = new ArrayList<>(expired);
+        expired.clear();
+        return names;
+    }
+
+    /**
+     * Makes the names of deleted result sets available for new result sets.
+     *
+     * @param names the names
+     */
+    public synchronized void release(List<String> names) {
+        names.forEach(freeNames::push);
+    }
+
+    /**
+     * Forgets all result sets, which is required when the session ends.
+     */
+    public synchronized void clear() {
+        resultSets.clear();
+        freeNames.clear();
+        expired.clear();
+        counter = 0;
+        generation++;
+    }
+
+    public synchronized int size() {
+        return resultSets.size();
+    }
+
+    private void dispose(ResultSet resultSet, boolean expire) {
+        // a result set in use is released when it is no longer used
+        resultSet.detached = true;
+        resultSet.expireOnUnpin = expire;
+        releaseIfUnused(resultSet);
+    }
+
+    private void releaseIfUnused(ResultSet resultSet) {
+        if (resultSet.detached && !resultSet.isInUse() && resultSet.generation == generation) {
+            resultSet.detached = false;
+            release(resultSet.name, resultSet.expireOnUnpin);
+        }
+    }
+
+    private void release(String name, boolean expire) {
+        if (expire && deleteExpired) {
+            expired.add(name);
+        } else {
+            freeNames.push(name);
+        }
+    }
+
+    private static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * A result set on the target.
+     */
+    public static class ResultSet {
+
+        private final Key key;
+
+        private final String name;
+
+        private volatile int count;
+
+        private long lastUsed;
+
+        private final int generation;
+
+        private boolean searching;
+
+        private int pins;
+
+        private boolean detached;
+
+        private boolean expireOnUnpin;
+
+        private ResultSet(Key key, String name, int generation) {
+            this.key = key;
+            this.name = name;
+            this.generation = generation;
+            this.searching = true;
+            this.count = -1;
+            this.lastUsed = System.nanoTime();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of hits.
+         *
+         * @return the number of hits, or -1 if the search has not completed
+         */
+        public int getCount() {
+            return count;
+        }
+
+        public boolean isComplete() {
+            return count >= 0;
+        }
+
+        /**
+         * A result set is in use while it is searched, or pinned.
+         */
+        private boolean isInUse() {
+            return searching || pins > 0;
+        }
+    }
+
+    private record Key(String type, String query, List<String> databases) {
+
+        private Key {
+            Objects.requireNonNull(type);
+            databases = List.copyOf(databases);
+        }
+    }
+}
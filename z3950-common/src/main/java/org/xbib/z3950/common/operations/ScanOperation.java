@@ -5,19 +5,30 @@ import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.io.BERReader;
 import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.DefaultScanTerm;
+import org.xbib.z3950.common.Diagnostics;
 import org.xbib.z3950.common.pqf.PQFParser;
 import org.xbib.z3950.common.pqf.PQFRPNGenerator;
 import org.xbib.z3950.common.v3.AttributeSetId;
 import org.xbib.z3950.common.v3.AttributesPlusTerm;
 import org.xbib.z3950.common.v3.DatabaseName;
+import org.xbib.z3950.common.v3.DefaultDiagFormat;
+import org.xbib.z3950.common.v3.DiagRec;
+import org.xbib.z3950.common.v3.Entry;
 import org.xbib.z3950.common.v3.InternationalString;
+import org.xbib.z3950.common.v3.ListEntries;
 import org.xbib.z3950.common.v3.RPNQuery;
 import org.xbib.z3950.common.v3.ScanRequest;
 import org.xbib.z3950.common.v3.ScanResponse;
+import org.xbib.z3950.common.v3.Term;
+import org.xbib.z3950.common.v3.TermInfo;
 import org.xbib.z3950.api.ScanListener;
+import org.xbib.z3950.api.ScanTermListener;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -26,6 +37,11 @@ public class ScanOperation extends AbstractOperation<ScanResponse, ScanRequest>
 
     private static final Logger logger = Logger.getLogger(ScanOperation.class.getName());
 
+    /**
+     * The scan status of a scan that failed.
+     */
+    private static final int SCAN_FAILURE = 6;
+
     private final List<String> databases;
 
     public ScanOperation(BERReader reader,
@@ -40,6 +56,126 @@ public class ScanOperation extends AbstractOperation<ScanResponse, ScanRequest>
     }
 
     public void execute(int nTerms, int step, int position, AttributesPlusTerm term, ScanListener listener) throws IOException {
+        write(createRequest(nTerms, step, position, term));
+        ScanResponse scanResponse = read();
+        if (scanResponse != null) {
+            if (scanResponse.scanStatus.get() == 0) {
+                for (int n = 0; n < scanResponse.entries.s_entries.length; n++) {
+                    if (listener != null) {
+                        listener.onScan(scanResponse.entries.s_entries[n].cTermInfo.berEncode());
+                    }
+                }
+            }
+        }
+    }
+
+    public int scanPQF(int nTerms, int step, int position, String pqf, ScanTermListener listener) throws IOException {
+        return scan(nTerms, step, position, createRPNQueryFromPQF(pqf).rpn.c_op.attrTerm, listener);
+    }
+
+    /**
+     * Scans the terms around the given term. Each term is delivered with its display term
+     * and its global occurrences as decoded values.
+     *
+     * @param nTerms the number of terms
+     * @param step the step size, 0 for every term
+     * @param position the position of the given term in the response, starting at 1
+     * @param term the attributes and the term
+     * @param listener the listener for the terms, or null
+     * @return the number of terms delivered
+     * @throws IOException if scan fails
+     */
+    public int scan(int nTerms, int step, int position, AttributesPlusTerm term, ScanTermListener listener)
+            throws IOException {
+        write(createRequest(nTerms, step, position, term));
+        Entry[] entries = readEntries();
+        int count = 0;
+        for (Entry entry : entries) {
+            count += deliver(entry, listener);
+        }
+        return count;
+    }
+
+    public int browsePQF(String pqf, int pageSize, boolean forward, int maxTerms, ScanTermListener listener)
+            throws IOException {
+        return browse(createRPNQueryFromPQF(pqf).rpn.c_op.attrTerm, pageSize, forward, maxTerms, listener);
+    }
+
+    /**
+     * Walks an index in pages of terms, starting at the given term, forward in index order, or backward.
+     * As soon as a page has arrived, the request for the next page, which starts at the last term
+     * of the page, is sent, and the terms of the page are delivered while the target prepares
+     * the next page. The last term of a page is not delivered again with the next page.
+     * The walk ends at the end of the index, or after the maximum number of terms.
+     *
+     * @param term the attributes and the start term
+     * @param pageSize the number of terms per page
+     * @param forward true to walk forward, false to walk backward
+     * @param maxTerms the maximum number of terms, or 0 for no limit
+     * @param listener the listener for the terms, or null
+     * @return the number of terms delivered
+     * @throws IOException if scan fails
+     */
+    public int browse(AttributesPlusTerm term, int pageSize, boolean forward, int maxTerms, ScanTermListener listener)
+            throws IOException {
+        int requested = pageSize;
+        write(createRequest(requested, 0, forward ? 1 : requested, term));
+        byte[] boundary = null;
+        int count = 0;
+        while (true) {
+            Entry[] entries = readEntries();
+            int n = entries.length;
+            // the first entry in walk order repeats the last term of the previous page
+            int first = 0;
+            if (boundary != null && 0 < n) {
+                TermInfo termInfo = entries[forward ? 0 : n - 1].cTermInfo;
+                if (termInfo != null && Arrays.equals(boundary, octets(termInfo.s_term))) {
+                    first = 1;
+                }
+            }
+            Term last = null;
+            int terms = 0;
+            for (int i = first; i < n; i++) {
+                TermInfo termInfo = entries[forward ? i : n - 1 - i].cTermInfo;
+                if (termInfo != null) {
+                    last = termInfo.s_term;
+                    terms++;
+                }
+            }
+            int limit = 0 < maxTerms ? Math.min(terms, maxTerms - count) : terms;
+            boolean pending = last != null && requested <= n && (maxTerms <= 0 || count + terms < maxTerms);
+            if (pending) {
+                AttributesPlusTerm next = new AttributesPlusTerm();
+                next.attributes = term.attributes;
+                next.term = last;
+                requested = pageSize + 1;
+                write(createRequest(requested, 0, forward ? 1 : requested, next));
+            }
+            try {
+                int delivered = 0;
+                for (int i = first; i < n && delivered < limit; i++) {
+                    delivered += deliver(entries[forward ? i : n - 1 - i], listener);
+                }
+                count += delivered;
+            } catch (RuntimeException e) {
+                if (pending) {
+                    // consume the response of the request in flight, so the connection stays usable
+                    try {
+                        read();
+                    } catch (IOException | RuntimeException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                }
+                throw e;
+            }
+            if (!pending) {
+                return count;
+            }
+            boundary = octets(last);
+        }
+    }
+
+    private ScanRequest createRequest(int nTerms, int step, int position, AttributesPlusTerm term) {
         ScanRequest scanRequest = new ScanRequest();
         scanRequest.attributeSet = new AttributeSetId();
         // Z39.50 BIB-1: urn:oid:1.2.840.10003.3.1
@@ -58,17 +194,76 @@ public class ScanOperation extends AbstractOperation<ScanResponse, ScanRequest>
         if (logger.isLoggable(Level.FINE)) {
             logger.log(Level.FINE, scanRequest.toString());
         }
-        write(scanRequest);
+        return scanRequest;
+    }
+
+    /**
+     * Reads a scan response, and returns its entries in index order.
+     */
+    private Entry[] readEntries() throws IOException {
         ScanResponse scanResponse = read();
-        if (scanResponse != null) {
-            if (scanResponse.scanStatus.get() == 0) {
-                for (int n = 0; n < scanResponse.entries.s_entries.length; n++) {
-                    if (listener != null) {
-                        listener.onScan(scanResponse.entries.s_entries[n].cTermInfo.berEncode());
+        if (scanResponse == null || scanResponse.scanStatus == null) {
+            throw new IOException("no scan response");
+        }
+        int status = scanResponse.scanStatus.get();
+        ListEntries listEntries = scanResponse.entries;
+        if (status == SCAN_FAILURE) {
+            if (listEntries != null && listEntries.s_nonsurrogateDiagnostics != null) {
+                for (DiagRec diagRec : listEntries.s_nonsurrogateDiagnostics) {
+                    if (diagRec.defaultFormat != null) {
+                        throw new Diagnostics(diagRec.defaultFormat.condition.get(), addinfo(diagRec.defaultFormat));
                     }
                 }
             }
+            throw new IOException("scan failed without diagnostic");
+        }
+        if (status != 0) {
+            logger.log(Level.FINE, "scan status " + status);
+        }
+        return listEntries != null && listEntries.s_entries != null ? listEntries.s_entries : new Entry[0];
+    }
+
+    private static int deliver(Entry entry, ScanTermListener listener) {
+        TermInfo termInfo = entry.cTermInfo;
+        if (termInfo == null) {
+            if (entry.cSurrogateDiagnostic != null) {
+                logger.log(Level.WARNING, entry.cSurrogateDiagnostic.toString());
+            }
+            return 0;
+        }
+        if (listener != null) {
+            String displayTerm = termInfo.s_displayTerm != null && termInfo.s_displayTerm.value != null ?
+                    termInfo.s_displayTerm.value.get() : null;
+            int globalOccurrences = termInfo.s_globalOccurrences != null ? termInfo.s_globalOccurrences.get() : -1;
+            listener.onTerm(new DefaultScanTerm(octets(termInfo.s_term), displayTerm, globalOccurrences));
+        }
+        return 1;
+    }
+
+    private static byte[] octets(Term term) {
+        if (term.c_general != null) {
+            return term.c_general.getBytes();
+        }
+        if (term.c_characterString != null && term.c_characterString.value != null) {
+            return term.c_characterString.value.get().getBytes(StandardCharsets.UTF_8);
+        }
+        if (term.c_numeric != null) {
+            return Integer.toString(term.c_numeric.get()).getBytes(StandardCharsets.UTF_8);
+        }
+        return term.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String addinfo(DefaultDiagFormat diagFormat) {
+        if (diagFormat.addinfo == null) {
+            return null;
+        }
+        if (diagFormat.addinfo.v2Addinfo != null) {
+            return diagFormat.addinfo.v2Addinfo.get();
+        }
+        if (diagFormat.addinfo.v3Addinfo != null && diagFormat.addinfo.v3Addinfo.value != null) {
+            return diagFormat.addinfo.v3Addinfo.value.get();
         }
+        return null;
     }
 
     private RPNQuery createRPNQueryFromPQF(String query) {
@@ -4,6 +4,7 @@ import java.nio.charset.Charset;
 import org.xbib.asn1.ASN1Boolean;
 import org.xbib.asn1.ASN1GeneralString;
 import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.io.BERReader;
 import org.xbib.asn1.io.BERWriter;
 import org.xbib.cql.CQLParser;
@@ -11,7 +12,10 @@ import org.xbib.z3950.common.Diagnostics;
 import org.xbib.z3950.common.cql.CQLRPNGenerator;
 import org.xbib.z3950.common.pqf.PQFParser;
 import org.xbib.z3950.common.pqf.PQFRPNGenerator;
+import org.xbib.z3950.api.RecordListener;
+import org.xbib.z3950.api.SearchListener;
 import org.xbib.z3950.common.v3.DatabaseName;
+import org.xbib.z3950.common.v3.ElementSetNames;
 import org.xbib.z3950.common.v3.InternationalString;
 import org.xbib.z3950.common.v3.PresentStatus;
 import org.xbib.z3950.common.v3.Query;
@@ -42,6 +46,16 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
 
     private boolean status;
 
+    private int piggybackRecords;
+
+    private String elementSetName;
+
+    private String preferredRecordSyntax;
+
+    private SearchResponse response;
+
+    private long millis;
+
     public SearchOperation(BERReader reader, BERWriter writer,
                            String resultSetName,
                            List<String> databases,
@@ -54,6 +68,22 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
         this.status = false;
     }
 
+    /**
+     * Asks the target to return the first records of the result set with the search response,
+     * which saves the round trip of a present request.
+     * Up to the given number of records are returned as a small set, or as a medium set
+     * if there are more hits. The records can be taken by {@link #deliverRecords}.
+     *
+     * @param numberOfRecords the number of records, 0 for none
+     * @param elementSetName the element set name, or null
+     * @param preferredRecordSyntax the preferred record syntax, or null
+     */
+    public void setPiggybackPresent(int numberOfRecords, String elementSetName, String preferredRecordSyntax) {
+        this.piggybackRecords = numberOfRecords;
+        this.elementSetName = elementSetName;
+        this.preferredRecordSyntax = preferredRecordSyntax;
+    }
+
     public boolean executePQF(Charset charset, String pqf) throws IOException {
         return execute(createRPNQueryFromPQF(charset, pqf));
     }
@@ -67,9 +97,25 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
             SearchRequest search = new SearchRequest();
             search.query = new Query();
             search.query.c_type_1 = rpn;
-            search.smallSetUpperBound = new ASN1Integer(0);
-            search.largeSetLowerBound = new ASN1Integer(1);
-            search.mediumSetPresentNumber = new ASN1Integer(0);
+            if (0 < piggybackRecords) {
+                search.smallSetUpperBound = new ASN1Integer(piggybackRecords);
+                search.largeSetLowerBound = new ASN1Integer(Integer.MAX_VALUE);
+                search.mediumSetPresentNumber = new ASN1Integer(piggybackRecords);
+                if (elementSetName != null) {
+                    ElementSetNames elementSetNames = new ElementSetNames();
+                    elementSetNames.cGenericElementSetName = new InternationalString();
+                    elementSetNames.cGenericElementSetName.value = new ASN1GeneralString(elementSetName);
+                    search.smallSetElementSetNames = elementSetNames;
+                    search.mediumSetElementSetNames = elementSetNames;
+                }
+                if (preferredRecordSyntax != null) {
+                    search.preferredRecordSyntax = new ASN1ObjectIdentifier(makeOID(preferredRecordSyntax));
+                }
+            } else {
+                search.smallSetUpperBound = new ASN1Integer(0);
+                search.largeSetLowerBound = new ASN1Integer(1);
+                search.mediumSetPresentNumber = new ASN1Integer(0);
+            }
             search.replaceIndicator = new ASN1Boolean(true);
             search.resultSetName = new InternationalString();
             search.resultSetName.value = new ASN1GeneralString(resultSetName);
@@ -81,8 +127,11 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
             }
             search.databaseNames = dbs;
             logger.log(Level.FINER, search.toString());
+            long millis = System.currentTimeMillis();
             write(search);
             SearchResponse response = read();
+            this.millis = System.currentTimeMillis() - millis;
+            this.response = response;
             if (response != null) {
                 if (response.resultCount != null) {
                     count = response.resultCount.get();
@@ -110,6 +159,28 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
         return status;
     }
 
+    /**
+     * Delivers the records that the target has returned with the search response.
+     *
+     * @param searchListener the listener for the response, or null
+     * @param recordListener the listener for the records, or null
+     * @return the number of records, starting at position 1 of the result set
+     * @throws IOException if the search listener fails
+     */
+    public int deliverRecords(SearchListener searchListener, RecordListener recordListener) throws IOException {
+        if (response == null || response.s_records == null || response.s_records.c_responseRecords == null) {
+            return 0;
+        }
+        int nReturned = response.numberOfRecordsReturned != null ? response.numberOfRecordsReturned.get() : 0;
+        nReturned = Math.min(nReturned, response.s_records.c_responseRecords.length);
+        PresentStatus presentStatus = response.s_presentStatus;
+        int status = presentStatus != null && presentStatus.value != null ? presentStatus.value.get() : 0;
+        if (searchListener != null) {
+            searchListener.onResponse(status, count, nReturned, millis);
+        }
+        return PresentOperation.deliver(response.s_records, 1, recordListener);
+    }
+
     public int getCount() {
         return count;
     }
@@ -118,6 +189,15 @@ public class SearchOperation extends AbstractOperation<SearchResponse, SearchReq
         return status;
     }
 
+    /**
+     * Returns the time from the search request to the search response.
+     *
+     * @return the time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return millis;
+    }
+
     private RPNQuery createRPNQueryFromCQL(Charset charset, String query, boolean wordListSupported) {
         CQLRPNGenerator generator = new CQLRPNGenerator(charset, null, wordListSupported);
         CQLParser parser = new CQLParser(query);
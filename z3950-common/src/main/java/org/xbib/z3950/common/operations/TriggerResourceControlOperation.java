@@ -0,0 +1,43 @@
+package org.xbib.z3950.common.operations;
+
+import org.xbib.asn1.ASN1Any;
+import org.xbib.asn1.ASN1Boolean;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.v3.TriggerResourceControlRequest;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trigger resource control operation for Z39.50, which asks the target to cancel
+ * the operation in progress. With concurrent operations, the operation is identified by the
+ * reference id of its channel. There is no response: the target terminates the operation,
+ * and answers it with its regular response.
+ * The service must have been negotiated on init.
+ */
+public class TriggerResourceControlOperation extends AbstractOperation<ASN1Any, TriggerResourceControlRequest> {
+
+    private static final Logger logger = Logger.getLogger(TriggerResourceControlOperation.class.getName());
+
+    public TriggerResourceControlOperation(BERReader reader, BERWriter writer) {
+        super(reader, writer);
+    }
+
+    /**
+     * Asks the target to cancel the operation, without waiting for the response of the operation.
+     *
+     * @throws IOException if the request can not be written
+     */
+    public void cancel() throws IOException {
+        TriggerResourceControlRequest request = new TriggerResourceControlRequest();
+        request.s_requestedAction = new ASN1Integer(TriggerResourceControlRequest.E_cancel);
+        request.s_resultSetWanted = new ASN1Boolean(false);
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, request.toString());
+        }
+        write(request);
+    }
+}
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -51,45 +49,7 @@ public final class AccessControlRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("AccessControlRequest: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("AccessControlRequest: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sReferenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sReferenceId = null; // no, not present
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("AccessControlRequest: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        sSecurityChallenge = new AccessControlRequestSecurityChallenge(p, true);
-        part++;
-        sOtherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sOtherInfo = new OtherInformation(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sOtherInfo = null;
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("AccessControlRequest: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -113,23 +73,7 @@ public final class AccessControlRequest extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (sReferenceId != null) {
-            numFields++;
-        }
-        if (sOtherInfo != null) {
-            numFields++;
-        }
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        if (sReferenceId != null) {
-            fields[x++] = sReferenceId.berEncode();
-        }
-        fields[x++] = sSecurityChallenge.berEncode();
-        if (sOtherInfo != null) {
-            fields[x] = sOtherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -54,70 +52,7 @@ public final class AccessControlResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("AccessControlResponse: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-        referenceId = null;
-        securityChallengeResponse = null;
-        diagRec = null;
-        otherInformation = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            referenceId = null;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            securityChallengeResponse = new AccessControlResponseSecurityChallengeResponse(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            securityChallengeResponse = null;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 223 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("AccessControlResponse: bad BER encoding: s_diagnostic tag bad\n");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("AccessControlResponse: bad BER encoding: s_diagnostic tag bad\n");
-            }
-            diagRec = new DiagRec(tagged.elementAt(0), true);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            otherInformation = new OtherInformation(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            otherInformation = null;
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("AccessControlResponse: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -140,37 +75,7 @@ public final class AccessControlResponse extends ASN1Any {
      * @throws ASN1Exception When invalid or cannot be encoded.
      */
     @Override public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 0; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (securityChallengeResponse != null) {
-            numFields++;
-        }
-        if (diagRec != null) {
-            numFields++;
-        }
-        if (otherInformation != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding enc[];
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        if (securityChallengeResponse != null) {
-            fields[x++] = securityChallengeResponse.berEncode();
-        }
-        if (diagRec != null) {
-            enc = new BEREncoding[1];
-            enc[0] = diagRec.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 223, enc);
-        }
-        if (otherInformation != null) {
-            fields[x] = otherInformation.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
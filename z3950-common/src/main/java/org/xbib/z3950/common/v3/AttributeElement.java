@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -57,43 +55,7 @@ public final class AttributeElement extends ASN1Any implements Comparable<Attrib
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("AttributeElement: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("AttributeElement: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            attributeSetId = new AttributeSetId(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("AttributeElement: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 120 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("AttributeElement: bad tag in s_attributeType\n");
-        }
-        attributeType = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("AttributeElement: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        attributeValue = new AttributeElementAttributeValue(p, true);
-        part++;
-        if (part < numParts) {
-            throw new ASN1Exception("AttributeElement: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -121,18 +83,7 @@ public final class AttributeElement extends ASN1Any implements Comparable<Attrib
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 2;
-        if (attributeSetId != null) {
-            numFields++;
-        }
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        if (attributeSetId != null) {
-            fields[x++] = attributeSetId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-        fields[x++] = attributeType.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 120);
-        fields[x] = attributeValue.berEncode();
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
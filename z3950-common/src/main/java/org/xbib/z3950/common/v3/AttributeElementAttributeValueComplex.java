@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -47,59 +45,7 @@ public final class AttributeElementAttributeValueComplex extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("AttributeElement_attributeValue_complex: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("AttributeElement_attributeValue_complex: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 1 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("AttributeElement_attributeValue_complex: bad tag in s_list\n");
-        }
-        try {
-            BERConstructed cons = (BERConstructed) p;
-            int parts = cons.numberComponents();
-            list = new StringOrNumeric[parts];
-            int n;
-            for (n = 0; n < parts; n++) {
-                list[n] = new StringOrNumeric(cons.elementAt(n), true);
-            }
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("Bad BER");
-        }
-        part++;
-        semanticAction = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 2 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                semanticAction = new ASN1Integer[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    semanticAction[n] = new ASN1Integer(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("Bad BER");
-            }
-            part++;
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("AttributeElement_attributeValue_complex: bad BER: extra data " +
-                    part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -123,27 +69,7 @@ public final class AttributeElementAttributeValueComplex extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (semanticAction != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        f2 = new BEREncoding[list.length];
-        for (p = 0; p < list.length; p++) {
-            f2[p] = list[p].berEncode();
-        }
-        fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 1, f2);
-        if (semanticAction != null) {
-            f2 = new BEREncoding[semanticAction.length];
-            for (p = 0; p < semanticAction.length; p++) {
-                f2[p] = semanticAction[p].berEncode();
-            }
-            fields[x] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 2, f2);
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,9 +1,7 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -52,36 +50,7 @@ public final class AttributesPlusTerm extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        if (checkTag) {
-            if (ber.getTag() != 102 ||
-                    ber.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-                throw new ASN1EncodingException("bad BER: tag=" + ber.getTag() + " expected 102");
-            }
-        }
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        attributes = new AttributeList(p, true);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        term = new Term(p, true);
-        part++;
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -105,12 +74,7 @@ public final class AttributesPlusTerm extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 2;
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        fields[x++] = attributes.berEncode();
-        fields[x] = term.berEncode();
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,13 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>Close</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -68,84 +65,7 @@ public final class Close extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("Close: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-        if (numParts <= part) {
-            throw new ASN1Exception("Close: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            referenceId = null;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("Close: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        closeReason = new CloseReason(p, true);
-        part++;
-        diagnosticInformation = null;
-        resourceReportFormat = null;
-        resourceReport = null;
-        otherInformation = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 3 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            diagnosticInformation = new InternationalString(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 4 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            resourceReportFormat = new ResourceReportId(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 5 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("Close: bad BER encoding: s_resourceReport tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("Close: bad BER encoding: s_resourceReport tag bad");
-            }
-            resourceReport = new ResourceReport(tagged.elementAt(0), true);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            otherInformation = new OtherInformation(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            otherInformation = null;
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("Close: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -169,44 +89,7 @@ public final class Close extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (diagnosticInformation != null) {
-            numFields++;
-        }
-        if (resourceReportFormat != null) {
-            numFields++;
-        }
-        if (resourceReport != null) {
-            numFields++;
-        }
-        if (otherInformation != null) {
-            numFields++;
-        }
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding[] enc;
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        fields[x++] = closeReason.berEncode();
-        if (diagnosticInformation != null) {
-            fields[x++] = diagnosticInformation.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 3);
-        }
-        if (resourceReportFormat != null) {
-            fields[x++] = resourceReportFormat.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 4);
-        }
-        if (resourceReport != null) {
-            enc = new BEREncoding[1];
-            enc[0] = resourceReport.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 5, enc);
-        }
-        if (otherInformation != null) {
-            fields[x] = otherInformation.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -2,11 +2,9 @@ package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1Boolean;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -58,78 +56,7 @@ public final class CompSpec extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("CompSpec: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("CompSpec: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 1 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("CompSpec: bad tag in s_selectAlternativeSyntax\n");
-        }
-        selectAlternativeSyntax = new ASN1Boolean(p, false);
-        part++;
-        sGeneric = null;
-        dbSpecifics = null;
-        recordSyntax = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 2 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sGeneric = new Specification(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 3 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                dbSpecifics = new CompSpecDbSpecific[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    dbSpecifics[n] = new CompSpecDbSpecific(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("Bad BER");
-            }
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 4 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                recordSyntax = new ASN1ObjectIdentifier[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    recordSyntax[n] = new ASN1ObjectIdentifier(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("Bad BER");
-            }
-            part++;
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("CompSpec: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -153,39 +80,7 @@ public final class CompSpec extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (sGeneric != null) {
-            numFields++;
-        }
-        if (dbSpecifics != null) {
-            numFields++;
-        }
-        if (recordSyntax != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        fields[x++] = selectAlternativeSyntax.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        if (sGeneric != null) {
-            fields[x++] = sGeneric.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 2);
-        }
-        if (dbSpecifics != null) {
-            f2 = new BEREncoding[dbSpecifics.length];
-            for (p = 0; p < dbSpecifics.length; p++) {
-                f2[p] = dbSpecifics[p].berEncode();
-            }
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 3, f2);
-        }
-        if (recordSyntax != null) {
-            f2 = new BEREncoding[recordSyntax.length];
-            for (p = 0; p < recordSyntax.length; p++) {
-                f2[p] = recordSyntax[p].berEncode();
-            }
-            fields[x] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 4, f2);
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -50,51 +48,7 @@ public final class CompSpecDbSpecific extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("CompSpec_dbSpecific: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-        if (numParts <= part) {
-            throw new ASN1Exception("CompSpec_dbSpecific: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 1 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException
-                    ("CompSpec_dbSpecific: bad tag in s_db\n");
-        }
-        try {
-            tagged = (BERConstructed) p;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException
-                    ("CompSpec_dbSpecific: bad BER encoding: s_db tag bad\n");
-        }
-        if (tagged.numberComponents() != 1) {
-            throw new ASN1EncodingException
-                    ("CompSpec_dbSpecific: bad BER encoding: s_db tag bad\n");
-        }
-        sDb = new DatabaseName(tagged.elementAt(0), true);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("CompSpec_dbSpecific: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 2 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException
-                    ("CompSpec_dbSpecific: bad tag in s_spec\n");
-        }
-        sSpec = new Specification(p, false);
-        part++;
-        if (part < numParts) {
-            throw new ASN1Exception("CompSpec_dbSpecific: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -118,15 +72,7 @@ public final class CompSpecDbSpecific extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 2;
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding[] enc;
-        enc = new BEREncoding[1];
-        enc[0] = sDb.berEncode();
-        fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 1, enc);
-        fields[x] = sSpec.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 2);
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
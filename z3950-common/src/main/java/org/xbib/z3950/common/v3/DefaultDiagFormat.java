@@ -1,12 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -50,36 +48,7 @@ public final class DefaultDiagFormat extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        diagnosticSetId = new ASN1ObjectIdentifier(p, true);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        condition = new ASN1Integer(p, true);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        addinfo = new DefaultDiagFormatAddinfo(p, true);
-        part++;
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -103,13 +72,7 @@ public final class DefaultDiagFormat extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 3; // number of mandatories
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        fields[x++] = diagnosticSetId.berEncode();
-        fields[x++] = condition.berEncode();
-        fields[x] = addinfo.berEncode();
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1VisibleString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>DefaultDiagFormat_addinfo</code> from <code>Z39-50-APDU-1995</code>.
@@ -47,19 +48,15 @@ public final class DefaultDiagFormatAddinfo extends ASN1Any {
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
         v2Addinfo = null;
         v3Addinfo = null;
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1VisibleString.TAG) {
             v2Addinfo = new ASN1VisibleString(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        try {
+        if (TagLookahead.isInternationalString(ber)) {
             v3Addinfo = new InternationalString(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
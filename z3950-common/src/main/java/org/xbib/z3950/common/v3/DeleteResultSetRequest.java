@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -31,6 +29,12 @@ public final class DeleteResultSetRequest extends ASN1Any {
     public ResultSetId[] sResultSetList; // optional
     public OtherInformation sOtherInfo; // optional
 
+    /**
+     * Default constructor for a DeleteResultSetRequest.
+     */
+    public DeleteResultSetRequest() {
+    }
+
     /**
      * Constructor for a DeleteResultSetRequest from a BER encoding.
      *
@@ -55,70 +59,7 @@ public final class DeleteResultSetRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            referenceId = null;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 32 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_deleteFunction");
-        }
-        sDeleteFunction = new ASN1Integer(p, false);
-        part++;
-        sResultSetList = null;
-        sOtherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                sResultSetList = new ResultSetId[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    sResultSetList[n] = new ResultSetId(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER");
-            }
-            part++;
-        } catch (ASN1Exception e) {
-            sResultSetList = null;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sOtherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            sOtherInfo = null; // no, not present
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -142,35 +83,7 @@ public final class DeleteResultSetRequest extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (sResultSetList != null) {
-            numFields++;
-        }
-        if (sOtherInfo != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        fields[x++] = sDeleteFunction.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 32);
-        if (sResultSetList != null) {
-            f2 = new BEREncoding[sResultSetList.length];
-            for (p = 0; p < sResultSetList.length; p++) {
-                f2[p] = sResultSetList[p].berEncode();
-            }
-            fields[x++] = new BERConstructed(BEREncoding.UNIVERSAL_TAG, ASN1Sequence.SEQUENCE_TAG, f2);
-        }
-        if (sOtherInfo != null) {
-            fields[x] = sOtherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -34,6 +32,12 @@ public final class DeleteResultSetResponse extends ASN1Any {
     public InternationalString sDeleteMessage; // optional
     public OtherInformation sOtherInfo; // optional
 
+    /**
+     * Default constructor for a DeleteResultSetResponse.
+     */
+    public DeleteResultSetResponse() {
+    }
+
     /**
      * Constructor for a DeleteResultSetResponse from a BER encoding.
      *
@@ -58,90 +62,7 @@ public final class DeleteResultSetResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("DeleteResultSetResponse: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("DeleteResultSetResponse: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sReferenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sReferenceId = null;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("DeleteResultSetResponse: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 0 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("DeleteResultSetResponse: bad tag in s_deleteOperationStatus\n");
-        }
-        sDeleteOperationStatus = new DeleteSetStatus(p, false);
-        part++;
-        sDeleteListStatuses = null;
-        sNumberNotDeleted = null;
-        sBulkStatuses = null;
-        sDeleteMessage = null;
-        sOtherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sDeleteListStatuses = new ListStatuses(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 34 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sNumberNotDeleted = new ASN1Integer(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 35 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sBulkStatuses = new ListStatuses(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 36 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sDeleteMessage = new InternationalString(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sOtherInfo = new OtherInformation(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sOtherInfo = null; // no, not present
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("DeleteResultSetResponse: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -165,47 +86,7 @@ public final class DeleteResultSetResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (sReferenceId != null) {
-            numFields++;
-        }
-        if (sDeleteListStatuses != null) {
-            numFields++;
-        }
-        if (sNumberNotDeleted != null) {
-            numFields++;
-        }
-        if (sBulkStatuses != null) {
-            numFields++;
-        }
-        if (sDeleteMessage != null) {
-            numFields++;
-        }
-        if (sOtherInfo != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        if (sReferenceId != null) {
-            fields[x++] = sReferenceId.berEncode();
-        }
-        fields[x++] = sDeleteOperationStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 0);
-        if (sDeleteListStatuses != null) {
-            fields[x++] = sDeleteListStatuses.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-        if (sNumberNotDeleted != null) {
-            fields[x++] = sNumberNotDeleted.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 34);
-        }
-        if (sBulkStatuses != null) {
-            fields[x++] = sBulkStatuses.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 35);
-        }
-        if (sDeleteMessage != null) {
-            fields[x++] = sDeleteMessage.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 36);
-        }
-        if (sOtherInfo != null) {
-            fields[x] = sOtherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
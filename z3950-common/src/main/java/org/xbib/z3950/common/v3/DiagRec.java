@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>DiagRec</code> from <code>Z39-50-APDU-1995</code>.
@@ -48,19 +49,15 @@ public final class DiagRec extends ASN1Any {
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
         defaultFormat = null;
         externallyDefined = null;
-        try {
+        if (TagLookahead.isDefaultDiagFormat(ber)) {
             defaultFormat = new DefaultDiagFormat(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1External.EXTERNAL_TAG) {
             externallyDefined = new ASN1External(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>ElementSetNames</code> from <code>Z39-50-APDU-1995</code>.
@@ -67,7 +68,7 @@ public final class ElementSetNames extends ASN1Any {
             try {
                 berConstructed = (BERConstructed) berData;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             int numParts = berConstructed.numberComponents();
             int p;
@@ -77,7 +78,7 @@ public final class ElementSetNames extends ASN1Any {
             }
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
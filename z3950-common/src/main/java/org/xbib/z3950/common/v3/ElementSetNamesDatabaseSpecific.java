@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -53,31 +51,7 @@ public final class ElementSetNamesDatabaseSpecific extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        dbName = new DatabaseName(p, true);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        elementSetName = new ElementSetName(p, true);
-        part++;
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data "
-                    + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -101,12 +75,7 @@ public final class ElementSetNamesDatabaseSpecific extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 2;
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        fields[x++] = dbName.berEncode();
-        fields[x] = elementSetName.berEncode();
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
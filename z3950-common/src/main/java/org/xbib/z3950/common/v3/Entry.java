@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>Entry</code> from <code>Z39-50-APDU-1995</code>.
@@ -58,15 +59,15 @@ public final class Entry extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             cSurrogateDiagnostic = new DiagRec(tagwrapper.elementAt(0), true);
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
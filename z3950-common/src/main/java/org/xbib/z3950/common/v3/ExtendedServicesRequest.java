@@ -1,13 +1,11 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -77,135 +75,7 @@ public final class ExtendedServicesRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sReferenceId = new ReferenceId(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sReferenceId = null; // no, not present
-        }
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 3 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_function");
-        }
-        sFunction = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 4 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_packageType");
-        }
-        sPackageType = new ASN1ObjectIdentifier(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 5 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sPackageName = new InternationalString(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 6 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sUserId = new InternationalString(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 7 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sRetentionTime = new IntUnit(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 8 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sPermissions = new Permissions(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 9 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sDescription = new InternationalString(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 10 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sTaskSpecificParameters = new ASN1External(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 11 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in waitAction");
-        }
-        sWaitAction = new ASN1Integer(p, false);
-        part++;
-        sElements = null;
-        sOtherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sElements = new ElementSetName(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sElements = null;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sOtherInfo = new OtherInformation(p, true);
-            part++;
-        } catch (ASN1Exception e) {
-            sOtherInfo = null; // no, not present
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -229,67 +99,7 @@ public final class ExtendedServicesRequest extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 3;
-        if (sReferenceId != null) {
-            numFields++;
-        }
-        if (sPackageName != null) {
-            numFields++;
-        }
-        if (sUserId != null) {
-            numFields++;
-        }
-        if (sRetentionTime != null) {
-            numFields++;
-        }
-        if (sPermissions != null) {
-            numFields++;
-        }
-        if (sDescription != null) {
-            numFields++;
-        }
-        if (sTaskSpecificParameters != null) {
-            numFields++;
-        }
-        if (sElements != null) {
-            numFields++;
-        }
-        if (sOtherInfo != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        if (sReferenceId != null) {
-            fields[x++] = sReferenceId.berEncode();
-        }
-        fields[x++] = sFunction.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 3);
-        fields[x++] = sPackageType.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 4);
-        if (sPackageName != null) {
-            fields[x++] = sPackageName.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 5);
-        }
-        if (sUserId != null) {
-            fields[x++] = sUserId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 6);
-        }
-        if (sRetentionTime != null) {
-            fields[x++] = sRetentionTime.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 7);
-        }
-        if (sPermissions != null) {
-            fields[x++] = sPermissions.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 8);
-        }
-        if (sDescription != null) {
-            fields[x++] = sDescription.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 9);
-        }
-        if (sTaskSpecificParameters != null) {
-            fields[x++] = sTaskSpecificParameters.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 10);
-        }
-        fields[x++] = sWaitAction.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 11);
-        if (sElements != null) {
-            fields[x++] = sElements.berEncode();
-        }
-        if (sOtherInfo != null) {
-            fields[x] = sOtherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,12 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -58,80 +56,7 @@ public final class ExtendedServicesResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sReferenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            sReferenceId = null; // no, not present
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 3 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in operationStatus");
-        }
-        sOperationStatus = new ASN1Integer(p, false);
-        part++;
-        sDiagnostics = null;
-        sTaskPackage = null;
-        sOtherInfo = null;
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 4 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                sDiagnostics = new DiagRec[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    sDiagnostics[n] = new DiagRec(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("Bad BER");
-            }
-            part++;
-        }
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 5 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            sTaskPackage = new ASN1External(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            sOtherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            sOtherInfo = null; // no, not present
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -155,41 +80,7 @@ public final class ExtendedServicesResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 1;
-        if (sReferenceId != null) {
-            numFields++;
-        }
-        if (sDiagnostics != null) {
-            numFields++;
-        }
-        if (sTaskPackage != null) {
-            numFields++;
-        }
-        if (sOtherInfo != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        if (sReferenceId != null) {
-            fields[x++] = sReferenceId.berEncode();
-        }
-        fields[x++] = sOperationStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 3);
-        if (sDiagnostics != null) {
-            f2 = new BEREncoding[sDiagnostics.length];
-            for (p = 0; p < sDiagnostics.length; p++) {
-                f2[p] = sDiagnostics[p].berEncode();
-            }
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 4, f2);
-        }
-        if (sTaskPackage != null) {
-            fields[x++] = sTaskPackage.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 5);
-        }
-        if (sOtherInfo != null) {
-            fields[x] = sOtherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1OctetString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>FragmentSyntax</code> from <code>Z39-50-APDU-1995</code>
@@ -48,19 +49,15 @@ public final class FragmentSyntax extends ASN1Any {
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
         c_externallyTagged = null;
         c_notExternallyTagged = null;
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1External.EXTERNAL_TAG) {
             c_externallyTagged = new ASN1External(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1OctetString.OCTET_STRING_TAG) {
             c_notExternallyTagged = new ASN1OctetString(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        throw new ASN1Exception("FragmentSyntax: bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
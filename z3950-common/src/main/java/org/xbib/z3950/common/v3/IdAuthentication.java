@@ -7,6 +7,7 @@ import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1Null;
 import org.xbib.asn1.ASN1VisibleString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>IdAuthentication</code> from <code>Z39-50-APDU-1995</code>.
@@ -67,38 +68,30 @@ public final class IdAuthentication extends ASN1Any {
         other = null;
 
         // Try choice open
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1VisibleString.TAG) {
             open = new ASN1VisibleString(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
 
         // Try choice idPass
-        try {
+        if (TagLookahead.isIdAuthenticationIdPass(ber)) {
             idPass = new IdAuthenticationIdPass(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
 
         // Try choice anonymous
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1Null.NULL_TAG) {
             anonymous = new ASN1Null(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
 
         // Try choice other
-        try {
+        if (ber.getTagType() == BEREncoding.UNIVERSAL_TAG && ber.getTag() == ASN1External.EXTERNAL_TAG) {
             other = new ASN1External(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
 
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -54,72 +52,7 @@ public final class IdAuthenticationIdPass extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // IdAuthentication_idPass should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("IdAuthentication_idPass: bad BER form\n");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        s_groupId = null;
-        s_userId = null;
-        s_password = null;
-
-        // Decoding: groupId [0] IMPLICIT InternationalString OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 0 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_groupId = new InternationalString(p, false);
-            part++;
-        }
-
-        // Decoding: userId [1] IMPLICIT InternationalString OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_userId = new InternationalString(p, false);
-            part++;
-        }
-
-        // Decoding: password [2] IMPLICIT InternationalString OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 2 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_password = new InternationalString(p, false);
-            part++;
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("IdAuthentication_idPass: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -143,43 +76,7 @@ public final class IdAuthenticationIdPass extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 0; // number of mandatories
-        if (s_groupId != null) {
-            numFields++;
-        }
-        if (s_userId != null) {
-            numFields++;
-        }
-        if (s_password != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_groupId: InternationalString OPTIONAL
-
-        if (s_groupId != null) {
-            fields[x++] = s_groupId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 0);
-        }
-
-        // Encoding s_userId: InternationalString OPTIONAL
-
-        if (s_userId != null) {
-            fields[x++] = s_userId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-
-        // Encoding s_password: InternationalString OPTIONAL
-
-        if (s_password != null) {
-            fields[x] = s_password.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 2);
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,12 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -47,56 +45,7 @@ public final class InfoCategory extends ASN1Any {
      * @throws ASN1Exception if the BER encoding is bad.
      */
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // InfoCategory should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("InfoCategory: bad BER form\n");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: categoryTypeId [1] IMPLICIT OBJECT IDENTIFIER OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("InfoCategory: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_categoryTypeId = new ASN1ObjectIdentifier(p, false);
-            part++;
-        }
-
-        // Decoding: categoryValue [2] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("InfoCategory: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 2 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("InfoCategory: bad tag in s_categoryValue\n");
-        }
-
-        s_categoryValue = new ASN1Integer(p, false);
-        part++;
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("InfoCategory: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -120,29 +69,7 @@ public final class InfoCategory extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (s_categoryTypeId != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_categoryTypeId: OBJECT IDENTIFIER OPTIONAL
-
-        if (s_categoryTypeId != null) {
-            fields[x++] = s_categoryTypeId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-
-        // Encoding s_categoryValue: INTEGER
-
-        fields[x] = s_categoryValue.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 2);
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
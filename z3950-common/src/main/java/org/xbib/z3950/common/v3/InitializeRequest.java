@@ -1,12 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -72,193 +70,7 @@ public final class InitializeRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // InitializeRequest should be encoded by a constructed BER
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-
-        // Decoding: referenceId ReferenceId OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-
-        // Decoding: protocolVersion ProtocolVersion
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        protocolVersion = new ProtocolVersion(p, true);
-        part++;
-
-        // Decoding: options Options
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        options = new Options(p, true);
-        part++;
-
-        // Decoding: preferredMessageSize [5] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 5 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in preferredMessageSize");
-        }
-
-        preferredMessageSize = new ASN1Integer(p, false);
-        part++;
-
-        // Decoding: exceptionalRecordSize [6] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 6 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in exceptionalRecordSize");
-        }
-
-        exceptionalRecordSize = new ASN1Integer(p, false);
-        part++;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        idAuthentication = null;
-        implementationId = null;
-        implementationName = null;
-        implementationVersion = null;
-        userInformationField = null;
-        otherInfo = null;
-
-        // Decoding: idAuthentication [7] EXPLICIT IdAuthentication OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 7 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: idAuthentication tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: idAuthentication tag bad");
-            }
-            idAuthentication = new IdAuthentication(tagged.elementAt(0), true);
-            part++;
-        }
-        // Decoding: implementationId [110] IMPLICIT InternationalString OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 110 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            implementationId = new InternationalString(p, false);
-            part++;
-        }
-        // Decoding: implementationName [111] IMPLICIT InternationalString OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 111 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            implementationName = new InternationalString(p, false);
-            part++;
-        }
-
-        // Decoding: implementationVersion [112] IMPLICIT InternationalString OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 112 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            implementationVersion = new InternationalString(p, false);
-            part++;
-        }
-
-        // Decoding: userInformationField [11] EXPLICIT EXTERNAL OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 11 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: s_userInformationField tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: s_userInformationField tag bad");
-            }
-            userInformationField = new ASN1External(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Decoding: otherInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            otherInfo = null; // no, not present
-        }
-        // Should not be any more parts
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -287,75 +99,7 @@ public final class InitializeRequest extends ASN1Any {
 
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-        int numFields = 4; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (idAuthentication != null) {
-            numFields++;
-        }
-        if (implementationId != null) {
-            numFields++;
-        }
-        if (implementationName != null) {
-            numFields++;
-        }
-        if (implementationVersion != null) {
-            numFields++;
-        }
-        if (userInformationField != null) {
-            numFields++;
-        }
-        if (otherInfo != null) {
-            numFields++;
-        }
-        // Encode it
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding enc[];
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        // Encoding s_protocolVersion: ProtocolVersion
-        fields[x++] = protocolVersion.berEncode();
-        // Encoding s_options: Options
-        fields[x++] = options.berEncode();
-        // Encoding s_preferredMessageSize: INTEGER
-        fields[x++] = preferredMessageSize.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 5);
-        // Encoding s_exceptionalRecordSize: INTEGER
-        fields[x++] = exceptionalRecordSize.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 6);
-        // Encoding s_idAuthentication: IdAuthentication OPTIONAL
-        if (idAuthentication != null) {
-            enc = new BEREncoding[1];
-            enc[0] = idAuthentication.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 7, enc);
-        }
-        // Encoding s_implementationId: InternationalString OPTIONAL
-        if (implementationId != null) {
-            fields[x++] = implementationId.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 110);
-        }
-        // Encoding s_implementationName: InternationalString OPTIONAL
-        if (implementationName != null) {
-            fields[x++] = implementationName.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 111);
-        }
-        // Encoding s_implementationVersion: InternationalString OPTIONAL
-        if (implementationVersion != null) {
-            fields[x++] = implementationVersion.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 112);
-        }
-        // Encoding s_userInformationField: EXTERNAL OPTIONAL
-
-        if (userInformationField != null) {
-            enc = new BEREncoding[1];
-            enc[0] = userInformationField.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 11, enc);
-        }
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-        if (otherInfo != null) {
-            fields[x] = otherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -1,13 +1,10 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>ListStatuses1</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -23,7 +20,6 @@ public final class ListStatuses1 extends ASN1Any {
     public ResultSetId s_id;
     public DeleteSetStatus s_status;
 
-
     /**
      * Constructor for a ListStatuses1 from a BER encoding.
      *
@@ -49,49 +45,7 @@ public final class ListStatuses1 extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // ListStatuses1 should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException
-                    ("ListStatuses1: bad BER form\n");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: id ResultSetId
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("ListStatuses1: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_id = new ResultSetId(p, true);
-        part++;
-
-        // Decoding: status DeleteSetStatus
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("ListStatuses1: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_status = new DeleteSetStatus(p, true);
-        part++;
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("ListStatuses1: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -115,24 +69,7 @@ public final class ListStatuses1 extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 2; // number of mandatories
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_id: ResultSetId
-
-        fields[x++] = s_id.berEncode();
-
-        // Encoding s_status: DeleteSetStatus
-
-        fields[x] = s_status.berEncode();
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
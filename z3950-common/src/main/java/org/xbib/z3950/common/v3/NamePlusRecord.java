@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -53,66 +51,7 @@ public final class NamePlusRecord extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // NamePlusRecord should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-
-        // Decoding: name [0] IMPLICIT DatabaseName OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 0 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            name = new DatabaseName(p, false);
-            part++;
-        }
-
-        // Decoding: record [1] EXPLICIT NamePlusRecord_record
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 1 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in record");
-        }
-
-        try {
-            tagged = (BERConstructed) p;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER encoding: record tag bad");
-        }
-        if (tagged.numberComponents() != 1) {
-            throw new ASN1EncodingException("bad BER encoding: record tag bad");
-        }
-
-        record = new NamePlusRecordRecord(tagged.elementAt(0), true);
-        part++;
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -136,31 +75,7 @@ public final class NamePlusRecord extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (name != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding enc[];
-
-        // Encoding s_name: DatabaseName OPTIONAL
-
-        if (name != null) {
-            fields[x++] = name.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 0);
-        }
-
-        // Encoding s_record: NamePlusRecord_record
-
-        enc = new BEREncoding[1];
-        enc[0] = record.berEncode();
-        fields[x] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 1, enc);
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>NamePlusRecord_record</code> from <code>Z39-50-APDU-1995</code>.
@@ -68,10 +69,10 @@ public final class NamePlusRecordRecord extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             retrievalRecord = new ASN1External(tagwrapper.elementAt(0), true);
             return;
@@ -83,10 +84,10 @@ public final class NamePlusRecordRecord extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             surrogateDiagnostic = new DiagRec(tagwrapper.elementAt(0), true);
             return;
@@ -98,10 +99,10 @@ public final class NamePlusRecordRecord extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             startingFragment = new FragmentSyntax(tagwrapper.elementAt(0), true);
             return;
@@ -113,10 +114,10 @@ public final class NamePlusRecordRecord extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             intermediateFragment = new FragmentSyntax(tagwrapper.elementAt(0), true);
             return;
@@ -128,15 +129,15 @@ public final class NamePlusRecordRecord extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             finalFragment = new FragmentSyntax(tagwrapper.elementAt(0), true);
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
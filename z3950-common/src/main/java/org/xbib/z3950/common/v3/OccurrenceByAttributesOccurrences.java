@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>OccurrenceByAttributes_occurrences</code> from <code>Z39-50-APDU-1995</code>.
@@ -56,10 +57,10 @@ public final class OccurrenceByAttributesOccurrences extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             c_global = new ASN1Integer(tagwrapper.elementAt(0), true);
             return;
@@ -74,7 +75,7 @@ public final class OccurrenceByAttributesOccurrences extends ASN1Any {
             try {
                 berConstructed = (BERConstructed) ber_data;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
 
             int numParts = berConstructed.numberComponents();
@@ -88,7 +89,7 @@ public final class OccurrenceByAttributesOccurrences extends ASN1Any {
             return;
         }
 
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
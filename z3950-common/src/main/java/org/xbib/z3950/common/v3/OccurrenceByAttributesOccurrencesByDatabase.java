@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -51,70 +49,7 @@ public final class OccurrenceByAttributesOccurrencesByDatabase extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // OccurrenceByAttributes_occurrences_byDatabase should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: db DatabaseName
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_db = new DatabaseName(p, true);
-        part++;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        s_num = null;
-        s_otherDbInfo = null;
-
-        // Decoding: num [1] IMPLICIT INTEGER OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_num = new ASN1Integer(p, false);
-            part++;
-        }
-
-        // Decoding: otherDbInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_otherDbInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_otherDbInfo = null; // no, not present
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -138,38 +73,7 @@ public final class OccurrenceByAttributesOccurrencesByDatabase extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (s_num != null) {
-            numFields++;
-        }
-        if (s_otherDbInfo != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_db: DatabaseName
-
-        fields[x++] = s_db.berEncode();
-
-        // Encoding s_num: INTEGER OPTIONAL
-
-        if (s_num != null) {
-            fields[x++] = s_num.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-
-        // Encoding s_otherDbInfo: OtherInformation OPTIONAL
-
-        if (s_otherDbInfo != null) {
-            fields[x] = s_otherDbInfo.berEncode();
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -4,6 +4,7 @@ import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>Operand</code> from <code>Z39-50-APDU-1995</code>.
@@ -56,27 +57,21 @@ public final class Operand extends ASN1Any {
         resultSet = null;
         resultAttr = null;
         // Try choice attrTerm
-        try {
+        if (TagLookahead.isAttributesPlusTerm(ber)) {
             attrTerm = new AttributesPlusTerm(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
         // Try choice resultSet
-        try {
+        if (TagLookahead.isResultSetId(ber)) {
             resultSet = new ResultSetId(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
         // Try choice resultAttr
-        try {
+        if (TagLookahead.isResultSetPlusAttributes(ber)) {
             resultAttr = new ResultSetPlusAttributes(ber, checkTag);
             return;
-        } catch (ASN1Exception e) {
-            // failed to decode, continue on
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Null;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>Operator</code> from <code>Z39-50-APDU-1995</code>.
@@ -109,7 +110,7 @@ public final class Operator extends ASN1Any {
             proxOp = new ProximityOperator(ber, false);
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>OtherInformation</code> from <code>Z39-50-APDU-1995</code>.
@@ -63,7 +64,7 @@ public final class OtherInformation extends ASN1Any {
         try {
             berConstructed = (BERConstructed) ber;
         } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
+            throw StacklessASN1EncodingException.badBerForm();
         }
 
         // Prepare to decode the components
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -46,51 +44,7 @@ public final class OtherInformation1 extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // OtherInformation1 should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("OtherInformation1: bad BER form\n");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: category [1] IMPLICIT InfoCategory OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("OtherInformation1: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            category = new InfoCategory(p, false);
-            part++;
-        }
-
-        // Decoding: information OtherInformation_information
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("OtherInformation1: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        information = new OtherInformationInformation(p, true);
-        part++;
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("OtherInformation1: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -114,29 +68,7 @@ public final class OtherInformation1 extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (category != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_category: InfoCategory OPTIONAL
-
-        if (category != null) {
-            fields[x++] = category.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-
-        // Encoding s_information: OtherInformation_information
-
-        fields[x] = information.berEncode();
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
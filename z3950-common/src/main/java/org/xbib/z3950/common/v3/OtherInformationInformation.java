@@ -7,6 +7,7 @@ import org.xbib.asn1.ASN1External;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1OctetString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -87,7 +88,7 @@ public final class OtherInformationInformation extends ASN1Any {
             return;
         }
 
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
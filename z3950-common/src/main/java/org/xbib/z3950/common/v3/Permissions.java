@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -49,7 +50,7 @@ public final class Permissions extends ASN1Any {
         try {
             berConstructed = (BERConstructed) ber;
         } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
+            throw StacklessASN1EncodingException.badBerForm();
         }
         int numParts = berConstructed.numberComponents();
         value = new Permissions1[numParts];
@@ -1,15 +1,12 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>PresentRequest</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -74,156 +71,7 @@ public final class PresentRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // PresentRequest should be encoded by a constructed BER
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        // Prepare to decode the components
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        // Decoding: referenceId ReferenceId OPTIONAL
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-        // Decoding: resultSetId ResultSetId
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        resultSetId = new ResultSetId(p, true);
-        part++;
-        // Decoding: resultSetStartPoint [30] IMPLICIT INTEGER
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 30 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in resultSetStartPoint\n");
-        }
-        resultSetStartPoint = new ASN1Integer(p, false);
-        part++;
-        // Decoding: numberOfRecordsRequested [29] IMPLICIT INTEGER
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 29 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("PresentRequest: bad tag in numberOfRecordsRequested");
-        }
-        numberOfRecordsRequested = new ASN1Integer(p, false);
-        part++;
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-        additionalRanges = null;
-        recordComposition = null;
-        preferredRecordSyntax = null;
-        maxSegmentCount = null;
-        maxRecordSize = null;
-        maxSegmentSize = null;
-        otherInfo = null;
-        // Decoding: additionalRanges [212] IMPLICIT SEQUENCE OF Range OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 212 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                BERConstructed cons = (BERConstructed) p;
-                int parts = cons.numberComponents();
-                additionalRanges = new Range[parts];
-                int n;
-                for (n = 0; n < parts; n++) {
-                    additionalRanges[n] = new Range(cons.elementAt(n), true);
-                }
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER");
-            }
-            part++;
-        }
-        // Decoding: recordComposition PresentRequest_recordComposition OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            recordComposition = new PresentRequestRecordComposition(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            recordComposition = null; // no, not present
-        }
-        // Decoding: preferredRecordSyntax [104] IMPLICIT OBJECT IDENTIFIER OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 104 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            preferredRecordSyntax = new ASN1ObjectIdentifier(p, false);
-            part++;
-        }
-        // Decoding: maxSegmentCount [204] IMPLICIT INTEGER OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 204 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            maxSegmentCount = new ASN1Integer(p, false);
-            part++;
-        }
-        // Decoding: maxRecordSize [206] IMPLICIT INTEGER OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 206 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            maxRecordSize = new ASN1Integer(p, false);
-            part++;
-        }
-        // Decoding: maxSegmentSize [207] IMPLICIT INTEGER OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 207 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            maxSegmentSize = new ASN1Integer(p, false);
-            part++;
-        }
-        // Decoding: otherInfo OtherInformation OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            otherInfo = null; // no, not present
-        }
-        // Should not be any more parts
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -247,80 +95,7 @@ public final class PresentRequest extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-        int numFields = 3; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (additionalRanges != null) {
-            numFields++;
-        }
-        if (recordComposition != null) {
-            numFields++;
-        }
-        if (preferredRecordSyntax != null) {
-            numFields++;
-        }
-        if (maxSegmentCount != null) {
-            numFields++;
-        }
-        if (maxRecordSize != null) {
-            numFields++;
-        }
-        if (maxSegmentSize != null) {
-            numFields++;
-        }
-        if (otherInfo != null) {
-            numFields++;
-        }
-        // Encode it
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        // Encoding s_resultSetId: ResultSetId
-        fields[x++] = resultSetId.berEncode();
-        // Encoding s_resultSetStartPoint: INTEGER
-        fields[x++] = resultSetStartPoint.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 30);
-        // Encoding s_numberOfRecordsRequested: INTEGER
-        fields[x++] = numberOfRecordsRequested.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 29);
-        // Encoding s_additionalRanges: SEQUENCE OF OPTIONAL
-        if (additionalRanges != null) {
-            f2 = new BEREncoding[additionalRanges.length];
-            for (p = 0; p < additionalRanges.length; p++) {
-                f2[p] = additionalRanges[p].berEncode();
-            }
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 212, f2);
-        }
-        // Encoding s_recordComposition: PresentRequest_recordComposition OPTIONAL
-        if (recordComposition != null) {
-            fields[x++] = recordComposition.berEncode();
-        }
-        // Encoding s_preferredRecordSyntax: OBJECT IDENTIFIER OPTIONAL
-        if (preferredRecordSyntax != null) {
-            fields[x++] = preferredRecordSyntax.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 104);
-        }
-        // Encoding s_maxSegmentCount: INTEGER OPTIONAL
-        if (maxSegmentCount != null) {
-            fields[x++] = maxSegmentCount.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 204);
-        }
-        // Encoding s_maxRecordSize: INTEGER OPTIONAL
-        if (maxRecordSize != null) {
-            fields[x++] = maxRecordSize.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 206);
-        }
-        // Encoding s_maxSegmentSize: INTEGER OPTIONAL
-        if (maxSegmentSize != null) {
-            fields[x++] = maxSegmentSize.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 207);
-        }
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-        if (otherInfo != null) {
-            fields[x] = otherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -61,10 +62,10 @@ public final class PresentRequestRecordComposition extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             simple = new ElementSetNames(tagwrapper.elementAt(0), true);
             return;
@@ -74,7 +75,7 @@ public final class PresentRequestRecordComposition extends ASN1Any {
             complex = new CompSpec(ber, false);
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
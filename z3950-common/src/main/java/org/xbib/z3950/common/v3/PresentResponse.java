@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -55,91 +53,7 @@ public final class PresentResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // PresentResponse should be encoded by a constructed BER
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        // Prepare to decode the components
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        // Decoding: referenceId ReferenceId OPTIONAL
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-        // Decoding: numberOfRecordsReturned [24] IMPLICIT INTEGER
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("PresentResponse: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 24 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_numberOfRecordsReturned");
-        }
-        numberOfRecordsReturned = new ASN1Integer(p, false);
-        part++;
-        // Decoding: nextResultSetPosition [25] IMPLICIT INTEGER
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 25 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_nextResultSetPosition\n");
-        }
-        nextResultSetPosition = new ASN1Integer(p, false);
-        part++;
-        // Decoding: presentStatus PresentStatus
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        presentStatus = new PresentStatus(p, true);
-        part++;
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-        records = null;
-        otherInfo = null;
-        // Decoding: records Records OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            records = new Records(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            records = null; // no, not present
-        }
-        // Decoding: otherInfo OtherInformation OPTIONAL
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            otherInfo = null; // no, not present
-        }
-        // Should not be any more parts
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -164,39 +78,7 @@ public final class PresentResponse extends ASN1Any {
 
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-        int numFields = 3; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (records != null) {
-            numFields++;
-        }
-        if (otherInfo != null) {
-            numFields++;
-        }
-        // Encode it
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        // Encoding s_numberOfRecordsReturned: INTEGER
-        fields[x++] = numberOfRecordsReturned.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 24);
-        // Encoding s_nextResultSetPosition: INTEGER
-        fields[x++] = nextResultSetPosition.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 25);
-        // Encoding s_presentStatus: PresentStatus
-        fields[x++] = presentStatus.berEncode();
-        // Encoding s_records: Records OPTIONAL
-        if (records != null) {
-            fields[x++] = records.berEncode();
-        }
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-        if (otherInfo != null) {
-            fields[x] = otherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
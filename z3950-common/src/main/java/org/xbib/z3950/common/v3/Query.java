@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1OctetString;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -151,7 +152,7 @@ public final class Query extends ASN1Any {
             c_type_102 = new ASN1OctetString(tagwrapper.elementAt(0), true);
             return;
         }
-        throw new ASN1Exception("Query: bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
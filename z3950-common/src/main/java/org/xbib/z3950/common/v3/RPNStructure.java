@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>RPNStructure</code> from <code>Z39-50-APDU-1995</code>.
@@ -75,7 +76,7 @@ public final class RPNStructure extends ASN1Any {
             c_rpnRpnOp = new RPNStructureRpnRpnOp(ber, false);
             return;
         }
-        throw new ASN1Exception("RPNStructure: bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -1,10 +1,8 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -54,59 +52,7 @@ public final class RPNStructureRpnRpnOp extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // RPNStructure_rpnRpnOp should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: rpn1 RPNStructure
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_rpn1 = new RPNStructure(p, true);
-        part++;
-
-        // Decoding: rpn2 RPNStructure
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_rpn2 = new RPNStructure(p, true);
-        part++;
-
-        // Decoding: op Operator
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        s_op = new Operator(p, true);
-        part++;
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -130,28 +76,7 @@ public final class RPNStructureRpnRpnOp extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 3; // number of mandatories
-
-        // Encode it
-
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_rpn1: RPNStructure
-
-        fields[x++] = s_rpn1.berEncode();
-
-        // Encoding s_rpn2: RPNStructure
-
-        fields[x++] = s_rpn2.berEncode();
-
-        // Encoding s_op: Operator
-
-        fields[x] = s_op.berEncode();
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>Records</code> from <code>Z39-50-APDU-1995</code>.
@@ -106,7 +107,7 @@ public final class Records extends ASN1Any {
             }
             return;
         }
-        throw new ASN1Exception("Records: bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -2,10 +2,8 @@ package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1Boolean;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -57,90 +55,7 @@ public final class ResourceControlResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // ResourceControlResponse should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: referenceId ReferenceId OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_referenceId = null; // no, not present
-        }
-
-        // Decoding: continueFlag [44] IMPLICIT BOOLEAN
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 44 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in continueFlag");
-        }
-
-        s_continueFlag = new ASN1Boolean(p, false);
-        part++;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        s_resultSetWanted = null;
-        s_otherInfo = null;
-
-        // Decoding: resultSetWanted [45] IMPLICIT BOOLEAN OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 45 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_resultSetWanted = new ASN1Boolean(p, false);
-            part++;
-        }
-
-        // Decoding: otherInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_otherInfo = null; // no, not present
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -164,47 +79,7 @@ public final class ResourceControlResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (s_referenceId != null) {
-            numFields++;
-        }
-        if (s_resultSetWanted != null) {
-            numFields++;
-        }
-        if (s_otherInfo != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-
-        if (s_referenceId != null) {
-            fields[x++] = s_referenceId.berEncode();
-        }
-
-        // Encoding s_continueFlag: BOOLEAN
-
-        fields[x++] = s_continueFlag.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 44);
-
-        // Encoding s_resultSetWanted: BOOLEAN OPTIONAL
-
-        if (s_resultSetWanted != null) {
-            fields[x++] = s_resultSetWanted.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 45);
-        }
-
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-
-        if (s_otherInfo != null) {
-            fields[x] = s_otherInfo.berEncode();
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
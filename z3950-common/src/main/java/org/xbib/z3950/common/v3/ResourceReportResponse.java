@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -66,100 +64,7 @@ public final class ResourceReportResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // ResourceReportResponse should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("ResourceReportResponse: bad BER form\n");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-
-        // Decoding: referenceId ReferenceId OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("ResourceReportResponse: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_referenceId = null; // no, not present
-        }
-
-        // Decoding: resourceReportStatus [50] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("ResourceReportResponse: incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 50 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("ResourceReportResponse: bad tag in s_resourceReportStatus\n");
-        }
-
-        s_resourceReportStatus = new ASN1Integer(p, false);
-        part++;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        s_resourceReport = null;
-        s_otherInfo = null;
-
-        // Decoding: resourceReport [51] EXPLICIT ResourceReport OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 51 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("ResourceReportResponse: bad BER encoding: s_resourceReport tag bad\n");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("ResourceReportResponse: bad BER encoding: s_resourceReport tag bad\n");
-            }
-
-            s_resourceReport = new ResourceReport(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Decoding: otherInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_otherInfo = null; // no, not present
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("ResourceReportResponse: bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -183,50 +88,7 @@ public final class ResourceReportResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 1; // number of mandatories
-        if (s_referenceId != null) {
-            numFields++;
-        }
-        if (s_resourceReport != null) {
-            numFields++;
-        }
-        if (s_otherInfo != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding[] enc;
-
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-
-        if (s_referenceId != null) {
-            fields[x++] = s_referenceId.berEncode();
-        }
-
-        // Encoding s_resourceReportStatus: INTEGER
-
-        fields[x++] = s_resourceReportStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 50);
-
-        // Encoding s_resourceReport: ResourceReport OPTIONAL
-
-        if (s_resourceReport != null) {
-            enc = new BEREncoding[1];
-            enc[0] = s_resourceReport.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 51, enc);
-        }
-
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-
-        if (s_otherInfo != null) {
-            fields[x] = s_otherInfo.berEncode();
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     @Override
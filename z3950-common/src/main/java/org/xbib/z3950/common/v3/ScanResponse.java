@@ -1,14 +1,11 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>ScanResponse</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -68,148 +65,7 @@ public final class ScanResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // ScanResponse should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-
-        // Decoding: referenceId ReferenceId OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-
-        // Decoding: stepSize [3] IMPLICIT INTEGER OPTIONAL
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 3 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            stepSize = new ASN1Integer(p, false);
-            part++;
-        }
-
-        // Decoding: scanStatus [4] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 4 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in scanStatus");
-        }
-
-        scanStatus = new ASN1Integer(p, false);
-        part++;
-
-        // Decoding: numberOfEntriesReturned [5] IMPLICIT INTEGER
-
-        if (numParts <= part) {
-            // End of record, but still more elements to get
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() != 5 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in numberOfEntriesReturned");
-        }
-
-        numberOfEntriesReturned = new ASN1Integer(p, false);
-        part++;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        positionOfTerm = null;
-        entries = null;
-        attributeSet = null;
-        otherInfo = null;
-
-        // Decoding: positionOfTerm [6] IMPLICIT INTEGER OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 6 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            positionOfTerm = new ASN1Integer(p, false);
-            part++;
-        }
-
-        // Decoding: entries [7] IMPLICIT ListEntries OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 7 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            entries = new ListEntries(p, false);
-            part++;
-        }
-
-        // Decoding: attributeSet [8] IMPLICIT AttributeSetId OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 8 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            attributeSet = new AttributeSetId(p, false);
-            part++;
-        }
-
-        // Decoding: otherInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            otherInfo = null; // no, not present
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -233,78 +89,7 @@ public final class ScanResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 2; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (stepSize != null) {
-            numFields++;
-        }
-        if (positionOfTerm != null) {
-            numFields++;
-        }
-        if (entries != null) {
-            numFields++;
-        }
-        if (attributeSet != null) {
-            numFields++;
-        }
-        if (otherInfo != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-
-        // Encoding s_stepSize: INTEGER OPTIONAL
-
-        if (stepSize != null) {
-            fields[x++] = stepSize.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 3);
-        }
-
-        // Encoding s_scanStatus: INTEGER
-
-        fields[x++] = scanStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 4);
-
-        // Encoding s_numberOfEntriesReturned: INTEGER
-
-        fields[x++] = numberOfEntriesReturned.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 5);
-
-        // Encoding s_positionOfTerm: INTEGER OPTIONAL
-
-        if (positionOfTerm != null) {
-            fields[x++] = positionOfTerm.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 6);
-        }
-
-        // Encoding s_entries: ListEntries OPTIONAL
-
-        if (entries != null) {
-            fields[x++] = entries.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 7);
-        }
-
-        // Encoding s_attributeSet: AttributeSetId OPTIONAL
-
-        if (attributeSet != null) {
-            fields[x++] = attributeSet.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 8);
-        }
-
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-
-        if (otherInfo != null) {
-            fields[x] = otherInfo.berEncode();
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -2,15 +2,12 @@ package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1Boolean;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>SearchRequest</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -40,11 +37,11 @@ public final class SearchRequest extends ASN1Any {
     public ASN1Boolean replaceIndicator;
     public InternationalString resultSetName;
     public DatabaseName[] databaseNames;
-    private ElementSetNames smallSetElementSetNames; // optional
-    private ElementSetNames mediumSetElementSetNames; // optional
-    private ASN1ObjectIdentifier preferredRecordSyntax; // optional
+    public ElementSetNames smallSetElementSetNames; // optional
+    public ElementSetNames mediumSetElementSetNames; // optional
+    public ASN1ObjectIdentifier preferredRecordSyntax; // optional
     public Query query;
-    private OtherInformation additionalSearchInfo; // optional
+    public OtherInformation additionalSearchInfo; // optional
     public OtherInformation otherInfo; // optional
 
     /**
@@ -77,182 +74,7 @@ public final class SearchRequest extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 13 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_smallSetUpperBound");
-        }
-        smallSetUpperBound = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 14 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_largeSetLowerBound");
-        }
-        largeSetLowerBound = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 15 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_mediumSetPresentNumber");
-        }
-        mediumSetPresentNumber = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 16 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_replaceIndicator");
-        }
-        replaceIndicator = new ASN1Boolean(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 17 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_resultSetName");
-        }
-        resultSetName = new InternationalString(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 18 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_databaseNames");
-        }
-        try {
-            BERConstructed cons = (BERConstructed) p;
-            int parts = cons.numberComponents();
-            databaseNames = new DatabaseName[parts];
-            int n;
-            for (n = 0; n < parts; n++) {
-                databaseNames[n] = new DatabaseName(cons.elementAt(n), true);
-            }
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER");
-        }
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 100 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: s_smallSetElementSetNames tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: s_smallSetElementSetNames tag bad");
-            }
-            smallSetElementSetNames = new ElementSetNames(tagged.elementAt(0), true);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 101 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: mediumSetElementSetNames tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: mediumSetElementSetNames tag bad");
-            }
-            mediumSetElementSetNames = new ElementSetNames(tagged.elementAt(0), true);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 104 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            preferredRecordSyntax = new ASN1ObjectIdentifier(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 21 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in query");
-        }
-        try {
-            tagged = (BERConstructed) p;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER encoding: query tag bad");
-        }
-        if (tagged.numberComponents() != 1) {
-            throw new ASN1EncodingException("bad BER encoding: query tag bad");
-        }
-        query = new Query(tagged.elementAt(0), true);
-        part++;
-        additionalSearchInfo = null;
-        otherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 203 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            additionalSearchInfo = new OtherInformation(p, false);
-            part++;
-        }
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            otherInfo = null; // no, not present
-        }
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -276,66 +98,7 @@ public final class SearchRequest extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        int numFields = 7; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (smallSetElementSetNames != null) {
-            numFields++;
-        }
-        if (mediumSetElementSetNames != null) {
-            numFields++;
-        }
-        if (preferredRecordSyntax != null) {
-            numFields++;
-        }
-        if (additionalSearchInfo != null) {
-            numFields++;
-        }
-        if (otherInfo != null) {
-            numFields++;
-        }
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding f2[];
-        int p;
-        BEREncoding enc[];
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-        fields[x++] = smallSetUpperBound.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 13);
-        fields[x++] = largeSetLowerBound.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 14);
-        fields[x++] = mediumSetPresentNumber.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 15);
-        fields[x++] = replaceIndicator.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 16);
-        fields[x++] = resultSetName.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 17);
-        f2 = new BEREncoding[databaseNames.length];
-        for (p = 0; p < databaseNames.length; p++) {
-            f2[p] = databaseNames[p].berEncode();
-        }
-        fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 18, f2);
-        if (smallSetElementSetNames != null) {
-            enc = new BEREncoding[1];
-            enc[0] = smallSetElementSetNames.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 100, enc);
-        }
-        if (mediumSetElementSetNames != null) {
-            enc = new BEREncoding[1];
-            enc[0] = mediumSetElementSetNames.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 101, enc);
-        }
-        if (preferredRecordSyntax != null) {
-            fields[x++] = preferredRecordSyntax.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 104);
-        }
-        enc = new BEREncoding[1];
-        enc[0] = query.berEncode();
-        fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 21, enc);
-        if (additionalSearchInfo != null) {
-            fields[x++] = additionalSearchInfo.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 203);
-        }
-        if (otherInfo != null) {
-            fields[x] = otherInfo.berEncode();
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
@@ -2,11 +2,9 @@ package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1Boolean;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -68,141 +66,7 @@ public final class SearchResponse extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        try {
-            referenceId = new ReferenceId(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            referenceId = null; // no, not present
-        }
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 23 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_resultCount");
-        }
-        resultCount = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 24 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_numberOfRecordsReturned");
-        }
-        numberOfRecordsReturned = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 25 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_nextResultSetPosition");
-        }
-        nextResultSetPosition = new ASN1Integer(p, false);
-        part++;
-        if (numParts <= part) {
-            throw new ASN1Exception("incomplete");
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() != 22 ||
-                p.getTagType() != BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            throw new ASN1EncodingException("bad tag in s_searchStatus");
-        }
-        s_searchStatus = new ASN1Boolean(p, false);
-        part++;
-        s_resultSetStatus = null;
-        s_presentStatus = null;
-        s_records = null;
-        s_additionalSearchInfo = null;
-        s_otherInfo = null;
-        if (numParts <= part) {
-            return;
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 26 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_resultSetStatus = new ASN1Integer(p, false);
-            part++;
-        }
-
-        // Decoding: presentStatus PresentStatus OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_presentStatus = new PresentStatus(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_presentStatus = null; // no, not present
-        }
-
-        // Decoding: records Records OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_records = new Records(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_records = null; // no, not present
-        }
-
-        // Decoding: additionalSearchInfo [203] IMPLICIT OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 203 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_additionalSearchInfo = new OtherInformation(p, false);
-            part++;
-        }
-
-        // Decoding: otherInfo OtherInformation OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        try {
-            s_otherInfo = new OtherInformation(p, true);
-            part++; // yes, consumed
-        } catch (ASN1Exception e) {
-            s_otherInfo = null; // no, not present
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -226,85 +90,7 @@ public final class SearchResponse extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-        int numFields = 4; // number of mandatories
-        if (referenceId != null) {
-            numFields++;
-        }
-        if (s_resultSetStatus != null) {
-            numFields++;
-        }
-        if (s_presentStatus != null) {
-            numFields++;
-        }
-        if (s_records != null) {
-            numFields++;
-        }
-        if (s_additionalSearchInfo != null) {
-            numFields++;
-        }
-        if (s_otherInfo != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-
-        // Encoding s_referenceId: ReferenceId OPTIONAL
-
-        if (referenceId != null) {
-            fields[x++] = referenceId.berEncode();
-        }
-
-        // Encoding s_resultCount: INTEGER
-
-        fields[x++] = resultCount.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 23);
-
-        // Encoding s_numberOfRecordsReturned: INTEGER
-
-        fields[x++] = numberOfRecordsReturned.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 24);
-
-        // Encoding s_nextResultSetPosition: INTEGER
-
-        fields[x++] = nextResultSetPosition.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 25);
-
-        // Encoding s_searchStatus: BOOLEAN
-
-        fields[x++] = s_searchStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 22);
-
-        // Encoding s_resultSetStatus: INTEGER OPTIONAL
-
-        if (s_resultSetStatus != null) {
-            fields[x++] = s_resultSetStatus.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 26);
-        }
-
-        // Encoding s_presentStatus: PresentStatus OPTIONAL
-
-        if (s_presentStatus != null) {
-            fields[x++] = s_presentStatus.berEncode();
-        }
-
-        // Encoding s_records: Records OPTIONAL
-
-        if (s_records != null) {
-            fields[x++] = s_records.berEncode();
-        }
-
-        // Encoding s_additionalSearchInfo: OtherInformation OPTIONAL
-
-        if (s_additionalSearchInfo != null) {
-            fields[x++] = s_additionalSearchInfo.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 203);
-        }
-
-        // Encoding s_otherInfo: OtherInformation OPTIONAL
-
-        if (s_otherInfo != null) {
-            fields[x] = s_otherInfo.berEncode();
-        }
-
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
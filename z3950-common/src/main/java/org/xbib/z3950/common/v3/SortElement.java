@@ -5,6 +5,7 @@ import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -64,10 +65,10 @@ public final class SortElement extends ASN1Any {
             try {
                 tagwrapper = (BERConstructed) ber;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             if (tagwrapper.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
             c_generic = new SortKey(tagwrapper.elementAt(0), true);
             return;
@@ -82,7 +83,7 @@ public final class SortElement extends ASN1Any {
             try {
                 berConstructed = (BERConstructed) ber_data;
             } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER form");
+                throw StacklessASN1EncodingException.badBerForm();
             }
 
             int numParts = berConstructed.numberComponents();
@@ -96,7 +97,7 @@ public final class SortElement extends ASN1Any {
             return;
         }
 
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
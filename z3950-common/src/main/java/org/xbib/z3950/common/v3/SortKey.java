@@ -4,6 +4,7 @@ import org.xbib.asn1.ASN1Any;
 import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 
 /**
@@ -68,7 +69,7 @@ public final class SortKey extends ASN1Any {
             c_sortAttributes = new SortKeySortAttributes(ber, false);
             return;
         }
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -6,6 +6,7 @@ import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Null;
 import org.xbib.asn1.ASN1OctetString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>SortKeySpec_missingValueAction</code> from <code>Z39-50-APDU-1995</code>.
@@ -78,7 +79,7 @@ public final class SortKeySpecMissingValueAction extends ASN1Any {
             return;
         }
 
-        throw new ASN1Exception("bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -1,14 +1,11 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
-
 /**
  * Class for representing a <code>Specification</code> from <code>Z39-50-APDU-1995</code>.
  * <pre>
@@ -51,68 +48,7 @@ public final class Specification extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        // Specification should be encoded by a constructed BER
-
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("bad BER form");
-        }
-
-        // Prepare to decode the components
-
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-
-        // Remaining elements are optional, set variables
-        // to null (not present) so can return at endStream of BER
-
-        s_schema = null;
-        s_elementSpec = null;
-
-        // Decoding: schema [1] IMPLICIT OBJECT IDENTIFIER OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_schema = new ASN1ObjectIdentifier(p, false);
-            part++;
-        }
-
-        // Decoding: elementSpec [2] EXPLICIT Specification_elementSpec OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 2 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: elementSpec tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: elementSpec tag bad");
-            }
-
-            s_elementSpec = new SpecificationElementSpec(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -136,36 +72,7 @@ public final class Specification extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 0; // number of mandatories
-        if (s_schema != null) {
-            numFields++;
-        }
-        if (s_elementSpec != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding[] fields = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding[] enc;
-
-        // Encoding s_schema: OBJECT IDENTIFIER OPTIONAL
-
-        if (s_schema != null) {
-            fields[x++] = s_schema.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 1);
-        }
-
-        // Encoding s_elementSpec: Specification_elementSpec OPTIONAL
-
-        if (s_elementSpec != null) {
-            enc = new BEREncoding[1];
-            enc[0] = s_elementSpec.berEncode();
-            fields[x] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 2, enc);
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
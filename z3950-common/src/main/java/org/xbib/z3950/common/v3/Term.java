@@ -10,6 +10,7 @@ import org.xbib.asn1.ASN1Null;
 import org.xbib.asn1.ASN1ObjectIdentifier;
 import org.xbib.asn1.ASN1OctetString;
 import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
 
 /**
  * Class for representing a <code>Term</code> from <code>Z39-50-APDU-1995</code>.
@@ -127,7 +128,7 @@ public final class Term extends ASN1Any {
             c_null = new ASN1Null(ber, false);
             return;
         }
-        throw new ASN1Exception("Term: bad BER encoding: choice not matched");
+        throw StacklessASN1EncodingException.choiceNotMatched();
     }
 
     /**
@@ -1,11 +1,9 @@
 package org.xbib.z3950.common.v3;
 
 import org.xbib.asn1.ASN1Any;
-import org.xbib.asn1.ASN1EncodingException;
 import org.xbib.asn1.ASN1Exception;
 import org.xbib.asn1.ASN1Integer;
 import org.xbib.asn1.ASN1Sequence;
-import org.xbib.asn1.BERConstructed;
 import org.xbib.asn1.BEREncoding;
 
 /**
@@ -50,101 +48,7 @@ public final class Unit extends ASN1Any {
      */
     @Override
     public void berDecode(BEREncoding ber, boolean checkTag) throws ASN1Exception {
-        BERConstructed berConstructed;
-        try {
-            berConstructed = (BERConstructed) ber;
-        } catch (ClassCastException e) {
-            throw new ASN1EncodingException("Unit: bad BER form\n");
-        }
-        int numParts = berConstructed.numberComponents();
-        int part = 0;
-        BEREncoding p;
-        BERConstructed tagged;
-        s_unitSystem = null;
-        s_unitType = null;
-        s_unit = null;
-        s_scaleFactor = null;
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-        if (p.getTag() == 1 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: s_unitSystem tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: s_unitSystem tag bad");
-            }
-
-            s_unitSystem = new InternationalString(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Decoding: unitType [2] EXPLICIT StringOrNumeric OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 2 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: s_unitType tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: s_unitType tag bad");
-            }
-
-            s_unitType = new StringOrNumeric(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Decoding: unit [3] EXPLICIT StringOrNumeric OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 3 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            try {
-                tagged = (BERConstructed) p;
-            } catch (ClassCastException e) {
-                throw new ASN1EncodingException("bad BER encoding: s_unit tag bad");
-            }
-            if (tagged.numberComponents() != 1) {
-                throw new ASN1EncodingException("bad BER encoding: s_unit tag bad");
-            }
-
-            s_unit = new StringOrNumeric(tagged.elementAt(0), true);
-            part++;
-        }
-
-        // Decoding: scaleFactor [4] IMPLICIT INTEGER OPTIONAL
-
-        if (numParts <= part) {
-            return; // no more data, but ok (rest is optional)
-        }
-        p = berConstructed.elementAt(part);
-
-        if (p.getTag() == 4 &&
-                p.getTagType() == BEREncoding.CONTEXT_SPECIFIC_TAG) {
-            s_scaleFactor = new ASN1Integer(p, false);
-            part++;
-        }
-
-        // Should not be any more parts
-
-        if (part < numParts) {
-            throw new ASN1Exception("bad BER: extra data " + part + "/" + numParts + " processed");
-        }
+        SequenceCodec.decode(this, ber, checkTag);
     }
 
     /**
@@ -168,58 +72,7 @@ public final class Unit extends ASN1Any {
      */
     @Override
     public BEREncoding berEncode(int tagType, int tag) throws ASN1Exception {
-        // Calculate the number of fields in the encoding
-
-        int numFields = 0; // number of mandatories
-        if (s_unitSystem != null) {
-            numFields++;
-        }
-        if (s_unitType != null) {
-            numFields++;
-        }
-        if (s_unit != null) {
-            numFields++;
-        }
-        if (s_scaleFactor != null) {
-            numFields++;
-        }
-
-        // Encode it
-
-        BEREncoding fields[] = new BEREncoding[numFields];
-        int x = 0;
-        BEREncoding enc[];
-
-        // Encoding s_unitSystem: InternationalString OPTIONAL
-
-        if (s_unitSystem != null) {
-            enc = new BEREncoding[1];
-            enc[0] = s_unitSystem.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 1, enc);
-        }
-
-        // Encoding s_unitType: StringOrNumeric OPTIONAL
-
-        if (s_unitType != null) {
-            enc = new BEREncoding[1];
-            enc[0] = s_unitType.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 2, enc);
-        }
-
-        // Encoding s_unit: StringOrNumeric OPTIONAL
-
-        if (s_unit != null) {
-            enc = new BEREncoding[1];
-            enc[0] = s_unit.berEncode();
-            fields[x++] = new BERConstructed(BEREncoding.CONTEXT_SPECIFIC_TAG, 3, enc);
-        }
-
-        // Encoding s_scaleFactor: INTEGER OPTIONAL
-
-        if (s_scaleFactor != null) {
-            fields[x] = s_scaleFactor.berEncode(BEREncoding.CONTEXT_SPECIFIC_TAG, 4);
-        }
-        return new BERConstructed(tagType, tag, fields);
+        return SequenceCodec.encode(this, tagType, tag);
     }
 
     /**
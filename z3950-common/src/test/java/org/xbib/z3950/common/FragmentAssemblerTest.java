@@ -0,0 +1,74 @@
+package org.xbib.z3950.common;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.z3950.api.Record;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reassembly of fragmented records.
+ */
+class FragmentAssemblerTest {
+
+    @Test
+    void testInMemory() throws IOException {
+        try (FragmentAssembler assembler = new FragmentAssembler()) {
+            byte[] data = "xxHello, World".getBytes(StandardCharsets.US_ASCII);
+            assembler.start(data, 2, 5);
+            assembler.append(data, 7, 2);
+            assembler.append(data, 9, 5);
+            Record record = assembler.finish(7);
+            assertFalse(assembler.isActive());
+            assertTrue(record instanceof DefaultRecord);
+            assertEquals(7, record.getNumber());
+            assertEquals("Hello, World", record.toString(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void testSpill() throws IOException {
+        byte[] fragment = new byte[100];
+        for (int i = 0; i < fragment.length; i++) {
+            fragment[i] = (byte) i;
+        }
+        try (FragmentAssembler assembler = new FragmentAssembler(250)) {
+            assembler.start(fragment, 0, fragment.length);
+            for (int i = 0; i < 4; i++) {
+                assembler.append(fragment, 0, fragment.length);
+            }
+            Path path;
+            try (FileRecord record = (FileRecord) assembler.finish(1)) {
+                path = record.getPath();
+                assertEquals(500, record.getLength());
+                assertEquals(500, Files.size(record.getPath()));
+                try (InputStream in = record.asStream()) {
+                    byte[] b = in.readAllBytes();
+                    for (int i = 0; i < 5; i++) {
+                        byte[] part = new byte[fragment.length];
+                        System.arraycopy(b, i * fragment.length, part, 0, fragment.length);
+                        assertArrayEquals(fragment, part);
+                    }
+                }
+            }
+            assertFalse(Files.exists(path));
+        }
+    }
+
+    @Test
+    void testFragmentWithoutStart() {
+        try (FragmentAssembler assembler = new FragmentAssembler()) {
+            assertThrows(IOException.class, () -> assembler.append(new byte[1], 0, 1));
+            assertThrows(IOException.class, () -> assembler.finish(1));
+        }
+    }
+}
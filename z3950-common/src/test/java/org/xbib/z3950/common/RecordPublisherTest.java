@@ -0,0 +1,123 @@
+package org.xbib.z3950.common;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.api.RecordListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Demand driven presents of a record publisher.
+ */
+class RecordPublisherTest {
+
+    @Test
+    void testPresentOnDemand() {
+        ResultSet resultSet = new ResultSet(7);
+        RecordPublisher publisher = new RecordPublisher(Runnable::run, resultSet, 1, 0, 3);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        assertEquals(0, resultSet.searches);
+        collector.subscription.request(2);
+        assertEquals(1, resultSet.searches);
+        assertEquals(List.of("1+2"), resultSet.presents);
+        assertEquals(2, collector.records.size());
+        collector.subscription.request(5);
+        assertEquals(List.of("1+2", "3+3", "6+2"), resultSet.presents);
+        assertEquals(7, collector.records.size());
+        assertEquals(7, collector.records.get(6).getNumber());
+        assertTrue(collector.complete);
+        assertNull(collector.error);
+        assertFalse(resultSet.released);
+    }
+
+    @Test
+    void testCancel() {
+        ResultSet resultSet = new ResultSet(100);
+        RecordPublisher publisher = new RecordPublisher(Runnable::run, resultSet, 11, 20, 50);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        collector.subscription.request(4);
+        collector.subscription.cancel();
+        collector.subscription.request(4);
+        assertEquals(List.of("11+4"), resultSet.presents);
+        assertEquals(4, collector.records.size());
+        assertFalse(collector.complete);
+        assertTrue(resultSet.released);
+    }
+
+    private static class ResultSet implements RecordPublisher.Source {
+
+        private final int count;
+
+        private final List<String> presents = new ArrayList<>();
+
+        private int searches;
+
+        private boolean released;
+
+        ResultSet(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int search() {
+            searches++;
+            return count;
+        }
+
+        @Override
+        public int present(int offset, int length, RecordListener listener) {
+            presents.add(offset + "+" + length);
+            for (int i = 0; i < length; i++) {
+                listener.onRecord(new DefaultRecord(offset + i,
+                        ("record " + (offset + i)).getBytes(StandardCharsets.US_ASCII)));
+            }
+            return length;
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+
+    private static class Collector implements Flow.Subscriber<Record> {
+
+        private final List<Record> records = new ArrayList<>();
+
+        private Flow.Subscription subscription;
+
+        private boolean complete;
+
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Record item) {
+            records.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.complete = true;
+        }
+    }
+}
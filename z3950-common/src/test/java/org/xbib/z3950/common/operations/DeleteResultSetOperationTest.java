@@ -0,0 +1,130 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.v3.DeleteResultSetRequest;
+import org.xbib.z3950.common.v3.DeleteSetStatus;
+import org.xbib.z3950.common.v3.ResultSetId;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Deletion of result sets against a scripted target.
+ */
+class DeleteResultSetOperationTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    private static final List<String> DBS = List.of("db");
+
+    @Test
+    void testDelete() throws IOException {
+        Target target = new Target(DeleteSetStatus.E_SUCCESS);
+        DeleteResultSetOperation operation = new DeleteResultSetOperation(target, target);
+        assertTrue(operation.execute(List.of("a", "b")));
+        assertEquals(List.of(List.of("a", "b")), target.deleted);
+        assertEquals(DeleteSetStatus.E_SUCCESS, operation.getStatus());
+    }
+
+    @Test
+    void testNotDeleted() throws IOException {
+        Target target = new Target(DeleteSetStatus.E_RESULT_SET_IN_USE);
+        DeleteResultSetOperation operation = new DeleteResultSetOperation(target, target);
+        assertFalse(operation.execute(List.of("a")));
+        assertEquals(DeleteSetStatus.E_RESULT_SET_IN_USE, operation.getStatus());
+    }
+
+    @Test
+    void testEvictedResultSetsAreDeleted() {
+        Target target = new Target(DeleteSetStatus.E_SUCCESS);
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        ResultSetLifecycle lifecycle = ResultSetLifecycle.start(manager,
+                new ReferenceIdMultiplexer(target, target, 1), 0);
+        try {
+            manager.complete(manager.allocate("pqf", "a", DBS), 1);
+            manager.complete(manager.allocate("pqf", "b", DBS), 1);
+            // evicts a, which gets a new name until it is deleted
+            assertEquals("rs-3", manager.allocate("pqf", "c", DBS).getName());
+            assertTrue(manager.hasExpired());
+            lifecycle.delete();
+            assertEquals(List.of(List.of("rs-1")), target.deleted);
+            assertFalse(manager.hasExpired());
+            // the name of the deleted result set is reused
+            assertEquals("rs-1", manager.allocate("pqf", "d", DBS).getName());
+        } finally {
+            lifecycle.close();
+        }
+    }
+
+    @Test
+    void testIdleResultSetsAreDeleted() {
+        Target target = new Target(DeleteSetStatus.E_SUCCESS);
+        ResultSetManager manager = new ResultSetManager("rs", 4);
+        ResultSetLifecycle lifecycle = ResultSetLifecycle.start(manager,
+                new ReferenceIdMultiplexer(target, target, 1), 60000);
+        try {
+            manager.complete(manager.allocate("pqf", "a", DBS), 1);
+            lifecycle.delete();
+            assertTrue(target.deleted.isEmpty());
+            manager.expireIdle(0);
+            lifecycle.delete();
+            assertEquals(List.of(List.of("rs-1")), target.deleted);
+            assertEquals(0, manager.size());
+        } finally {
+            lifecycle.close();
+        }
+    }
+
+    /**
+     * Answers delete result set requests with the given status.
+     */
+    static class Target implements BERReader, BERWriter {
+
+        private final int status;
+
+        private final List<List<String>> deleted = new ArrayList<>();
+
+        private BEREncoding response;
+
+        Target(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            try {
+                DeleteResultSetRequest request = new DeleteResultSetRequest(ber, false);
+                List<String> names = new ArrayList<>();
+                for (ResultSetId id : request.sResultSetList) {
+                    names.add(id.value.value.get());
+                }
+                if (status == DeleteSetStatus.E_SUCCESS) {
+                    deleted.add(names);
+                }
+                response = new BERConstructed(C, 27, new BEREncoding[] {new ASN1Integer(status).berEncode(C, 0)});
+            } catch (ASN1Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public BEREncoding read() {
+            return response;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
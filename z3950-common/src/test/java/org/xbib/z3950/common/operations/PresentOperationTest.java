@@ -0,0 +1,277 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1ObjectIdentifier;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.ByteArrayBERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.api.Record;
+import org.xbib.z3950.common.v3.PresentRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Present operation against a scripted target.
+ */
+class PresentOperationTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testPipelinedPresent() throws IOException {
+        List<String> events = new ArrayList<>();
+        Target target = new Target(events, 1000);
+        PresentOperation present = new PresentOperation(target, target, "default", "F", "1.2.840.10003.5.10");
+        present.executePipelined(1, 50, 100, 20000, null,
+                record -> events.add("record " + record.getNumber()));
+        List<String> requests = events.stream().filter(e -> e.startsWith("request")).toList();
+        // the first batch is estimated, the next batches are sized from the observed records
+        assertEquals("request 1 4", requests.get(0));
+        assertEquals("request 5 18", requests.get(1));
+        assertEquals("request 23 18", requests.get(2));
+        assertEquals("request 41 10", requests.get(3));
+        assertEquals(4, requests.size());
+        // the next request is sent before the records of the current batch are delivered
+        assertEquals(events.indexOf("request 5 18") + 1, events.indexOf("record 1"));
+        assertEquals(events.indexOf("record 4") + 1, events.indexOf("request 23 18"));
+        assertEquals(50, events.stream().filter(e -> e.startsWith("record")).count());
+        assertEquals("record 50", events.get(events.size() - 1));
+    }
+
+    @Test
+    void testPresent() throws IOException {
+        List<String> events = new ArrayList<>();
+        Target target = new Target(events, 1000);
+        PresentOperation present = new PresentOperation(target, target, "default", "F", "1.2.840.10003.5.10");
+        present.execute(1, 50, 10, null, record -> events.add("record " + record.getNumber()));
+        assertEquals("request 1 10", events.get(0));
+        assertEquals(11, events.size());
+    }
+
+    @Test
+    void testSegmentedPresent() throws IOException {
+        List<String> events = new ArrayList<>();
+        Target target = new Target(events, 1000);
+        target.segmentSize = 4;
+        PresentOperation present = new PresentOperation(target, target, "default", "F", "1.2.840.10003.5.10");
+        present.setMaxSegmentSize(5000);
+        present.execute(1, 10, 10, null, record -> events.add("record " + record.getNumber()));
+        // two segments of 4 records, then the response with the last 2 records
+        assertEquals(List.of("request 1 10", "segment 4", "segment 4", "response 2"), events.stream()
+                .filter(e -> !e.startsWith("record")).toList());
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(1, events.stream().filter(("record " + i)::equals).count());
+        }
+        assertEquals("record 10", events.get(events.size() - 1));
+    }
+
+    @Test
+    void testFragmentedRecord() throws IOException, ASN1Exception {
+        Script script = new Script();
+        // record 1 is complete, record 2 starts in the first segment and ends in the response
+        script.responses.add(new BERConstructed(C, 45, new BEREncoding[] {
+                new ASN1Integer(1).berEncode(C, 24),
+                new BERConstructed(C, 0, new BEREncoding[] {
+                        ((BERConstructed) records(1, 10)).elementAt(0),
+                        fragment(3, "Hello, ")
+                })
+        }));
+        script.responses.add(new BERConstructed(C, 45, new BEREncoding[] {
+                new ASN1Integer(0).berEncode(C, 24),
+                new BERConstructed(C, 0, new BEREncoding[] {fragment(4, "fragmented ")})
+        }));
+        script.responses.add(new BERConstructed(C, 25, new BEREncoding[] {
+                new ASN1Integer(2).berEncode(C, 24),
+                new ASN1Integer(3).berEncode(C, 25),
+                new ASN1Integer(0).berEncode(C, 27),
+                new BERConstructed(C, 28, new BEREncoding[] {fragment(5, "World")})
+        }));
+        List<Record> records = new ArrayList<>();
+        PresentOperation present = new PresentOperation(script, script, "default", "F", "1.2.840.10003.5.10");
+        present.setMaxSegmentSize(5000);
+        present.execute(1, 2, 2, null, records::add);
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).getNumber());
+        assertEquals(2, records.get(1).getNumber());
+        assertEquals("Hello, fragmented World", records.get(1).toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testRecordsFromReceivedEncoding() throws IOException, ASN1Exception {
+        BEREncoding response = new BERConstructed(C, 25, new BEREncoding[] {
+                new ASN1Integer(3).berEncode(C, 24),
+                new ASN1Integer(4).berEncode(C, 25),
+                new ASN1Integer(0).berEncode(C, 27),
+                new BERConstructed(C, 28, new BEREncoding[] {
+                        record("first".getBytes(StandardCharsets.US_ASCII)),
+                        fragment(3, "sec"),
+                        fragment(5, "ond"),
+                        record("third".getBytes(StandardCharsets.US_ASCII))
+                })
+        });
+        byte[] buffer = response.getEncoding();
+        Script script = new Script();
+        script.responses.add(new ByteArrayBERReader(buffer, 0, buffer.length, true).read());
+        List<Record> records = new ArrayList<>();
+        PresentOperation present = new PresentOperation(script, script, "default", "F", "1.2.840.10003.5.10");
+        present.execute(1, 3, 3, null, records::add);
+        assertEquals(List.of("first", "second", "third"), records.stream()
+                .map(record -> record.toString(StandardCharsets.US_ASCII)).toList());
+        assertEquals(3, records.get(2).getNumber());
+    }
+
+    @Test
+    void testClose() throws ASN1Exception {
+        Script script = new Script();
+        // the target closes the session after a segment, instead of the response
+        script.responses.add(new BERConstructed(C, 45, new BEREncoding[] {
+                new ASN1Integer(1).berEncode(C, 24),
+                new BERConstructed(C, 0, new BEREncoding[] {((BERConstructed) records(1, 10)).elementAt(0)})
+        }));
+        script.responses.add(new BERConstructed(C, 48, new BEREncoding[] {
+                new ASN1Integer(2).berEncode(C, 211)
+        }));
+        List<Record> records = new ArrayList<>();
+        PresentOperation present = new PresentOperation(script, script, "default", "F", "1.2.840.10003.5.10");
+        present.setMaxSegmentSize(5000);
+        IOException e = assertThrows(IOException.class, () -> present.execute(1, 2, 2, null, records::add));
+        assertTrue(e.getMessage().contains("close reason 2"), e.getMessage());
+        assertEquals(1, records.size());
+    }
+
+    private static BEREncoding fragment(int tag, String content) throws ASN1Exception {
+        BEREncoding fragment = new ASN1OctetString(content.getBytes(StandardCharsets.US_ASCII)).berEncode();
+        return new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, new BEREncoding[] {
+                new BERConstructed(C, 1, new BEREncoding[] {
+                        new BERConstructed(C, tag, new BEREncoding[] {fragment})
+                })
+        });
+    }
+
+    /**
+     * Answers any request with the scripted responses.
+     */
+    static class Script implements BERReader, BERWriter {
+
+        private final Deque<BEREncoding> responses = new ArrayDeque<>();
+
+        @Override
+        public void write(BEREncoding ber) {
+        }
+
+        @Override
+        public BEREncoding read() {
+            return responses.poll();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Answers each present request with the requested number of records of a fixed size.
+     * If asked for segments, all but the last records are sent in segments.
+     */
+    static class Target implements BERReader, BERWriter {
+
+        private final List<String> events;
+
+        private final int recordSize;
+
+        private final Deque<BEREncoding> responses;
+
+        private int segmentSize;
+
+        Target(List<String> events, int recordSize) {
+            this.events = events;
+            this.recordSize = recordSize;
+            this.responses = new ArrayDeque<>();
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            try {
+                PresentRequest request = new PresentRequest(ber, false);
+                int start = request.resultSetStartPoint.get();
+                int count = request.numberOfRecordsRequested.get();
+                events.add("request " + start + " " + count);
+                int last = count;
+                if (request.maxSegmentSize != null && 0 < segmentSize) {
+                    while (segmentSize < last) {
+                        responses.add(segment(segmentSize));
+                        last -= segmentSize;
+                    }
+                }
+                responses.add(presentResponse(count, last, start + count));
+            } catch (ASN1Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public BEREncoding read() {
+            BEREncoding ber = responses.poll();
+            if (ber != null && 0 < segmentSize) {
+                boolean segment = ber.getTag() == 45;
+                BERConstructed records = (BERConstructed) ((BERConstructed) ber).elementAt(segment ? 1 : 3);
+                events.add((segment ? "segment " : "response ") + records.numberComponents());
+            }
+            return ber;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private BEREncoding presentResponse(int count, int last, int next) throws ASN1Exception {
+            return new BERConstructed(C, 25, new BEREncoding[] {
+                    new ASN1Integer(count).berEncode(C, 24),
+                    new ASN1Integer(next).berEncode(C, 25),
+                    new ASN1Integer(0).berEncode(C, 27),
+                    records(last, recordSize)
+            });
+        }
+
+        private BEREncoding segment(int count) throws ASN1Exception {
+            BERConstructed records = (BERConstructed) records(count, recordSize);
+            return new BERConstructed(C, 45, new BEREncoding[] {
+                    new ASN1Integer(count).berEncode(C, 24),
+                    new BERConstructed(C, 0, records.getContentElements())
+            });
+        }
+    }
+
+    static BEREncoding records(int count, int recordSize) throws ASN1Exception {
+        BEREncoding[] records = new BEREncoding[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = record(new byte[recordSize]);
+        }
+        return new BERConstructed(C, 28, records);
+    }
+
+    private static BEREncoding record(byte[] content) throws ASN1Exception {
+        BEREncoding external = new BERConstructed(BEREncoding.UNIVERSAL_TAG, 8, new BEREncoding[] {
+                new ASN1ObjectIdentifier(new int[] {1, 2, 840, 10003, 5, 10}).berEncode(),
+                new ASN1OctetString(content).berEncode(C, 1)
+        });
+        BEREncoding record = new BERConstructed(C, 1, new BEREncoding[] {
+                new BERConstructed(C, 1, new BEREncoding[] {external})
+        });
+        return new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, new BEREncoding[] {record});
+    }
+}
@@ -0,0 +1,84 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing of responses by reference id.
+ */
+class ReferenceIdMultiplexerTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testResponsesOutOfOrder() throws IOException, ASN1Exception {
+        Target target = new Target();
+        ReferenceIdMultiplexer multiplexer = new ReferenceIdMultiplexer(target, target, 4);
+        assertTrue(multiplexer.isConcurrent());
+        try (ReferenceIdMultiplexer.Channel a = multiplexer.open();
+             ReferenceIdMultiplexer.Channel b = multiplexer.open()) {
+            a.write(pdu(1));
+            b.write(pdu(2));
+            // the target answers b first, a has to put it aside for b
+            assertEquals(1, value(a.read()));
+            assertEquals(2, value(b.read()));
+        }
+    }
+
+    @Test
+    void testWithoutConcurrentOperations() throws IOException, ASN1Exception {
+        Target target = new Target();
+        ReferenceIdMultiplexer multiplexer = new ReferenceIdMultiplexer(target, target, 1);
+        assertFalse(multiplexer.isConcurrent());
+        try (ReferenceIdMultiplexer.Channel a = multiplexer.open()) {
+            a.write(pdu(1));
+            BEREncoding response = a.read();
+            assertEquals(1, ((BERConstructed) response).numberComponents());
+            assertEquals(1, value(response));
+        }
+    }
+
+    private static BEREncoding pdu(int value) throws ASN1Exception {
+        return new BERConstructed(C, 22, new BEREncoding[] {new ASN1Integer(value).berEncode(C, 23)});
+    }
+
+    private static int value(BEREncoding ber) throws ASN1Exception {
+        BERConstructed constructed = (BERConstructed) ber;
+        return new ASN1Integer(constructed.elementAt(constructed.numberComponents() - 1), false).get();
+    }
+
+    /**
+     * Echoes the requests, the last one first.
+     */
+    static class Target implements BERReader, BERWriter {
+
+        private final Deque<BEREncoding> requests = new ArrayDeque<>();
+
+        @Override
+        public void write(BEREncoding ber) {
+            requests.push(ber);
+        }
+
+        @Override
+        public BEREncoding read() {
+            return requests.poll();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
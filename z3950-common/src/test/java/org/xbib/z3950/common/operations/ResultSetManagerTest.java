@@ -0,0 +1,134 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reuse and eviction of result sets.
+ */
+class ResultSetManagerTest {
+
+    private static final List<String> DBS = List.of("db");
+
+    @Test
+    void testReuse() {
+        ResultSetManager manager = new ResultSetManager("default", 4);
+        assertNull(manager.lookup("cql", "dc.title = test", DBS));
+        ResultSetManager.ResultSet resultSet = manager.allocate("cql", "dc.title = test", DBS);
+        assertEquals("default-1", resultSet.getName());
+        assertFalse(resultSet.isComplete());
+        manager.complete(resultSet, 42);
+        // the query is normalized
+        ResultSetManager.ResultSet found = manager.lookup("cql", " dc.title  =   test ", DBS);
+        assertSame(resultSet, found);
+        assertTrue(found.isComplete());
+        assertEquals(42, found.getCount());
+        // a different query type or database list is a different result set
+        assertNull(manager.lookup("pqf", "dc.title = test", DBS));
+        assertNull(manager.lookup("cql", "dc.title = test", List.of("db", "other")));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        ResultSetManager.ResultSet a = manager.allocate("pqf", "a", DBS);
+        ResultSetManager.ResultSet b = manager.allocate("pqf", "b", DBS);
+        manager.complete(a, 1);
+        manager.complete(b, 2);
+        // a is used again, so b is evicted and its name is reused
+        manager.lookup("pqf", "a", DBS);
+        ResultSetManager.ResultSet c = manager.allocate("pqf", "c", DBS);
+        assertEquals(b.getName(), c.getName());
+        assertNull(manager.lookup("pqf", "b", DBS));
+        assertSame(a, manager.lookup("pqf", "a", DBS));
+        assertEquals(2, manager.size());
+    }
+
+    @Test
+    void testRemove() {
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        ResultSetManager.ResultSet a = manager.allocate("pqf", "a", DBS);
+        manager.remove(a);
+        assertNull(manager.lookup("pqf", "a", DBS));
+        assertEquals(a.getName(), manager.allocate("pqf", "b", DBS).getName());
+        manager.clear();
+        assertEquals(0, manager.size());
+        assertEquals("rs-1", manager.allocate("pqf", "c", DBS).getName());
+    }
+
+    @Test
+    void testPinnedResultSetsAreNotEvicted() {
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        ResultSetManager.ResultSet a = manager.allocate("pqf", "a", DBS);
+        ResultSetManager.ResultSet b = manager.allocate("pqf", "b", DBS);
+        // a is searched, b is presented
+        assertTrue(manager.pin(b));
+        manager.complete(b, 2);
+        ResultSetManager.ResultSet c = manager.allocate("pqf", "c", DBS);
+        // all result sets are in use, so there is one more than the maximum
+        assertEquals(3, manager.size());
+        assertNotEquals(a.getName(), c.getName());
+        assertNotEquals(b.getName(), c.getName());
+        manager.complete(a, 1);
+        manager.complete(c, 3);
+        // the least recently used result set that is not pinned is evicted
+        ResultSetManager.ResultSet d = manager.allocate("pqf", "d", DBS);
+        assertEquals(a.getName(), d.getName());
+        assertSame(b, manager.lookup("pqf", "b", DBS));
+        manager.unpin(b);
+    }
+
+    @Test
+    void testRemovedWhilePinned() {
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        manager.setDeleteExpired(true);
+        ResultSetManager.ResultSet a = manager.allocate("pqf", "a", DBS);
+        assertTrue(manager.pin(a));
+        manager.complete(a, 1);
+        manager.expire(a);
+        assertNull(manager.lookup("pqf", "a", DBS));
+        // the name is kept until the result set is unpinned
+        assertTrue(manager.isValid(a));
+        assertFalse(manager.hasExpired());
+        assertNotEquals(a.getName(), manager.allocate("pqf", "b", DBS).getName());
+        manager.unpin(a);
+        assertFalse(manager.isValid(a));
+        assertEquals(List.of(a.getName()), manager.drainExpired());
+    }
+
+    @Test
+    void testReplacedWhileSearching() {
+        ResultSetManager manager = new ResultSetManager("rs", 4);
+        ResultSetManager.ResultSet first = manager.allocate("pqf", "a", DBS);
+        ResultSetManager.ResultSet second = manager.allocate("pqf", "a", DBS);
+        // the first search still writes to its result set
+        assertNotEquals(first.getName(), second.getName());
+        assertTrue(manager.isValid(first));
+        manager.complete(first, 1);
+        assertFalse(manager.isValid(first));
+        assertFalse(manager.pin(first));
+        manager.complete(second, 1);
+        assertEquals(first.getName(), manager.allocate("pqf", "b", DBS).getName());
+    }
+
+    @Test
+    void testClearInvalidatesPinnedResultSets() {
+        ResultSetManager manager = new ResultSetManager("rs", 2);
+        ResultSetManager.ResultSet a = manager.allocate("pqf", "a", DBS);
+        assertTrue(manager.pin(a));
+        manager.clear();
+        assertFalse(manager.isValid(a));
+        // a late unpin does not release the name into the new session
+        manager.unpin(a);
+        assertEquals("rs-1", manager.allocate("pqf", "b", DBS).getName());
+        assertEquals("rs-2", manager.allocate("pqf", "c", DBS).getName());
+    }
+}
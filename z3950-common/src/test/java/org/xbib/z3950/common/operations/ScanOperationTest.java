@@ -0,0 +1,148 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1GeneralString;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.v3.AttributeElement;
+import org.xbib.z3950.common.v3.AttributeList;
+import org.xbib.z3950.common.v3.AttributesPlusTerm;
+import org.xbib.z3950.common.v3.ScanRequest;
+import org.xbib.z3950.common.v3.Term;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Scan and browse against a scripted index.
+ */
+class ScanOperationTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testScan() throws IOException {
+        List<String> events = new ArrayList<>();
+        Index index = new Index(events, 30);
+        ScanOperation scan = new ScanOperation(index, index, Collections.singletonList("db"));
+        List<String> terms = new ArrayList<>();
+        assertEquals(5, scan.scan(5, 0, 1, term("t10"), t -> {
+            terms.add(t.getTerm(StandardCharsets.UTF_8));
+            assertEquals(t.getTerm(StandardCharsets.UTF_8).toUpperCase(), t.getDisplayTerm());
+            assertEquals(Integer.parseInt(t.getTerm(StandardCharsets.UTF_8).substring(1)) + 1, t.getGlobalOccurrences());
+        }));
+        assertEquals(List.of("t10", "t11", "t12", "t13", "t14"), terms);
+    }
+
+    @Test
+    void testBrowseForward() throws IOException {
+        List<String> events = new ArrayList<>();
+        Index index = new Index(events, 30);
+        ScanOperation scan = new ScanOperation(index, index, Collections.singletonList("db"));
+        assertEquals(20, scan.browse(term("t10"), 8, true, 0,
+                t -> events.add("term " + t.getTerm(StandardCharsets.UTF_8))));
+        List<String> requests = events.stream().filter(e -> e.startsWith("request")).toList();
+        assertEquals(List.of("request t10 8 1", "request t17 9 1", "request t25 9 1"), requests);
+        // the next page is requested before the terms of the current page are delivered
+        assertEquals(events.indexOf("request t17 9 1") + 1, events.indexOf("term t10"));
+        List<String> terms = events.stream().filter(e -> e.startsWith("term")).toList();
+        assertEquals(20, terms.size());
+        assertEquals("term t10", terms.get(0));
+        assertEquals("term t29", terms.get(19));
+        assertEquals(20, terms.stream().distinct().count());
+    }
+
+    @Test
+    void testBrowseBackwardWithLimit() throws IOException {
+        List<String> events = new ArrayList<>();
+        Index index = new Index(events, 30);
+        ScanOperation scan = new ScanOperation(index, index, Collections.singletonList("db"));
+        List<String> terms = new ArrayList<>();
+        assertEquals(7, scan.browse(term("t20"), 4, false, 7, t -> terms.add(t.getTerm(StandardCharsets.UTF_8))));
+        assertEquals(List.of("t20", "t19", "t18", "t17", "t16", "t15", "t14"), terms);
+        List<String> requests = events.stream().filter(e -> e.startsWith("request")).toList();
+        assertEquals(List.of("request t20 4 4", "request t17 5 5"), requests);
+        assertNull(index.response);
+    }
+
+    private static AttributesPlusTerm term(String term) {
+        AttributesPlusTerm attributesPlusTerm = new AttributesPlusTerm();
+        attributesPlusTerm.attributes = new AttributeList();
+        attributesPlusTerm.attributes.value = new AttributeElement[0];
+        attributesPlusTerm.term = new Term();
+        attributesPlusTerm.term.c_general = new ASN1OctetString(term.getBytes(StandardCharsets.UTF_8));
+        return attributesPlusTerm;
+    }
+
+    /**
+     * An index of the terms t00, t01, ..., where term tNN has NN + 1 occurrences.
+     */
+    static class Index implements BERReader, BERWriter {
+
+        private final List<String> events;
+
+        private final List<String> terms;
+
+        private BEREncoding response;
+
+        Index(List<String> events, int size) {
+            this.events = events;
+            this.terms = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                terms.add(String.format("t%02d", i));
+            }
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            try {
+                ScanRequest request = new ScanRequest(ber, false);
+                String start = request.termListAndStartPoint.term.c_general.get();
+                int n = request.numberOfTermsRequested.get();
+                int position = request.preferredPositionInResponse.get();
+                events.add("request " + start + " " + n + " " + position);
+                int i = Collections.binarySearch(terms, start);
+                int from = Math.max(0, (i < 0 ? -i - 1 : i) - (position - 1));
+                int to = Math.min(terms.size(), from + n);
+                BEREncoding[] entries = new BEREncoding[to - from];
+                for (int j = from; j < to; j++) {
+                    String term = terms.get(j);
+                    entries[j - from] = new BERConstructed(C, 1, new BEREncoding[] {
+                            new ASN1OctetString(term.getBytes(StandardCharsets.UTF_8)).berEncode(C, 45),
+                            new ASN1GeneralString(term.toUpperCase()).berEncode(C, 0),
+                            new ASN1Integer(j + 1).berEncode(C, 2)
+                    });
+                }
+                response = new BERConstructed(C, 36, new BEREncoding[] {
+                        new ASN1Integer(0).berEncode(C, 4),
+                        new ASN1Integer(entries.length).berEncode(C, 5),
+                        new BERConstructed(C, 7, new BEREncoding[] {new BERConstructed(C, 1, entries)})
+                });
+            } catch (ASN1Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public BEREncoding read() {
+            BEREncoding ber = response;
+            response = null;
+            return ber;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.xbib.z3950.common.operations;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Boolean;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1GeneralString;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1ObjectIdentifier;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.io.BERReader;
+import org.xbib.asn1.io.BERWriter;
+import org.xbib.z3950.common.v3.AttributeSetId;
+import org.xbib.z3950.common.v3.InternationalString;
+import org.xbib.z3950.common.v3.Operand;
+import org.xbib.z3950.common.v3.RPNQuery;
+import org.xbib.z3950.common.v3.RPNStructure;
+import org.xbib.z3950.common.v3.ResultSetId;
+import org.xbib.z3950.common.v3.SearchRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Search operation against a scripted target.
+ */
+class SearchOperationTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testPiggybackPresent() throws IOException {
+        Target target = new Target(25);
+        SearchOperation search = new SearchOperation(target, target, "default", Collections.singletonList("db"), "host");
+        search.setPiggybackPresent(10, "F", "1.2.840.10003.5.10");
+        search.execute(query());
+        assertEquals(10, target.request.smallSetUpperBound.get());
+        assertEquals(10, target.request.mediumSetPresentNumber.get());
+        assertNotNull(target.request.preferredRecordSyntax);
+        assertNotNull(target.request.mediumSetElementSetNames);
+        assertEquals(25, search.getCount());
+        List<Integer> numbers = new ArrayList<>();
+        assertEquals(10, search.deliverRecords(null, record -> numbers.add(record.getNumber())));
+        assertEquals(10, numbers.size());
+        assertEquals(1, (int) numbers.get(0));
+        assertEquals(10, (int) numbers.get(9));
+    }
+
+    @Test
+    void testWithoutPiggybackPresent() throws IOException {
+        Target target = new Target(25);
+        SearchOperation search = new SearchOperation(target, target, "default", Collections.singletonList("db"), "host");
+        search.execute(query());
+        assertEquals(0, target.request.smallSetUpperBound.get());
+        assertEquals(1, target.request.largeSetLowerBound.get());
+        assertEquals(0, search.deliverRecords(null, record -> { }));
+    }
+
+    private static RPNQuery query() {
+        RPNQuery query = new RPNQuery();
+        query.attributeSetId = new AttributeSetId();
+        query.attributeSetId.value = new ASN1ObjectIdentifier(new int[] {1, 2, 840, 10003, 3, 1});
+        query.rpn = new RPNStructure();
+        query.rpn.c_op = new Operand();
+        query.rpn.c_op.resultSet = new ResultSetId();
+        query.rpn.c_op.resultSet.value = new InternationalString();
+        query.rpn.c_op.resultSet.value.value = new ASN1GeneralString("previous");
+        return query;
+    }
+
+    /**
+     * Answers a search request with a result set of the given size, and returns
+     * records as asked for by the small set and medium set parameters.
+     */
+    static class Target implements BERReader, BERWriter {
+
+        private final int count;
+
+        private SearchRequest request;
+
+        private BEREncoding response;
+
+        Target(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void write(BEREncoding ber) throws IOException {
+            try {
+                request = new SearchRequest(ber, false);
+                int n = 0;
+                if (count <= request.smallSetUpperBound.get()) {
+                    n = count;
+                } else if (count < request.largeSetLowerBound.get()) {
+                    n = request.mediumSetPresentNumber.get();
+                }
+                List<BEREncoding> parts = new ArrayList<>();
+                parts.add(new ASN1Integer(count).berEncode(C, 23));
+                parts.add(new ASN1Integer(n).berEncode(C, 24));
+                parts.add(new ASN1Integer(n + 1).berEncode(C, 25));
+                parts.add(new ASN1Boolean(true).berEncode(C, 22));
+                if (0 < n) {
+                    parts.add(new ASN1Integer(0).berEncode(C, 27));
+                    parts.add(PresentOperationTest.records(n, 100));
+                }
+                response = new BERConstructed(C, 23, parts.toArray(new BEREncoding[0]));
+            } catch (ASN1Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public BEREncoding read() {
+            return response;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
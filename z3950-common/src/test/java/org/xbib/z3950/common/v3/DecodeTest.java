@@ -0,0 +1,100 @@
+package org.xbib.z3950.common.v3;
+
+import org.junit.jupiter.api.Test;
+import org.xbib.asn1.ASN1Boolean;
+import org.xbib.asn1.ASN1Exception;
+import org.xbib.asn1.ASN1Integer;
+import org.xbib.asn1.ASN1ObjectIdentifier;
+import org.xbib.asn1.ASN1OctetString;
+import org.xbib.asn1.ASN1VisibleString;
+import org.xbib.asn1.BERConstructed;
+import org.xbib.asn1.BEREncoding;
+import org.xbib.asn1.StacklessASN1EncodingException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Decoding of optional components and choices by tag lookahead, and the generated codec.
+ */
+class DecodeTest {
+
+    private static final int C = BEREncoding.CONTEXT_SPECIFIC_TAG;
+
+    @Test
+    void testSearchResponseWithoutOptionals() throws ASN1Exception {
+        SearchResponse response = new SearchResponse(searchResponse(), true);
+        assertNull(response.referenceId);
+        assertNull(response.s_presentStatus);
+        assertNull(response.s_records);
+        assertNull(response.s_otherInfo);
+        assertEquals(42, response.resultCount.get());
+    }
+
+    @Test
+    void testSearchResponseWithOptionals() throws ASN1Exception {
+        BERConstructed plain = (BERConstructed) searchResponse();
+        BEREncoding[] parts = new BEREncoding[plain.numberComponents() + 2];
+        parts[0] = new ASN1OctetString("ref").berEncode(C, 2);
+        for (int i = 0; i < plain.numberComponents(); i++) {
+            parts[i + 1] = plain.elementAt(i);
+        }
+        parts[parts.length - 1] = new ASN1Integer(0).berEncode(C, 27);
+        SearchResponse response = new SearchResponse(new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, parts), true);
+        assertEquals("ref", response.referenceId.value.get());
+        assertNotNull(response.s_presentStatus);
+        assertNull(response.s_records);
+    }
+
+    @Test
+    void testDiagRecChoice() throws ASN1Exception {
+        BEREncoding[] parts = new BEREncoding[] {
+                new ASN1ObjectIdentifier(new int[] {1, 2, 840, 10003, 4, 1}).berEncode(),
+                new ASN1Integer(114).berEncode(),
+                new ASN1VisibleString("use attribute").berEncode()
+        };
+        DiagRec diagRec = new DiagRec(new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, parts), true);
+        assertNull(diagRec.externallyDefined);
+        assertEquals(114, diagRec.defaultFormat.condition.get());
+        assertEquals("use attribute", diagRec.defaultFormat.addinfo.v2Addinfo.get());
+        ASN1Exception e = assertThrows(ASN1Exception.class, () -> new DiagRec(new ASN1Integer(1).berEncode(), true));
+        assertEquals(StacklessASN1EncodingException.class, e.getClass());
+        assertEquals(0, e.getStackTrace().length);
+        // each throw has an instance of its own
+        assertNotSame(e, assertThrows(ASN1Exception.class, () -> new DiagRec(new ASN1Integer(1).berEncode(), true)));
+    }
+
+    @Test
+    void testPresentResponseRoundTrip() throws ASN1Exception {
+        PresentResponse response = new PresentResponse(new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, new BEREncoding[] {
+                new ASN1Integer(0).berEncode(C, 24),
+                new ASN1Integer(1).berEncode(C, 25),
+                new ASN1Integer(0).berEncode(C, 27)
+        }), true);
+        assertNull(response.referenceId);
+        assertNull(response.records);
+        response.referenceId = new ReferenceId(new ASN1OctetString("ref").berEncode(C, 2), true);
+        PresentResponse decoded = new PresentResponse(response.berEncode(), true);
+        assertEquals("ref", decoded.referenceId.value.get());
+        assertEquals(1, decoded.nextResultSetPosition.get());
+        assertNull(decoded.otherInfo);
+        assertArrayEquals(response.berEncode().getEncoding(), decoded.berEncode().getEncoding());
+        decoded.presentStatus = null;
+        ASN1Exception e = assertThrows(ASN1Exception.class, decoded::berEncode);
+        assertEquals("missing presentStatus", e.getMessage());
+    }
+
+    private static BEREncoding searchResponse() throws ASN1Exception {
+        BEREncoding[] parts = new BEREncoding[] {
+                new ASN1Integer(42).berEncode(C, 23),
+                new ASN1Integer(0).berEncode(C, 24),
+                new ASN1Integer(1).berEncode(C, 25),
+                new ASN1Boolean(true).berEncode(C, 22)
+        };
+        return new BERConstructed(BEREncoding.UNIVERSAL_TAG, 16, parts);
+    }
+}